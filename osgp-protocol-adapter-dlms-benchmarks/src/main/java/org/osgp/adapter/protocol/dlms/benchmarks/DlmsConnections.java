@@ -0,0 +1,66 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.benchmarks;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.openmuc.jdlms.AccessResultCode;
+import org.openmuc.jdlms.AttributeAddress;
+import org.openmuc.jdlms.DlmsConnection;
+import org.openmuc.jdlms.GetResult;
+import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsMessageListener;
+
+/**
+ * Stubbed device connections.
+ */
+final class DlmsConnections {
+
+    private static final int CLASS_ID_PROFILE_GENERIC = 7;
+
+    private DlmsConnections() {
+        // Only static factory methods.
+    }
+
+    /**
+     * The periodic meter reads executors retrieve the buffer and the
+     * scaler_unit attributes with separate requests, so the answer depends on
+     * the requested attribute.
+     */
+    static DlmsConnectionHolder returning(final DataObject bufferData, final DataObject scalerUnit)
+            throws IOException {
+        final List<GetResult> bufferResult = Collections.singletonList(getResult(bufferData));
+        final List<GetResult> scalerUnitResult = Collections.singletonList(getResult(scalerUnit));
+
+        final DlmsConnection dlmsConnection = mock(DlmsConnection.class);
+        when(dlmsConnection.get(anyListOf(AttributeAddress.class))).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final List<AttributeAddress> addresses = (List<AttributeAddress>) invocation.getArguments()[0];
+            return addresses.get(0).getClassId() == CLASS_ID_PROFILE_GENERIC ? bufferResult : scalerUnitResult;
+        });
+
+        final DlmsConnectionHolder connectionHolder = mock(DlmsConnectionHolder.class);
+        when(connectionHolder.getConnection()).thenReturn(dlmsConnection);
+        when(connectionHolder.getDlmsMessageListener()).thenReturn(mock(DlmsMessageListener.class));
+        return connectionHolder;
+    }
+
+    private static GetResult getResult(final DataObject resultData) {
+        final GetResult getResult = mock(GetResult.class);
+        when(getResult.getResultCode()).thenReturn(AccessResultCode.SUCCESS);
+        when(getResult.getResultData()).thenReturn(resultData);
+        return getResult;
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Period;
+import org.openmuc.jdlms.datatypes.CosemDateTime;
+import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.domain.commands.DlmsHelperService;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventLogCategoryDto;
+
+/**
+ * Synthetic DLMS data, shaped like what the meters return.
+ */
+final class DlmsDataObjects {
+
+    static final DateTime FIRST_CAPTURE_TIME = new DateTime(2017, 1, 1, 0, 0, DateTimeZone.forID("Europe/Amsterdam"));
+
+    private static final DlmsHelperService DLMS_HELPER_SERVICE = new DlmsHelperService();
+
+    private static final byte[] OBIS_CLOCK = new byte[] { 0, 0, 1, 0, 0, (byte) 255 };
+    private static final byte[] OBIS_AMR_PROFILE_STATUS = new byte[] { 0, 0, 96, 10, 2, (byte) 255 };
+    private static final byte[] OBIS_MBUS_MASTER_VALUE = new byte[] { 0, 1, 24, 2, 1, (byte) 255 };
+
+    private DlmsDataObjects() {
+        // Only static factory methods.
+    }
+
+    /**
+     * @return a date-time as octet string, as the meters send it.
+     */
+    static DataObject dateTime(final DateTime dateTime) {
+        return DataObject.newOctetStringData(dateTimeBytes(dateTime));
+    }
+
+    static byte[] dateTimeBytes(final DateTime dateTime) {
+        final CosemDateTime cosemDateTime = DLMS_HELPER_SERVICE.asDataObject(dateTime).getValue();
+        return cosemDateTime.encode();
+    }
+
+    /**
+     * @return a scaler_unit structure for m3 with the given scaler.
+     */
+    static DataObject scalerUnit(final int scaler) {
+        return DataObject.newStructureData(
+                Arrays.asList(DataObject.newInteger8Data((byte) scaler), DataObject.newEnumerateData(14)));
+    }
+
+    /**
+     * E meter interval profile buffer entries: clock, AMR profile status,
+     * active energy import and active energy export.
+     */
+    static DataObject electricityIntervalBuffer(final int entries, final Period interval) {
+        final List<DataObject> buffer = new ArrayList<>(entries);
+        DateTime captureTime = FIRST_CAPTURE_TIME;
+        for (int i = 0; i < entries; i++) {
+            buffer.add(DataObject.newStructureData(Arrays.asList(dateTime(captureTime), amrProfileStatus(i),
+                    DataObject.newUInteger32Data(1000000L + 25L * i), DataObject.newUInteger32Data(20000L + 3L * i))));
+            captureTime = captureTime.plus(interval);
+        }
+        return DataObject.newArrayData(buffer);
+    }
+
+    /**
+     * Gas interval profile buffer entries: clock, AMR profile status, M-Bus
+     * value and M-Bus capture time.
+     */
+    static DataObject gasIntervalBuffer(final int entries, final Period interval) {
+        final List<DataObject> buffer = new ArrayList<>(entries);
+        DateTime captureTime = FIRST_CAPTURE_TIME;
+        for (int i = 0; i < entries; i++) {
+            buffer.add(DataObject.newStructureData(Arrays.asList(dateTime(captureTime), amrProfileStatus(i),
+                    DataObject.newUInteger32Data(1000L + i), dateTime(captureTime.minusMinutes(5)))));
+            captureTime = captureTime.plus(interval);
+        }
+        return DataObject.newArrayData(buffer);
+    }
+
+    /**
+     * Monthly billing buffer entries without selective access: clock, four E
+     * registers and value and capture time for four M-Bus channels.
+     */
+    static DataObject monthlyBuffer(final int entries) {
+        final List<DataObject> buffer = new ArrayList<>(entries);
+        DateTime captureTime = FIRST_CAPTURE_TIME;
+        for (int i = 0; i < entries; i++) {
+            final List<DataObject> entry = new ArrayList<>(13);
+            entry.add(dateTime(captureTime));
+            for (int register = 0; register < 4; register++) {
+                entry.add(DataObject.newUInteger32Data(100000L + 10 * i + register));
+            }
+            for (int channel = 0; channel < 4; channel++) {
+                entry.add(DataObject.newUInteger32Data(2000L + i + channel));
+                entry.add(dateTime(captureTime.minusMinutes(5)));
+            }
+            buffer.add(DataObject.newStructureData(entry));
+            captureTime = captureTime.plusMonths(1);
+        }
+        return DataObject.newArrayData(buffer);
+    }
+
+    /**
+     * @return a full event log of the given category.
+     */
+    static DataObject eventLog(final EventLogCategoryDto category, final int entries) {
+        final List<DataObject> events = new ArrayList<>(entries);
+        DateTime eventTime = FIRST_CAPTURE_TIME;
+        for (int i = 0; i < entries; i++) {
+            final List<DataObject> event = new ArrayList<>(3);
+            event.add(dateTime(eventTime));
+            event.add(DataObject.newUInteger8Data((short) (i % 256)));
+            if (category.getNumberOfEventElements() == 3) {
+                event.add(DataObject.newUInteger16Data(i));
+            }
+            events.add(DataObject.newStructureData(event));
+            eventTime = eventTime.plusMinutes(17);
+        }
+        return DataObject.newArrayData(events);
+    }
+
+    /**
+     * @return the capture objects of the daily billing profile.
+     */
+    static DataObject captureObjects() {
+        final List<DataObject> captureObjects = new ArrayList<>();
+        captureObjects.add(objectDefinition(8, OBIS_CLOCK, 2));
+        captureObjects.add(objectDefinition(1, OBIS_AMR_PROFILE_STATUS, 2));
+        for (int register = 1; register <= 4; register++) {
+            captureObjects.add(objectDefinition(3, new byte[] { 1, 0, (byte) (register < 3 ? 1 : 2), 8,
+                    (byte) (register % 2 == 1 ? 1 : 2), (byte) 255 }, 2));
+        }
+        for (int channel = 1; channel <= 4; channel++) {
+            final byte[] obisCode = OBIS_MBUS_MASTER_VALUE.clone();
+            obisCode[1] = (byte) channel;
+            captureObjects.add(objectDefinition(4, obisCode, 2));
+            captureObjects.add(objectDefinition(4, obisCode, 5));
+        }
+        return DataObject.newArrayData(captureObjects);
+    }
+
+    private static DataObject objectDefinition(final int classId, final byte[] obisCode, final int attributeIndex) {
+        return DataObject.newStructureData(Arrays.asList(DataObject.newUInteger16Data(classId),
+                DataObject.newOctetStringData(obisCode), DataObject.newInteger8Data((byte) attributeIndex),
+                DataObject.newUInteger16Data(0)));
+    }
+
+    private static DataObject amrProfileStatus(final int i) {
+        return DataObject.newUInteger8Data((short) (i % 7 == 0 ? 0x20 : 0));
+    }
+}
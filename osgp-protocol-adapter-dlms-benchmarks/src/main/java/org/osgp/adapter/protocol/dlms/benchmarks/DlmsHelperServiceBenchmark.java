@@ -0,0 +1,139 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.domain.commands.AlarmHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.AmrProfileStatusCodeHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.DlmsHelperService;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.ScalerUnit;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.AlarmTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.AmrProfileStatusCodeFlagDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.CosemDateTimeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.CosemObjectDefinitionDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsMeterValueDto;
+
+/**
+ * Measures the conversions of single values that are applied to every entry of
+ * profile buffers and event logs.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar DlmsHelperServiceBenchmark -prof gc}
+ * to report the allocation rate next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DlmsHelperServiceBenchmark {
+
+    private final DlmsHelperService dlmsHelperService = new DlmsHelperService();
+
+    private final AmrProfileStatusCodeHelperService amrProfileStatusCodeHelperService = new AmrProfileStatusCodeHelperService();
+
+    private final AlarmHelperService alarmHelperService = new AlarmHelperService();
+
+    private byte[] dateTimeBytes;
+
+    private DataObject dateTime;
+
+    private DataObject meterValue;
+
+    private DataObject scalerUnit;
+
+    private ScalerUnit resolvedScalerUnit;
+
+    private DataObject captureObjects;
+
+    private Short amrProfileStatus;
+
+    private Long alarmRegister;
+
+    private Long singleAlarmRegister;
+
+    @Setup
+    public void setUp() throws ProtocolAdapterException {
+        this.dateTimeBytes = DlmsDataObjects.dateTimeBytes(DlmsDataObjects.FIRST_CAPTURE_TIME);
+        this.dateTime = DlmsDataObjects.dateTime(DlmsDataObjects.FIRST_CAPTURE_TIME);
+        this.meterValue = DataObject.newUInteger32Data(123456L);
+        this.scalerUnit = DlmsDataObjects.scalerUnit(-3);
+        this.resolvedScalerUnit = this.dlmsHelperService.readScalerUnit(this.scalerUnit, "benchmark scaler");
+        this.captureObjects = DlmsDataObjects.captureObjects();
+        this.amrProfileStatus = (short) 0x24;
+        this.alarmRegister = 0x00031003L;
+        this.singleAlarmRegister = 0x01000000L;
+    }
+
+    @Benchmark
+    public CosemDateTimeDto fromDateTimeValue() {
+        return this.dlmsHelperService.fromDateTimeValue(this.dateTimeBytes);
+    }
+
+    @Benchmark
+    public CosemDateTimeDto readDateTime() throws ProtocolAdapterException {
+        return this.dlmsHelperService.readDateTime(this.dateTime, "Clock from benchmark");
+    }
+
+    @Benchmark
+    public long toEpochMillis() {
+        return this.dlmsHelperService.toEpochMillis(this.dateTimeBytes);
+    }
+
+    @Benchmark
+    public long readEpochMillis() throws ProtocolAdapterException {
+        return this.dlmsHelperService.readEpochMillis(this.dateTime, "Clock from benchmark");
+    }
+
+    @Benchmark
+    public DlmsMeterValueDto getScaledMeterValue() throws ProtocolAdapterException {
+        return this.dlmsHelperService.getScaledMeterValue(this.meterValue, this.scalerUnit, "benchmark value");
+    }
+
+    @Benchmark
+    public DlmsMeterValueDto getScaledMeterValueWithResolvedScalerUnit() throws ProtocolAdapterException {
+        return this.dlmsHelperService.getScaledMeterValue(this.meterValue, this.resolvedScalerUnit,
+                "benchmark value");
+    }
+
+    @Benchmark
+    public List<CosemObjectDefinitionDto> readListOfObjectDefinition() throws ProtocolAdapterException {
+        return this.dlmsHelperService.readListOfObjectDefinition(this.captureObjects, "Capture objects");
+    }
+
+    @Benchmark
+    public Set<AmrProfileStatusCodeFlagDto> toAmrProfileStatusCodeFlags() {
+        return this.amrProfileStatusCodeHelperService.toAmrProfileStatusCodeFlags(this.amrProfileStatus);
+    }
+
+    @Benchmark
+    public Set<AlarmTypeDto> toAlarmTypes() {
+        return this.alarmHelperService.toAlarmTypes(this.alarmRegister);
+    }
+
+    @Benchmark
+    public Set<AlarmTypeDto> toAlarmTypesSingleAlarm() {
+        return this.alarmHelperService.toAlarmTypes(this.singleAlarmRegister);
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
+
+/**
+ * Measures the overhead of recording metrics, as done a handful of times per
+ * device request: timing an executor (which includes the two
+ * {@link System#nanoTime()} calls) and counting APDUs. Runs on several threads
+ * to include contention on the shared counters.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar DlmsMetricsBenchmark -prof gc}
+ * to verify recording does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DlmsMetricsBenchmark {
+
+    private final DlmsMetrics dlmsMetrics = new DlmsMetrics();
+
+    @Benchmark
+    public void timeExecutor() {
+        final long start = System.nanoTime();
+        this.dlmsMetrics.timer(DlmsMetrics.Timer.EXECUTOR, "GetPeriodicMeterReadsCommandExecutor").recordSince(start);
+    }
+
+    @Benchmark
+    public void countApdus() {
+        this.dlmsMetrics.counter(DlmsMetrics.Counter.APDUS_SENT).add(12);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.application.mapping.DataObjectToEventListConverter;
+import org.osgp.adapter.protocol.dlms.domain.commands.DlmsHelperService;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventLogCategoryDto;
+
+/**
+ * Measures converting a full event log into events.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar EventLogBenchmark -prof gc}
+ * to report the allocation rate next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventLogBenchmark {
+
+    @Param({ "STANDARD_EVENT_LOG", "M_BUS_EVENT_LOG" })
+    private EventLogCategoryDto eventLogCategory;
+
+    @Param({ "250" })
+    private int entries;
+
+    private final DataObjectToEventListConverter converter = new DataObjectToEventListConverter();
+
+    private DataObject eventLog;
+
+    @Setup
+    public void setUp() {
+        ReflectionTestUtils.setField(this.converter, "dlmsHelperService", new DlmsHelperService());
+        this.eventLog = DlmsDataObjects.eventLog(this.eventLogCategory, this.entries);
+    }
+
+    @Benchmark
+    public List<EventDto> convert() throws ProtocolAdapterException {
+        return this.converter.convert(this.eventLog, this.eventLogCategory);
+    }
+}
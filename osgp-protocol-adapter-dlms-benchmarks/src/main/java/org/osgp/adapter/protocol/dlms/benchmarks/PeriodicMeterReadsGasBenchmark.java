@@ -0,0 +1,99 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.Period;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.domain.commands.AmrProfileStatusCodeHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.DeviceCapabilityHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.DlmsHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.GetPeriodicMeterReadsGasCommandExecutor;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DeviceCapabilityCachingRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.ChannelDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadGasResponseDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsRequestDto;
+
+/**
+ * Measures processing the profile buffer of a periodic gas meter reads
+ * request: a day of quarter-hourly interval values, or a large monthly billing
+ * buffer. The device connection is stubbed, returning the synthetic buffer.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar PeriodicMeterReadsGasBenchmark -prof gc}
+ * to report the allocation rate next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PeriodicMeterReadsGasBenchmark {
+
+    @Param({ "INTERVAL:96", "MONTHLY:3000" })
+    private String buffer;
+
+    private final GetPeriodicMeterReadsGasCommandExecutor executor = new GetPeriodicMeterReadsGasCommandExecutor();
+
+    private DlmsConnectionHolder conn;
+
+    private DlmsDevice device;
+
+    private PeriodicMeterReadsRequestDto request;
+
+    @Setup
+    public void setUp() throws IOException {
+        ReflectionTestUtils.setField(this.executor, "dlmsHelperService", new DlmsHelperService());
+        ReflectionTestUtils.setField(this.executor, "amrProfileStatusCodeHelperService",
+                new AmrProfileStatusCodeHelperService());
+        final DeviceCapabilityHelperService deviceCapabilityHelperService = new DeviceCapabilityHelperService();
+        ReflectionTestUtils.setField(deviceCapabilityHelperService, "deviceCapabilityCachingRepository",
+                new DeviceCapabilityCachingRepository());
+        ReflectionTestUtils.setField(this.executor, "deviceCapabilityHelperService", deviceCapabilityHelperService);
+
+        final String[] periodTypeAndEntries = this.buffer.split(":");
+        final PeriodTypeDto periodType = PeriodTypeDto.valueOf(periodTypeAndEntries[0]);
+        final int entries = Integer.parseInt(periodTypeAndEntries[1]);
+        final DataObject bufferData = periodType == PeriodTypeDto.INTERVAL
+                ? DlmsDataObjects.gasIntervalBuffer(entries, Period.minutes(15))
+                : DlmsDataObjects.monthlyBuffer(entries);
+
+        this.device = new DlmsDevice("G0000000000000001");
+        this.device.setWithListSupported(true);
+        this.device.setSelectiveAccessSupported(false);
+
+        this.conn = DlmsConnections.returning(bufferData, DlmsDataObjects.scalerUnit(-3));
+        this.request = new PeriodicMeterReadsRequestDto(periodType,
+                DlmsDataObjects.FIRST_CAPTURE_TIME.minusDays(1).toDate(),
+                DlmsDataObjects.FIRST_CAPTURE_TIME.plusYears(300).toDate(), ChannelDto.ONE);
+    }
+
+    @Benchmark
+    public PeriodicMeterReadGasResponseDto execute() throws ProtocolAdapterException {
+        return this.executor.execute(this.conn, this.device, this.request);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.Period;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+import org.osgp.adapter.protocol.dlms.domain.commands.AmrProfileStatusCodeHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.DeviceCapabilityHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.DlmsHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.GetPeriodicMeterReadsCommandExecutor;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DeviceCapabilityCachingRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsRequestDto;
+
+/**
+ * Compares the response item per buffer entry with the columnar form of
+ * periodic meter reads, for a month of quarter-hourly E meter interval values.
+ * <p>
+ * The retained heap and serialized size of both responses are logged during
+ * setup. Run with
+ * {@code java -jar target/benchmarks.jar PeriodicMeterReadsResponseBenchmark -prof gc}
+ * to report the allocation rate of creating and serializing them next to the
+ * throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PeriodicMeterReadsResponseBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PeriodicMeterReadsResponseBenchmark.class);
+
+    private static final int ENTRIES_PER_MONTH = 31 * 96;
+
+    @Param({ "DTO", "COLUMNAR" })
+    private String form;
+
+    private final GetPeriodicMeterReadsCommandExecutor executor = new GetPeriodicMeterReadsCommandExecutor();
+
+    private DlmsConnectionHolder conn;
+
+    private DlmsDevice device;
+
+    private PeriodicMeterReadsRequestDto request;
+
+    private Serializable response;
+
+    @Setup
+    public void setUp() throws IOException, ProtocolAdapterException {
+        ReflectionTestUtils.setField(this.executor, "dlmsHelperService", new DlmsHelperService());
+        ReflectionTestUtils.setField(this.executor, "amrProfileStatusCodeHelperService",
+                new AmrProfileStatusCodeHelperService());
+        final DeviceCapabilityHelperService deviceCapabilityHelperService = new DeviceCapabilityHelperService();
+        ReflectionTestUtils.setField(deviceCapabilityHelperService, "deviceCapabilityCachingRepository",
+                new DeviceCapabilityCachingRepository());
+        ReflectionTestUtils.setField(this.executor, "deviceCapabilityHelperService", deviceCapabilityHelperService);
+
+        this.device = new DlmsDevice("E0000000000000001");
+        this.device.setWithListSupported(true);
+        this.device.setSelectiveAccessSupported(false);
+
+        this.conn = DlmsConnections.returning(
+                DlmsDataObjects.electricityIntervalBuffer(ENTRIES_PER_MONTH, Period.minutes(15)),
+                DlmsDataObjects.scalerUnit(0));
+        this.request = new PeriodicMeterReadsRequestDto(PeriodTypeDto.INTERVAL,
+                DlmsDataObjects.FIRST_CAPTURE_TIME.minusDays(1).toDate(),
+                DlmsDataObjects.FIRST_CAPTURE_TIME.plusMonths(2).toDate());
+
+        this.response = this.read();
+        LOGGER.info("{} response of {} entries: {} bytes retained, {} bytes serialized", this.form,
+                ENTRIES_PER_MONTH, GraphLayout.parseInstance(this.response).totalSize(), this.serialize().length);
+    }
+
+    @Benchmark
+    public Serializable read() throws ProtocolAdapterException {
+        if ("COLUMNAR".equals(this.form)) {
+            return this.executor.readColumns(this.conn, this.device, this.request);
+        }
+        return this.executor.execute(this.conn, this.device, this.request);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(this.response);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.Period;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgp.adapter.protocol.dlms.domain.commands.AmrProfileStatusCodeHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.DeviceCapabilityHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.DlmsHelperService;
+import org.osgp.adapter.protocol.dlms.domain.commands.GetPeriodicMeterReadsCommandExecutor;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DeviceCapabilityCachingRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.osgp.adapter.protocol.dlms.infra.messaging.CompactPayloadCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsRequestDto;
+
+/**
+ * Compares Java serialization of a periodic meter reads response, as sent in
+ * an ObjectMessage, with the compact payload encoding sent in a BytesMessage,
+ * for a day up to a month of quarter-hourly E meter interval values.
+ * <p>
+ * The encoded size of the response is logged during setup. Run with
+ * {@code java -jar target/benchmarks.jar ResponsePayloadBenchmark -prof gc} to
+ * report the allocation rate of encoding and decoding next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResponsePayloadBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResponsePayloadBenchmark.class);
+
+    @Param({ "SERIALIZED", "COMPACT" })
+    private String encoding;
+
+    @Param({ "96", "2976" })
+    private int entries;
+
+    private final CompactPayloadCodec codec = new CompactPayloadCodec(true, 4096);
+
+    private Serializable response;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException, ProtocolAdapterException {
+        final GetPeriodicMeterReadsCommandExecutor executor = new GetPeriodicMeterReadsCommandExecutor();
+        ReflectionTestUtils.setField(executor, "dlmsHelperService", new DlmsHelperService());
+        ReflectionTestUtils.setField(executor, "amrProfileStatusCodeHelperService",
+                new AmrProfileStatusCodeHelperService());
+        final DeviceCapabilityHelperService deviceCapabilityHelperService = new DeviceCapabilityHelperService();
+        ReflectionTestUtils.setField(deviceCapabilityHelperService, "deviceCapabilityCachingRepository",
+                new DeviceCapabilityCachingRepository());
+        ReflectionTestUtils.setField(executor, "deviceCapabilityHelperService", deviceCapabilityHelperService);
+
+        final DlmsDevice device = new DlmsDevice("E0000000000000001");
+        device.setWithListSupported(true);
+        device.setSelectiveAccessSupported(false);
+
+        this.response = executor.execute(
+                DlmsConnections.returning(
+                        DlmsDataObjects.electricityIntervalBuffer(this.entries, Period.minutes(15)),
+                        DlmsDataObjects.scalerUnit(0)),
+                device,
+                new PeriodicMeterReadsRequestDto(PeriodTypeDto.INTERVAL,
+                        DlmsDataObjects.FIRST_CAPTURE_TIME.minusDays(1).toDate(),
+                        DlmsDataObjects.FIRST_CAPTURE_TIME.plusMonths(2).toDate()));
+
+        this.encoded = this.encode();
+        LOGGER.info("{} response of {} entries: {} bytes", this.encoding, this.entries, this.encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if ("COMPACT".equals(this.encoding)) {
+            return this.codec.encode(this.response);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(this.response);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException, ClassNotFoundException {
+        if ("COMPACT".equals(this.encoding)) {
+            return CompactPayloadCodec.decode(this.encoded);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(this.encoded))) {
+            return in.readObject();
+        }
+    }
+}
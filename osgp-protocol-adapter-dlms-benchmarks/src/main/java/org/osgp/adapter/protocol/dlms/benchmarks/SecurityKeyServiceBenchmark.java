@@ -0,0 +1,168 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.osgp.adapter.protocol.dlms.application.services.SecurityKeyService;
+import org.osgp.adapter.protocol.dlms.domain.entities.SecurityKeyType;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.shared.exceptionhandling.FunctionalException;
+import com.alliander.osgp.shared.security.EncryptionService;
+import com.alliander.osgp.shared.security.RsaEncryptionService;
+
+/**
+ * Measures the key handling of the {@link SecurityKeyService} that is part of
+ * setting up connections and of key changes, using the platform encryption
+ * services with freshly generated keys.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar SecurityKeyServiceBenchmark -prof gc}
+ * to report the allocation rate next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SecurityKeyServiceBenchmark {
+
+    private Path keyDirectory;
+
+    private AnnotationConfigApplicationContext context;
+
+    private SecurityKeyService securityKeyService;
+
+    private byte[] encryptedAuthenticationKey;
+
+    private byte[] encryptedEncryptionKey;
+
+    private byte[] rsaEncryptedKey;
+
+    private byte[] mbusDefaultKey;
+
+    private byte[] mbusUserKey;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.keyDirectory = Files.createTempDirectory("dlms-benchmark-keys");
+        final Path aesKey = this.keyDirectory.resolve("secret.aes");
+        final Path rsaPrivateKey = this.keyDirectory.resolve("dlms_device_keys_private");
+        final Path rsaPublicKey = this.keyDirectory.resolve("dlms_device_keys_public");
+
+        final SecurityKeyService keyGenerator = new SecurityKeyService();
+        Files.write(aesKey, keyGenerator.generateKey());
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        final KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        Files.write(rsaPrivateKey, keyPair.getPrivate().getEncoded());
+        Files.write(rsaPublicKey, keyPair.getPublic().getEncoded());
+
+        final Properties properties = new Properties();
+        properties.setProperty("encryption.key.path", aesKey.toString());
+        properties.setProperty("encryption.rsa.private.key.path", rsaPrivateKey.toString());
+        properties.setProperty("encryption.rsa.public.key.path", rsaPublicKey.toString());
+        BenchmarkConfig.properties = properties;
+        this.context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+
+        final EncryptionService encryptionService = this.context.getBean(EncryptionService.class);
+        final RsaEncryptionService rsaEncryptionService = this.context.getBean(RsaEncryptionService.class);
+        this.securityKeyService = new SecurityKeyService();
+        ReflectionTestUtils.setField(this.securityKeyService, "encryptionService", encryptionService);
+        ReflectionTestUtils.setField(this.securityKeyService, "rsaEncryptionService", rsaEncryptionService);
+
+        this.encryptedAuthenticationKey = this.securityKeyService.generateAndEncryptKey();
+        this.encryptedEncryptionKey = this.securityKeyService.generateAndEncryptKey();
+        this.rsaEncryptedKey = rsaEncryptionService.encrypt(this.securityKeyService.generateKey());
+        this.mbusDefaultKey = this.securityKeyService.generateKey();
+        this.mbusUserKey = this.securityKeyService.generateKey();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (this.context != null) {
+            this.context.close();
+        }
+        for (final String file : new String[] { "secret.aes", "dlms_device_keys_private",
+                "dlms_device_keys_public" }) {
+            Files.deleteIfExists(this.keyDirectory.resolve(file));
+        }
+        Files.deleteIfExists(this.keyDirectory);
+    }
+
+    /**
+     * The keys decrypted for every HLS5 connection to a device.
+     */
+    @Benchmark
+    public void decryptOnConnect(final Blackhole blackhole) throws ProtocolAdapterException {
+        blackhole.consume(
+                this.securityKeyService.decryptKey(this.encryptedAuthenticationKey,
+                        SecurityKeyType.E_METER_AUTHENTICATION));
+        blackhole.consume(this.securityKeyService.decryptKey(this.encryptedEncryptionKey,
+                SecurityKeyType.E_METER_ENCRYPTION));
+    }
+
+    /**
+     * A key received from outside the platform, as with add meter and set
+     * keys.
+     */
+    @Benchmark
+    public byte[] rsaReEncrypt() throws FunctionalException {
+        return this.securityKeyService.reEncryptKey(this.rsaEncryptedKey, SecurityKeyType.E_METER_AUTHENTICATION);
+    }
+
+    @Benchmark
+    public byte[] mbusUserKeyWrap() throws ProtocolAdapterException {
+        return this.securityKeyService.encryptMbusUserKey(this.mbusDefaultKey, this.mbusUserKey);
+    }
+
+    @Benchmark
+    public byte[] generateAndEncryptKey() {
+        return this.securityKeyService.generateAndEncryptKey();
+    }
+
+    @Configuration
+    @ComponentScan(basePackages = "com.alliander.osgp.shared.security")
+    static class BenchmarkConfig {
+
+        static Properties properties;
+
+        @Bean
+        public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+            final PropertySourcesPlaceholderConfigurer configurer = new PropertySourcesPlaceholderConfigurer();
+            configurer.setProperties(properties);
+            return configurer;
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.osgp.adapter.protocol.jasper.config.JasperWirelessConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableMBeanExport;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -29,6 +30,7 @@ import com.alliander.osgp.shared.application.config.AbstractConfig;
 @Configuration
 @ComponentScan(basePackages = { "org.osgp.adapter.protocol.dlms", "com.alliander.osgp.shared.security" })
 @EnableTransactionManagement()
+@EnableMBeanExport
 @Import({ MessagingConfig.class, DlmsPersistenceConfig.class, JasperWirelessConfig.class })
 @PropertySource("classpath:osgp-adapter-protocol-dlms.properties")
 @PropertySource(value = "file:${osgp/Global/config}", ignoreResourceNotFound = true)
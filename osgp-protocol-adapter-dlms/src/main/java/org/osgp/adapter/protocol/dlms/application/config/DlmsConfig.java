@@ -8,6 +8,7 @@
 package org.osgp.adapter.protocol.dlms.application.config;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -24,9 +25,14 @@ import org.jboss.netty.handler.logging.LoggingHandler;
 import org.jboss.netty.logging.InternalLogLevel;
 import org.jboss.netty.logging.InternalLoggerFactory;
 import org.jboss.netty.logging.Slf4JLoggerFactory;
+import org.osgp.adapter.protocol.dlms.application.scheduling.DeviceSessionRegistry;
+import org.osgp.adapter.protocol.dlms.application.scheduling.DeviceWorkScheduler;
+import org.osgp.adapter.protocol.dlms.application.services.DlmsDeviceCacheService;
 import org.osgp.adapter.protocol.dlms.application.services.DomainHelperService;
+import org.osgp.adapter.protocol.dlms.application.tracing.RequestTracer;
 import org.osgp.adapter.protocol.dlms.application.threads.RecoverKeyProcess;
 import org.osgp.adapter.protocol.dlms.application.threads.RecoverKeyProcessInitiator;
+import org.osgp.adapter.protocol.dlms.domain.factories.ConnectionCircuitBreaker;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnector;
 import org.osgp.adapter.protocol.dlms.domain.factories.Hls5Connector;
 import org.osgp.adapter.protocol.dlms.domain.factories.Lls0Connector;
@@ -38,6 +44,7 @@ import org.osgp.adapter.protocol.dlms.infra.networking.DlmsPushNotificationDecod
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -158,25 +165,109 @@ public class DlmsConfig extends AbstractConfig {
     @Scope("prototype")
     @Autowired
     public RecoverKeyProcess recoverKeyProcess(final DomainHelperService domainHelperService,
-            final DlmsDeviceRepository dlmsDeviceRepository,
+            final DlmsDeviceRepository dlmsDeviceRepository, final DlmsDeviceCacheService dlmsDeviceCacheService,
+            final ConnectionCircuitBreaker connectionCircuitBreaker,
             @Value("${jdlms.response_timeout}") final int responseTimeout,
             @Value("${jdlms.logical_device_address}") final int logicalDeviceAddress,
             @Value("${jdlms.client_access_point}") final int clientAccessPoint) {
-        return new RecoverKeyProcess(domainHelperService, dlmsDeviceRepository, responseTimeout, logicalDeviceAddress,
-                clientAccessPoint);
+        return new RecoverKeyProcess(domainHelperService, dlmsDeviceRepository, dlmsDeviceCacheService,
+                connectionCircuitBreaker, responseTimeout, logicalDeviceAddress, clientAccessPoint);
     }
 
     @Bean
     @Autowired
-    public RecoverKeyProcessInitiator recoverKeyProcesInitiator(final ScheduledExecutorService executorService,
+    public RecoverKeyProcessInitiator recoverKeyProcesInitiator(
+            @Qualifier("recoverKeyExecutorService") final ScheduledExecutorService executorService,
             final Provider<RecoverKeyProcess> recoverKeyProcessProvider,
-            @Value("${key.recovery.delay}") final int recoverKeyDelay) {
-        return new RecoverKeyProcessInitiator(executorService, recoverKeyProcessProvider, recoverKeyDelay);
+            @Value("${key.recovery.delay}") final int recoverKeyDelay,
+            @Value("${key.recovery.max.attempts}") final int maxAttempts,
+            @Value("${key.recovery.backoff.multiplier}") final int backOffMultiplier,
+            @Value("${key.recovery.max.per.minute}") final int maxRecoveriesPerMinute) {
+        return new RecoverKeyProcessInitiator(executorService, recoverKeyProcessProvider, recoverKeyDelay, maxAttempts,
+                backOffMultiplier, maxRecoveriesPerMinute);
     }
 
-    @Bean
-    public ScheduledExecutorService scheduledExecutorService(
-            @Value("${executor.scheduled.poolsize}") final int poolsize) {
+    /**
+     * Key recovery processes run on their own executor, so a large number of
+     * recoveries can not take up the threads available for other scheduled
+     * work.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService recoverKeyExecutorService(
+            @Value("${key.recovery.poolsize}") final int poolsize) {
         return Executors.newScheduledThreadPool(poolsize);
     }
+
+    /**
+     * Worker pool for re-encrypting the keys of meters added in bulk, so a
+     * batch of meters does not compete with regular requests for threads.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService bulkAddMeterExecutorService(@Value("${bulk.add.meter.poolsize}") final int poolsize) {
+        return Executors.newFixedThreadPool(poolsize);
+    }
+
+    /**
+     * Drives key rotation campaigns, one pass of one campaign at a time.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService keyRotationCampaignExecutorService() {
+        return Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Device sessions of key rotation campaigns, the pool size limits the
+     * number of devices that have their keys rotated concurrently.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService keyRotationSessionExecutorService(
+            @Value("${key.rotation.campaign.max.concurrent.sessions}") final int maxConcurrentSessions) {
+        return Executors.newFixedThreadPool(maxConcurrentSessions);
+    }
+
+    /**
+     * Drives bulk read plans, one pass of one plan at a time.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService bulkReadPlanExecutorService() {
+        return Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Device sessions of bulk read plans, the pool size limits the number of
+     * devices that are read concurrently.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService bulkReadSessionExecutorService(
+            @Value("${bulk.read.max.concurrent.sessions}") final int maxConcurrentSessions) {
+        return Executors.newFixedThreadPool(maxConcurrentSessions);
+    }
+
+    @Bean
+    public RequestTracer requestTracer(@Value("${request.tracing.enabled}") final boolean enabled,
+            @Value("${request.tracing.slow.threshold}") final long slowThreshold,
+            @Value("${request.tracing.slots}") final int slots,
+            @Value("${request.tracing.slot.size}") final int slotSize) {
+        return new RequestTracer(enabled, slowThreshold, slots, slotSize);
+    }
+
+    @Bean
+    public DeviceWorkScheduler deviceWorkScheduler(@Value("${device.work.capacity}") final int capacity,
+            @Value("${device.work.reserved.for.high.priority}") final int reservedForHighPriority,
+            @Value("${device.work.aging.interval}") final long agingInterval) {
+        return new DeviceWorkScheduler(capacity, reservedForHighPriority, agingInterval);
+    }
+
+    @Bean
+    public DeviceSessionRegistry deviceSessionRegistry() {
+        return new DeviceSessionRegistry();
+    }
+
+    @Bean
+    public ConnectionCircuitBreaker connectionCircuitBreaker(
+            @Value("${circuit.breaker.device.failure.threshold}") final int deviceFailureThreshold,
+            @Value("${circuit.breaker.provider.failure.threshold}") final int providerFailureThreshold,
+            @Value("${circuit.breaker.open.duration}") final long openDuration) {
+        return new ConnectionCircuitBreaker(deviceFailureThreshold, providerFailureThreshold, openDuration);
+    }
 }
@@ -7,6 +7,8 @@
  */
 package org.osgp.adapter.protocol.dlms.application.config;
 
+import java.util.Map;
+
 import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 
@@ -20,6 +22,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -55,6 +58,15 @@ public class DlmsPersistenceConfig extends AbstractPersistenceConfig {
     @Value("${db.name.dlms}")
     private String databaseName;
 
+    @Value("${hibernate.cache.use_second_level_cache}")
+    private boolean useSecondLevelCache;
+
+    @Value("${hibernate.cache.use_query_cache}")
+    private boolean useQueryCache;
+
+    @Value("${hibernate.generate_statistics}")
+    private boolean generateStatistics;
+
     private HikariDataSource dataSourceDlms;
 
     public DlmsPersistenceConfig() {
@@ -78,6 +90,16 @@ public class DlmsPersistenceConfig extends AbstractPersistenceConfig {
         return super.transactionManager();
     }
 
+    /**
+     * JDBC access to the DLMS database, for batch operations that would be
+     * too slow through JPA. Takes part in transactions of the JPA transaction
+     * manager, which uses the same data source.
+     */
+    @Bean
+    public JdbcTemplate dlmsJdbcTemplate() {
+        return new JdbcTemplate(this.getDataSourceDlms());
+    }
+
     @Bean(initMethod = "migrate")
     public Flyway dlmsFlyway() {
         return super.createFlyway(this.getDataSourceDlms());
@@ -87,7 +109,19 @@ public class DlmsPersistenceConfig extends AbstractPersistenceConfig {
     @Bean(name = "dlmsEntityManagerFactory")
     @DependsOn("dlmsFlyway")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
-        return super.entityManagerFactory("OSGP_PROTOCOL_ADAPTER_DLMS_SETTINGS", this.getDataSourceDlms());
+        final LocalContainerEntityManagerFactoryBean entityManagerFactory = super.entityManagerFactory(
+                "OSGP_PROTOCOL_ADAPTER_DLMS_SETTINGS", this.getDataSourceDlms());
+
+        final Map<String, Object> jpaProperties = entityManagerFactory.getJpaPropertyMap();
+        jpaProperties.put("javax.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        jpaProperties.put("hibernate.cache.use_second_level_cache", this.useSecondLevelCache);
+        jpaProperties.put("hibernate.cache.use_query_cache", this.useSecondLevelCache && this.useQueryCache);
+        jpaProperties.put("hibernate.cache.region.factory_class",
+                "org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory");
+        jpaProperties.put("net.sf.ehcache.configurationResourceName", "/ehcache-dlms.xml");
+        jpaProperties.put("hibernate.generate_statistics", this.generateStatistics);
+
+        return entityManagerFactory;
     }
 
     @Override
@@ -11,11 +11,15 @@ import javax.jms.MessageListener;
 
 import org.jboss.netty.logging.InternalLoggerFactory;
 import org.jboss.netty.logging.Slf4JLoggerFactory;
+import org.osgp.adapter.protocol.dlms.application.scheduling.DeviceWorkScheduler;
+import org.osgp.adapter.protocol.dlms.application.scheduling.Lane;
+import org.osgp.adapter.protocol.dlms.infra.messaging.CompactPayloadCodec;
 import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceResponseMessageSender;
 import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsLogItemRequestMessageSender;
 import org.osgp.adapter.protocol.dlms.infra.messaging.requests.to.core.OsgpRequestMessageSender;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
@@ -46,13 +50,17 @@ public class MessagingConfig extends AbstractMessagingConfig {
     @Qualifier("osgpResponsesMessageListener")
     private MessageListener osgpResponsesMessageListener;
 
+    @Autowired
+    private DeviceWorkScheduler deviceWorkScheduler;
+
     public MessagingConfig() {
         InternalLoggerFactory.setDefaultFactory(new Slf4JLoggerFactory());
     }
 
     // === JMS SETTINGS ===
 
-    // Configuration beans for incoming dlms requests
+    // Configuration beans for incoming dlms requests, received per priority
+    // lane so waiting low priority requests do not block receiving urgent ones
     @Bean
     public JmsConfiguration dlmsRequestJmsConfiguration(final JmsConfigurationFactory jmsConfigurationFactory) {
         return jmsConfigurationFactory.initializeReceiveConfiguration("jms.dlms.requests",
@@ -62,7 +70,48 @@ public class MessagingConfig extends AbstractMessagingConfig {
     @Bean
     public DefaultMessageListenerContainer dlmsRequestsMessageListenerContainer(
             final JmsConfiguration dlmsRequestJmsConfiguration) {
-        return dlmsRequestJmsConfiguration.getMessageListenerContainer();
+        return this.laneMessageListenerContainer(dlmsRequestJmsConfiguration, Lane.NORMAL);
+    }
+
+    @Bean
+    public JmsConfiguration dlmsHighPriorityRequestJmsConfiguration(
+            final JmsConfigurationFactory jmsConfigurationFactory) {
+        return jmsConfigurationFactory.initializeReceiveConfiguration("jms.dlms.high.priority.requests",
+                this.dlmsRequestsMessageListener);
+    }
+
+    @Bean
+    public DefaultMessageListenerContainer dlmsHighPriorityRequestsMessageListenerContainer(
+            final JmsConfiguration dlmsHighPriorityRequestJmsConfiguration) {
+        return this.laneMessageListenerContainer(dlmsHighPriorityRequestJmsConfiguration, Lane.HIGH);
+    }
+
+    @Bean
+    public JmsConfiguration dlmsLowPriorityRequestJmsConfiguration(
+            final JmsConfigurationFactory jmsConfigurationFactory) {
+        return jmsConfigurationFactory.initializeReceiveConfiguration("jms.dlms.low.priority.requests",
+                this.dlmsRequestsMessageListener);
+    }
+
+    @Bean
+    public DefaultMessageListenerContainer dlmsLowPriorityRequestsMessageListenerContainer(
+            final JmsConfiguration dlmsLowPriorityRequestJmsConfiguration) {
+        return this.laneMessageListenerContainer(dlmsLowPriorityRequestJmsConfiguration, Lane.LOW);
+    }
+
+    /**
+     * Receives the requests of the lane with no more consumers than the
+     * requests of the lane the device work scheduler admits at once, so no
+     * more consumers wait for admission than needed.
+     */
+    private DefaultMessageListenerContainer laneMessageListenerContainer(final JmsConfiguration jmsConfiguration,
+            final Lane lane) {
+        final DefaultMessageListenerContainer container = jmsConfiguration.getMessageListenerContainer();
+        container.setMessageSelector(lane.getMessageSelector());
+        final int consumers = this.deviceWorkScheduler.getAdmissible(lane);
+        container.setConcurrentConsumers(Math.min(container.getConcurrentConsumers(), consumers));
+        container.setMaxConcurrentConsumers(consumers);
+        return container;
     }
 
     // Configuration beans for outgoing dlms responses
@@ -81,6 +130,13 @@ public class MessagingConfig extends AbstractMessagingConfig {
         return new DeviceResponseMessageSender();
     }
 
+    @Bean
+    public CompactPayloadCodec compactPayloadCodec(
+            @Value("${jms.dlms.responses.compact.payload.enabled}") final boolean enabled,
+            @Value("${jms.dlms.responses.compact.payload.compression.threshold}") final int compressionThreshold) {
+        return new CompactPayloadCodec(enabled, compressionThreshold);
+    }
+
     // Configuration beans for outgoing dlms log items requests
     @Bean
     public JmsConfiguration dlmsLogItemRequestJmsConfiguration(final JmsConfigurationFactory jmsConfigurationFactory) {
@@ -10,6 +10,8 @@ package org.osgp.adapter.protocol.dlms.application.config;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 
+import org.osgp.adapter.protocol.dlms.application.metrics.MetricsServlet;
+import org.osgp.adapter.protocol.dlms.application.tracing.TimelineServlet;
 import org.springframework.web.WebApplicationInitializer;
 
 import com.alliander.osgp.shared.application.config.AbstractApplicationInitializer;
@@ -29,5 +31,7 @@ public class ProtocolAdapterDlmsInitializer extends AbstractApplicationInitializ
     @Override
     public void onStartup(final ServletContext servletContext) throws ServletException {
         startUp(servletContext);
+        servletContext.addServlet("metrics", new MetricsServlet()).addMapping("/metrics");
+        servletContext.addServlet("timelines", new TimelineServlet()).addMapping("/timelines");
     }
 }
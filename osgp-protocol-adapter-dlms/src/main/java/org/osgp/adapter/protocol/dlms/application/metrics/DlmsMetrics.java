@@ -0,0 +1,223 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Metrics of device communication and request handling. They are exported
+ * over JMX and scraped in the Prometheus text format from {@code /metrics}
+ * (see {@link MetricsServlet}).
+ * <p>
+ * Timers and counters are created on first use per label value, after that
+ * recording is a map lookup and a lock free increment.
+ */
+@Component
+@ManagedResource(objectName = "org.osgp.adapter.protocol.dlms:type=Metrics",
+        description = "Metrics of DLMS device communication and request handling")
+public class DlmsMetrics {
+
+    public enum Timer {
+        /**
+         * Executing a command of a bundle, per command executor.
+         */
+        EXECUTOR("dlms_executor_duration_seconds", "executor"),
+        /**
+         * Handling a device request, from reading the message until the
+         * response has been sent, per message type.
+         */
+        REQUEST("dlms_request_duration_seconds", "type"),
+        /**
+         * Setting up a connection with a device, per phase: looking up the IP
+         * address at the session provider, and associating. The association
+         * includes setting up the keys and the TCP connect, as jDLMS does
+         * those at once.
+         */
+        CONNECTION_SETUP("dlms_connection_setup_duration_seconds", "phase"),
+        /**
+         * Processing a JMS message by the request listener, per message type.
+         */
+        JMS_PROCESSING("dlms_jms_processing_duration_seconds", "type"),
+        /**
+         * Waiting for the device work scheduler to admit a request, per
+         * priority lane.
+         */
+        SCHEDULING_WAIT("dlms_scheduling_wait_duration_seconds", "lane");
+
+        private final String metricName;
+        private final String labelName;
+
+        Timer(final String metricName, final String labelName) {
+            this.metricName = metricName;
+            this.labelName = labelName;
+        }
+    }
+
+    public enum Counter {
+        APDUS_SENT("dlms_apdus_sent_total", null),
+        APDUS_RECEIVED("dlms_apdus_received_total", null),
+        BYTES_SENT("dlms_bytes_sent_total", null),
+        BYTES_RECEIVED("dlms_bytes_received_total", null),
+        /**
+         * Connections of which the APDUs and bytes have been counted, to
+         * relate the totals to a number of requests.
+         */
+        CONNECTIONS_COUNTED("dlms_connections_counted_total", null),
+        JMS_REDELIVERIES("dlms_jms_redeliveries_total", "type");
+
+        private final String metricName;
+        private final String labelName;
+
+        Counter(final String metricName, final String labelName) {
+            this.metricName = metricName;
+            this.labelName = labelName;
+        }
+    }
+
+    public static final String PHASE_IP_LOOKUP = "ip_lookup";
+    public static final String PHASE_ASSOCIATION = "association";
+
+    private static final String NO_LABEL = "";
+
+    private final Map<Timer, ConcurrentMap<String, LatencyHistogram>> timers = new EnumMap<>(Timer.class);
+
+    private final Map<Counter, ConcurrentMap<String, LongAdder>> counters = new EnumMap<>(Counter.class);
+
+    private final AtomicInteger associationsInFlight = new AtomicInteger();
+
+    public DlmsMetrics() {
+        for (final Timer timer : Timer.values()) {
+            this.timers.put(timer, new ConcurrentHashMap<>());
+        }
+        for (final Counter counter : Counter.values()) {
+            this.counters.put(counter, new ConcurrentHashMap<>());
+        }
+    }
+
+    public LatencyHistogram timer(final Timer timer, final String labelValue) {
+        final ConcurrentMap<String, LatencyHistogram> histograms = this.timers.get(timer);
+        final String key = labelValue == null ? NO_LABEL : labelValue;
+        final LatencyHistogram histogram = histograms.get(key);
+        if (histogram != null) {
+            return histogram;
+        }
+        return histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    public LongAdder counter(final Counter counter) {
+        return this.counter(counter, null);
+    }
+
+    public LongAdder counter(final Counter counter, final String labelValue) {
+        final ConcurrentMap<String, LongAdder> adders = this.counters.get(counter);
+        final String key = labelValue == null ? NO_LABEL : labelValue;
+        final LongAdder adder = adders.get(key);
+        if (adder != null) {
+            return adder;
+        }
+        return adders.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    public void associationOpened() {
+        this.associationsInFlight.incrementAndGet();
+    }
+
+    public void associationClosed() {
+        this.associationsInFlight.decrementAndGet();
+    }
+
+    @ManagedAttribute(description = "Number of open associations with devices")
+    public int getAssociationsInFlight() {
+        return this.associationsInFlight.get();
+    }
+
+    @ManagedAttribute(description = "Number of APDUs sent to devices")
+    public long getApdusSent() {
+        return this.counter(Counter.APDUS_SENT).sum();
+    }
+
+    @ManagedAttribute(description = "Number of bytes sent to and received from devices")
+    public long getBytesTransferred() {
+        return this.counter(Counter.BYTES_SENT).sum() + this.counter(Counter.BYTES_RECEIVED).sum();
+    }
+
+    /**
+     * @return all metrics in the Prometheus text exposition format.
+     */
+    @ManagedOperation(description = "All metrics in the Prometheus text format")
+    public String scrape() {
+        final StringBuilder sb = new StringBuilder(4096);
+        for (final Map.Entry<Timer, ConcurrentMap<String, LatencyHistogram>> timer : this.timers.entrySet()) {
+            this.appendHistograms(sb, timer.getKey(), timer.getValue());
+        }
+        for (final Map.Entry<Counter, ConcurrentMap<String, LongAdder>> counter : this.counters.entrySet()) {
+            final String name = counter.getKey().metricName;
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            for (final Map.Entry<String, LongAdder> adder : counter.getValue().entrySet()) {
+                sb.append(name);
+                appendLabels(sb, counter.getKey().labelName, adder.getKey(), null);
+                sb.append(' ').append(adder.getValue().sum()).append('\n');
+            }
+        }
+        sb.append("# TYPE dlms_associations_in_flight gauge\n");
+        sb.append("dlms_associations_in_flight ").append(this.associationsInFlight.get()).append('\n');
+        return sb.toString();
+    }
+
+    private void appendHistograms(final StringBuilder sb, final Timer timer,
+            final Map<String, LatencyHistogram> histograms) {
+        sb.append("# TYPE ").append(timer.metricName).append(" histogram\n");
+        for (final Map.Entry<String, LatencyHistogram> histogram : histograms.entrySet()) {
+            final long[] counts = histogram.getValue().cumulativeCounts();
+            for (int i = 0; i < counts.length; i++) {
+                final String bound = i < LatencyHistogram.BUCKET_SECONDS.length
+                        ? Double.toString(LatencyHistogram.BUCKET_SECONDS[i])
+                        : "+Inf";
+                sb.append(timer.metricName).append("_bucket");
+                appendLabels(sb, timer.labelName, histogram.getKey(), bound);
+                sb.append(' ').append(counts[i]).append('\n');
+            }
+            sb.append(timer.metricName).append("_sum");
+            appendLabels(sb, timer.labelName, histogram.getKey(), null);
+            sb.append(' ').append(histogram.getValue().getSumSeconds()).append('\n');
+            sb.append(timer.metricName).append("_count");
+            appendLabels(sb, timer.labelName, histogram.getKey(), null);
+            sb.append(' ').append(counts[counts.length - 1]).append('\n');
+        }
+    }
+
+    private static void appendLabels(final StringBuilder sb, final String labelName, final String labelValue,
+            final String bucketBound) {
+        final boolean labelled = labelName != null && !NO_LABEL.equals(labelValue);
+        if (!labelled && bucketBound == null) {
+            return;
+        }
+        sb.append('{');
+        if (labelled) {
+            sb.append(labelName).append("=\"").append(labelValue.replace("\\", "\\\\").replace("\"", "\\\""))
+                    .append('"');
+        }
+        if (bucketBound != null) {
+            if (labelled) {
+                sb.append(',');
+            }
+            sb.append("le=\"").append(bucketBound).append('"');
+        }
+        sb.append('}');
+    }
+}
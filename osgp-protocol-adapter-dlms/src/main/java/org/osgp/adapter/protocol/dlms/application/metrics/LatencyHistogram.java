@@ -0,0 +1,80 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations over fixed buckets, from a millisecond up to two
+ * minutes. Recording is lock free and does not allocate, so it can be done on
+ * every device request.
+ */
+public class LatencyHistogram {
+
+    static final double[] BUCKET_SECONDS = { 0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30,
+            60, 120 };
+
+    private static final long[] BUCKET_NANOS = new long[BUCKET_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+            BUCKET_NANOS[i] = (long) (BUCKET_SECONDS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * One counter per bucket, the last counter holds the durations over the
+     * largest bucket.
+     */
+    private final LongAdder[] buckets = new LongAdder[BUCKET_NANOS.length + 1];
+
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(final long durationNanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_NANOS.length && durationNanos > BUCKET_NANOS[bucket]) {
+            bucket++;
+        }
+        this.buckets[bucket].increment();
+        this.sumNanos.add(durationNanos);
+    }
+
+    /**
+     * Records the time passed since {@code startNanos}, as obtained from
+     * {@link System#nanoTime()}.
+     */
+    public void recordSince(final long startNanos) {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return the number of durations up to and including each bucket bound
+     *         of {@link #BUCKET_SECONDS}, followed by the total number of
+     *         durations.
+     */
+    public long[] cumulativeCounts() {
+        final long[] counts = new long[this.buckets.length];
+        long count = 0;
+        for (int i = 0; i < this.buckets.length; i++) {
+            count += this.buckets[i].sum();
+            counts[i] = count;
+        }
+        return counts;
+    }
+
+    public double getSumSeconds() {
+        return this.sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+/**
+ * Serves the {@link DlmsMetrics} in the Prometheus text exposition format.
+ */
+public class MetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = -2911378264081627713L;
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private transient DlmsMetrics dlmsMetrics;
+
+    @Override
+    public void init() throws ServletException {
+        this.dlmsMetrics = WebApplicationContextUtils.getRequiredWebApplicationContext(this.getServletContext())
+                .getBean(DlmsMetrics.class);
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType(CONTENT_TYPE);
+        response.getWriter().write(this.dlmsMetrics.scrape());
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.scheduling;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Keeps track of the devices the protocol adapter has a session with, so no
+ * second association is opened to a device that is being communicated with,
+ * whether for a request from core or for bulk work like a bulk read plan.
+ */
+@ManagedResource(objectName = "org.osgp.adapter.protocol.dlms:type=DeviceSessionRegistry",
+        description = "Devices with an open session")
+public class DeviceSessionRegistry {
+
+    private final Set<String> devicesInSession = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return {@code true} if the session with the device is started, or
+     *         {@code false} if there already is a session with the device.
+     */
+    public boolean tryStart(final String deviceIdentification) {
+        return this.devicesInSession.add(deviceIdentification);
+    }
+
+    /**
+     * Ends a session started with {@link #tryStart(String)}.
+     */
+    public void end(final String deviceIdentification) {
+        this.devicesInSession.remove(deviceIdentification);
+    }
+
+    @ManagedAttribute(description = "Number of devices with an open session")
+    public int getDevicesInSession() {
+        return this.devicesInSession.size();
+    }
+}
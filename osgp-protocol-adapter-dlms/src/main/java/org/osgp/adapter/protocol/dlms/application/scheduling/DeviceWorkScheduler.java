@@ -0,0 +1,156 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Admits device requests to be handled, by priority lane, so a backlog of bulk
+ * work does not delay urgent requests.
+ * <p>
+ * At most {@code capacity} requests are handled at once, of which
+ * {@code reservedForHighPriority} only by requests in the {@link Lane#HIGH}
+ * lane. When capacity frees up, the waiting request with the highest priority
+ * is admitted first, requests with the same priority in order of arrival. To
+ * prevent starvation, the priority of a waiting request is raised by a lane
+ * for every aging interval it has waited. Aged requests do not use the
+ * reserved capacity.
+ * <p>
+ * Requests wait on the thread that received them. Each lane is received by its
+ * own listener container (see {@link Lane#getMessageSelector()}), so requests
+ * waiting in one lane do not keep the requests of another lane from being
+ * received. A container has no more consumers than the requests of its lane
+ * that can be admitted at once (see {@link #getAdmissible(Lane)}), so a
+ * consumer only waits while requests of other lanes use the capacity. Bulk
+ * work that does not arrive over JMS, like the sessions of a bulk read plan,
+ * waits in the {@link Lane#LOW} lane on its own threads.
+ */
+@ManagedResource(objectName = "org.osgp.adapter.protocol.dlms:type=DeviceWorkScheduler",
+        description = "Admission of device requests by priority lane")
+public class DeviceWorkScheduler {
+
+    private static final class Waiter {
+        private final Lane lane;
+        private final long arrivalNanos;
+
+        private Waiter(final Lane lane, final long arrivalNanos) {
+            this.lane = lane;
+            this.arrivalNanos = arrivalNanos;
+        }
+    }
+
+    private final int capacity;
+    private final int reservedForHighPriority;
+    private final long agingIntervalNanos;
+
+    /**
+     * Waiting requests in order of arrival.
+     */
+    private final List<Waiter> waiters = new ArrayList<>();
+    private int running;
+
+    /**
+     * @param capacity
+     *            the maximum number of requests handled at once.
+     * @param reservedForHighPriority
+     *            the part of the capacity only used by high priority requests.
+     * @param agingInterval
+     *            milliseconds after which the priority of a waiting request is
+     *            raised by a lane.
+     */
+    public DeviceWorkScheduler(final int capacity, final int reservedForHighPriority, final long agingInterval) {
+        if (capacity < 1 || reservedForHighPriority < 0 || reservedForHighPriority >= capacity
+                || agingInterval < 1) {
+            throw new IllegalArgumentException("Invalid device work scheduling: capacity " + capacity + ", reserved "
+                    + reservedForHighPriority + ", aging interval " + agingInterval);
+        }
+        this.capacity = capacity;
+        this.reservedForHighPriority = reservedForHighPriority;
+        this.agingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(agingInterval);
+    }
+
+    /**
+     * Waits until a request in the lane is admitted. Every admitted request
+     * must be followed by a {@link #release()} when it has been handled.
+     *
+     * @throws InterruptedException
+     *             when interrupted while waiting, the request is not admitted.
+     */
+    public synchronized void acquire(final Lane lane) throws InterruptedException {
+        final Waiter waiter = new Waiter(lane, System.nanoTime());
+        this.waiters.add(waiter);
+        try {
+            while (this.next(System.nanoTime()) != waiter) {
+                this.wait();
+            }
+        } catch (final InterruptedException e) {
+            this.waiters.remove(waiter);
+            this.notifyAll();
+            throw e;
+        }
+        this.waiters.remove(waiter);
+        this.running++;
+        if (this.running < this.capacity && !this.waiters.isEmpty()) {
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * @return the number of requests in the lane that can be handled at once,
+     *         when no other requests are handled.
+     */
+    public int getAdmissible(final Lane lane) {
+        return lane == Lane.HIGH ? this.capacity : this.capacity - this.reservedForHighPriority;
+    }
+
+    public synchronized void release() {
+        this.running--;
+        this.notifyAll();
+    }
+
+    /**
+     * @return the waiting request to admit next, or {@code null} if none can
+     *         be admitted now.
+     */
+    private Waiter next(final long nowNanos) {
+        final int free = this.capacity - this.running;
+        Waiter next = null;
+        int nextRank = -1;
+        for (final Waiter waiter : this.waiters) {
+            if (free <= 0 || (waiter.lane != Lane.HIGH && free <= this.reservedForHighPriority)) {
+                continue;
+            }
+            final int rank = this.effectiveRank(waiter, nowNanos);
+            if (rank > nextRank) {
+                next = waiter;
+                nextRank = rank;
+            }
+        }
+        return next;
+    }
+
+    private int effectiveRank(final Waiter waiter, final long nowNanos) {
+        final long aged = (nowNanos - waiter.arrivalNanos) / this.agingIntervalNanos;
+        return (int) Math.min(waiter.lane.rank() + aged, Lane.HIGH.rank());
+    }
+
+    @ManagedAttribute(description = "Number of requests being handled")
+    public synchronized int getRunning() {
+        return this.running;
+    }
+
+    @ManagedAttribute(description = "Number of requests waiting to be handled")
+    public synchronized int getWaiting() {
+        return this.waiters.size();
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.scheduling;
+
+/**
+ * Priority lanes of device requests, by JMS priority (0 to 9, 4 being the
+ * default). The lanes are listed from high to low priority.
+ */
+public enum Lane {
+    /**
+     * Urgent operations, like disconnecting a meter or an on-demand read for a
+     * customer on the phone.
+     */
+    HIGH(7),
+    NORMAL(4),
+    /**
+     * Background work, like bulk reads.
+     */
+    LOW(0);
+
+    private final int lowestJmsPriority;
+
+    Lane(final int lowestJmsPriority) {
+        this.lowestJmsPriority = lowestJmsPriority;
+    }
+
+    public static Lane forJmsPriority(final int jmsPriority) {
+        for (final Lane lane : values()) {
+            if (jmsPriority >= lane.lowestJmsPriority) {
+                return lane;
+            }
+        }
+        return LOW;
+    }
+
+    /**
+     * @return the JMS message selector for the requests in this lane.
+     */
+    public String getMessageSelector() {
+        if (this.ordinal() == 0) {
+            return "JMSPriority >= " + this.lowestJmsPriority;
+        }
+        final Lane higher = values()[this.ordinal() - 1];
+        return "JMSPriority >= " + this.lowestJmsPriority + " AND JMSPriority < " + higher.lowestJmsPriority;
+    }
+
+    /**
+     * @return the rank of the lane, the higher the rank the higher the
+     *         priority.
+     */
+    int rank() {
+        return values().length - 1 - this.ordinal();
+    }
+}
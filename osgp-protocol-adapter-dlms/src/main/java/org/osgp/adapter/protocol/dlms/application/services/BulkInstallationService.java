@@ -0,0 +1,170 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceBatchRepository;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.BulkAddMeterResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.SmartMeteringDeviceDto;
+
+/**
+ * Adds large numbers of meters at once.
+ * <p>
+ * Meters are handled in chunks. The keys of the meters in a chunk are
+ * re-encrypted in parallel on a dedicated worker pool, after which the meters
+ * of the chunk are inserted with JDBC batch statements in a single
+ * transaction. A meter that cannot be added is reported in the result, without
+ * aborting the rest of the batch.
+ */
+@Service(value = "dlmsBulkInstallationService")
+public class BulkInstallationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkInstallationService.class);
+
+    @Autowired
+    private InstallationService installationService;
+
+    @Autowired
+    private DlmsDeviceBatchRepository dlmsDeviceBatchRepository;
+
+    @Autowired
+    private DlmsDeviceCacheService dlmsDeviceCacheService;
+
+    @Autowired
+    @Qualifier("bulkAddMeterExecutorService")
+    private ExecutorService bulkAddMeterExecutorService;
+
+    @Value("${bulk.add.meter.chunk.size}")
+    private int chunkSize;
+
+    /**
+     * Adds the given meters.
+     *
+     * @param smartMeteringDevices
+     *            the meters to add, consumed one chunk at a time.
+     * @return the number of meters added, and the reason of failure for each
+     *         meter that was not added.
+     */
+    public BulkAddMeterResult addMeters(final Stream<SmartMeteringDeviceDto> smartMeteringDevices) {
+        final BulkAddMeterResult result = new BulkAddMeterResult();
+        final Set<String> seenDeviceIdentifications = new HashSet<>();
+        final long startTime = System.currentTimeMillis();
+
+        try {
+            final Iterator<SmartMeteringDeviceDto> iterator = smartMeteringDevices.iterator();
+            final List<SmartMeteringDeviceDto> chunk = new ArrayList<>(this.chunkSize);
+            while (iterator.hasNext()) {
+                final SmartMeteringDeviceDto smartMeteringDevice = iterator.next();
+                if (seenDeviceIdentifications.add(smartMeteringDevice.getDeviceIdentification())) {
+                    chunk.add(smartMeteringDevice);
+                } else {
+                    result.failed(smartMeteringDevice.getDeviceIdentification(),
+                            "Device occurs more than once in the batch");
+                }
+                if (chunk.size() >= this.chunkSize) {
+                    this.addChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+            this.addChunk(chunk, result);
+        } finally {
+            /*
+             * The batch inserts bypass Hibernate, so earlier lookups of the
+             * added devices may still be cached as not found.
+             */
+            this.dlmsDeviceCacheService.evictLookups();
+        }
+
+        final long duration = Math.max(1, System.currentTimeMillis() - startTime);
+        LOGGER.info("Bulk add meter finished in {} ms: {} ({} meters/s)", duration, result,
+                result.getNumberOfAddedMeters() * 1000L / duration);
+        return result;
+    }
+
+    private void addChunk(final List<SmartMeteringDeviceDto> chunk, final BulkAddMeterResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        final Set<String> existingDeviceIdentifications = this.dlmsDeviceBatchRepository
+                .findExistingDeviceIdentifications(chunk.stream()
+                        .map(SmartMeteringDeviceDto::getDeviceIdentification)
+                        .collect(Collectors.toList()));
+
+        final List<Future<DlmsDevice>> newDevices = new ArrayList<>(chunk.size());
+        final List<String> newDeviceIdentifications = new ArrayList<>(chunk.size());
+        for (final SmartMeteringDeviceDto smartMeteringDevice : chunk) {
+            final String deviceIdentification = smartMeteringDevice.getDeviceIdentification();
+            if (existingDeviceIdentifications.contains(deviceIdentification)) {
+                result.failed(deviceIdentification, "Device already exists");
+            } else {
+                newDevices.add(this.bulkAddMeterExecutorService
+                        .submit(() -> this.installationService.toNewDevice(smartMeteringDevice)));
+                newDeviceIdentifications.add(deviceIdentification);
+            }
+        }
+
+        final List<DlmsDevice> devicesToInsert = new ArrayList<>(newDevices.size());
+        for (int i = 0; i < newDevices.size(); i++) {
+            try {
+                devicesToInsert.add(newDevices.get(i).get());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while re-encrypting keys for bulk add meter", e);
+            } catch (final ExecutionException e) {
+                LOGGER.warn("Unable to re-encrypt keys for device {}", newDeviceIdentifications.get(i), e.getCause());
+                result.failed(newDeviceIdentifications.get(i),
+                        "Unable to re-encrypt keys: " + e.getCause().getMessage());
+            }
+        }
+
+        this.insert(devicesToInsert, result);
+    }
+
+    private void insert(final List<DlmsDevice> devices, final BulkAddMeterResult result) {
+        try {
+            this.dlmsDeviceBatchRepository.insert(devices);
+            result.added(devices.size());
+        } catch (final DataAccessException e) {
+            LOGGER.warn("Batch insert of {} devices failed, inserting them one by one", devices.size(), e);
+            for (final DlmsDevice device : devices) {
+                this.insertSingle(device, result);
+            }
+        }
+    }
+
+    private void insertSingle(final DlmsDevice device, final BulkAddMeterResult result) {
+        try {
+            this.dlmsDeviceBatchRepository.insert(Collections.singletonList(device));
+            result.added(1);
+        } catch (final DataAccessException e) {
+            LOGGER.warn("Unable to insert device {}", device.getDeviceIdentification(), e);
+            result.failed(device.getDeviceIdentification(), "Unable to store device: " + e.getMessage());
+        }
+    }
+}
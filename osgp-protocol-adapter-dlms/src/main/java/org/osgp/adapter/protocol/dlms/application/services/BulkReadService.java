@@ -0,0 +1,336 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
+import org.osgp.adapter.protocol.dlms.application.scheduling.DeviceWorkScheduler;
+import org.osgp.adapter.protocol.dlms.application.scheduling.Lane;
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadPlan;
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadPlanDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadStatus;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.repositories.BulkReadPlanDeviceRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.BulkReadPlanRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.DeviceBusyException;
+import org.osgp.adapter.protocol.dlms.infra.messaging.BulkReadSessionProcessor;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageType;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceResponseMessageSender;
+import org.osgp.adapter.protocol.dlms.infra.messaging.RetryHeaderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.alliander.osgp.shared.exceptionhandling.OsgpException;
+import com.alliander.osgp.shared.infra.jms.DeviceMessageMetadata;
+import com.alliander.osgp.shared.infra.jms.ProtocolResponseMessage;
+import com.alliander.osgp.shared.infra.jms.ResponseMessageResultType;
+
+/**
+ * Reads the periodic meter reads of a fleet of devices according to a bulk
+ * read plan, without a request from core per device.
+ * <p>
+ * The devices of a plan are stored, and read in waves. Each device is visited
+ * with a single connection, over which all period types of the plan are read.
+ * There are no more concurrent device sessions than the size of the session
+ * pool, and no more than a configured maximum per communication provider,
+ * including the lookup of the IP address at the session provider. Sessions
+ * are admitted by the device work scheduler in the low priority lane, so
+ * they share the capacity for device work with requests from core. A device
+ * the protocol adapter already has a session with, for another plan or for a
+ * request from core, is deferred to the next pass. The pending devices are
+ * read page by page, a wave at a time, so a plan with many devices is not
+ * loaded at once.
+ * <p>
+ * The results of a wave are sent to core when the wave is done, one response
+ * per device with the plan identification as correlation UID, before the
+ * progress of the wave is saved. A device that fails stays pending for a next
+ * pass of the plan, until it failed for the maximum number of attempts. Long
+ * periods of interval values are read in windows that are kept between
+ * attempts, so a retry only reads the windows that are missing. They are
+ * evicted once the response for the device has been sent.
+ */
+@Service(value = "dlmsBulkReadService")
+public class BulkReadService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkReadService.class);
+
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Autowired
+    private BulkReadPlanRepository bulkReadPlanRepository;
+
+    @Autowired
+    private BulkReadPlanDeviceRepository bulkReadPlanDeviceRepository;
+
+    @Autowired
+    private DomainHelperService domainHelperService;
+
+    @Autowired
+    private BulkReadSessionProcessor bulkReadSessionProcessor;
+
+    @Autowired
+    private DeviceWorkScheduler deviceWorkScheduler;
+
+    @Autowired
+    private DlmsMetrics dlmsMetrics;
+
+    @Autowired
+    private DeviceResponseMessageSender responseMessageSender;
+
+    @Autowired
+    private RetryHeaderFactory retryHeaderFactory;
+
+    @Autowired
+    private PeriodicMeterReadsCheckpointService periodicMeterReadsCheckpointService;
+
+    @Autowired
+    @Qualifier("bulkReadPlanExecutorService")
+    private ScheduledExecutorService planExecutorService;
+
+    @Autowired
+    @Qualifier("bulkReadSessionExecutorService")
+    private ExecutorService sessionExecutorService;
+
+    @Value("${bulk.read.wave.size}")
+    private int waveSize;
+
+    @Value("${bulk.read.max.concurrent.sessions.per.provider}")
+    private int maxConcurrentSessionsPerProvider;
+
+    @Value("${bulk.read.max.attempts}")
+    private int maxAttempts;
+
+    @Value("${bulk.read.pass.delay}")
+    private long passDelay;
+
+    @Value("${bulk.read.resume.on.startup}")
+    private boolean resumeOnStartup;
+
+    private final Set<String> scheduledPlans = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Semaphore> sessionsPerProvider = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean resumed = new AtomicBoolean();
+
+    /**
+     * Stores the plan if it is new, adds the given devices to it, and schedules
+     * the plan. Devices that are already part of the plan are not added again.
+     *
+     * @param plan
+     *            what to read, and where to send the results to.
+     * @param ipAddressPerDevice
+     *            the devices to read, with their IP address (only needed for
+     *            devices with a static IP address).
+     */
+    public void startPlan(final BulkReadPlan plan, final Map<String, String> ipAddressPerDevice) {
+        final String planIdentification = plan.getPlanIdentification();
+        if (this.bulkReadPlanRepository.findByPlanIdentification(planIdentification) == null) {
+            this.bulkReadPlanRepository.save(plan);
+        }
+
+        final List<BulkReadPlanDevice> newPlanDevices = new ArrayList<>();
+        for (final Map.Entry<String, String> device : ipAddressPerDevice.entrySet()) {
+            if (this.bulkReadPlanDeviceRepository.findByPlanIdentificationAndDeviceIdentification(planIdentification,
+                    device.getKey()) == null) {
+                newPlanDevices.add(new BulkReadPlanDevice(planIdentification, device.getKey(), device.getValue()));
+            }
+        }
+        this.bulkReadPlanDeviceRepository.save(newPlanDevices);
+        LOGGER.info("Added {} devices to bulk read plan {}", newPlanDevices.size(), planIdentification);
+
+        this.schedulePass(planIdentification, 0);
+    }
+
+    /**
+     * Resumes plans with pending devices when the application has started, if
+     * configured to do so.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void resumeUnfinishedPlans() {
+        if (!this.resumeOnStartup || !this.resumed.compareAndSet(false, true)) {
+            return;
+        }
+        for (final String planIdentification : this.bulkReadPlanDeviceRepository
+                .findPlanIdentificationsWithStatus(BulkReadStatus.PENDING)) {
+            LOGGER.info("Resuming bulk read plan {}", planIdentification);
+            this.schedulePass(planIdentification, 0);
+        }
+    }
+
+    private void schedulePass(final String planIdentification, final long delay) {
+        if (!this.scheduledPlans.add(planIdentification)) {
+            LOGGER.info("Bulk read plan {} is already scheduled", planIdentification);
+            return;
+        }
+        this.planExecutorService.schedule(() -> this.runPass(planIdentification), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads the pending devices of the plan, one wave at a time. Schedules a
+     * next pass if devices are left pending.
+     */
+    void runPass(final String planIdentification) {
+        this.scheduledPlans.remove(planIdentification);
+        try {
+            final BulkReadPlan plan = this.bulkReadPlanRepository.findByPlanIdentification(planIdentification);
+            LOGGER.info("Bulk read plan {}: starting pass for {} pending devices", planIdentification,
+                    this.bulkReadPlanDeviceRepository.countByPlanIdentificationAndStatus(planIdentification,
+                            BulkReadStatus.PENDING));
+
+            /*
+             * Devices are paged by id rather than by page number, as devices
+             * that have been read or failed are no longer pending, which
+             * shifts the pages of the pending devices.
+             */
+            List<BulkReadPlanDevice> wave = this.nextWave(planIdentification, 0L);
+            while (!wave.isEmpty()) {
+                final Map<BulkReadPlanDevice, ArrayList<Serializable>> results = this.runWave(plan, wave);
+                this.sendResults(plan, results);
+                this.bulkReadPlanDeviceRepository.save(wave);
+                this.logProgress(planIdentification);
+                wave = this.nextWave(planIdentification, wave.get(wave.size() - 1).getId());
+            }
+        } catch (final RuntimeException e) {
+            LOGGER.error("Bulk read plan {}: unexpected exception", planIdentification, e);
+        }
+
+        if (this.bulkReadPlanDeviceRepository.countByPlanIdentificationAndStatus(planIdentification,
+                BulkReadStatus.PENDING) > 0) {
+            this.schedulePass(planIdentification, this.passDelay);
+        } else {
+            LOGGER.info("Bulk read plan {} finished", planIdentification);
+        }
+    }
+
+    private List<BulkReadPlanDevice> nextWave(final String planIdentification, final Long afterId) {
+        return this.bulkReadPlanDeviceRepository.findByPlanIdentificationAndStatusAndIdGreaterThanOrderByIdAsc(
+                planIdentification, BulkReadStatus.PENDING, afterId, new PageRequest(0, this.waveSize));
+    }
+
+    /**
+     * @return the results of the devices in the wave that have been read, in
+     *         the order of the wave.
+     */
+    private Map<BulkReadPlanDevice, ArrayList<Serializable>> runWave(final BulkReadPlan plan,
+            final List<BulkReadPlanDevice> wave) {
+        final List<Future<ArrayList<Serializable>>> reads = new ArrayList<>(wave.size());
+        for (final BulkReadPlanDevice planDevice : wave) {
+            reads.add(this.sessionExecutorService.submit(() -> this.read(plan, planDevice)));
+        }
+
+        final Map<BulkReadPlanDevice, ArrayList<Serializable>> results = new LinkedHashMap<>();
+        for (int i = 0; i < reads.size(); i++) {
+            try {
+                final ArrayList<Serializable> result = reads.get(i).get();
+                if (result != null) {
+                    results.put(wave.get(i), result);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading devices", e);
+            } catch (final ExecutionException e) {
+                wave.get(i).failed(String.valueOf(e.getCause()), this.maxAttempts);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the response for each period type of the plan, or {@code null}
+     *         if the device has not been read.
+     */
+    private ArrayList<Serializable> read(final BulkReadPlan plan, final BulkReadPlanDevice planDevice) {
+        final String deviceIdentification = planDevice.getDeviceIdentification();
+        try {
+            final DlmsDevice device = this.domainHelperService.findDlmsDevice(deviceIdentification);
+            final Semaphore providerSessions = this.sessionsPerProvider.computeIfAbsent(
+                    String.valueOf(device.getCommunicationProvider()),
+                    provider -> new Semaphore(this.maxConcurrentSessionsPerProvider, true));
+            providerSessions.acquire();
+            try {
+                final long queued = System.nanoTime();
+                this.deviceWorkScheduler.acquire(Lane.LOW);
+                this.dlmsMetrics.timer(DlmsMetrics.Timer.SCHEDULING_WAIT, Lane.LOW.name()).recordSince(queued);
+                try {
+                    this.domainHelperService.setIpAddressForConnection(device, planDevice.getIpAddress());
+                    final ArrayList<Serializable> results = this.bulkReadSessionProcessor.read(plan, device);
+                    planDevice.read();
+                    return results;
+                } finally {
+                    this.deviceWorkScheduler.release();
+                }
+            } finally {
+                providerSessions.release();
+            }
+        } catch (final DeviceBusyException e) {
+            LOGGER.info("Device {} is being communicated with, deferring it to the next pass", deviceIdentification);
+            return null;
+        } catch (final OsgpException | RuntimeException e) {
+            LOGGER.warn("Bulk read failed for device {}", deviceIdentification, e);
+            planDevice.failed(e.getMessage(), this.maxAttempts);
+            return null;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            planDevice.failed("Interrupted", this.maxAttempts);
+            return null;
+        }
+    }
+
+    private void sendResults(final BulkReadPlan plan, final Map<BulkReadPlanDevice, ArrayList<Serializable>> results) {
+        for (final Map.Entry<BulkReadPlanDevice, ArrayList<Serializable>> result : results.entrySet()) {
+            final DeviceMessageMetadata deviceMessageMetadata = new DeviceMessageMetadata(
+                    result.getKey().getDeviceIdentification(), plan.getOrganisationIdentification(),
+                    plan.getPlanIdentification(), DeviceRequestMessageType.BULK_READ.name(),
+                    plan.getMessagePriority());
+            this.responseMessageSender.send(new ProtocolResponseMessage.Builder()
+                    .deviceMessageMetadata(deviceMessageMetadata).domain(plan.getDomain())
+                    .domainVersion(plan.getDomainVersion()).result(ResponseMessageResultType.OK)
+                    .dataObject(result.getValue()).retryHeader(this.retryHeaderFactory.createEmtpyRetryHeader())
+                    .build());
+            this.periodicMeterReadsCheckpointService
+                    .evict(BulkReadSessionProcessor.correlationUid(plan, result.getKey().getDeviceIdentification()));
+        }
+    }
+
+    private void logProgress(final String planIdentification) {
+        final long total = this.bulkReadPlanDeviceRepository.countByPlanIdentification(planIdentification);
+        final long read = this.bulkReadPlanDeviceRepository.countByPlanIdentificationAndStatus(planIdentification,
+                BulkReadStatus.READ);
+        LOGGER.info("Bulk read plan {}: read: {}, pending: {}, failed: {}, coverage: {}%, reads in the last hour: {}",
+                planIdentification, read,
+                this.bulkReadPlanDeviceRepository.countByPlanIdentificationAndStatus(planIdentification,
+                        BulkReadStatus.PENDING),
+                this.bulkReadPlanDeviceRepository.countByPlanIdentificationAndStatus(planIdentification,
+                        BulkReadStatus.FAILED),
+                total == 0 ? 0 : read * 100 / total, this.bulkReadPlanDeviceRepository
+                        .countByPlanIdentificationAndReadTimeAfter(planIdentification,
+                                new Date(System.currentTimeMillis() - ONE_HOUR)));
+    }
+}
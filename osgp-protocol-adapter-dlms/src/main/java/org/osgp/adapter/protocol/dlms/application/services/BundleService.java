@@ -8,10 +8,15 @@
 package org.osgp.adapter.protocol.dlms.application.services;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
 import org.osgp.adapter.protocol.dlms.domain.commands.CommandExecutor;
 import org.osgp.adapter.protocol.dlms.domain.commands.CommandExecutorMap;
+import org.osgp.adapter.protocol.dlms.domain.commands.GetPeriodicMeterReadsGasCommandExecutor;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
 import org.osgp.adapter.protocol.dlms.exceptions.ConnectionException;
@@ -24,9 +29,12 @@ import org.springframework.stereotype.Service;
 import com.alliander.osgp.dto.valueobjects.smartmetering.ActionDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.ActionRequestDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.BundleMessagesRequestDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.ChannelDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FaultResponseDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FaultResponseParameterDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FaultResponseParametersDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadGasResponseDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsGasRequestDto;
 import com.alliander.osgp.shared.exceptionhandling.ComponentType;
 import com.alliander.osgp.shared.exceptionhandling.FunctionalException;
 import com.alliander.osgp.shared.exceptionhandling.OsgpException;
@@ -40,10 +48,17 @@ public class BundleService {
     @Autowired
     private CommandExecutorMap bundleCommandExecutorMap;
 
+    @Autowired
+    private DlmsMetrics dlmsMetrics;
+
+    @Autowired
+    private GetPeriodicMeterReadsGasCommandExecutor getPeriodicMeterReadsGasCommandExecutor;
+
     public BundleMessagesRequestDto callExecutors(final DlmsConnectionHolder conn, final DlmsDevice device,
             final BundleMessagesRequestDto bundleMessagesRequest) {
 
         final List<ActionDto> actionList = bundleMessagesRequest.getActionList();
+        this.readPeriodicMeterReadsGasTogether(conn, device, actionList);
         for (final ActionDto actionDto : actionList) {
 
             // Only execute the request when there is no response available yet.
@@ -64,7 +79,12 @@ public class BundleService {
                     LOGGER.debug("**************************************************");
                     LOGGER.info("Calling executor in bundle {}", executorName);
                     LOGGER.debug("**************************************************");
-                    actionDto.setResponse(executor.executeBundleAction(conn, device, actionDto.getRequest()));
+                    final long start = System.nanoTime();
+                    try {
+                        actionDto.setResponse(executor.executeBundleAction(conn, device, actionDto.getRequest()));
+                    } finally {
+                        this.dlmsMetrics.timer(DlmsMetrics.Timer.EXECUTOR, executorName).recordSince(start);
+                    }
                 } catch (final ConnectionException connectionException) {
                     LOGGER.warn("A connection exception occurred while executing {}", executorName,
                             connectionException);
@@ -93,6 +113,66 @@ public class BundleService {
         return bundleMessagesRequest;
     }
 
+    /**
+     * Reads the periodic gas meter reads that are requested for several M-Bus
+     * channels over the same period with a single request to the device,
+     * instead of a request per channel. When this fails, the actions are left
+     * without response, so they are executed one at a time like any other
+     * action.
+     */
+    private void readPeriodicMeterReadsGasTogether(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final List<ActionDto> actionList) {
+
+        final Map<List<Object>, List<ActionDto>> actionsPerPeriod = new LinkedHashMap<>();
+        for (final ActionDto actionDto : actionList) {
+            if (actionDto.getResponse() == null && actionDto.getRequest() instanceof PeriodicMeterReadsGasRequestDto) {
+                final PeriodicMeterReadsGasRequestDto request = (PeriodicMeterReadsGasRequestDto) actionDto
+                        .getRequest();
+                actionsPerPeriod.computeIfAbsent(
+                        Arrays.<Object> asList(request.getPeriodType(), request.getBeginDate(), request.getEndDate()),
+                        period -> new ArrayList<>()).add(actionDto);
+            }
+        }
+
+        for (final List<ActionDto> actions : actionsPerPeriod.values()) {
+            final List<ChannelDto> channels = new ArrayList<>();
+            for (final ActionDto actionDto : actions) {
+                final ChannelDto channel = ((PeriodicMeterReadsGasRequestDto) actionDto.getRequest()).getChannel();
+                if (!channels.contains(channel)) {
+                    channels.add(channel);
+                }
+            }
+            if (channels.size() > 1) {
+                this.readPeriodicMeterReadsGas(conn, device, actions, channels);
+            }
+        }
+    }
+
+    private void readPeriodicMeterReadsGas(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final List<ActionDto> actions, final List<ChannelDto> channels) {
+
+        final PeriodicMeterReadsGasRequestDto request = (PeriodicMeterReadsGasRequestDto) actions.get(0).getRequest();
+        final String executorName = this.getPeriodicMeterReadsGasCommandExecutor.getClass().getSimpleName();
+        LOGGER.info("Calling executor in bundle {} for channels {}", executorName, channels);
+        final long start = System.nanoTime();
+        try {
+            final Map<ChannelDto, PeriodicMeterReadGasResponseDto> responses =
+                    this.getPeriodicMeterReadsGasCommandExecutor.execute(conn, device, request.getPeriodType(),
+                            request.getBeginDate(), request.getEndDate(), channels);
+            for (final ActionDto actionDto : actions) {
+                actionDto.setResponse(
+                        responses.get(((PeriodicMeterReadsGasRequestDto) actionDto.getRequest()).getChannel()));
+            }
+        } catch (final ConnectionException connectionException) {
+            throw connectionException;
+        } catch (final Exception exception) {
+            LOGGER.warn("Reading periodic meter reads for channels {} at once failed, reading them one at a time",
+                    channels, exception);
+        } finally {
+            this.dlmsMetrics.timer(DlmsMetrics.Timer.EXECUTOR, executorName).recordSince(start);
+        }
+    }
+
     private void addFaultResponse(final ActionDto actionDto, final Exception exception, final String defaultMessage,
             final DlmsDevice device) {
 
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.ejb.HibernateEntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.SecurityKey;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.jpa.EntityManagerFactoryInfo;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evicts devices from the Hibernate second-level cache when their settings or
+ * keys are changed, and keeps track of the number of database statements
+ * executed per processed message.
+ * <p>
+ * Changes saved through the {@link DlmsDeviceRepository} already update the
+ * second-level cache. The explicit eviction makes sure the next lookup of a
+ * device after a change of its settings or keys is read from the database,
+ * including the complete collection of security keys.
+ */
+@Service(value = "dlmsDeviceCacheService")
+public class DlmsDeviceCacheService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DlmsDeviceCacheService.class);
+
+    private static final String SECURITY_KEYS_ROLE = DlmsDevice.class.getName() + ".securityKeys";
+
+    private static final long STATISTICS_LOG_INTERVAL = 1000;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+
+    private final AtomicLong processedMessages = new AtomicLong();
+
+    private long previousMessageCount;
+
+    private long previousStatementCount;
+
+    @PostConstruct
+    public void init() {
+        EntityManagerFactory nativeEntityManagerFactory = this.entityManagerFactory;
+        if (nativeEntityManagerFactory instanceof EntityManagerFactoryInfo) {
+            nativeEntityManagerFactory = ((EntityManagerFactoryInfo) nativeEntityManagerFactory)
+                    .getNativeEntityManagerFactory();
+        }
+        this.sessionFactory = ((HibernateEntityManagerFactory) nativeEntityManagerFactory).getSessionFactory();
+    }
+
+    /**
+     * Removes the device and its security keys from the second-level cache.
+     *
+     * @param device
+     *            the device that has been changed.
+     */
+    public void evict(final DlmsDevice device) {
+        if (device == null || device.getId() == null) {
+            return;
+        }
+        final Cache cache = this.sessionFactory.getCache();
+        cache.evictEntity(DlmsDevice.class, device.getId());
+        cache.evictCollection(SECURITY_KEYS_ROLE, device.getId());
+        for (final SecurityKey securityKey : device.getSecurityKeys()) {
+            if (securityKey.getId() != null) {
+                cache.evictEntity(SecurityKey.class, securityKey.getId());
+            }
+        }
+    }
+
+    /**
+     * Removes all cached results of device lookups, for instance after a device
+     * has been added that may have been looked up (and not found) before.
+     */
+    public void evictLookups() {
+        this.sessionFactory.getCache().evictQueryRegion(DlmsDeviceRepository.DEVICE_LOOKUP_CACHE_REGION);
+    }
+
+    /**
+     * Registers that a message has been processed. Every
+     * {@value #STATISTICS_LOG_INTERVAL} messages the number of database
+     * statements per message and the second-level cache hit ratio are logged,
+     * if Hibernate statistics are enabled.
+     */
+    public void messageProcessed() {
+        final long messageCount = this.processedMessages.incrementAndGet();
+        if (messageCount % STATISTICS_LOG_INTERVAL == 0) {
+            this.logStatistics(messageCount);
+        }
+    }
+
+    public long getProcessedMessages() {
+        return this.processedMessages.get();
+    }
+
+    private synchronized void logStatistics(final long messageCount) {
+        final Statistics statistics = this.sessionFactory.getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+
+        final long statementCount = statistics.getPrepareStatementCount();
+        final long messages = messageCount - this.previousMessageCount;
+        final long statements = statementCount - this.previousStatementCount;
+        this.previousMessageCount = messageCount;
+        this.previousStatementCount = statementCount;
+
+        LOGGER.info(
+                "Database statements per message over the last {} messages: {} - second-level cache hits: {}, misses: {}, query cache hits: {}, misses: {}",
+                messages, String.format("%.2f", (double) statements / messages),
+                statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount());
+    }
+}
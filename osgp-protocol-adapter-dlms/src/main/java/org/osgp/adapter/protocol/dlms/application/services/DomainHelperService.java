@@ -7,8 +7,14 @@
  */
 package org.osgp.adapter.protocol.dlms.application.services;
 
+import java.util.Objects;
+
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.ConnectionCircuitBreaker;
 import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.MbusDeviceIdentityCachingRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.CircuitBreakerOpenException;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.osgp.adapter.protocol.jasper.infra.ws.JasperWirelessSmsClient;
 import org.osgp.adapter.protocol.jasper.sessionproviders.SessionProvider;
@@ -35,12 +41,21 @@ public class DomainHelperService {
     @Autowired
     private DlmsDeviceRepository dlmsDeviceRepository;
 
+    @Autowired
+    private MbusDeviceIdentityCachingRepository mbusDeviceIdentityCachingRepository;
+
     @Autowired
     private SessionProviderService sessionProviderService;
 
     @Autowired
     private JasperWirelessSmsClient jasperWirelessSmsClient;
 
+    @Autowired
+    private ConnectionCircuitBreaker connectionCircuitBreaker;
+
+    @Autowired
+    private DlmsMetrics dlmsMetrics;
+
     @Autowired
     private int jasperGetSessionRetries;
 
@@ -48,9 +63,10 @@ public class DomainHelperService {
     private int jasperGetSessionSleepBetweenRetries;
 
     /**
-     * This method can be used to find an mBusDevice. For other devices, use
-     * {@link #findDlmsDevice(MessageMetadata)} instead, as this will also set
-     * the IP address.
+     * This method can be used to find an mBusDevice, or a device for a request
+     * that does not involve communication with the device. For other devices,
+     * use {@link #findDlmsDevice(MessageMetadata)} instead, as this will also
+     * set the IP address.
      */
     public DlmsDevice findDlmsDevice(final String deviceIdentification) throws FunctionalException {
         final DlmsDevice dlmsDevice = this.dlmsDeviceRepository.findByDeviceIdentification(deviceIdentification);
@@ -75,15 +91,49 @@ public class DomainHelperService {
             throw new FunctionalException(FunctionalExceptionType.UNKNOWN_DEVICE, ComponentType.PROTOCOL_DLMS);
         }
 
+        this.setIpAddressForConnection(dlmsDevice, ipAddress);
+        return dlmsDevice;
+    }
+
+    /**
+     * Sets the IP address to connect to on a device that has already been
+     * looked up, asking the session provider for it if the device does not
+     * have a static IP address.
+     *
+     * @param dlmsDevice
+     *            the device to connect to.
+     * @param ipAddress
+     *            the IP address of the device, only used for devices with a
+     *            static IP address.
+     * @throws CircuitBreakerOpenException
+     *             if earlier attempts to connect to the device or its
+     *             communication provider failed consecutively.
+     */
+    public void setIpAddressForConnection(final DlmsDevice dlmsDevice, final String ipAddress) throws OsgpException {
+        /*
+         * Fail fast for devices that are known to be unreachable, before the
+         * session provider is asked for an IP address (possibly sending a
+         * wake-up SMS and polling for a session).
+         */
+        this.connectionCircuitBreaker.checkConnectionAllowed(dlmsDevice);
+
         if (dlmsDevice.isIpAddressIsStatic()) {
             dlmsDevice.setIpAddress(ipAddress);
         } else {
             dlmsDevice.setIpAddress(this.getDeviceIpAddressFromSessionProvider(dlmsDevice));
         }
-        return dlmsDevice;
     }
 
     public String getDeviceIpAddressFromSessionProvider(final DlmsDevice dlmsDevice) throws OsgpException {
+        final long start = System.nanoTime();
+        try {
+            return this.lookUpDeviceIpAddress(dlmsDevice);
+        } finally {
+            this.dlmsMetrics.timer(DlmsMetrics.Timer.CONNECTION_SETUP, DlmsMetrics.PHASE_IP_LOOKUP).recordSince(start);
+        }
+    }
+
+    private String lookUpDeviceIpAddress(final DlmsDevice dlmsDevice) throws OsgpException {
 
         final SessionProvider sessionProvider = this.sessionProviderService
                 .getSessionProvider(dlmsDevice.getCommunicationProvider());
@@ -136,9 +186,7 @@ public class DomainHelperService {
 
     public DlmsDevice findMbusDevice(final Long mbusIdentificationNumber, final String mbusManufacturerIdentification)
             throws FunctionalException {
-        final DlmsDevice dlmsDevice = this.dlmsDeviceRepository
-                .findByMbusIdentificationNumberAndMbusManufacturerIdentification(mbusIdentificationNumber,
-                        mbusManufacturerIdentification);
+        final DlmsDevice dlmsDevice = this.lookUpMbusDevice(mbusIdentificationNumber, mbusManufacturerIdentification);
         if (dlmsDevice == null) {
             throw new FunctionalException(FunctionalExceptionType.UNKNOWN_DEVICE, COMPONENT_TYPE,
                     new ProtocolAdapterException("Unable to find M-Bus device for M-Bus identification number: "
@@ -146,4 +194,33 @@ public class DomainHelperService {
         }
         return dlmsDevice;
     }
+
+    /**
+     * Looks up the M-Bus device with the given identity. Devices found before
+     * are looked up by their device identification, which is answered from
+     * the second-level cache, instead of by their M-Bus identity.
+     *
+     * @return the M-Bus device, or {@code null} if no device has the identity.
+     */
+    public DlmsDevice lookUpMbusDevice(final Long mbusIdentificationNumber,
+            final String mbusManufacturerIdentification) {
+        final String deviceIdentification = this.mbusDeviceIdentityCachingRepository
+                .retrieve(mbusIdentificationNumber, mbusManufacturerIdentification);
+        if (deviceIdentification != null) {
+            final DlmsDevice dlmsDevice = this.dlmsDeviceRepository.findByDeviceIdentification(deviceIdentification);
+            if (dlmsDevice != null && Objects.equals(mbusIdentificationNumber, dlmsDevice.getMbusIdentificationNumber())
+                    && Objects.equals(mbusManufacturerIdentification, dlmsDevice.getMbusManufacturerIdentification())) {
+                return dlmsDevice;
+            }
+            this.mbusDeviceIdentityCachingRepository.evict(mbusIdentificationNumber, mbusManufacturerIdentification);
+        }
+
+        final DlmsDevice dlmsDevice = this.dlmsDeviceRepository
+                .findByMbusIdentificationNumberAndMbusManufacturerIdentification(mbusIdentificationNumber,
+                        mbusManufacturerIdentification);
+        if (dlmsDevice != null) {
+            this.mbusDeviceIdentityCachingRepository.store(dlmsDevice);
+        }
+        return dlmsDevice;
+    }
 }
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import java.util.Collection;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.EventLogHighWaterMark;
+import org.osgp.adapter.protocol.dlms.domain.repositories.EventLogHighWaterMarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Saves the high-water marks of event logs that have been moved past the
+ * events sent to core.
+ * <p>
+ * Two requests for the events of the same device may retrieve events
+ * concurrently. When saving a mark conflicts with a mark saved in the
+ * meantime (the version has changed, or the mark has been inserted by the
+ * other request), the saved mark is read again and moved to the furthest of
+ * both marks.
+ */
+@Service(value = "dlmsEventLogHighWaterMarkService")
+public class EventLogHighWaterMarkService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLogHighWaterMarkService.class);
+
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    @Autowired
+    private EventLogHighWaterMarkRepository eventLogHighWaterMarkRepository;
+
+    /**
+     * Saves the given high-water marks. A mark that cannot be saved is
+     * logged; its events are then returned again by the next retrieval
+     * rather than lost.
+     */
+    public void saveHighWaterMarks(final Collection<EventLogHighWaterMark> highWaterMarks) {
+        for (final EventLogHighWaterMark highWaterMark : highWaterMarks) {
+            try {
+                this.save(highWaterMark);
+            } catch (final DataAccessException e) {
+                LOGGER.warn("Unable to save {}", highWaterMark, e);
+            }
+        }
+    }
+
+    private void save(final EventLogHighWaterMark highWaterMark) {
+        EventLogHighWaterMark toSave = highWaterMark;
+        for (int attempt = 1;; attempt++) {
+            try {
+                this.eventLogHighWaterMarkRepository.save(toSave);
+                return;
+            } catch (final OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= MAX_SAVE_ATTEMPTS) {
+                    throw e;
+                }
+                final EventLogHighWaterMark saved = this.eventLogHighWaterMarkRepository
+                        .findByDeviceIdentificationAndEventLogCategory(highWaterMark.getDeviceIdentification(),
+                                highWaterMark.getEventLogCategory().name());
+                if (saved == null) {
+                    LOGGER.info("Retrying to save {}: {}", highWaterMark, e.getMessage());
+                    continue;
+                }
+                if (!saved.mergeWith(highWaterMark)) {
+                    LOGGER.info("Not saving {}, {} has been saved concurrently", highWaterMark, saved);
+                    return;
+                }
+                LOGGER.info("Saving {} merged with concurrently saved mark", saved);
+                toSave = saved;
+            }
+        }
+    }
+}
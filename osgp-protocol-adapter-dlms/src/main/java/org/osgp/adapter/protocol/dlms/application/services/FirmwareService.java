@@ -8,12 +8,15 @@
 package org.osgp.adapter.protocol.dlms.application.services;
 
 import java.util.List;
+import java.util.Objects;
 
 import org.apache.commons.lang3.ArrayUtils;
+import org.osgp.adapter.protocol.dlms.domain.commands.DeviceCapabilityHelperService;
 import org.osgp.adapter.protocol.dlms.domain.commands.GetFirmwareVersionsCommandExecutor;
 import org.osgp.adapter.protocol.dlms.domain.commands.UpdateFirmwareCommandExecutor;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
 import org.osgp.adapter.protocol.dlms.domain.repositories.FirmwareFileCachingRepository;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.slf4j.Logger;
@@ -42,10 +45,25 @@ public class FirmwareService {
     @Autowired
     private UpdateFirmwareCommandExecutor updateFirmwareCommandExecutor;
 
+    @Autowired
+    private DlmsDeviceRepository dlmsDeviceRepository;
+
+    @Autowired
+    private DlmsDeviceCacheService dlmsDeviceCacheService;
+
+    @Autowired
+    private DeviceCapabilityHelperService deviceCapabilityHelperService;
+
     public List<FirmwareVersionDto> getFirmwareVersions(final DlmsConnectionHolder conn, final DlmsDevice device)
             throws ProtocolAdapterException {
 
-        return this.getFirmwareVersionsCommandExecutor.execute(conn, device, null);
+        final String knownActiveFirmwareVersion = device.getActiveFirmwareVersion();
+        final List<FirmwareVersionDto> firmwareVersions = this.getFirmwareVersionsCommandExecutor.execute(conn,
+                device, null);
+        if (!Objects.equals(knownActiveFirmwareVersion, device.getActiveFirmwareVersion())) {
+            this.saveActiveFirmwareVersion(device, device.getActiveFirmwareVersion());
+        }
+        return firmwareVersions;
     }
 
     public UpdateFirmwareResponseDto updateFirmware(final DlmsConnectionHolder conn, final DlmsDevice device,
@@ -76,9 +94,32 @@ public class FirmwareService {
     private UpdateFirmwareResponseDto executeFirmwareUpdate(final DlmsConnectionHolder conn, final DlmsDevice device,
             final String firmwareIdentification) throws OsgpException {
         if (this.firmwareRepository.isAvailable(firmwareIdentification)) {
-            return this.updateFirmwareCommandExecutor.execute(conn, device, firmwareIdentification);
+            final UpdateFirmwareResponseDto response = this.updateFirmwareCommandExecutor.execute(conn, device,
+                    firmwareIdentification);
+            /*
+             * The capabilities of the device may have changed with its
+             * firmware, they are only known again once the new firmware
+             * version has been read.
+             */
+            this.deviceCapabilityHelperService.forgetMaxGetWithListSize(device);
+            this.saveActiveFirmwareVersion(device, null);
+            return response;
         } else {
             throw new ProtocolAdapterException(EXCEPTION_MSG_FIRMWARE_FILE_NOT_AVAILABLE);
         }
     }
+
+    /**
+     * Stores the active firmware version with a targeted update, rather than
+     * by saving the device. Saving would increase the version of the stored
+     * device, leaving the device in use by the caller stale.
+     */
+    private void saveActiveFirmwareVersion(final DlmsDevice device, final String activeFirmwareVersion) {
+        LOGGER.info("Active firmware version of device {} is {}", device.getDeviceIdentification(),
+                activeFirmwareVersion);
+        device.setActiveFirmwareVersion(activeFirmwareVersion);
+        this.dlmsDeviceRepository.updateActiveFirmwareVersion(device.getDeviceIdentification(),
+                activeFirmwareVersion);
+        this.dlmsDeviceCacheService.evict(device);
+    }
 }
@@ -16,6 +16,7 @@ import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.entities.SecurityKeyType;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
 import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.MbusDeviceIdentityCachingRepository;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -41,6 +42,12 @@ public class InstallationService {
     @Autowired
     private SecurityKeyService securityKeyService;
 
+    @Autowired
+    private DlmsDeviceCacheService dlmsDeviceCacheService;
+
+    @Autowired
+    private MbusDeviceIdentityCachingRepository mbusDeviceIdentityCachingRepository;
+
     @Autowired
     private CoupleMBusDeviceCommandExecutor coupleMBusDeviceCommandExecutor;
 
@@ -52,9 +59,21 @@ public class InstallationService {
 
     // === ADD METER ===
     public void addMeter(final SmartMeteringDeviceDto smartMeteringDevice) throws FunctionalException {
+        final DlmsDevice dlmsDevice = this.toNewDevice(smartMeteringDevice);
+        final DlmsDevice savedDevice = this.dlmsDeviceRepository.save(dlmsDevice);
+        this.dlmsDeviceCacheService.evict(savedDevice);
+        this.dlmsDeviceCacheService.evictLookups();
+        this.mbusDeviceIdentityCachingRepository.store(savedDevice);
+    }
+
+    /**
+     * Re-encrypts the keys of the given device with the secret key of this
+     * protocol adapter, and maps the device to a new (not yet saved)
+     * {@link DlmsDevice}.
+     */
+    public DlmsDevice toNewDevice(final SmartMeteringDeviceDto smartMeteringDevice) throws FunctionalException {
         this.reEncryptKeys(smartMeteringDevice);
-        final DlmsDevice dlmsDevice = this.installationMapper.map(smartMeteringDevice, DlmsDevice.class);
-        this.dlmsDeviceRepository.save(dlmsDevice);
+        return this.installationMapper.map(smartMeteringDevice, DlmsDevice.class);
     }
 
     private void reEncryptKeys(final SmartMeteringDeviceDto smartMeteringDevice) throws FunctionalException {
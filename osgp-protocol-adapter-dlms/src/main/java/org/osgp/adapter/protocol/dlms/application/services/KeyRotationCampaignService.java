@@ -0,0 +1,301 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openmuc.jdlms.SecurityUtils.KeyId;
+import org.osgp.adapter.protocol.dlms.domain.commands.ReplaceKeyCommandExecutor;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.KeyRotationCampaignDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.KeyRotationStatus;
+import org.osgp.adapter.protocol.dlms.domain.entities.SecurityKeyType;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionFactory;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.KeyRotationCampaignDeviceRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.CircuitBreakerOpenException;
+import org.osgp.adapter.protocol.dlms.exceptions.DeviceBusyException;
+import org.osgp.adapter.protocol.dlms.infra.messaging.InvocationCountingDlmsMessageListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.alliander.osgp.shared.exceptionhandling.OsgpException;
+
+/**
+ * Rotates the authentication and encryption keys of a fleet of devices.
+ * <p>
+ * The devices of a campaign are stored, and handled in waves. For each wave the
+ * new keys are generated up front, after which the keys are replaced on the
+ * devices of the wave in parallel, with no more concurrent device sessions than
+ * the size of the session pool. The progress of the devices in a wave is saved
+ * at once when the wave is done, so a campaign can be resumed after a restart
+ * (devices of an unfinished wave are rotated again).
+ * <p>
+ * Devices for which a key recovery is pending (having a new key that is not
+ * yet known to be valid) are not rotated, to prevent the new key from being
+ * thrown away. These devices, and devices whose connection circuit is open,
+ * are deferred to a next pass without using up an attempt. A device that fails
+ * stays pending for a next pass of the campaign, until it failed for the
+ * maximum number of attempts. When too many of the attempted devices of a wave
+ * fail, the campaign is paused until the next pass.
+ */
+@Service(value = "dlmsKeyRotationCampaignService")
+public class KeyRotationCampaignService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyRotationCampaignService.class);
+
+    private enum Outcome {
+        ROTATED,
+        FAILED,
+        DEFERRED
+    }
+
+    @Autowired
+    private KeyRotationCampaignDeviceRepository keyRotationCampaignDeviceRepository;
+
+    @Autowired
+    private DomainHelperService domainHelperService;
+
+    @Autowired
+    private DlmsConnectionFactory dlmsConnectionFactory;
+
+    @Autowired
+    private SecurityKeyService securityKeyService;
+
+    @Autowired
+    private ReplaceKeyCommandExecutor replaceKeyCommandExecutor;
+
+    @Autowired
+    @Qualifier("keyRotationCampaignExecutorService")
+    private ScheduledExecutorService campaignExecutorService;
+
+    @Autowired
+    @Qualifier("keyRotationSessionExecutorService")
+    private ExecutorService sessionExecutorService;
+
+    @Value("${key.rotation.campaign.wave.size}")
+    private int waveSize;
+
+    @Value("${key.rotation.campaign.max.attempts}")
+    private int maxAttempts;
+
+    @Value("${key.rotation.campaign.max.failure.percentage}")
+    private int maxFailurePercentage;
+
+    @Value("${key.rotation.campaign.pass.delay}")
+    private long passDelay;
+
+    @Value("${key.rotation.campaign.resume.on.startup}")
+    private boolean resumeOnStartup;
+
+    private final Set<String> scheduledCampaigns = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean resumed = new AtomicBoolean();
+
+    /**
+     * Adds the given devices to a campaign, and schedules the campaign. Devices
+     * that are already part of the campaign are not added again.
+     *
+     * @param campaignIdentification
+     *            identification of the campaign.
+     * @param ipAddressPerDevice
+     *            the devices to rotate the keys for, with their IP address
+     *            (only needed for devices with a static IP address).
+     */
+    public void startCampaign(final String campaignIdentification, final Map<String, String> ipAddressPerDevice) {
+        final List<KeyRotationCampaignDevice> newCampaignDevices = new ArrayList<>();
+        for (final Map.Entry<String, String> device : ipAddressPerDevice.entrySet()) {
+            if (this.keyRotationCampaignDeviceRepository.findByCampaignIdentificationAndDeviceIdentification(
+                    campaignIdentification, device.getKey()) == null) {
+                newCampaignDevices
+                        .add(new KeyRotationCampaignDevice(campaignIdentification, device.getKey(), device.getValue()));
+            }
+        }
+        this.keyRotationCampaignDeviceRepository.save(newCampaignDevices);
+        LOGGER.info("Added {} devices to key rotation campaign {}", newCampaignDevices.size(), campaignIdentification);
+
+        this.schedulePass(campaignIdentification, 0);
+    }
+
+    /**
+     * Resumes campaigns with pending devices when the application has started,
+     * if configured to do so.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void resumeUnfinishedCampaigns() {
+        if (!this.resumeOnStartup || !this.resumed.compareAndSet(false, true)) {
+            return;
+        }
+        for (final String campaignIdentification : this.keyRotationCampaignDeviceRepository
+                .findCampaignIdentificationsWithStatus(KeyRotationStatus.PENDING)) {
+            LOGGER.info("Resuming key rotation campaign {}", campaignIdentification);
+            this.schedulePass(campaignIdentification, 0);
+        }
+    }
+
+    private void schedulePass(final String campaignIdentification, final long delay) {
+        if (!this.scheduledCampaigns.add(campaignIdentification)) {
+            LOGGER.info("Key rotation campaign {} is already scheduled", campaignIdentification);
+            return;
+        }
+        this.campaignExecutorService.schedule(() -> this.runPass(campaignIdentification), delay,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Rotates the keys of the pending devices of the campaign, one wave at a
+     * time. Schedules a next pass if devices are left pending.
+     */
+    void runPass(final String campaignIdentification) {
+        this.scheduledCampaigns.remove(campaignIdentification);
+        try {
+            final List<KeyRotationCampaignDevice> pendingDevices = this.keyRotationCampaignDeviceRepository
+                    .findByCampaignIdentificationAndStatus(campaignIdentification, KeyRotationStatus.PENDING);
+            LOGGER.info("Key rotation campaign {}: starting pass for {} pending devices", campaignIdentification,
+                    pendingDevices.size());
+
+            for (int start = 0; start < pendingDevices.size(); start += this.waveSize) {
+                final List<KeyRotationCampaignDevice> wave = pendingDevices.subList(start,
+                        Math.min(start + this.waveSize, pendingDevices.size()));
+                final Map<Outcome, Integer> outcomes = this.runWave(wave);
+                this.keyRotationCampaignDeviceRepository.save(wave);
+                this.logProgress(campaignIdentification);
+
+                final int failures = outcomes.get(Outcome.FAILED);
+                final int attempted = wave.size() - outcomes.get(Outcome.DEFERRED);
+                if (failures * 100 > attempted * this.maxFailurePercentage) {
+                    LOGGER.warn("Key rotation campaign {}: {} of {} attempted devices in the last wave failed, "
+                            + "pausing campaign", campaignIdentification, failures, attempted);
+                    break;
+                }
+            }
+        } catch (final RuntimeException e) {
+            LOGGER.error("Key rotation campaign {}: unexpected exception", campaignIdentification, e);
+        }
+
+        if (this.keyRotationCampaignDeviceRepository.countByCampaignIdentificationAndStatus(campaignIdentification,
+                KeyRotationStatus.PENDING) > 0) {
+            this.schedulePass(campaignIdentification, this.passDelay);
+        } else {
+            LOGGER.info("Key rotation campaign {} finished", campaignIdentification);
+        }
+    }
+
+    /**
+     * @return the number of devices in the wave per outcome of rotating the
+     *         keys.
+     */
+    private Map<Outcome, Integer> runWave(final List<KeyRotationCampaignDevice> wave) {
+        final List<Future<Outcome>> rotations = new ArrayList<>(wave.size());
+        for (final KeyRotationCampaignDevice campaignDevice : wave) {
+            final byte[] encryptedAuthenticationKey = this.securityKeyService.generateAndEncryptKey();
+            final byte[] encryptedEncryptionKey = this.securityKeyService.generateAndEncryptKey();
+            rotations.add(this.sessionExecutorService.submit(
+                    () -> this.rotate(campaignDevice, encryptedAuthenticationKey, encryptedEncryptionKey)));
+        }
+
+        final Map<Outcome, Integer> outcomes = new EnumMap<>(Outcome.class);
+        for (final Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, 0);
+        }
+        for (int i = 0; i < rotations.size(); i++) {
+            Outcome outcome;
+            try {
+                outcome = rotations.get(i).get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rotating keys", e);
+            } catch (final ExecutionException e) {
+                wave.get(i).failed(String.valueOf(e.getCause()), this.maxAttempts);
+                outcome = Outcome.FAILED;
+            }
+            outcomes.put(outcome, outcomes.get(outcome) + 1);
+        }
+        return outcomes;
+    }
+
+    private Outcome rotate(final KeyRotationCampaignDevice campaignDevice, final byte[] encryptedAuthenticationKey,
+            final byte[] encryptedEncryptionKey) {
+        final String deviceIdentification = campaignDevice.getDeviceIdentification();
+        try {
+            final DlmsDevice device = this.domainHelperService.findDlmsDevice(deviceIdentification);
+            if (device.hasNewSecurityKey()) {
+                campaignDevice.deferred("Key recovery pending");
+                return Outcome.DEFERRED;
+            }
+
+            this.domainHelperService.setIpAddressForConnection(device, campaignDevice.getIpAddress());
+            this.replaceKeys(device, encryptedAuthenticationKey, encryptedEncryptionKey);
+            campaignDevice.rotated();
+            return Outcome.ROTATED;
+        } catch (final CircuitBreakerOpenException | DeviceBusyException e) {
+            LOGGER.info("Key rotation deferred for device {}: {}", deviceIdentification, e.getMessage());
+            campaignDevice.deferred(e.getMessage());
+            return Outcome.DEFERRED;
+        } catch (final OsgpException | RuntimeException e) {
+            LOGGER.warn("Key rotation failed for device {}", deviceIdentification, e);
+            campaignDevice.failed(e.getMessage(), this.maxAttempts);
+            return Outcome.FAILED;
+        }
+    }
+
+    private void replaceKeys(final DlmsDevice device, final byte[] encryptedAuthenticationKey,
+            final byte[] encryptedEncryptionKey) throws OsgpException {
+
+        final InvocationCountingDlmsMessageListener dlmsMessageListener = device.isHls5Active()
+                ? new InvocationCountingDlmsMessageListener()
+                : null;
+        final DlmsConnectionHolder conn = this.dlmsConnectionFactory.getConnection(device, dlmsMessageListener);
+        try {
+            this.replaceKeyCommandExecutor.replaceKeys(conn, device,
+                    Arrays.asList(
+                            ReplaceKeyCommandExecutor.wrap(encryptedAuthenticationKey, KeyId.AUTHENTICATION_KEY,
+                                    SecurityKeyType.E_METER_AUTHENTICATION),
+                            ReplaceKeyCommandExecutor.wrap(encryptedEncryptionKey,
+                                    KeyId.GLOBAL_UNICAST_ENCRYPTION_KEY, SecurityKeyType.E_METER_ENCRYPTION)));
+        } finally {
+            try {
+                conn.close();
+            } catch (final Exception e) {
+                LOGGER.error("Error while closing connection", e);
+            }
+            if (dlmsMessageListener != null) {
+                this.securityKeyService.incrementInvocationCounter(device.getDeviceIdentification(),
+                        SecurityKeyType.E_METER_ENCRYPTION, dlmsMessageListener.getNumberOfSentMessages());
+            }
+        }
+    }
+
+    private void logProgress(final String campaignIdentification) {
+        LOGGER.info("Key rotation campaign {}: rotated: {}, pending: {}, failed: {}", campaignIdentification,
+                this.keyRotationCampaignDeviceRepository.countByCampaignIdentificationAndStatus(campaignIdentification,
+                        KeyRotationStatus.ROTATED),
+                this.keyRotationCampaignDeviceRepository.countByCampaignIdentificationAndStatus(campaignIdentification,
+                        KeyRotationStatus.PENDING),
+                this.keyRotationCampaignDeviceRepository.countByCampaignIdentificationAndStatus(campaignIdentification,
+                        KeyRotationStatus.FAILED));
+    }
+}
@@ -7,10 +7,10 @@
  */
 package org.osgp.adapter.protocol.dlms.application.services;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.osgp.adapter.protocol.dlms.domain.commands.RetrieveEventsCommandExecutor;
+import org.osgp.adapter.protocol.dlms.domain.commands.RetrieveEventsCommandExecutor.RetrievedEvents;
 import org.osgp.adapter.protocol.dlms.domain.commands.SetDeviceLifecycleStatusByChannelCommandExecutor;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
@@ -21,8 +21,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.alliander.osgp.dto.valueobjects.smartmetering.EventDto;
-import com.alliander.osgp.dto.valueobjects.smartmetering.EventMessageDataResponseDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FindEventsRequestDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FindEventsRequestList;
 import com.alliander.osgp.dto.valueobjects.smartmetering.SetDeviceCommunicationSettingsRequestDataDto;
@@ -45,30 +43,31 @@ public class ManagementService {
     @Autowired
     private DlmsDeviceRepository dlmsDeviceRepository;
 
+    @Autowired
+    private DlmsDeviceCacheService dlmsDeviceCacheService;
+
     // === FIND EVENTS ===
 
-    public EventMessageDataResponseDto findEvents(final DlmsConnectionHolder conn, final DlmsDevice device,
+    public RetrievedEvents findEvents(final DlmsConnectionHolder conn, final DlmsDevice device,
             final FindEventsRequestList findEventsQueryMessageDataContainer) throws ProtocolAdapterException {
 
-        final List<EventDto> events = new ArrayList<>();
-
         LOGGER.info("findEvents setting up connection with meter {}", device.getDeviceIdentification());
 
-        for (final FindEventsRequestDto findEventsQuery : findEventsQueryMessageDataContainer
-                .getFindEventsQueryList()) {
+        final List<FindEventsRequestDto> findEventsQueries = findEventsQueryMessageDataContainer
+                .getFindEventsQueryList();
+        for (final FindEventsRequestDto findEventsQuery : findEventsQueries) {
             LOGGER.info("findEventsQuery.eventLogCategory: {}, findEventsQuery.from: {}, findEventsQuery.until: {}",
                     findEventsQuery.getEventLogCategory().toString(), findEventsQuery.getFrom(),
                     findEventsQuery.getUntil());
-
-            events.addAll(this.retrieveEventsCommandExecutor.execute(conn, device, findEventsQuery));
         }
 
-        return new EventMessageDataResponseDto(events);
+        return this.retrieveEventsCommandExecutor.retrieveEvents(conn, device, findEventsQueries);
     }
 
     public void changeInDebugMode(final DlmsDevice device, final boolean debugMode) {
         device.setInDebugMode(debugMode);
         this.dlmsDeviceRepository.save(device);
+        this.dlmsDeviceCacheService.evict(device);
     }
 
     public void setDeviceCommunicationSettings(final DlmsDevice device,
@@ -76,6 +75,7 @@ public class ManagementService {
 
         this.dlmsDeviceRepository.save(this.setDeviceCommunicationSettings(device,
                 deviceCommunicationSettings.getSetDeviceCommunicationSettingsData()));
+        this.dlmsDeviceCacheService.evict(device);
     }
 
     private DlmsDevice setDeviceCommunicationSettings(final DlmsDevice device,
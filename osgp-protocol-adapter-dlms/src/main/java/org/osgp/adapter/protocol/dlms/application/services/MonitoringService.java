@@ -55,14 +55,22 @@ public class MonitoringService {
 
     // === REQUEST PERIODIC METER DATA ===
 
+    /**
+     * @param correlationUid
+     *            the correlation UID of the request, by which the parts of a
+     *            long period that have been read are kept until the request
+     *            completes.
+     */
     public Serializable requestPeriodicMeterReads(final DlmsConnectionHolder conn, final DlmsDevice device,
-            final PeriodicMeterReadsRequestDto periodicMeterReadsQuery) throws ProtocolAdapterException {
+            final PeriodicMeterReadsRequestDto periodicMeterReadsQuery, final String correlationUid)
+            throws ProtocolAdapterException {
 
         Serializable response = null;
         if (periodicMeterReadsQuery.isMbusQuery()) {
             response = this.getPeriodicMeterReadsGasCommandExecutor.execute(conn, device, periodicMeterReadsQuery);
         } else {
-            response = this.getPeriodicMeterReadsCommandExecutor.execute(conn, device, periodicMeterReadsQuery);
+            response = this.getPeriodicMeterReadsCommandExecutor.execute(conn, device, periodicMeterReadsQuery,
+                    correlationUid);
         }
 
         return response;
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.PeriodicMeterReadsCheckpoint;
+import org.osgp.adapter.protocol.dlms.domain.repositories.PeriodicMeterReadsCheckpointRepository;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.PeriodicMeterReadsColumns;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the periodic meter reads of the time windows of a long period that
+ * have been read for a request, by the correlation UID of the request. When
+ * the request fails part way and is retried, by this or another instance of
+ * the protocol adapter, only the windows that were not read before have to be
+ * read from the device.
+ * <p>
+ * The windows of a request should be evicted once the request has been
+ * answered. Windows of requests that are not retried expire after a
+ * configurable time to live. Failing to store or retrieve a window is logged,
+ * the window is then read from the device (again).
+ */
+@Service(value = "dlmsPeriodicMeterReadsCheckpointService")
+public class PeriodicMeterReadsCheckpointService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PeriodicMeterReadsCheckpointService.class);
+
+    @Autowired
+    private PeriodicMeterReadsCheckpointRepository periodicMeterReadsCheckpointRepository;
+
+    @Value("${periodic.meter.reads.checkpoint.time.to.live.seconds}")
+    private long timeToLiveSeconds;
+
+    /**
+     * @return the periodic meter reads stored for the window of the request,
+     *         or {@code null} if the window has not been read or has expired.
+     */
+    public PeriodicMeterReadsColumns retrieve(final String correlationUid, final long windowBegin,
+            final long windowEnd) {
+        if (this.timeToLiveSeconds <= 0) {
+            return null;
+        }
+        try {
+            final PeriodicMeterReadsCheckpoint checkpoint = this.periodicMeterReadsCheckpointRepository
+                    .findByCorrelationUidAndWindowBeginAndWindowEnd(correlationUid, new Date(windowBegin),
+                            new Date(windowEnd));
+            if (checkpoint == null || checkpoint.isExpired(new Date())) {
+                return null;
+            }
+            return checkpoint.getPeriodicMeterReads();
+        } catch (final DataAccessException | IllegalArgumentException e) {
+            // Stored windows that cannot be deserialized are read again.
+            LOGGER.warn("Unable to retrieve periodic meter reads read before for {}", correlationUid, e);
+            return null;
+        }
+    }
+
+    public void store(final String correlationUid, final long windowBegin, final long windowEnd,
+            final PeriodicMeterReadsColumns columns) {
+        if (this.timeToLiveSeconds <= 0) {
+            return;
+        }
+        final Date now = new Date();
+        final Date expiresAt = new Date(now.getTime() + TimeUnit.SECONDS.toMillis(this.timeToLiveSeconds));
+        try {
+            this.periodicMeterReadsCheckpointRepository.deleteExpired(now);
+            this.periodicMeterReadsCheckpointRepository.save(new PeriodicMeterReadsCheckpoint(correlationUid,
+                    new Date(windowBegin), new Date(windowEnd), expiresAt, columns));
+        } catch (final DataAccessException e) {
+            LOGGER.warn("Unable to store periodic meter reads for {}", correlationUid, e);
+        }
+    }
+
+    /**
+     * Forgets all windows stored for the request.
+     */
+    public void evict(final String correlationUid) {
+        if (this.timeToLiveSeconds <= 0) {
+            return;
+        }
+        try {
+            this.periodicMeterReadsCheckpointRepository.deleteByCorrelationUid(correlationUid);
+        } catch (final DataAccessException e) {
+            LOGGER.warn("Unable to evict periodic meter reads for {}, they expire later", correlationUid, e);
+        }
+    }
+}
@@ -11,7 +11,9 @@ import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Map;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -56,9 +58,37 @@ public class SecurityKeyService {
 
     public static final int AES_GMC_128_KEY_SIZE = 128;
 
+    private static final IvParameterSpec MBUS_USER_KEY_IV = new IvParameterSpec(new byte[16]);
+
+    /*
+     * Looking up a cipher or key generator is expensive compared to using it
+     * for a single 16-byte key, and the instances are not thread-safe. Each
+     * thread therefore keeps its own instances to reuse.
+     */
+    private static final ThreadLocal<KeyGenerator> AES_KEY_GENERATOR = ThreadLocal.withInitial(() -> {
+        try {
+            final KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+            keyGenerator.init(AES_GMC_128_KEY_SIZE);
+            return keyGenerator;
+        } catch (final NoSuchAlgorithmException e) {
+            throw new AssertionError("Expected AES algorithm to be available for key generation.", e);
+        }
+    });
+
+    private static final ThreadLocal<Cipher> MBUS_USER_KEY_CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance("AES/CBC/NoPadding");
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new AssertionError("Expected AES/CBC/NoPadding cipher to be available.", e);
+        }
+    });
+
     @Autowired
     private DlmsDeviceRepository dlmsDeviceRepository;
 
+    @Autowired
+    private DlmsDeviceCacheService dlmsDeviceCacheService;
+
     @Autowired
     private EncryptionService encryptionService;
 
@@ -342,7 +372,30 @@ public class SecurityKeyService {
     public DlmsDevice storeNewKey(final DlmsDevice device, final byte[] encryptedKey, final SecurityKeyType keyType) {
         this.removeEarlierStoredNewKeyIfFound(device, keyType);
         this.addNewKeyToDevice(device, encryptedKey, keyType);
-        return this.dlmsDeviceRepository.save(device);
+        final DlmsDevice savedDevice = this.dlmsDeviceRepository.save(device);
+        this.dlmsDeviceCacheService.evict(savedDevice);
+        return savedDevice;
+    }
+
+    /**
+     * Stores new keys of several types with a single save of the device.
+     *
+     * @see #storeNewKey(DlmsDevice, byte[], SecurityKeyType)
+     * @param device
+     *            DLMS device
+     * @param encryptedKeys
+     *            keys encrypted with the symmetrical key internal to the DLMS
+     *            protocol adapter, by type of key
+     * @return saved device, with a new key for each of the given types
+     */
+    public DlmsDevice storeNewKeys(final DlmsDevice device, final Map<SecurityKeyType, byte[]> encryptedKeys) {
+        for (final Map.Entry<SecurityKeyType, byte[]> encryptedKey : encryptedKeys.entrySet()) {
+            this.removeEarlierStoredNewKeyIfFound(device, encryptedKey.getKey());
+            this.addNewKeyToDevice(device, encryptedKey.getValue(), encryptedKey.getKey());
+        }
+        final DlmsDevice savedDevice = this.dlmsDeviceRepository.save(device);
+        this.dlmsDeviceCacheService.evict(savedDevice);
+        return savedDevice;
     }
 
     private void removeEarlierStoredNewKeyIfFound(final DlmsDevice device, final SecurityKeyType keyType) {
@@ -386,6 +439,60 @@ public class SecurityKeyService {
         return this.updateDeviceWithNewValidKey(device, previousValidKey, newKey);
     }
 
+    /**
+     * Validates the new keys of several types with a single save of the
+     * device.
+     *
+     * @see #validateNewKey(DlmsDevice, SecurityKeyType)
+     * @param device
+     *            DLMS device
+     * @param keyTypes
+     *            types of the keys that have been confirmed to be set on the
+     *            device
+     * @return saved device, with the new keys of the given types valid
+     * @throws ProtocolAdapterException
+     *             if for one of the types no new key is stored with the given
+     *             device
+     */
+    public DlmsDevice validateNewKeys(final DlmsDevice device, final Collection<SecurityKeyType> keyTypes)
+            throws ProtocolAdapterException {
+
+        final Date now = new Date();
+        for (final SecurityKeyType keyType : keyTypes) {
+            final SecurityKey newKey = this.findNewKey(device, keyType);
+            final SecurityKey previousValidKey = device.getValidSecurityKey(keyType);
+            if (previousValidKey != null) {
+                previousValidKey.setValidTo(now);
+            }
+            newKey.setValidFrom(now);
+        }
+        final DlmsDevice savedDevice = this.dlmsDeviceRepository.save(device);
+        this.dlmsDeviceCacheService.evict(savedDevice);
+        return savedDevice;
+    }
+
+    /**
+     * Removes the new keys of the given types, that have been stored but were
+     * never sent to the device, with a single save of the device.
+     *
+     * @param device
+     *            DLMS device
+     * @param keyTypes
+     *            types of the new keys that have not been sent to the device
+     * @return saved device, without new keys of the given types
+     */
+    public DlmsDevice discardNewKeys(final DlmsDevice device, final Collection<SecurityKeyType> keyTypes) {
+        for (final SecurityKeyType keyType : keyTypes) {
+            final SecurityKey newKey = device.getNewSecurityKey(keyType);
+            if (newKey != null) {
+                device.getSecurityKeys().remove(newKey);
+            }
+        }
+        final DlmsDevice savedDevice = this.dlmsDeviceRepository.save(device);
+        this.dlmsDeviceCacheService.evict(savedDevice);
+        return savedDevice;
+    }
+
     private SecurityKey findNewKey(final DlmsDevice device, final SecurityKeyType keyType)
             throws ProtocolAdapterException {
         final SecurityKey newKey = device.getNewSecurityKey(keyType);
@@ -404,7 +511,9 @@ public class SecurityKeyService {
             previousValidKey.setValidTo(now);
         }
         newKey.setValidFrom(now);
-        return this.dlmsDeviceRepository.save(device);
+        final DlmsDevice savedDevice = this.dlmsDeviceRepository.save(device);
+        this.dlmsDeviceCacheService.evict(savedDevice);
+        return savedDevice;
     }
 
     /**
@@ -417,13 +526,7 @@ public class SecurityKeyService {
      * @return a new 16-byte AES key.
      */
     public byte[] generateKey() {
-        try {
-            final KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
-            keyGenerator.init(AES_GMC_128_KEY_SIZE);
-            return keyGenerator.generateKey().getEncoded();
-        } catch (final NoSuchAlgorithmException e) {
-            throw new AssertionError("Expected AES algorithm to be available for key generation.", e);
-        }
+        return AES_KEY_GENERATOR.get().generateKey().getEncoded();
     }
 
     /**
@@ -465,15 +568,13 @@ public class SecurityKeyService {
 
         try {
 
-            final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
-
-            final IvParameterSpec params = new IvParameterSpec(new byte[16]);
-            cipher.init(Cipher.ENCRYPT_MODE, secretkeySpec, params);
+            final Cipher cipher = MBUS_USER_KEY_CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, secretkeySpec, MBUS_USER_KEY_IV);
 
             return cipher.doFinal(mbusUserKey);
 
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException
-                | InvalidAlgorithmParameterException | IllegalBlockSizeException | BadPaddingException e) {
+        } catch (InvalidKeyException | InvalidAlgorithmParameterException | IllegalBlockSizeException
+                | BadPaddingException e) {
             final String message = "Error encrypting M-Bus User key with M-Bus Default key for transfer.";
             LOGGER.error(message, e);
             throw new ProtocolAdapterException(message);
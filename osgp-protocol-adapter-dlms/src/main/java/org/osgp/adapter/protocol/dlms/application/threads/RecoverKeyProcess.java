@@ -16,10 +16,12 @@ import org.openmuc.jdlms.DlmsConnection;
 import org.openmuc.jdlms.SecuritySuite;
 import org.openmuc.jdlms.SecuritySuite.EncryptionMechanism;
 import org.openmuc.jdlms.TcpConnectionBuilder;
+import org.osgp.adapter.protocol.dlms.application.services.DlmsDeviceCacheService;
 import org.osgp.adapter.protocol.dlms.application.services.DomainHelperService;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.entities.SecurityKey;
 import org.osgp.adapter.protocol.dlms.domain.entities.SecurityKeyType;
+import org.osgp.adapter.protocol.dlms.domain.factories.ConnectionCircuitBreaker;
 import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.osgp.adapter.protocol.dlms.exceptions.RecoverKeyException;
@@ -39,6 +41,10 @@ public class RecoverKeyProcess implements Runnable {
 
     private final DlmsDeviceRepository dlmsDeviceRepository;
 
+    private final DlmsDeviceCacheService dlmsDeviceCacheService;
+
+    private final ConnectionCircuitBreaker connectionCircuitBreaker;
+
     private final int responseTimeout;
 
     private final int logicalDeviceAddress;
@@ -51,11 +57,16 @@ public class RecoverKeyProcess implements Runnable {
 
     private String ipAddress;
 
+    private boolean recovered;
+
     public RecoverKeyProcess(final DomainHelperService domainHelperService,
-            final DlmsDeviceRepository dlmsDeviceRepository, final int responseTimeout, final int logicalDeviceAddress,
-            final int clientAccessPoint) {
+            final DlmsDeviceRepository dlmsDeviceRepository, final DlmsDeviceCacheService dlmsDeviceCacheService,
+            final ConnectionCircuitBreaker connectionCircuitBreaker, final int responseTimeout,
+            final int logicalDeviceAddress, final int clientAccessPoint) {
         this.domainHelperService = domainHelperService;
         this.dlmsDeviceRepository = dlmsDeviceRepository;
+        this.dlmsDeviceCacheService = dlmsDeviceCacheService;
+        this.connectionCircuitBreaker = connectionCircuitBreaker;
         this.responseTimeout = responseTimeout;
         this.logicalDeviceAddress = logicalDeviceAddress;
         this.clientAccessPoint = clientAccessPoint;
@@ -69,6 +80,15 @@ public class RecoverKeyProcess implements Runnable {
         this.ipAddress = ipAddress;
     }
 
+    /**
+     * @return {@code true} if after running this process the device no longer
+     *         has a new key that needs to be recovered, either because the new
+     *         key was promoted to be valid or because there was no new key.
+     */
+    public boolean isRecovered() {
+        return this.recovered;
+    }
+
     @Override
     public void run() {
         this.checkState();
@@ -80,12 +100,17 @@ public class RecoverKeyProcess implements Runnable {
         } catch (final Exception e) {
             LOGGER.error("Unexpected exception: {}", e);
         }
+        if (this.device == null) {
+            return;
+        }
         if (!this.device.hasNewSecurityKey()) {
+            this.recovered = true;
             return;
         }
 
         if (this.canConnect()) {
             this.promoteInvalidKey();
+            this.recovered = true;
         }
     }
 
@@ -107,13 +132,21 @@ public class RecoverKeyProcess implements Runnable {
         }
     }
 
+    /**
+     * Connects with the new key, registering the outcome with the circuit
+     * breaker like any other connection: looking up the device let this
+     * attempt through the circuits, and a successful recovery shows the
+     * device to be reachable again.
+     */
     private boolean canConnect() {
         DlmsConnection connection = null;
         try {
             connection = this.createConnection();
+            this.connectionCircuitBreaker.connectionSucceeded(this.device);
             return true;
         } catch (final Exception e) {
             LOGGER.warn("Connection exception: {}", e.getMessage(), e);
+            this.connectionCircuitBreaker.connectionFailed(this.device);
             return false;
         } finally {
             if (connection != null) {
@@ -128,7 +161,7 @@ public class RecoverKeyProcess implements Runnable {
 
     private void promoteInvalidKey() {
         this.device.promoteInvalidKey();
-        this.dlmsDeviceRepository.save(this.device);
+        this.dlmsDeviceCacheService.evict(this.dlmsDeviceRepository.save(this.device));
     }
 
     /**
@@ -7,30 +7,187 @@
  */
 package org.osgp.adapter.protocol.dlms.application.threads;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Provider;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Queues key recovery processes for devices that could not be connected to
+ * while they have a new (never valid) key.
+ * <p>
+ * At most one recovery is pending per device. Recoveries are started on a
+ * dedicated executor, no faster than the configured global rate. A recovery
+ * that does not succeed is retried with an exponentially growing delay, until
+ * the maximum number of attempts is reached and the recovery is abandoned.
+ * The numbers of pending, succeeded and abandoned recoveries are available
+ * over JMX.
+ */
+@ManagedResource(objectName = "org.osgp.adapter.protocol.dlms:type=RecoverKeyProcessInitiator",
+        description = "Key recovery processes")
 public class RecoverKeyProcessInitiator {
-    private ScheduledExecutorService executorService;
 
-    private Provider<RecoverKeyProcess> recoverKeyProcessProvider;
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecoverKeyProcessInitiator.class);
+
+    private static final long MILLISECONDS_PER_MINUTE = 60000;
+
+    private final ScheduledExecutorService executorService;
+
+    private final Provider<RecoverKeyProcess> recoverKeyProcessProvider;
+
+    private final int recoverKeyDelay;
+
+    private final int maxAttempts;
+
+    private final int backOffMultiplier;
 
-    private int recoverKeyDelay;
+    private final long minimumIntervalBetweenRecoveries;
 
+    private final Set<String> pendingRecoveries = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong succeededRecoveries = new AtomicLong();
+
+    private final AtomicLong abandonedRecoveries = new AtomicLong();
+
+    private long nextRecoverySlot;
+
+    /**
+     * @param executorService
+     *            executor dedicated to running key recovery processes.
+     * @param recoverKeyProcessProvider
+     *            provider of new key recovery processes.
+     * @param recoverKeyDelay
+     *            delay in milliseconds before the first recovery attempt.
+     * @param maxAttempts
+     *            number of recovery attempts for a device before the recovery
+     *            is abandoned.
+     * @param backOffMultiplier
+     *            multiplier applied to the delay for each next attempt.
+     * @param maxRecoveriesPerMinute
+     *            maximum number of recovery attempts started per minute over
+     *            all devices, a value of {@code 0} or less means no limit.
+     */
     public RecoverKeyProcessInitiator(final ScheduledExecutorService executorService,
-            final Provider<RecoverKeyProcess> recoverKeyProcessProvider, final int recoverKeyDelay) {
+            final Provider<RecoverKeyProcess> recoverKeyProcessProvider, final int recoverKeyDelay,
+            final int maxAttempts, final int backOffMultiplier, final int maxRecoveriesPerMinute) {
         this.executorService = executorService;
         this.recoverKeyProcessProvider = recoverKeyProcessProvider;
         this.recoverKeyDelay = recoverKeyDelay;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backOffMultiplier = Math.max(1, backOffMultiplier);
+        this.minimumIntervalBetweenRecoveries = maxRecoveriesPerMinute > 0
+                ? MILLISECONDS_PER_MINUTE / maxRecoveriesPerMinute
+                : 0;
     }
 
     public void initiate(final String deviceIdentification, final String ipAddress) {
-        final RecoverKeyProcess process = this.recoverKeyProcessProvider.get();
-        process.setDeviceIdentification(deviceIdentification);
-        process.setIpAddress(ipAddress);
-        this.executorService.schedule(process, this.recoverKeyDelay, TimeUnit.MILLISECONDS);
+        if (!this.pendingRecoveries.add(deviceIdentification)) {
+            LOGGER.info("Key recovery for device {} is already pending, not initiating another one.",
+                    deviceIdentification);
+            return;
+        }
+        this.schedule(new RecoverKeyTask(deviceIdentification, ipAddress, 1), this.recoverKeyDelay);
+    }
+
+    @ManagedAttribute(description = "Number of devices with a pending key recovery")
+    public int getPendingRecoveries() {
+        return this.pendingRecoveries.size();
+    }
+
+    @ManagedAttribute(description = "Number of key recoveries that succeeded")
+    public long getSucceededRecoveries() {
+        return this.succeededRecoveries.get();
     }
 
+    @ManagedAttribute(description = "Number of key recoveries abandoned after the maximum number of attempts")
+    public long getAbandonedRecoveries() {
+        return this.abandonedRecoveries.get();
+    }
+
+    private void schedule(final RecoverKeyTask task, final long delay) {
+        final long now = System.currentTimeMillis();
+        final long startTime = this.reserveRecoverySlot(now + delay);
+        this.executorService.schedule(task, startTime - now, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reserves a start time for a recovery attempt at or after the
+     * {@code requestedStartTime}, keeping at least the minimum interval between
+     * recovery attempts.
+     */
+    private synchronized long reserveRecoverySlot(final long requestedStartTime) {
+        final long startTime = Math.max(requestedStartTime, this.nextRecoverySlot);
+        this.nextRecoverySlot = startTime + this.minimumIntervalBetweenRecoveries;
+        return startTime;
+    }
+
+    private long delayForAttempt(final int attempt) {
+        long delay = this.recoverKeyDelay;
+        for (int i = 1; i < attempt; i++) {
+            delay *= this.backOffMultiplier;
+        }
+        return delay;
+    }
+
+    private class RecoverKeyTask implements Runnable {
+
+        private final String deviceIdentification;
+
+        private final String ipAddress;
+
+        private final int attempt;
+
+        RecoverKeyTask(final String deviceIdentification, final String ipAddress, final int attempt) {
+            this.deviceIdentification = deviceIdentification;
+            this.ipAddress = ipAddress;
+            this.attempt = attempt;
+        }
+
+        @Override
+        public void run() {
+            final RecoverKeyProcessInitiator initiator = RecoverKeyProcessInitiator.this;
+
+            boolean recovered = false;
+            try {
+                final RecoverKeyProcess process = initiator.recoverKeyProcessProvider.get();
+                process.setDeviceIdentification(this.deviceIdentification);
+                process.setIpAddress(this.ipAddress);
+                process.run();
+                recovered = process.isRecovered();
+            } catch (final RuntimeException e) {
+                LOGGER.error("Unexpected exception recovering key for device {}", this.deviceIdentification, e);
+            }
+
+            if (recovered) {
+                initiator.pendingRecoveries.remove(this.deviceIdentification);
+                initiator.succeededRecoveries.incrementAndGet();
+                this.logStatistics("Key recovery completed");
+            } else if (this.attempt >= initiator.maxAttempts) {
+                initiator.pendingRecoveries.remove(this.deviceIdentification);
+                initiator.abandonedRecoveries.incrementAndGet();
+                this.logStatistics("Key recovery abandoned");
+            } else {
+                final int nextAttempt = this.attempt + 1;
+                LOGGER.info("Key recovery attempt {} of {} for device {} did not succeed, retrying.", this.attempt,
+                        initiator.maxAttempts, this.deviceIdentification);
+                initiator.schedule(new RecoverKeyTask(this.deviceIdentification, this.ipAddress, nextAttempt),
+                        initiator.delayForAttempt(nextAttempt));
+            }
+        }
+
+        private void logStatistics(final String what) {
+            final RecoverKeyProcessInitiator initiator = RecoverKeyProcessInitiator.this;
+            LOGGER.info("{} for device {} after {} attempt(s) - pending: {}, succeeded: {}, abandoned: {}", what,
+                    this.deviceIdentification, this.attempt, initiator.getPendingRecoveries(),
+                    initiator.getSucceededRecoveries(), initiator.getAbandonedRecoveries());
+        }
+    }
 }
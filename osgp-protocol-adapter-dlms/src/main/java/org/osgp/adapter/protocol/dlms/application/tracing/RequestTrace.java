@@ -0,0 +1,181 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.tracing;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeline of a single request: the phases of handling it, and the steps and
+ * APDUs of the device communication, relative to the start of the request.
+ * <p>
+ * Phases are recorded by the thread handling the request, APDUs may be
+ * captured by a thread of the DLMS library, so recording is synchronized.
+ * Only the latest entries are kept, as the end of a long timeline is usually
+ * where a request got stuck or failed. APDUs are recorded by direction and
+ * length, and only described as text when the timeline is formatted.
+ */
+public class RequestTrace {
+
+    /**
+     * Trace that records nothing, used when tracing is disabled.
+     */
+    static final RequestTrace DISABLED = new RequestTrace(null, null, null, false);
+
+    private static final int MAX_ENTRIES = 2000;
+
+    private static final long INSTANT = -1;
+
+    private static final class Entry {
+        private final long offsetNanos;
+        private final long durationNanos;
+        private final String name;
+        private final boolean apduSent;
+        private final int apduLength;
+
+        private Entry(final long offsetNanos, final long durationNanos, final String name, final boolean apduSent,
+                final int apduLength) {
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+            this.name = name;
+            this.apduSent = apduSent;
+            this.apduLength = apduLength;
+        }
+
+        private String describe() {
+            if (this.name != null) {
+                return this.name;
+            }
+            return (this.apduSent ? "APDU sent, " : "APDU received, ") + this.apduLength + " bytes";
+        }
+    }
+
+    private final String correlationUid;
+    private final String messageType;
+    private final String deviceIdentification;
+    private final boolean recording;
+
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+
+    private final Entry[] entries;
+    private int numberOfEntries;
+    private int droppedEntries;
+    private boolean failed;
+    private long durationNanos = INSTANT;
+
+    RequestTrace(final String correlationUid, final String messageType, final String deviceIdentification,
+            final boolean recording) {
+        this.correlationUid = correlationUid;
+        this.messageType = messageType;
+        this.deviceIdentification = deviceIdentification;
+        this.recording = recording;
+        this.entries = recording ? new Entry[MAX_ENTRIES] : null;
+    }
+
+    public String getCorrelationUid() {
+        return this.correlationUid;
+    }
+
+    /**
+     * Records a phase that started at {@code phaseStartNanos}, as obtained from
+     * {@link System#nanoTime()}, and ends now.
+     */
+    public void phase(final String name, final long phaseStartNanos) {
+        if (this.recording) {
+            this.add(new Entry(phaseStartNanos - this.startNanos, System.nanoTime() - phaseStartNanos, name, false,
+                    0));
+        }
+    }
+
+    /**
+     * Records something that happened now.
+     */
+    public void event(final String name) {
+        if (this.recording) {
+            this.add(new Entry(System.nanoTime() - this.startNanos, INSTANT, name, false, 0));
+        }
+    }
+
+    /**
+     * Records an APDU that was sent or received now.
+     */
+    public void apdu(final boolean sent, final int length) {
+        if (this.recording) {
+            this.add(new Entry(System.nanoTime() - this.startNanos, INSTANT, null, sent, length));
+        }
+    }
+
+    public synchronized void failed() {
+        if (this.recording) {
+            this.failed = true;
+        }
+    }
+
+    /**
+     * Adds the entry, replacing the oldest entry once the maximum number of
+     * entries is reached.
+     */
+    private synchronized void add(final Entry entry) {
+        if (this.numberOfEntries < MAX_ENTRIES) {
+            this.entries[this.numberOfEntries++] = entry;
+        } else {
+            this.entries[this.droppedEntries % MAX_ENTRIES] = entry;
+            this.droppedEntries++;
+        }
+    }
+
+    /**
+     * Marks the end of the request.
+     *
+     * @return the duration of the request, in nanoseconds.
+     */
+    synchronized long finish() {
+        this.durationNanos = System.nanoTime() - this.startNanos;
+        return this.durationNanos;
+    }
+
+    synchronized boolean isFailed() {
+        return this.failed;
+    }
+
+    public boolean isRecording() {
+        return this.recording;
+    }
+
+    /**
+     * @return the timeline as text, a header line followed by one line per
+     *         entry in the order they have been recorded.
+     */
+    synchronized String format() {
+        final StringBuilder sb = new StringBuilder(128 + this.numberOfEntries * 64);
+        sb.append(String.format("%s %s for %s, started %tFT%<tT.%<tL, took %.1f ms%s%n", this.correlationUid,
+                this.messageType, this.deviceIdentification, new Date(this.startMillis), millis(this.durationNanos),
+                this.failed ? ", failed" : ""));
+        if (this.droppedEntries > 0) {
+            sb.append(String.format("  (%d earlier entries dropped)%n", this.droppedEntries));
+        }
+        // After entries have been dropped, the oldest entry kept is the next
+        // one to be replaced.
+        final int first = this.droppedEntries % MAX_ENTRIES;
+        for (int i = 0; i < this.numberOfEntries; i++) {
+            final Entry entry = this.entries[(first + i) % MAX_ENTRIES];
+            if (entry.durationNanos == INSTANT) {
+                sb.append(String.format("  +%10.1f ms              %s%n", millis(entry.offsetNanos), entry.describe()));
+            } else {
+                sb.append(String.format("  +%10.1f ms [%8.1f ms] %s%n", millis(entry.offsetNanos),
+                        millis(entry.durationNanos), entry.describe()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
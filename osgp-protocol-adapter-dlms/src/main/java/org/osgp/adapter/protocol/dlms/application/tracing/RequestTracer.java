@@ -0,0 +1,118 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.tracing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.alliander.osgp.shared.infra.jms.MessageMetadata;
+
+/**
+ * Records the timeline of each request, and keeps the timelines of requests
+ * that were slow or failed in a ring buffer, by correlation UID. Whether a
+ * timeline is kept is decided when the request is finished (tail sampling), so
+ * timelines of requests that are fast and successful are only kept in memory
+ * while the request is handled.
+ * <p>
+ * The trace of the request being handled by a thread is available from
+ * {@link #current()}, for recording the device communication of the request.
+ * Timelines are queried over JMX or from {@code /timelines} (see
+ * {@link TimelineServlet}).
+ */
+@ManagedResource(objectName = "org.osgp.adapter.protocol.dlms:type=RequestTracer",
+        description = "Timelines of slow and failed requests")
+public class RequestTracer {
+
+    private final ThreadLocal<RequestTrace> currentTrace = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final TimelineRingBuffer timelines;
+
+    /**
+     * @param enabled
+     *            whether timelines are recorded.
+     * @param slowThreshold
+     *            milliseconds a request must take for its timeline to be kept,
+     *            timelines of failed requests are always kept.
+     * @param slots
+     *            the number of timelines kept.
+     * @param slotSize
+     *            the maximum size of a timeline in bytes, longer timelines are
+     *            truncated, keeping the header and the last lines.
+     */
+    public RequestTracer(final boolean enabled, final long slowThreshold, final int slots, final int slotSize) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThreshold);
+        this.timelines = enabled ? new TimelineRingBuffer(slots, slotSize) : null;
+    }
+
+    /**
+     * Starts the trace of a request handled by the current thread.
+     */
+    public RequestTrace start(final MessageMetadata messageMetadata) {
+        return this.start(messageMetadata.getCorrelationUid(), messageMetadata.getMessageType(),
+                messageMetadata.getDeviceIdentification());
+    }
+
+    /**
+     * Starts the trace of work handled by the current thread that is not a
+     * request from core, like the read of a device for a bulk read plan.
+     */
+    public RequestTrace start(final String correlationUid, final String messageType,
+            final String deviceIdentification) {
+        if (!this.enabled) {
+            return RequestTrace.DISABLED;
+        }
+        final RequestTrace trace = new RequestTrace(correlationUid, messageType, deviceIdentification, true);
+        this.currentTrace.set(trace);
+        return trace;
+    }
+
+    /**
+     * @return the trace of the request handled by the current thread, a trace
+     *         that records nothing if there is none.
+     */
+    public RequestTrace current() {
+        final RequestTrace trace = this.currentTrace.get();
+        return trace == null ? RequestTrace.DISABLED : trace;
+    }
+
+    /**
+     * Finishes the trace, and keeps its timeline if the request was slow or
+     * failed.
+     */
+    public void finish(final RequestTrace trace) {
+        this.currentTrace.remove();
+        if (!trace.isRecording()) {
+            return;
+        }
+        final long durationNanos = trace.finish();
+        if (durationNanos >= this.slowThresholdNanos || trace.isFailed()) {
+            this.timelines.put(trace.getCorrelationUid(), trace.format().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * @return the timeline of the latest request with the correlation UID, or
+     *         {@code null} if it has not been kept.
+     */
+    @ManagedOperation(description = "Timeline of a slow or failed request")
+    @ManagedOperationParameter(name = "correlationUid", description = "Correlation UID of the request")
+    public String timeline(final String correlationUid) {
+        if (!this.enabled) {
+            return null;
+        }
+        final byte[] timeline = this.timelines.get(correlationUid);
+        return timeline == null ? null : new String(timeline, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.tracing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fixed number of fixed size slots in a direct (off-heap) buffer, holding the
+ * most recent timelines by key. The buffer does not grow the heap or add to
+ * garbage collection, however many timelines pass through it. A timeline that
+ * does not fit a slot is truncated in the middle: its first line (the header)
+ * and as many of its last lines as fit are kept.
+ */
+class TimelineRingBuffer {
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final byte NEWLINE = '\n';
+    private static final byte[] TRUNCATED = "  ...\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ByteBuffer buffer;
+    private final int slots;
+    private final int slotSize;
+
+    private final String[] keyPerSlot;
+    private final Map<String, Integer> slotPerKey = new HashMap<>();
+    private int nextSlot;
+
+    TimelineRingBuffer(final int slots, final int slotSize) {
+        if (slots < 1 || slotSize <= LENGTH_BYTES) {
+            throw new IllegalArgumentException("Invalid ring buffer size: " + slots + " slots of " + slotSize);
+        }
+        this.buffer = ByteBuffer.allocateDirect(Math.multiplyExact(slots, slotSize));
+        this.slots = slots;
+        this.slotSize = slotSize;
+        this.keyPerSlot = new String[slots];
+    }
+
+    /**
+     * Stores the timeline in the oldest slot, replacing the timeline that was
+     * stored there, and a timeline stored earlier with the same key.
+     */
+    synchronized void put(final String key, final byte[] timeline) {
+        final int slot = this.nextSlot;
+        this.nextSlot = (this.nextSlot + 1) % this.slots;
+
+        final String replacedKey = this.keyPerSlot[slot];
+        if (replacedKey != null && Integer.valueOf(slot).equals(this.slotPerKey.get(replacedKey))) {
+            this.slotPerKey.remove(replacedKey);
+        }
+
+        final int offset = slot * this.slotSize;
+        final ByteBuffer slotBuffer = this.buffer.duplicate();
+        slotBuffer.position(offset + LENGTH_BYTES);
+        this.buffer.putInt(offset, this.write(timeline, slotBuffer));
+
+        this.keyPerSlot[slot] = key;
+        this.slotPerKey.put(key, slot);
+    }
+
+    /**
+     * Writes the timeline, or its header and last lines if it does not fit.
+     *
+     * @return the number of bytes written.
+     */
+    private int write(final byte[] timeline, final ByteBuffer slotBuffer) {
+        final int capacity = this.slotSize - LENGTH_BYTES;
+        if (timeline.length <= capacity) {
+            slotBuffer.put(timeline);
+            return timeline.length;
+        }
+
+        final int headerEnd = endOfFirstLine(timeline);
+        if (headerEnd + TRUNCATED.length >= capacity) {
+            slotBuffer.put(timeline, 0, capacity);
+            return capacity;
+        }
+        slotBuffer.put(timeline, 0, headerEnd);
+        slotBuffer.put(TRUNCATED);
+
+        // Start the tail at a line, so no line (or character) is cut.
+        int tailStart = timeline.length - (capacity - headerEnd - TRUNCATED.length);
+        while (tailStart < timeline.length && timeline[tailStart - 1] != NEWLINE) {
+            tailStart++;
+        }
+        slotBuffer.put(timeline, tailStart, timeline.length - tailStart);
+        return headerEnd + TRUNCATED.length + timeline.length - tailStart;
+    }
+
+    private static int endOfFirstLine(final byte[] timeline) {
+        for (int i = 0; i < timeline.length; i++) {
+            if (timeline[i] == NEWLINE) {
+                return i + 1;
+            }
+        }
+        return timeline.length;
+    }
+
+    /**
+     * @return the latest timeline stored with the key, or {@code null} if
+     *         there is none (anymore).
+     */
+    synchronized byte[] get(final String key) {
+        final Integer slot = this.slotPerKey.get(key);
+        if (slot == null) {
+            return null;
+        }
+        final int offset = slot * this.slotSize;
+        final byte[] timeline = new byte[this.buffer.getInt(offset)];
+        final ByteBuffer slotBuffer = this.buffer.duplicate();
+        slotBuffer.position(offset + LENGTH_BYTES);
+        slotBuffer.get(timeline);
+        return timeline;
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.tracing;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+/**
+ * Serves the timeline of a slow or failed request, by the
+ * {@value #CORRELATION_UID} request parameter.
+ */
+public class TimelineServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 6413390714250861138L;
+
+    private static final String CORRELATION_UID = "correlationUid";
+
+    private transient RequestTracer requestTracer;
+
+    @Override
+    public void init() throws ServletException {
+        this.requestTracer = WebApplicationContextUtils.getRequiredWebApplicationContext(this.getServletContext())
+                .getBean(RequestTracer.class);
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+            throws ServletException, IOException {
+        final String correlationUid = request.getParameter(CORRELATION_UID);
+        if (correlationUid == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing parameter: " + CORRELATION_UID);
+            return;
+        }
+        final String timeline = this.requestTracer.timeline(correlationUid);
+        if (timeline == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No timeline kept for: " + correlationUid);
+            return;
+        }
+        response.setContentType("text/plain; charset=utf-8");
+        response.getWriter().write(timeline);
+    }
+}
@@ -67,7 +67,7 @@ public class AlarmHelperService {
         map.put(AlarmTypeDto.NEW_M_BUS_DEVICE_DISCOVERED_CHANNEL_4, 27);
         // bits 28 to 31 are not used
 
-        BYTE_REGISTER_CONVERTER = new ByteRegisterConverter<>(Collections.unmodifiableMap(map),
+        BYTE_REGISTER_CONVERTER = new ByteRegisterConverter<>(AlarmTypeDto.class, Collections.unmodifiableMap(map),
                 NUMBER_OF_BITS_IN_REGISTER);
     }
 
@@ -100,7 +100,7 @@ public class AlarmHelperService {
      *
      * @param registerValue
      *            Value of the register.
-     * @return List of active alarm types.
+     * @return Unmodifiable set of active alarm types.
      */
     public Set<AlarmTypeDto> toAlarmTypes(final Number registerValue) {
         return BYTE_REGISTER_CONVERTER.toTypes(registerValue.longValue());
@@ -32,8 +32,8 @@ public class AmrProfileStatusCodeHelperService {
         map.put(AmrProfileStatusCodeFlagDto.CLOCK_ADJUSTED, 5);
         map.put(AmrProfileStatusCodeFlagDto.POWER_DOWN, 7);
 
-        BYTE_REGISTER_CONVERTER = new ByteRegisterConverter<AmrProfileStatusCodeFlagDto>(Collections.unmodifiableMap(map),
-                NUMBER_OF_BITS_IN_REGISTER);
+        BYTE_REGISTER_CONVERTER = new ByteRegisterConverter<>(AmrProfileStatusCodeFlagDto.class,
+                Collections.unmodifiableMap(map), NUMBER_OF_BITS_IN_REGISTER);
     }
 
     public Integer toBitPosition(final AmrProfileStatusCodeFlagDto amrProfileStatus) {
@@ -9,23 +9,87 @@ package org.osgp.adapter.protocol.dlms.domain.commands;
 
 import java.util.BitSet;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+/**
+ * Converts between bit register values and the sets of types represented by
+ * the active bits.
+ * <p>
+ * Decoding is table driven: the types for every possible value of every byte
+ * in the register are computed once, as interned unmodifiable sets. A value
+ * of an 8-bit register, or a wider value with only one non-zero byte, maps
+ * directly onto one of these sets. Other values are composed from the sets
+ * for their non-zero bytes.
+ */
 public class ByteRegisterConverter<T extends Enum<T>> {
 
+    private static final int BITS_PER_BYTE = 8;
+    private static final int BYTE_VALUES = 256;
+
     private final Map<T, Integer> registerBitIndexPerType;
     private final Map<Integer, T> typePerRegisterBitIndex;
 
     private final int numberOfBitsInRegister;
+    private final long registerMask;
+
+    /**
+     * The types per byte value, for each byte in the register starting with
+     * the least significant one.
+     */
+    private final EnumSet<T>[][] typesPerByteValue;
+    private final Set<T>[][] internedTypesPerByteValue;
 
-    public ByteRegisterConverter(final Map<T, Integer> registerBitIndexPerType, final int numberOfBitsInRegister) {
+    public ByteRegisterConverter(final Class<T> type, final Map<T, Integer> registerBitIndexPerType,
+            final int numberOfBitsInRegister) {
+        if (numberOfBitsInRegister < 1 || numberOfBitsInRegister > Long.SIZE) {
+            throw new IllegalArgumentException("Number of bits in register must be between 1 and " + Long.SIZE
+                    + ", got " + numberOfBitsInRegister);
+        }
         this.numberOfBitsInRegister = numberOfBitsInRegister;
+        this.registerMask = numberOfBitsInRegister == Long.SIZE ? -1L : (1L << numberOfBitsInRegister) - 1;
         this.registerBitIndexPerType = Collections.unmodifiableMap(registerBitIndexPerType);
         this.typePerRegisterBitIndex = this.createFlippedMap(this.registerBitIndexPerType);
+
+        final int numberOfBytes = (numberOfBitsInRegister + BITS_PER_BYTE - 1) / BITS_PER_BYTE;
+        this.typesPerByteValue = this.newTypesTable(numberOfBytes);
+        this.internedTypesPerByteValue = this.newInternedTypesTable(numberOfBytes);
+        this.fillTables(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private EnumSet<T>[][] newTypesTable(final int numberOfBytes) {
+        return new EnumSet[numberOfBytes][BYTE_VALUES];
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<T>[][] newInternedTypesTable(final int numberOfBytes) {
+        return new Set[numberOfBytes][BYTE_VALUES];
+    }
+
+    private void fillTables(final Class<T> type) {
+        final Map<Set<T>, Set<T>> internedSets = new HashMap<>();
+        for (int byteIndex = 0; byteIndex < this.typesPerByteValue.length; byteIndex++) {
+            for (int byteValue = 0; byteValue < BYTE_VALUES; byteValue++) {
+                final EnumSet<T> types = EnumSet.noneOf(type);
+                for (int bit = 0; bit < BITS_PER_BYTE; bit++) {
+                    final T t = this.typePerRegisterBitIndex.get(byteIndex * BITS_PER_BYTE + bit);
+                    if ((byteValue & (1 << bit)) != 0 && t != null) {
+                        types.add(t);
+                    }
+                }
+                Set<T> interned = internedSets.get(types);
+                if (interned == null) {
+                    interned = Collections.unmodifiableSet(types);
+                    internedSets.put(types, interned);
+                }
+                this.typesPerByteValue[byteIndex][byteValue] = types;
+                this.internedTypesPerByteValue[byteIndex][byteValue] = interned;
+            }
+        }
     }
 
     /**
@@ -56,21 +120,35 @@ public class ByteRegisterConverter<T extends Enum<T>> {
 
     /**
      * Create a set of T representing the active bits in the register value.
-     * Returns empty set if no bits are active.
+     * Returns empty set if no bits are active. Active bits that do not
+     * represent a type, or that lie outside the register, are ignored.
      *
      * @param registerValue
      *            Value of the register.
-     * @return List of active types.
+     * @return Unmodifiable set of active types.
      */
     public Set<T> toTypes(final Long registerValue) {
-        final Set<T> types = new HashSet<>();
+        long value = registerValue & this.registerMask;
 
-        final BitSet bitSet = BitSet.valueOf(new long[] { registerValue });
-        for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
-            types.add(this.typePerRegisterBitIndex.get(i));
+        Set<T> types = this.internedTypesPerByteValue[0][0];
+        EnumSet<T> composed = null;
+        for (int byteIndex = 0; value != 0; byteIndex++, value >>>= BITS_PER_BYTE) {
+            final int byteValue = (int) value & (BYTE_VALUES - 1);
+            final EnumSet<T> byteTypes = this.typesPerByteValue[byteIndex][byteValue];
+            if (byteTypes.isEmpty()) {
+                continue;
+            }
+            if (types.isEmpty()) {
+                types = this.internedTypesPerByteValue[byteIndex][byteValue];
+            } else if (composed == null) {
+                composed = EnumSet.copyOf(byteTypes);
+                composed.addAll(types);
+            } else {
+                composed.addAll(byteTypes);
+            }
         }
 
-        return types;
+        return composed == null ? types : Collections.unmodifiableSet(composed);
     }
 
     /**
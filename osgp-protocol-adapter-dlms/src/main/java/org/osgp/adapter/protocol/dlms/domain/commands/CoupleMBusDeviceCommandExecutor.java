@@ -39,6 +39,27 @@ public class CoupleMBusDeviceCommandExecutor
     public MbusChannelElementsResponseDto execute(final DlmsConnectionHolder conn, final DlmsDevice device,
             final MbusChannelElementsDto requestDto) throws ProtocolAdapterException {
 
+        final List<ChannelElementValuesDto> cachedChannelElementValues = this.deviceChannelsHelper
+                .findCachedMatchingChannelsForDevice(device, requestDto);
+        if (cachedChannelElementValues != null) {
+            /*
+             * The device is coupled on the last channel, according to the
+             * cached values of the channels. Confirm this by reading only that
+             * channel from the device. If it does not match anymore, the cache
+             * is stale and all channels are read below.
+             */
+            final int lastIndex = cachedChannelElementValues.size() - 1;
+            final ChannelElementValuesDto confirmedChannelElementValues = this.deviceChannelsHelper
+                    .readChannelElementValues(conn, device, cachedChannelElementValues.get(lastIndex).getChannel());
+            if (FindMatchingChannelHelper.matches(requestDto, confirmedChannelElementValues)) {
+                cachedChannelElementValues.set(lastIndex, confirmedChannelElementValues);
+                return new MbusChannelElementsResponseDto(requestDto, confirmedChannelElementValues.getChannel(),
+                        cachedChannelElementValues);
+            }
+            LOGGER.info("Cached M-Bus client setup attributes of device {} are stale, reading all channels",
+                    device.getDeviceIdentification());
+        }
+
         LOGGER.debug("retrieving mbus info on e-meter");
 
         final List<ChannelElementValuesDto> candidateChannelElementValues = this.deviceChannelsHelper
@@ -87,6 +108,7 @@ public class CoupleMBusDeviceCommandExecutor
          */
         final ChannelElementValuesDto updatedChannelElementValues = this.deviceChannelsHelper.writeUpdatedMbus(conn,
                 requestDto, emptyChannelMatch.getChannel());
+        this.deviceChannelsHelper.evictChannel(device, emptyChannelMatch.getChannel());
 
         /*
          * Also update the entry in the candidateChannelElementValues list. Take into
@@ -7,9 +7,6 @@
  */
 package org.osgp.adapter.protocol.dlms.domain.commands;
 
-import java.util.List;
-
-import org.openmuc.jdlms.GetResult;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
@@ -40,8 +37,6 @@ public class CoupleMbusDeviceByChannelCommandExecutor
 
         LOGGER.info("Retrieving values for mbus channel {} on device {}", requestDto.getChannel(),
                 device.getDeviceIdentification());
-        final List<GetResult> resultList = this.deviceChannelsHelper.getMBusClientAttributeValues(conn, device,
-                requestDto.getChannel());
 
         /*
          * Couple M-Bus device by channel is created to couple the M-Bus device in the
@@ -52,7 +47,7 @@ public class CoupleMbusDeviceByChannelCommandExecutor
          * triggered for the channel from the request.
          */
         return new CoupleMbusDeviceByChannelResponseDto(
-                this.deviceChannelsHelper.makeChannelElementValues(requestDto.getChannel(), resultList));
+                this.deviceChannelsHelper.readChannelElementValues(conn, device, requestDto.getChannel()));
     }
 
 }
@@ -18,6 +18,7 @@ import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.alliander.osgp.dto.valueobjects.smartmetering.DeCoupleMbusDeviceDto;
@@ -40,6 +41,9 @@ public class DeCoupleMBusDeviceCommandExecutor
     private static final DataObject UINT_16_ZERO = DataObject.newUInteger16Data(0);
     private static final DataObject UINT_32_ZERO = DataObject.newUInteger32Data(0L);
 
+    @Autowired
+    private DeviceChannelsHelper deviceChannelsHelper;
+
     public DeCoupleMBusDeviceCommandExecutor() {
         super(DeCoupleMbusDeviceDto.class);
     }
@@ -68,7 +72,9 @@ public class DeCoupleMBusDeviceCommandExecutor
                     device.getDeviceIdentification(), decoupleMbusDto.getmBusDeviceIdentification());
         }
 
-        return this.writeUpdatedMbus(conn, decoupleMbusDto);
+        final DeCoupleMbusDeviceResponseDto response = this.writeUpdatedMbus(conn, decoupleMbusDto);
+        this.deviceChannelsHelper.evictChannel(device, decoupleMbusDto.getChannel());
+        return response;
     }
 
     private ObisCode getObisCode(final DeCoupleMbusDeviceDto decoupleMbusDto) {
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openmuc.jdlms.AttributeAddress;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DeviceCapabilityCachingRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.DeviceCapabilities;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.DeviceModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Answers questions about what a device supports, from the capabilities of
+ * its {@link DeviceModel}. When the capabilities of a device are not known,
+ * everything is assumed to be supported and the settings of the device apply.
+ * The size of the get-with-list requests a device accepts is learned per
+ * device.
+ */
+@Service("deviceCapabilityHelperService")
+public class DeviceCapabilityHelperService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceCapabilityHelperService.class);
+
+    @Autowired
+    private DeviceCapabilityCachingRepository deviceCapabilityCachingRepository;
+
+    @Autowired
+    private DlmsDeviceRepository dlmsDeviceRepository;
+
+    /**
+     * The largest number of attributes in one get-with-list request per
+     * device identification, as learned since the protocol adapter started.
+     */
+    private final ConcurrentMap<String, Integer> maxGetWithListSizes = new ConcurrentHashMap<>();
+
+    /**
+     * @return the capabilities of the model of the device, or {@code null} if
+     *         they are not known.
+     */
+    public DeviceCapabilities getCapabilities(final DlmsDevice device) {
+        return this.deviceCapabilityCachingRepository.retrieve(DeviceModel.of(device));
+    }
+
+    public void storeCapabilities(final DlmsDevice device, final DeviceCapabilities capabilities) {
+        final DeviceModel deviceModel = DeviceModel.of(device);
+        if (deviceModel == null) {
+            LOGGER.debug("Not storing capabilities of device {}, its model is not known",
+                    device.getDeviceIdentification());
+            return;
+        }
+        LOGGER.info("Storing {} for {}", capabilities, deviceModel);
+        this.deviceCapabilityCachingRepository.store(deviceModel, capabilities);
+    }
+
+    /**
+     * @return {@code false} if the association object list of the model of
+     *         the device is known and does not contain the attribute,
+     *         {@code true} otherwise.
+     */
+    public boolean isAttributeAvailable(final DlmsDevice device, final AttributeAddress attributeAddress) {
+        final DeviceCapabilities capabilities = this.getCapabilities(device);
+        return capabilities == null || capabilities.hasAttribute(attributeAddress.getClassId(),
+                attributeAddress.getInstanceId(), attributeAddress.getId());
+    }
+
+    /**
+     * Selective access is only used when it is enabled for the device, and
+     * not ruled out by the association object list of its model.
+     */
+    public boolean isSelectiveAccessSupported(final DlmsDevice device) {
+        if (!device.isSelectiveAccessSupported()) {
+            return false;
+        }
+        final DeviceCapabilities capabilities = this.getCapabilities(device);
+        return capabilities == null || capabilities.isSelectiveAccessSupported();
+    }
+
+    /**
+     * @return the largest number of attributes the device accepts in one
+     *         get-with-list request, or {@code null} if this is not known.
+     */
+    public Integer getMaxGetWithListSize(final DlmsDevice device) {
+        final Integer maxGetWithListSize = this.maxGetWithListSizes.get(device.getDeviceIdentification());
+        return maxGetWithListSize == null ? device.getMaxGetWithListSize() : maxGetWithListSize;
+    }
+
+    /**
+     * Lowers the largest number of attributes the device accepts in one
+     * get-with-list request, after it rejected a larger request, and stores it
+     * with the device. A lower limit learned concurrently is kept.
+     */
+    public void learnMaxGetWithListSize(final DlmsDevice device, final int maxGetWithListSize) {
+        final String deviceIdentification = device.getDeviceIdentification();
+        final int learned = this.maxGetWithListSizes.merge(deviceIdentification, maxGetWithListSize, Math::min);
+        LOGGER.info("Device {} accepts at most {} attributes in a get-with-list request", deviceIdentification,
+                learned);
+        device.setMaxGetWithListSize(learned);
+        this.dlmsDeviceRepository.updateMaxGetWithListSize(deviceIdentification, learned);
+    }
+
+    /**
+     * Raises the largest number of attributes by one after the device accepted
+     * requests of that size, so a limit learned while the device was having a
+     * bad day recovers. The raised limit is kept in memory only, and stored
+     * once the device rejects a request again.
+     */
+    public void growMaxGetWithListSize(final DlmsDevice device, final int acceptedSize) {
+        this.maxGetWithListSizes.compute(device.getDeviceIdentification(), (deviceIdentification, learned) -> {
+            final Integer maxGetWithListSize = learned == null ? device.getMaxGetWithListSize() : learned;
+            return maxGetWithListSize == null || acceptedSize < maxGetWithListSize ? maxGetWithListSize
+                    : acceptedSize + 1;
+        });
+    }
+
+    /**
+     * Forgets the limit learned for the device, when it may have changed with
+     * its firmware.
+     */
+    public void forgetMaxGetWithListSize(final DlmsDevice device) {
+        this.maxGetWithListSizes.remove(device.getDeviceIdentification());
+        device.setMaxGetWithListSize(null);
+        this.dlmsDeviceRepository.updateMaxGetWithListSize(device.getDeviceIdentification(), null);
+    }
+}
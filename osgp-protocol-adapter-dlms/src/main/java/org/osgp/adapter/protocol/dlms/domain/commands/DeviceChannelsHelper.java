@@ -21,6 +21,7 @@ import org.osgp.adapter.protocol.dlms.domain.commands.mbus.ManufacturerId;
 import org.osgp.adapter.protocol.dlms.domain.commands.utils.FindMatchingChannelHelper;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.MbusChannelCachingRepository;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,26 +53,113 @@ public class DeviceChannelsHelper {
     private static final short FIRST_CHANNEL = 1;
     private static final short NR_OF_CHANNELS = 4;
 
+    private static final ObisCode[] OBIS_CODES = makeObisCodes();
+    private static final AttributeAddress[] ALL_CHANNELS_ATTRIBUTE_ADDRESSES = makeAllChannelsAttributeAddresses();
+
     @Autowired
     private DlmsHelperService dlmsHelperService;
 
+    @Autowired
+    private MbusChannelCachingRepository mbusChannelCachingRepository;
+
+    private static ObisCode[] makeObisCodes() {
+        final ObisCode[] obisCodes = new ObisCode[NR_OF_CHANNELS];
+        for (int i = 0; i < NR_OF_CHANNELS; i++) {
+            obisCodes[i] = new ObisCode(String.format(OBIS_CODE_TEMPLATE, FIRST_CHANNEL + i));
+        }
+        return obisCodes;
+    }
+
+    private static AttributeAddress[] makeAllChannelsAttributeAddresses() {
+        final AttributeAddress[] attrAddresses = new AttributeAddress[NR_OF_CHANNELS
+                * NUMBER_OF_ATTRIBUTES_MBUS_CLIENT];
+        for (short channel = FIRST_CHANNEL; channel < FIRST_CHANNEL + NR_OF_CHANNELS; channel++) {
+            System.arraycopy(makeAttributeAddresses(channel), 0, attrAddresses,
+                    (channel - FIRST_CHANNEL) * NUMBER_OF_ATTRIBUTES_MBUS_CLIENT, NUMBER_OF_ATTRIBUTES_MBUS_CLIENT);
+        }
+        return attrAddresses;
+    }
+
+    private static ObisCode getObisCode(final short channel) {
+        return OBIS_CODES[channel - FIRST_CHANNEL];
+    }
+
+    /**
+     * Reads the M-Bus Client Setup attributes of all channels of the gateway
+     * device with a single get-with-list request, and caches the values read.
+     *
+     * @return the values of the channels up to and including the first channel
+     *         that matches the request, or of all channels if none of them
+     *         matches.
+     */
     public List<ChannelElementValuesDto> findCandidateChannelsForDevice(final DlmsConnectionHolder conn,
             final DlmsDevice device, final MbusChannelElementsDto requestDto) throws ProtocolAdapterException {
 
+        conn.getDlmsMessageListener()
+                .setDescription("DeviceChannelsHelper, retrieve M-Bus client setup attributes of all channels: "
+                        + JdlmsObjectToStringUtil.describeAttributes(ALL_CHANNELS_ATTRIBUTE_ADDRESSES));
+        final List<GetResult> resultList = this.dlmsHelperService.getWithList(conn, device,
+                ALL_CHANNELS_ATTRIBUTE_ADDRESSES);
+
         final List<ChannelElementValuesDto> channelElementValuesList = new ArrayList<>();
         for (short channel = FIRST_CHANNEL; channel < FIRST_CHANNEL + NR_OF_CHANNELS; channel++) {
-            final List<GetResult> resultList = this.getMBusClientAttributeValues(conn, device, channel);
-            final ChannelElementValuesDto channelElementValues = this.makeChannelElementValues(channel, resultList);
+            final int fromIndex = (channel - FIRST_CHANNEL) * NUMBER_OF_ATTRIBUTES_MBUS_CLIENT;
+            final ChannelElementValuesDto channelElementValues = this.makeChannelElementValues(channel,
+                    resultList.subList(fromIndex, fromIndex + NUMBER_OF_ATTRIBUTES_MBUS_CLIENT));
+            this.mbusChannelCachingRepository.store(device.getDeviceIdentification(), channelElementValues);
             channelElementValuesList.add(channelElementValues);
-            if (requestDto != null && FindMatchingChannelHelper.matches(requestDto, channelElementValues)) {
-                /*
-                 * A complete match for all attributes from the request has been
-                 * found. Stop retrieving M-Bus Client Setup attributes for
-                 * other channels. Return a list returning the values retrieved
-                 * so far and don't retrieve any additional M-Bus Client Setup
-                 * data from the device.
-                 */
-                return channelElementValuesList;
+        }
+        return this.upToFirstMatch(channelElementValuesList, requestDto);
+    }
+
+    /**
+     * Looks for a channel matching the request in the cached values of the
+     * channels of the gateway device, without communicating with the device.
+     * <p>
+     * The cache is kept per protocol adapter instance, so another instance
+     * may have changed the channels since. The values found are a hint of the
+     * channel to check: a channel must be read from the device before it is
+     * reported as the channel the M-Bus device is coupled on.
+     *
+     * @return the cached values of the channels up to and including the
+     *         channel that matches the request, or {@code null} if not all
+     *         channels are cached or none of them matches.
+     */
+    public List<ChannelElementValuesDto> findCachedMatchingChannelsForDevice(final DlmsDevice device,
+            final MbusChannelElementsDto requestDto) {
+
+        final List<ChannelElementValuesDto> channelElementValuesList = new ArrayList<>();
+        for (short channel = FIRST_CHANNEL; channel < FIRST_CHANNEL + NR_OF_CHANNELS; channel++) {
+            final ChannelElementValuesDto channelElementValues = this.mbusChannelCachingRepository
+                    .retrieve(device.getDeviceIdentification(), channel);
+            if (channelElementValues == null) {
+                return null;
+            }
+            channelElementValuesList.add(channelElementValues);
+        }
+        final List<ChannelElementValuesDto> candidates = this.upToFirstMatch(channelElementValuesList, requestDto);
+        final ChannelElementValuesDto lastCandidate = candidates.get(candidates.size() - 1);
+        if (requestDto == null || !FindMatchingChannelHelper.matches(requestDto, lastCandidate)) {
+            return null;
+        }
+        LOGGER.info("Found M-Bus device {} on channel {} of device {} in the cache",
+                requestDto.getMbusIdentificationNumber(), lastCandidate.getChannel(),
+                device.getDeviceIdentification());
+        return candidates;
+    }
+
+    private List<ChannelElementValuesDto> upToFirstMatch(final List<ChannelElementValuesDto> channelElementValuesList,
+            final MbusChannelElementsDto requestDto) {
+        if (requestDto != null) {
+            for (int i = 0; i < channelElementValuesList.size(); i++) {
+                if (FindMatchingChannelHelper.matches(requestDto, channelElementValuesList.get(i))) {
+                    /*
+                     * A complete match for all attributes from the request has
+                     * been found. The values of other channels are not
+                     * returned, as before they were read channel by channel.
+                     */
+                    return new ArrayList<>(channelElementValuesList.subList(0, i + 1));
+                }
             }
         }
         /*
@@ -82,9 +170,28 @@ public class DeviceChannelsHelper {
         return channelElementValuesList;
     }
 
+    /**
+     * Reads the values of the channel of the gateway device, and caches them.
+     */
+    public ChannelElementValuesDto readChannelElementValues(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final short channel) throws ProtocolAdapterException {
+        final ChannelElementValuesDto channelElementValues = this.makeChannelElementValues(channel,
+                this.getMBusClientAttributeValues(conn, device, channel));
+        this.mbusChannelCachingRepository.store(device.getDeviceIdentification(), channelElementValues);
+        return channelElementValues;
+    }
+
+    /**
+     * Forgets the cached values of the channel of the gateway device, after
+     * the M-Bus device on the channel has been changed.
+     */
+    public void evictChannel(final DlmsDevice device, final short channel) {
+        this.mbusChannelCachingRepository.evict(device.getDeviceIdentification(), channel);
+    }
+
     protected List<GetResult> getMBusClientAttributeValues(final DlmsConnectionHolder conn, final DlmsDevice device,
             final short channel) throws ProtocolAdapterException {
-        final AttributeAddress[] attrAddresses = this.makeAttributeAddresses(channel);
+        final AttributeAddress[] attrAddresses = makeAttributeAddresses(channel);
         conn.getDlmsMessageListener().setDescription("DeviceChannelsHelper, retrieve M-Bus client setup attributes: "
                 + JdlmsObjectToStringUtil.describeAttributes(attrAddresses));
         return this.dlmsHelperService.getWithList(conn, device, attrAddresses);
@@ -130,9 +237,9 @@ public class DeviceChannelsHelper {
         return value == null ? 0 : value;
     }
 
-    private AttributeAddress[] makeAttributeAddresses(final int channel) {
+    private static AttributeAddress[] makeAttributeAddresses(final short channel) {
         final AttributeAddress[] attrAddresses = new AttributeAddress[NUMBER_OF_ATTRIBUTES_MBUS_CLIENT];
-        final ObisCode obiscode = new ObisCode(String.format(OBIS_CODE_TEMPLATE, channel));
+        final ObisCode obiscode = getObisCode(channel);
         attrAddresses[INDEX_PRIMARY_ADDRESS] = new AttributeAddress(CLASS_ID, obiscode,
                 MbusClientAttribute.PRIMARY_ADDRESS.attributeId());
         attrAddresses[INDEX_IDENTIFICATION_NUMBER] = new AttributeAddress(CLASS_ID, obiscode,
@@ -183,7 +290,7 @@ public class DeviceChannelsHelper {
 
     private DataObjectAttrExecutor getMbusAttributeExecutor(final MbusClientAttribute attribute, final DataObject value,
             final short channel) {
-        final ObisCode obiscode = new ObisCode(String.format(OBIS_CODE_TEMPLATE, channel));
+        final ObisCode obiscode = getObisCode(channel);
         final AttributeAddress attributeAddress = new AttributeAddress(CLASS_ID, obiscode, attribute.attributeId());
 
         return new DataObjectAttrExecutor(attribute.attributeName(), attributeAddress, value, CLASS_ID, obiscode,
@@ -8,7 +8,6 @@
 package org.osgp.adapter.protocol.dlms.domain.commands;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -37,11 +36,13 @@ import org.openmuc.jdlms.datatypes.DataObject;
 import org.openmuc.jdlms.datatypes.DataObject.Type;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.ScalerUnit;
 import org.osgp.adapter.protocol.dlms.exceptions.BufferedDateTimeValidationException;
 import org.osgp.adapter.protocol.dlms.exceptions.ConnectionException;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.alliander.osgp.dto.valueobjects.smartmetering.ClockStatusDto;
@@ -81,6 +82,24 @@ public class DlmsHelperService {
 
     public static final int MILLISECONDS_PER_MINUTE = 60000;
 
+    /**
+     * Returned instead of milliseconds since the epoch for COSEM date-times
+     * that do not specify an instant in time.
+     */
+    public static final long EPOCH_MILLIS_NOT_SPECIFIED = Long.MIN_VALUE;
+
+    private static final int MILLISECONDS_PER_SECOND = 1000;
+    private static final long MILLISECONDS_PER_DAY = 86400000L;
+    private static final int COSEM_DATE_TIME_LENGTH = 12;
+    /*
+     * Deviations of a day or more cannot be converted to a time zone, those
+     * are left to CosemDateTimeDto.asDateTime().
+     */
+    private static final int MAX_ABS_DEVIATION = 24 * 60 - 1;
+
+    @Autowired
+    private DeviceCapabilityHelperService deviceCapabilityHelperService;
+
     /**
      * Gets a single result from a meter, and returns the result data if
      * retrieval was successful (resultCode of the GetResult equals
@@ -167,11 +186,24 @@ public class DlmsHelperService {
         }
     }
 
+    /**
+     * Retrieves the attributes with Get-Request with-list if the device
+     * supports this, or with a Get-Request per attribute otherwise.
+     * <p>
+     * Devices that support with-list may still reject lists above a certain
+     * size. The attributes are requested in chunks no larger than the maximum
+     * learned for the device. When a chunk is rejected for its size it is
+     * requested again in smaller chunks, and the smaller size is stored as the
+     * maximum for the device. When chunks of the maximum size are accepted,
+     * the maximum is raised again.
+     *
+     * @see DeviceCapabilityHelperService#getMaxGetWithListSize(DlmsDevice)
+     */
     public List<GetResult> getWithList(final DlmsConnectionHolder conn, final DlmsDevice device,
             final AttributeAddress... params) throws ProtocolAdapterException {
         try {
             if (device.isWithListSupported()) {
-                return conn.getConnection().get(Arrays.asList(params));
+                return this.getWithListInChunks(conn, device, Arrays.asList(params));
             } else {
                 return this.getWithListWorkaround(conn, params);
             }
@@ -203,13 +235,37 @@ public class DlmsHelperService {
 
     public DlmsMeterValueDto getScaledMeterValue(final DataObject value, final DataObject scalerUnitObject,
             final String description) throws ProtocolAdapterException {
-        LOGGER.debug(this.getDebugInfo(value));
-        LOGGER.debug(this.getDebugInfo(scalerUnitObject));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(this.getDebugInfo(value));
+            LOGGER.debug(this.getDebugInfo(scalerUnitObject));
+        }
         final Long rawValue = this.readLong(value, description);
         if (rawValue == null) {
             return null;
         }
 
+        return this.readScalerUnit(scalerUnitObject, description).scale(rawValue);
+    }
+
+    /**
+     * Applies a scaler and unit that have been read once, to the value of an
+     * entry of a profile buffer for instance.
+     *
+     * @return the meter value with dlms unit or null when
+     *         {@link #readLong(DataObject, String)} is null
+     * @see #readScalerUnit(DataObject, String)
+     */
+    public DlmsMeterValueDto getScaledMeterValue(final DataObject value, final ScalerUnit scalerUnit,
+            final String description) throws ProtocolAdapterException {
+        final Long rawValue = this.readLong(value, description);
+        if (rawValue == null) {
+            return null;
+        }
+        return scalerUnit.scale(rawValue);
+    }
+
+    public ScalerUnit readScalerUnit(final DataObject scalerUnitObject, final String description)
+            throws ProtocolAdapterException {
         if (!scalerUnitObject.isComplex()) {
             throw new ProtocolAdapterException("complex data (structure) expected while retrieving scaler and unit."
                     + this.getDebugInfo(scalerUnitObject));
@@ -222,14 +278,7 @@ public class DlmsHelperService {
         final int scaler = this.readLongNotNull(dataObjects.get(0), description).intValue();
         final DlmsUnitTypeDto unit = DlmsUnitTypeDto
                 .getUnitType(this.readLongNotNull(dataObjects.get(1), description).intValue());
-
-        // determine value
-        BigDecimal scaledValue = BigDecimal.valueOf(rawValue);
-        if (scaler != 0) {
-            scaledValue = scaledValue.multiply(BigDecimal.valueOf(Math.pow(10, scaler)));
-        }
-
-        return new DlmsMeterValueDto(scaledValue, unit);
+        return new ScalerUnit(scaler, unit);
     }
 
     public DataObject getAMRProfileDefinition() {
@@ -253,6 +302,71 @@ public class DlmsHelperService {
         return getResultList;
     }
 
+    private List<GetResult> getWithListInChunks(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final List<AttributeAddress> params) throws IOException {
+        final Integer maxGetWithListSize = this.deviceCapabilityHelperService.getMaxGetWithListSize(device);
+        int chunkSize = maxGetWithListSize == null ? params.size() : Math.max(1, maxGetWithListSize);
+        boolean rejected = false;
+        boolean acceptedChunkOfMaxSize = false;
+
+        final List<GetResult> getResults = new ArrayList<>(params.size());
+        int from = 0;
+        while (from < params.size()) {
+            final List<AttributeAddress> chunk = params.subList(from, Math.min(from + chunkSize, params.size()));
+            final List<GetResult> chunkResults = conn.getConnection().get(chunk);
+            if (chunk.size() > 1 && chunkResults.size() != chunk.size()) {
+                chunkSize = this.shrinkGetWithListSize(device, chunk.size());
+                rejected = true;
+                continue;
+            }
+            if (chunk.size() > 1 && this.isEveryAttributeUnavailable(chunkResults)) {
+                /*
+                 * A device also fails every attribute when the response to a
+                 * request that is too large does not fit, but absent objects
+                 * fail the same way. Only when the first half of the chunk is
+                 * available on its own the size is to blame.
+                 */
+                final List<AttributeAddress> firstHalf = chunk.subList(0, chunk.size() / 2);
+                final List<GetResult> firstHalfResults = conn.getConnection().get(firstHalf);
+                if (firstHalfResults.size() == firstHalf.size()
+                        && !this.isEveryAttributeUnavailable(firstHalfResults)) {
+                    chunkSize = this.shrinkGetWithListSize(device, chunk.size());
+                    rejected = true;
+                    getResults.addAll(firstHalfResults);
+                    from += firstHalf.size();
+                    continue;
+                }
+            }
+            acceptedChunkOfMaxSize |= maxGetWithListSize != null && chunk.size() == chunkSize;
+            getResults.addAll(chunkResults);
+            from += chunk.size();
+        }
+
+        if (acceptedChunkOfMaxSize && !rejected) {
+            this.deviceCapabilityHelperService.growMaxGetWithListSize(device, chunkSize);
+        }
+        return getResults;
+    }
+
+    private boolean isEveryAttributeUnavailable(final List<GetResult> getResults) {
+        for (final GetResult getResult : getResults) {
+            final AccessResultCode resultCode = getResult.getResultCode();
+            if (resultCode != AccessResultCode.DATA_BLOCK_UNAVAILABLE
+                    && resultCode != AccessResultCode.LONG_GET_ABORTED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int shrinkGetWithListSize(final DlmsDevice device, final int rejectedSize) {
+        final int maxGetWithListSize = Math.max(1, rejectedSize / 2);
+        LOGGER.warn("Device {} rejected a get-with-list request for {} attributes, retrying with at most {}",
+                device.getDeviceIdentification(), rejectedSize, maxGetWithListSize);
+        this.deviceCapabilityHelperService.learnMaxGetWithListSize(device, maxGetWithListSize);
+        return maxGetWithListSize;
+    }
+
     private void checkResultCode(final GetResult getResult, final String description) throws ProtocolAdapterException {
         final AccessResultCode resultCode = getResult.getResultCode();
         LOGGER.debug("{} - AccessResultCode: {}", description, resultCode);
@@ -369,6 +483,105 @@ public class DlmsHelperService {
         return new CosemDateTimeDto(date, time, deviation, clockStatus);
     }
 
+    /**
+     * Reads a COSEM date-time as milliseconds since the epoch, without creating
+     * intermediate date-time objects for the common case of a fully specified
+     * date-time with a deviation, as found in the clock column of a profile
+     * buffer.
+     *
+     * @return the instant of the date-time, or
+     *         {@link #EPOCH_MILLIS_NOT_SPECIFIED} if the date-time does not
+     *         specify an instant in time.
+     * @see #toEpochMillis(byte[])
+     */
+    public long readEpochMillis(final DataObject resultData, final String description)
+            throws ProtocolAdapterException {
+        if (resultData != null && resultData.isByteArray()) {
+            this.logDebugResultData(resultData, description);
+            return this.toEpochMillis((byte[]) resultData.getValue());
+        }
+        return toEpochMillis(this.readDateTime(resultData, description));
+    }
+
+    /**
+     * Converts an encoded COSEM date-time to milliseconds since the epoch.
+     * <p>
+     * Gives the same instant as
+     * {@code fromDateTimeValue(dateTimeValue).asDateTime()}. Date-times with a
+     * specified year, month, day, time and deviation are converted directly,
+     * others are converted by way of {@link CosemDateTimeDto}.
+     *
+     * @return the instant of the date-time, or
+     *         {@link #EPOCH_MILLIS_NOT_SPECIFIED} if the date-time does not
+     *         specify an instant in time.
+     */
+    public long toEpochMillis(final byte[] dateTimeValue) {
+        if (dateTimeValue.length == COSEM_DATE_TIME_LENGTH) {
+            final int year = ((dateTimeValue[0] & 0xFF) << 8) | (dateTimeValue[1] & 0xFF);
+            final int monthOfYear = dateTimeValue[2] & 0xFF;
+            final int dayOfMonth = dateTimeValue[3] & 0xFF;
+            final int hourOfDay = dateTimeValue[5] & 0xFF;
+            final int minuteOfHour = dateTimeValue[6] & 0xFF;
+            final int secondOfMinute = dateTimeValue[7] & 0xFF;
+            final int hundredthsOfSecond = dateTimeValue[8] & 0xFF;
+            final int deviation = (short) (((dateTimeValue[9] & 0xFF) << 8) | (dateTimeValue[10] & 0xFF));
+
+            if (year != 0xFFFF && monthOfYear >= 1 && monthOfYear <= 12 && dayOfMonth >= 1
+                    && dayOfMonth <= lengthOfMonth(year, monthOfYear) && hourOfDay <= 23 && minuteOfHour <= 59
+                    && secondOfMinute <= 59 && hundredthsOfSecond <= 99 && Math.abs(deviation) <= MAX_ABS_DEVIATION) {
+
+                final long localSeconds = ((hourOfDay * 60L) + minuteOfHour) * 60L + secondOfMinute;
+                /*
+                 * The deviation is the number of minutes local time is behind
+                 * UTC, so it is added to get to UTC.
+                 */
+                return daysSinceEpoch(year, monthOfYear, dayOfMonth) * MILLISECONDS_PER_DAY
+                        + (localSeconds + deviation * 60L) * MILLISECONDS_PER_SECOND + hundredthsOfSecond * 10L;
+            }
+        }
+        return toEpochMillis(this.fromDateTimeValue(dateTimeValue));
+    }
+
+    private static long toEpochMillis(final CosemDateTimeDto cosemDateTime) {
+        if (cosemDateTime == null) {
+            return EPOCH_MILLIS_NOT_SPECIFIED;
+        }
+        final DateTime dateTime = cosemDateTime.asDateTime();
+        return dateTime == null ? EPOCH_MILLIS_NOT_SPECIFIED : dateTime.getMillis();
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(final int year, final int monthOfYear) {
+        switch (monthOfYear) {
+        case 2:
+            return isLeapYear(year) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Number of days from 1970-01-01 to the given date in the proleptic
+     * Gregorian calendar.
+     */
+    private static long daysSinceEpoch(final int year, final int monthOfYear, final int dayOfMonth) {
+        // Count years from March, so the leap day is the last day of a year.
+        final long y = monthOfYear <= 2 ? year - 1L : year;
+        final long era = Math.floorDiv(y, 400);
+        final long yearOfEra = y - era * 400;
+        final long dayOfYear = (153 * (monthOfYear + (monthOfYear > 2 ? -3 : 9)) + 2) / 5 + dayOfMonth - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
     /**
      * Creates a COSEM date-time object based on the given {@code dateTime}.
      * <p>
@@ -870,7 +1083,9 @@ public class DlmsHelperService {
     }
 
     private void logDebugResultData(final DataObject resultData, final String description) {
-        LOGGER.debug("{} - ResultData: {}", description, this.getDebugInfo(resultData));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("{} - ResultData: {}", description, this.getDebugInfo(resultData));
+        }
     }
 
     private void logAndThrowExceptionForUnexpectedResultData(final DataObject resultData, final String expectedType)
@@ -882,6 +1097,31 @@ public class DlmsHelperService {
                 + ", value type: " + resultDataType);
     }
 
+    /**
+     * Reads the clock of an entry of a capture buffer and checks that it lies
+     * within the given period.
+     *
+     * @return the clock of the buffer entry in milliseconds since the epoch.
+     * @throws BufferedDateTimeValidationException
+     *             if the clock is not fully specified or lies outside the
+     *             period.
+     * @see #validateBufferedDateTime(DateTime, CosemDateTimeDto, DateTime,
+     *      DateTime)
+     */
+    public long readBufferedDateTime(final DataObject clock, final DateTime beginDateTime,
+            final DateTime endDateTime, final String description)
+            throws ProtocolAdapterException, BufferedDateTimeValidationException {
+        final long bufferedDateTime = this.readEpochMillis(clock, description);
+        if (bufferedDateTime == EPOCH_MILLIS_NOT_SPECIFIED || bufferedDateTime < beginDateTime.getMillis()
+                || bufferedDateTime > endDateTime.getMillis()) {
+            // Only decode the clock to objects to report why it is rejected.
+            final CosemDateTimeDto cosemDateTime = this.readDateTime(clock, description);
+            this.validateBufferedDateTime(cosemDateTime == null ? null : cosemDateTime.asDateTime(), cosemDateTime,
+                    beginDateTime, endDateTime);
+        }
+        return bufferedDateTime;
+    }
+
     public void validateBufferedDateTime(final DateTime bufferedDateTime, final CosemDateTimeDto cosemDateTime,
             final DateTime beginDateTime, final DateTime endDateTime) throws BufferedDateTimeValidationException {
 
@@ -7,7 +7,6 @@
  */
 package org.osgp.adapter.protocol.dlms.domain.commands;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,11 +16,11 @@ import org.openmuc.jdlms.ObisCode;
 import org.openmuc.jdlms.datatypes.DataObject;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
-import org.osgp.adapter.protocol.dlms.exceptions.ConnectionException;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.alliander.osgp.dto.valueobjects.smartmetering.ActionRequestDto;
@@ -46,6 +45,9 @@ public class GetAllAttributeValuesCommandExecutor extends AbstractCommandExecuto
     @Autowired
     private DlmsHelperService dlmsHelper;
 
+    @Value("${get.all.attribute.values.chunk.size}")
+    private int chunkSize;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(GetAllAttributeValuesCommandExecutor.class);
 
     public GetAllAttributeValuesCommandExecutor() {
@@ -89,15 +91,11 @@ public class GetAllAttributeValuesCommandExecutor extends AbstractCommandExecuto
         final List<ClassIdObisAttr> allObisCodes = this.getAllObisCodes(objectListElements);
         this.logAllObisCodes(allObisCodes);
 
-        try {
-            final String output = this.createOutput(conn, allObisCodes);
+        final String output = this.createOutput(conn, device, allObisCodes);
 
-            LOGGER.debug("Total output is: {}", output);
+        LOGGER.debug("Total output is: {}", output);
 
-            return output;
-        } catch (final IOException e) {
-            throw new ConnectionException(e);
-        }
+        return output;
     }
 
     private void logAllObisCodes(final List<ClassIdObisAttr> allObisCodes) {
@@ -109,58 +107,71 @@ public class GetAllAttributeValuesCommandExecutor extends AbstractCommandExecuto
         }
     }
 
-    private String createOutput(final DlmsConnectionHolder conn, final List<ClassIdObisAttr> allObisCodes)
-            throws ProtocolAdapterException, IOException {
+    /**
+     * Reads the values of all attributes, chunkSize attributes per
+     * get-with-list request, and writes them to the output as soon as they
+     * are read. Every value is preceded by a line with its attribute address
+     * and result code.
+     */
+    private String createOutput(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final List<ClassIdObisAttr> allObisCodes) throws ProtocolAdapterException {
+
+        final List<AttributeAddress> attributeAddresses = this.getAllAttributeAddresses(allObisCodes);
+        final int numberOfAttributes = attributeAddresses.size();
 
         final StringBuilder output = new StringBuilder();
-        int index = 1;
-        for (final ClassIdObisAttr obisAttr : allObisCodes) {
-            LOGGER.debug("Creating output for {} {}/{}", obisAttr.getObisCode().getValue(), index++,
-                    allObisCodes.size());
-            output.append(this.getAllDataFromObisCode(conn, obisAttr));
-            LOGGER.debug("Length of output is now: {}", output.length());
+        for (int from = 0; from < numberOfAttributes; from += this.chunkSize) {
+            final int to = Math.min(from + this.chunkSize, numberOfAttributes);
+            final AttributeAddress[] chunk = attributeAddresses.subList(from, to)
+                    .toArray(new AttributeAddress[to - from]);
+
+            conn.getDlmsMessageListener()
+                    .setDescription("RetrieveAllAttributeValues, attributes " + (from + 1) + "-" + to + " of "
+                            + numberOfAttributes + ", retrieve attributes: "
+                            + JdlmsObjectToStringUtil.describeAttributes(chunk));
+
+            final List<GetResult> getResults = this.dlmsHelper.getWithList(conn, device, chunk);
+            for (int i = 0; i < chunk.length; i++) {
+                this.appendAttributeValue(output, chunk[i], getResults.get(i));
+            }
+
+            LOGGER.info("Retrieved {}/{} attribute values of device {}, length of output is now: {}", to,
+                    numberOfAttributes, device.getDeviceIdentification(), output.length());
         }
         return output.toString();
     }
 
-    private String getAllDataFromObisCode(final DlmsConnectionHolder conn, final ClassIdObisAttr obisAttr)
-            throws ProtocolAdapterException, IOException {
+    private List<AttributeAddress> getAllAttributeAddresses(final List<ClassIdObisAttr> allObisCodes)
+            throws ProtocolAdapterException {
 
-        final StringBuilder output = new StringBuilder();
-        final int noOfAttr = obisAttr.getNoAttr();
-        for (int attributeValue = 1; attributeValue <= noOfAttr; attributeValue++) {
-            LOGGER.debug("Creating output for {} attr: {}/{}", obisAttr.getObisCode().getValue(), attributeValue,
-                    noOfAttr);
-            output.append(this.getAllDataFromAttribute(conn, obisAttr.getClassNumber(), obisAttr.getObisCode(),
-                    attributeValue));
+        final List<AttributeAddress> attributeAddresses = new ArrayList<>();
+        for (final ClassIdObisAttr obisAttr : allObisCodes) {
+            final DataObject obisCode = obisAttr.getObisCode();
+            if (!obisCode.isByteArray()) {
+                this.throwUnexpectedTypeProtocolAdapterException();
+            }
+
+            final byte[] obisCodeByteArray = obisCode.getValue();
+            if (obisCodeByteArray.length != OBIS_CODE_BYTE_ARRAY_LENGTH) {
+                this.throwUnexpectedTypeProtocolAdapterException();
+            }
+
+            final ObisCode obis = new ObisCode(obisCodeByteArray);
+            for (int attributeId = 1; attributeId <= obisAttr.getNoAttr(); attributeId++) {
+                attributeAddresses.add(new AttributeAddress(obisAttr.getClassNumber(), obis, attributeId));
+            }
         }
-        return output.toString();
+        return attributeAddresses;
     }
 
-    private String getAllDataFromAttribute(final DlmsConnectionHolder conn, final int classNumber,
-            final DataObject obisCode, final int attributeValue) throws ProtocolAdapterException, IOException {
+    private void appendAttributeValue(final StringBuilder output, final AttributeAddress attributeAddress,
+            final GetResult getResult) {
 
-        if (!obisCode.isByteArray()) {
-            this.throwUnexpectedTypeProtocolAdapterException();
+        output.append(JdlmsObjectToStringUtil.describeAttributes(attributeAddress)).append(": ")
+                .append(getResult.getResultCode()).append(System.lineSeparator());
+        if (getResult.getResultData() != null) {
+            output.append(this.dlmsHelper.getDebugInfo(getResult.getResultData())).append(System.lineSeparator());
         }
-
-        final byte[] obisCodeByteArray = obisCode.getValue();
-        if (obisCodeByteArray.length != OBIS_CODE_BYTE_ARRAY_LENGTH) {
-            this.throwUnexpectedTypeProtocolAdapterException();
-        }
-        final AttributeAddress attributeAddress = new AttributeAddress(classNumber, new ObisCode(obisCodeByteArray),
-                attributeValue);
-
-        conn.getDlmsMessageListener().setDescription("RetrieveAllAttributeValues, retrieve attribute: "
-                + JdlmsObjectToStringUtil.describeAttributes(attributeAddress));
-
-        LOGGER.debug("Retrieving configuration objects data for class id: {}, obis code: {}, attribute id: {}",
-                classNumber, obisCodeByteArray, attributeValue);
-        final GetResult getResult = conn.getConnection().get(attributeAddress);
-
-        LOGGER.debug("ResultCode: {}", getResult.getResultCode());
-
-        return this.dlmsHelper.getDebugInfo(getResult.getResultData());
     }
 
     private List<ClassIdObisAttr> getAllObisCodes(final List<DataObject> objectListElements)
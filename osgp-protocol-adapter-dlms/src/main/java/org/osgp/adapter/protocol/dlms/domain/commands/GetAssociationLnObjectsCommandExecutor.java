@@ -9,7 +9,9 @@ package org.osgp.adapter.protocol.dlms.domain.commands;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.openmuc.jdlms.AttributeAddress;
 import org.openmuc.jdlms.GetResult;
@@ -17,6 +19,7 @@ import org.openmuc.jdlms.ObisCode;
 import org.openmuc.jdlms.datatypes.DataObject;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.DeviceCapabilities;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,9 +64,15 @@ public class GetAssociationLnObjectsCommandExecutor extends AbstractCommandExecu
     private static final int ACCESS_RIGHTS_METHOD_ACCESS_METHOD_ID_INDEX = 0;
     private static final int ACCESS_RIGHTS_METHOD_ACCESS_ACCESS_MODE_INDEX = 1;
 
+    private static final int CLASS_ID_PROFILE_GENERIC = 7;
+    private static final int ATTRIBUTE_ID_BUFFER = 2;
+
     @Autowired
     private DlmsHelperService dlmsHelperService;
 
+    @Autowired
+    private DeviceCapabilityHelperService deviceCapabilityHelperService;
+
     public GetAssociationLnObjectsCommandExecutor() {
         super(GetAssociationLnObjectsRequestDto.class);
     }
@@ -87,6 +96,13 @@ public class GetAssociationLnObjectsCommandExecutor extends AbstractCommandExecu
     public AssociationLnListTypeDto execute(final DlmsConnectionHolder conn, final DlmsDevice device, final Void object)
             throws ProtocolAdapterException {
 
+        final DeviceCapabilities capabilities = this.deviceCapabilityHelperService.getCapabilities(device);
+        if (capabilities != null) {
+            LOGGER.debug("Using the known association LN objects for device {}: {}",
+                    device.getDeviceIdentification(), capabilities);
+            return capabilities.getAssociationLnList();
+        }
+
         final AttributeAddress attributeAddress = new AttributeAddress(CLASS_ID, OBIS_CODE, ATTRIBUTE_ID);
 
         conn.getDlmsMessageListener().setDescription("GetAssociationLnObjects, retrieve attribute: "
@@ -105,8 +121,51 @@ public class GetAssociationLnObjectsCommandExecutor extends AbstractCommandExecu
 
         final List<DataObject> associationLnListObjects = resultData.getValue();
         final List<AssociationLnListElementDto> elements = this.convertAssociationLnList(associationLnListObjects);
+        final AssociationLnListTypeDto associationLnList = new AssociationLnListTypeDto(elements);
+
+        this.deviceCapabilityHelperService.storeCapabilities(device,
+                this.toCapabilities(associationLnList, associationLnListObjects));
+
+        return associationLnList;
+    }
+
+    private DeviceCapabilities toCapabilities(final AssociationLnListTypeDto associationLnList,
+            final List<DataObject> associationLnListObjects) throws ProtocolAdapterException {
+
+        final Set<String> attributes = new HashSet<>();
+        boolean selectiveAccessSupported = false;
+        for (final DataObject obisCodeMetaData : associationLnListObjects) {
+            final List<DataObject> obisCodeMetaDataList = obisCodeMetaData.getValue();
+            final int classId = this.dlmsHelperService.readLong(obisCodeMetaDataList.get(CLASS_ID_INDEX), "classId")
+                    .intValue();
+            final byte[] logicalName = obisCodeMetaDataList.get(OBIS_CODE_INDEX).getValue();
+            final ObisCode obisCode = new ObisCode(logicalName);
+            final DataObject accessRights = obisCodeMetaDataList.get(ACCESS_RIGHTS_INDEX);
+            if (!accessRights.isComplex()) {
+                continue;
+            }
+
+            final List<DataObject> accessRightsValues = accessRights.getValue();
+            final List<DataObject> attributeAccessItems = accessRightsValues.get(ACCESS_RIGHTS_ATTRIBUTE_ACCESS_INDEX)
+                    .getValue();
+            for (final DataObject attributeAccessItemRaw : attributeAccessItems) {
+                final List<DataObject> attributeAccessItem = attributeAccessItemRaw.getValue();
+                final int attributeId = this.dlmsHelperService
+                        .readLong(attributeAccessItem.get(ACCESS_RIGHTS_ATTRIBUTE_ACCESS_ATTRIBUTE_ID_INDEX), "")
+                        .intValue();
+                attributes.add(DeviceCapabilities.attributeKey(classId, obisCode, attributeId));
+
+                final DataObject accessSelectors = attributeAccessItem
+                        .get(ACCESS_RIGHTS_ATTRIBUTE_ACCESS_ACCESS_SELECTORS_INDEX);
+                if (classId == CLASS_ID_PROFILE_GENERIC && attributeId == ATTRIBUTE_ID_BUFFER
+                        && !accessSelectors.isNull()) {
+                    final List<DataObject> accessSelectorValues = accessSelectors.getValue();
+                    selectiveAccessSupported |= !accessSelectorValues.isEmpty();
+                }
+            }
+        }
 
-        return new AssociationLnListTypeDto(elements);
+        return new DeviceCapabilities(associationLnList, attributes, selectiveAccessSupported);
     }
 
     private List<AssociationLnListElementDto> convertAssociationLnList(final List<DataObject> resultDataValue)
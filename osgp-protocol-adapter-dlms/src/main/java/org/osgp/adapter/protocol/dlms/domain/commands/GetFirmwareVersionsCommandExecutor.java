@@ -79,9 +79,11 @@ public class GetFirmwareVersionsCommandExecutor extends AbstractCommandExecutor<
         final List<GetResult> getResultList = this.dlmsHelperService.getAndCheck(conn, device,
                 "retrieve firmware versions", ATTRIBUTE_ADDRESSES);
 
-        resultList.add(new FirmwareVersionDto(FirmwareModuleType.ACTIVE_FIRMWARE, this.dlmsHelperService.readString(
+        final String activeFirmwareVersion = this.dlmsHelperService.readString(
                 getResultList.get(INDEX_ACTIVE_FIRMWARE_VERSION).getResultData(),
-                FirmwareModuleType.ACTIVE_FIRMWARE.getDescription())));
+                FirmwareModuleType.ACTIVE_FIRMWARE.getDescription());
+        resultList.add(new FirmwareVersionDto(FirmwareModuleType.ACTIVE_FIRMWARE, activeFirmwareVersion));
+        device.setActiveFirmwareVersion(activeFirmwareVersion);
         resultList.add(new FirmwareVersionDto(FirmwareModuleType.MODULE_ACTIVE, this.dlmsHelperService.readString(
                 getResultList.get(INDEX_MODULE_ACTIVE_FIRMWARE_VERSION).getResultData(),
                 FirmwareModuleType.MODULE_ACTIVE.getDescription())));
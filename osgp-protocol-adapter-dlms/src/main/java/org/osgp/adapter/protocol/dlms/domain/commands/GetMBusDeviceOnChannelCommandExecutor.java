@@ -7,9 +7,6 @@
  */
 package org.osgp.adapter.protocol.dlms.domain.commands;
 
-import java.util.List;
-
-import org.openmuc.jdlms.GetResult;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
@@ -40,8 +37,6 @@ public class GetMBusDeviceOnChannelCommandExecutor
 
         LOGGER.info("Retrieving values for mbus channel {} on meter {}", requestDto.getChannel(),
                 requestDto.getGatewayDeviceIdentification());
-        final List<GetResult> resultList = this.deviceChannelsHelper.getMBusClientAttributeValues(conn, device,
-                requestDto.getChannel());
-        return this.deviceChannelsHelper.makeChannelElementValues(requestDto.getChannel(), resultList);
+        return this.deviceChannelsHelper.readChannelElementValues(conn, device, requestDto.getChannel());
     }
 }
\ No newline at end of file
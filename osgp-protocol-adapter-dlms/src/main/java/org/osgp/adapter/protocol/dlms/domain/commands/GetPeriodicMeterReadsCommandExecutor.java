@@ -9,6 +9,7 @@ package org.osgp.adapter.protocol.dlms.domain.commands;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -18,20 +19,22 @@ import org.openmuc.jdlms.GetResult;
 import org.openmuc.jdlms.ObisCode;
 import org.openmuc.jdlms.SelectiveAccessDescription;
 import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.application.services.PeriodicMeterReadsCheckpointService;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.PeriodicMeterReadsColumns;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.ScalerUnit;
 import org.osgp.adapter.protocol.dlms.exceptions.BufferedDateTimeValidationException;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.alliander.osgp.dto.valueobjects.smartmetering.ActionRequestDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.AmrProfileStatusCodeDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.AmrProfileStatusCodeFlagDto;
-import com.alliander.osgp.dto.valueobjects.smartmetering.CosemDateTimeDto;
-import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsMeterValueDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsRequestDataDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsRequestDto;
@@ -57,9 +60,10 @@ public class GetPeriodicMeterReadsCommandExecutor extends
     private static final ObisCode OBIS_CODE_MONTHLY_DAILY_EXPORT_RATE_1_SCALER_UNIT = new ObisCode("1.0.2.8.1.255");
     private static final ObisCode OBIS_CODE_MONTHLY_DAILY_EXPORT_RATE_2_SCALER_UNIT = new ObisCode("1.0.2.8.2.255");
     private static final int RESULT_INDEX_IMPORT = 1;
-    private static final int RESULT_INDEX_IMPORT_2_OR_EXPORT = 2;
-    private static final int RESULT_INDEX_EXPORT = 3;
-    private static final int RESULT_INDEX_EXPORT_2 = 4;
+    private static final int COLUMN_IMPORT = 0;
+    private static final int COLUMN_IMPORT_2_OR_EXPORT = 1;
+    private static final int COLUMN_EXPORT = 2;
+    private static final int COLUMN_EXPORT_2 = 3;
 
     private static final int CLASS_ID_REGISTER = 3;
 
@@ -86,6 +90,15 @@ public class GetPeriodicMeterReadsCommandExecutor extends
     @Autowired
     private AmrProfileStatusCodeHelperService amrProfileStatusCodeHelperService;
 
+    @Autowired
+    private DeviceCapabilityHelperService deviceCapabilityHelperService;
+
+    @Autowired
+    private PeriodicMeterReadsCheckpointService periodicMeterReadsCheckpointService;
+
+    @Value("${periodic.meter.reads.interval.window.hours}")
+    private int intervalWindowHours;
+
     public GetPeriodicMeterReadsCommandExecutor() {
         super(PeriodicMeterReadsRequestDataDto.class);
     }
@@ -104,13 +117,99 @@ public class GetPeriodicMeterReadsCommandExecutor extends
     @Override
     public PeriodicMeterReadsResponseDto execute(final DlmsConnectionHolder conn, final DlmsDevice device,
             final PeriodicMeterReadsRequestDto periodicMeterReadsRequest) throws ProtocolAdapterException {
+        return this.toResponseDto(this.readColumns(conn, device, periodicMeterReadsRequest));
+    }
+
+    /**
+     * Retrieves the periodic meter reads like {@link #execute}, keeping the
+     * windows of a long period that were read for the correlation UID.
+     *
+     * @see #readColumns(DlmsConnectionHolder, DlmsDevice,
+     *      PeriodicMeterReadsRequestDto, String)
+     */
+    public PeriodicMeterReadsResponseDto execute(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final PeriodicMeterReadsRequestDto periodicMeterReadsRequest, final String correlationUid)
+            throws ProtocolAdapterException {
+        return this.toResponseDto(this.readColumns(conn, device, periodicMeterReadsRequest, correlationUid));
+    }
+
+    /**
+     * Retrieves the periodic meter reads like {@link #execute}, without
+     * creating objects per buffer entry.
+     *
+     * @return the entries of the buffer within the requested period, with the
+     *         registers in the order of the scaler_unit attributes that are
+     *         retrieved for the period type.
+     */
+    public PeriodicMeterReadsColumns readColumns(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final PeriodicMeterReadsRequestDto periodicMeterReadsRequest) throws ProtocolAdapterException {
+        return this.readColumns(conn, device, periodicMeterReadsRequest, null);
+    }
+
+    /**
+     * Retrieves the periodic meter reads like
+     * {@link #readColumns(DlmsConnectionHolder, DlmsDevice, PeriodicMeterReadsRequestDto)}.
+     * <p>
+     * A requested period of interval values that is longer than the configured
+     * window is read window by window, each with its own range descriptor, so
+     * no single response from the device has to hold all entries. The windows
+     * that were read are kept for the correlation UID, so a retry of a request
+     * that failed part way only reads the windows that are missing. The caller
+     * evicts them once the response has been sent.
+     *
+     * @param correlationUid
+     *            the correlation UID of the request, or {@code null} to not
+     *            keep the windows that were read.
+     */
+    public PeriodicMeterReadsColumns readColumns(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final PeriodicMeterReadsRequestDto periodicMeterReadsRequest, final String correlationUid)
+            throws ProtocolAdapterException {
 
         final PeriodTypeDto periodType = periodicMeterReadsRequest.getPeriodType();
         final DateTime beginDateTime = new DateTime(periodicMeterReadsRequest.getBeginDate());
         final DateTime endDateTime = new DateTime(periodicMeterReadsRequest.getEndDate());
 
+        if (periodType != PeriodTypeDto.INTERVAL || this.intervalWindowHours <= 0
+                || !beginDateTime.plusHours(this.intervalWindowHours).isBefore(endDateTime)) {
+            return this.readWindow(conn, device, periodType, beginDateTime, endDateTime);
+        }
+
+        final List<PeriodicMeterReadsColumns> windows = new ArrayList<>();
+        DateTime windowBegin = beginDateTime;
+        while (windowBegin.isBefore(endDateTime)) {
+            final DateTime windowEnd = windowBegin.plusHours(this.intervalWindowHours).isBefore(endDateTime)
+                    ? windowBegin.plusHours(this.intervalWindowHours) : endDateTime;
+            PeriodicMeterReadsColumns window = correlationUid == null ? null
+                    : this.periodicMeterReadsCheckpointService.retrieve(correlationUid, windowBegin.getMillis(),
+                            windowEnd.getMillis());
+            if (window == null) {
+                window = this.readWindow(conn, device, periodType, windowBegin, windowEnd);
+                if (correlationUid != null) {
+                    this.periodicMeterReadsCheckpointService.store(correlationUid, windowBegin.getMillis(),
+                            windowEnd.getMillis(), window);
+                }
+            } else {
+                LOGGER.debug("Using the periodic meter reads from {} until {} read before for {}", windowBegin,
+                        windowEnd, correlationUid);
+            }
+            windows.add(window);
+            windowBegin = windowEnd;
+        }
+
+        return PeriodicMeterReadsColumns.concatenate(windows);
+    }
+
+    private PeriodicMeterReadsColumns readWindow(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final PeriodTypeDto periodType, final DateTime beginDateTime, final DateTime endDateTime)
+            throws ProtocolAdapterException {
+
         final AttributeAddress[] profileBufferAndScalerUnit = this.getProfileBufferAndScalerUnit(periodType,
-                beginDateTime, endDateTime, device.isSelectiveAccessSupported());
+                beginDateTime, endDateTime, this.deviceCapabilityHelperService.isSelectiveAccessSupported(device));
+        if (!this.deviceCapabilityHelperService.isAttributeAvailable(device, profileBufferAndScalerUnit[0])) {
+            throw new ProtocolAdapterException(String.format("Device %s has no %s profile %s",
+                    device.getDeviceIdentification(), periodType,
+                    profileBufferAndScalerUnit[0].getInstanceId().asDecimalString()));
+        }
 
         LOGGER.debug("Retrieving current billing period and profiles for period type: {}, from: {}, to: {}",
                 periodType, beginDateTime, endDateTime);
@@ -134,131 +233,158 @@ public class GetPeriodicMeterReadsCommandExecutor extends
                 "Periodic E-Meter Reads");
         final List<DataObject> bufferedObjectsList = resultData.getValue();
 
-        final List<PeriodicMeterReadsResponseItemDto> periodicMeterReads = new ArrayList<>();
+        final ScalerUnit[] scalerUnits = bufferedObjectsList.isEmpty()
+                ? new ScalerUnit[getResultList.size() - RESULT_INDEX_IMPORT] : this.readScalerUnits(getResultList);
+        final PeriodicMeterReadsColumns columns = new PeriodicMeterReadsColumns(periodType, scalerUnits,
+                periodType != PeriodTypeDto.MONTHLY, false, bufferedObjectsList.size());
+        final long[] rawValues = new long[scalerUnits.length];
+        final boolean[] captured = new boolean[scalerUnits.length];
         for (final DataObject bufferedObject : bufferedObjectsList) {
             final List<DataObject> bufferedObjects = bufferedObject.getValue();
             try {
-                periodicMeterReads.add(this.processNextPeriodicMeterReads(periodType, beginDateTime, endDateTime,
-                        bufferedObjects, getResultList));
+                this.readNextPeriodicMeterReads(periodType, beginDateTime, endDateTime, bufferedObjects, rawValues,
+                        captured, columns);
             } catch (final BufferedDateTimeValidationException e) {
                 LOGGER.warn(e.getMessage(), e);
             }
         }
+        columns.trimToSize();
 
-        return new PeriodicMeterReadsResponseDto(periodType, periodicMeterReads);
+        return columns;
     }
 
-    private PeriodicMeterReadsResponseItemDto processNextPeriodicMeterReads(final PeriodTypeDto periodType,
-            final DateTime beginDateTime, final DateTime endDateTime, final List<DataObject> bufferedObjects,
-            final List<GetResult> results) throws ProtocolAdapterException, BufferedDateTimeValidationException {
+    /**
+     * Converts periodic meter reads in columnar form to a response item per
+     * buffer entry.
+     */
+    public PeriodicMeterReadsResponseDto toResponseDto(final PeriodicMeterReadsColumns columns) {
+        final PeriodTypeDto periodType = columns.getPeriodType();
+        final List<PeriodicMeterReadsResponseItemDto> periodicMeterReads = new ArrayList<>(columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            final Date bufferedDateTime = new Date(columns.getBufferedDateTime(row));
+            switch (periodType) {
+            case INTERVAL:
+                periodicMeterReads.add(new PeriodicMeterReadsResponseItemDto(bufferedDateTime,
+                        columns.getValue(COLUMN_IMPORT, row), columns.getValue(COLUMN_IMPORT_2_OR_EXPORT, row),
+                        this.toAmrProfileStatusCode(columns.getAmrProfileStatus(row))));
+                break;
+            case DAILY:
+                periodicMeterReads.add(new PeriodicMeterReadsResponseItemDto(bufferedDateTime,
+                        columns.getValue(COLUMN_IMPORT, row), columns.getValue(COLUMN_IMPORT_2_OR_EXPORT, row),
+                        columns.getValue(COLUMN_EXPORT, row), columns.getValue(COLUMN_EXPORT_2, row),
+                        this.toAmrProfileStatusCode(columns.getAmrProfileStatus(row))));
+                break;
+            case MONTHLY:
+                periodicMeterReads.add(new PeriodicMeterReadsResponseItemDto(bufferedDateTime,
+                        columns.getValue(COLUMN_IMPORT, row), columns.getValue(COLUMN_IMPORT_2_OR_EXPORT, row),
+                        columns.getValue(COLUMN_EXPORT, row), columns.getValue(COLUMN_EXPORT_2, row)));
+                break;
+            default:
+                throw new AssertionError("Unknown PeriodType: " + periodType);
+            }
+        }
+        return new PeriodicMeterReadsResponseDto(periodType, periodicMeterReads);
+    }
 
-        final CosemDateTimeDto cosemDateTime = this.dlmsHelperService.readDateTime(
-                bufferedObjects.get(BUFFER_INDEX_CLOCK), "Clock from " + periodType + " buffer");
-        final DateTime bufferedDateTime = cosemDateTime == null ? null : cosemDateTime.asDateTime();
+    private void readNextPeriodicMeterReads(final PeriodTypeDto periodType, final DateTime beginDateTime,
+            final DateTime endDateTime, final List<DataObject> bufferedObjects, final long[] rawValues,
+            final boolean[] captured, final PeriodicMeterReadsColumns columns)
+            throws ProtocolAdapterException, BufferedDateTimeValidationException {
 
-        this.dlmsHelperService.validateBufferedDateTime(bufferedDateTime, cosemDateTime, beginDateTime, endDateTime);
+        final long bufferedDateTime = this.dlmsHelperService.readBufferedDateTime(
+                bufferedObjects.get(BUFFER_INDEX_CLOCK), beginDateTime, endDateTime,
+                "Clock from " + periodType + " buffer");
 
-        LOGGER.debug("Processing profile (" + periodType + ") objects captured at: {}", cosemDateTime);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Processing profile ({}) objects captured at: {}", periodType, new Date(bufferedDateTime));
+        }
 
+        final int amrProfileStatus;
         switch (periodType) {
         case INTERVAL:
-            return this.getNextPeriodicMeterReadsForInterval(bufferedObjects, bufferedDateTime, results);
+            amrProfileStatus = this.readAmrProfileStatus(bufferedObjects.get(BUFFER_INDEX_AMR_STATUS));
+            this.readRawValue(bufferedObjects.get(BUFFER_INDEX_A_POS), "positiveActiveEnergy", COLUMN_IMPORT,
+                    rawValues, captured);
+            this.readRawValue(bufferedObjects.get(BUFFER_INDEX_A_NEG), "negativeActiveEnergy",
+                    COLUMN_IMPORT_2_OR_EXPORT, rawValues, captured);
+            columns.addRow(bufferedDateTime, rawValues, captured, amrProfileStatus, 0);
+            break;
         case DAILY:
-            return this.getNextPeriodicMeterReadsForDaily(bufferedObjects, bufferedDateTime, results);
+            amrProfileStatus = this.readAmrProfileStatus(bufferedObjects.get(BUFFER_INDEX_AMR_STATUS));
+            this.readTariffs(bufferedObjects, 0, rawValues, captured);
+            columns.addRow(bufferedDateTime, rawValues, captured, amrProfileStatus, 0);
+            break;
         case MONTHLY:
-            return this.getNextPeriodicMeterReadsForMonthly(bufferedObjects, bufferedDateTime, results);
+            /*
+             * Buffer indexes minus one, since Monthly captured objects don't
+             * include the AMR Profile status.
+             */
+            this.readTariffs(bufferedObjects, -1, rawValues, captured);
+            columns.addRow(bufferedDateTime, rawValues, captured, 0, 0);
+            break;
         default:
             throw new AssertionError("Unknown PeriodType: " + periodType);
         }
     }
 
-    private PeriodicMeterReadsResponseItemDto getNextPeriodicMeterReadsForInterval(
-            final List<DataObject> bufferedObjects, final DateTime bufferedDateTime, final List<GetResult> results)
-            throws ProtocolAdapterException {
-
-        final AmrProfileStatusCodeDto amrProfileStatusCode = this.readAmrProfileStatusCode(bufferedObjects
-                .get(BUFFER_INDEX_AMR_STATUS));
-
-        final DlmsMeterValueDto positiveActiveEnergy = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_POS), results.get(RESULT_INDEX_IMPORT).getResultData(),
-                "positiveActiveEnergy");
-        final DlmsMeterValueDto negativeActiveEnergy = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_NEG), results.get(RESULT_INDEX_IMPORT_2_OR_EXPORT).getResultData(),
-                "negativeActiveEnergy");
+    private void readTariffs(final List<DataObject> bufferedObjects, final int bufferIndexOffset,
+            final long[] rawValues, final boolean[] captured) throws ProtocolAdapterException {
+        this.readRawValue(bufferedObjects.get(BUFFER_INDEX_A_POS_RATE_1 + bufferIndexOffset),
+                "positiveActiveEnergyTariff1", COLUMN_IMPORT, rawValues, captured);
+        this.readRawValue(bufferedObjects.get(BUFFER_INDEX_A_POS_RATE_2 + bufferIndexOffset),
+                "positiveActiveEnergyTariff2", COLUMN_IMPORT_2_OR_EXPORT, rawValues, captured);
+        this.readRawValue(bufferedObjects.get(BUFFER_INDEX_A_NEG_RATE_1 + bufferIndexOffset),
+                "negativeActiveEnergyTariff1", COLUMN_EXPORT, rawValues, captured);
+        this.readRawValue(bufferedObjects.get(BUFFER_INDEX_A_NEG_RATE_2 + bufferIndexOffset),
+                "negativeActiveEnergyTariff2", COLUMN_EXPORT_2, rawValues, captured);
+    }
 
-        return new PeriodicMeterReadsResponseItemDto(bufferedDateTime.toDate(), positiveActiveEnergy,
-                negativeActiveEnergy, amrProfileStatusCode);
+    private void readRawValue(final DataObject value, final String description, final int column,
+            final long[] rawValues, final boolean[] captured) throws ProtocolAdapterException {
+        final Long rawValue = this.dlmsHelperService.readLong(value, description);
+        captured[column] = rawValue != null;
+        rawValues[column] = rawValue == null ? 0 : rawValue;
     }
 
-    private PeriodicMeterReadsResponseItemDto getNextPeriodicMeterReadsForDaily(final List<DataObject> bufferedObjects,
-            final DateTime bufferedDateTime, final List<GetResult> results) throws ProtocolAdapterException {
-
-        final AmrProfileStatusCodeDto amrProfileStatusCode = this.readAmrProfileStatusCode(bufferedObjects
-                .get(BUFFER_INDEX_AMR_STATUS));
-
-        final DlmsMeterValueDto positiveActiveEnergyTariff1 = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_POS_RATE_1), results.get(RESULT_INDEX_IMPORT).getResultData(),
-                "positiveActiveEnergyTariff1");
-        final DlmsMeterValueDto positiveActiveEnergyTariff2 = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_POS_RATE_2), results.get(RESULT_INDEX_IMPORT_2_OR_EXPORT)
-                        .getResultData(), "positiveActiveEnergyTariff2");
-        final DlmsMeterValueDto negativeActiveEnergyTariff1 = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_NEG_RATE_1), results.get(RESULT_INDEX_EXPORT).getResultData(),
-                "negativeActiveEnergyTariff1");
-        final DlmsMeterValueDto negativeActiveEnergyTariff2 = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_NEG_RATE_2), results.get(RESULT_INDEX_EXPORT_2).getResultData(),
-                "negativeActiveEnergyTariff2");
-
-        return new PeriodicMeterReadsResponseItemDto(bufferedDateTime.toDate(), positiveActiveEnergyTariff1,
-                positiveActiveEnergyTariff2, negativeActiveEnergyTariff1, negativeActiveEnergyTariff2,
-                amrProfileStatusCode);
+    /**
+     * Reads the scaler and unit of each register in the buffer once, rather
+     * than for every entry of the buffer.
+     *
+     * @return the scaler and unit of each register, in the order of the
+     *         scaler_unit attributes in {@code results}.
+     */
+    private ScalerUnit[] readScalerUnits(final List<GetResult> results) throws ProtocolAdapterException {
+        final ScalerUnit[] scalerUnits = new ScalerUnit[results.size() - RESULT_INDEX_IMPORT];
+        for (int i = 0; i < scalerUnits.length; i++) {
+            scalerUnits[i] = this.dlmsHelperService.readScalerUnit(
+                    results.get(RESULT_INDEX_IMPORT + i).getResultData(), "scaler and unit of register " + i);
+        }
+        return scalerUnits;
     }
 
     /**
-     * Reads AmrProfileStatusCode from DataObject holding a bitvalue in a
-     * numeric datatype.
+     * Reads the AMR profile status register from a DataObject holding a
+     * bitvalue in a numeric datatype.
      *
      * @param amrProfileStatusData
      *            AMR profile register value.
-     * @return AmrProfileStatusCode object holding status enum values.
+     * @return the AMR profile status register value.
      * @throws ProtocolAdapterException
      *             on invalid register data.
      */
-    private AmrProfileStatusCodeDto readAmrProfileStatusCode(final DataObject amrProfileStatusData)
-            throws ProtocolAdapterException {
+    private int readAmrProfileStatus(final DataObject amrProfileStatusData) throws ProtocolAdapterException {
 
         if (!amrProfileStatusData.isNumber()) {
             throw new ProtocolAdapterException("Could not read AMR profile register data. Invalid data type.");
         }
 
-        final Set<AmrProfileStatusCodeFlagDto> flags = this.amrProfileStatusCodeHelperService
-                .toAmrProfileStatusCodeFlags((Number) amrProfileStatusData.getValue());
-        return new AmrProfileStatusCodeDto(flags);
+        return ((Number) amrProfileStatusData.getValue()).intValue();
     }
 
-    private PeriodicMeterReadsResponseItemDto getNextPeriodicMeterReadsForMonthly(
-            final List<DataObject> bufferedObjects, final DateTime bufferedDateTime, final List<GetResult> results)
-            throws ProtocolAdapterException {
-
-        /*
-         * Buffer indexes minus one, since Monthly captured objects don't
-         * include the AMR Profile status.
-         */
-        final DlmsMeterValueDto positiveActiveEnergyTariff1 = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_POS_RATE_1 - 1), results.get(RESULT_INDEX_IMPORT).getResultData(),
-                "positiveActiveEnergyTariff1");
-        final DlmsMeterValueDto positiveActiveEnergyTariff2 = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_POS_RATE_2 - 1), results.get(RESULT_INDEX_IMPORT_2_OR_EXPORT)
-                        .getResultData(), "positiveActiveEnergyTariff2");
-        final DlmsMeterValueDto negativeActiveEnergyTariff1 = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_NEG_RATE_1 - 1), results.get(RESULT_INDEX_EXPORT).getResultData(),
-                "negativeActiveEnergyTariff1");
-        final DlmsMeterValueDto negativeActiveEnergyTariff2 = this.dlmsHelperService.getScaledMeterValue(
-                bufferedObjects.get(BUFFER_INDEX_A_NEG_RATE_2 - 1), results.get(RESULT_INDEX_EXPORT_2).getResultData(),
-                "negativeActiveEnergyTariff2");
-
-        return new PeriodicMeterReadsResponseItemDto(bufferedDateTime.toDate(), positiveActiveEnergyTariff1,
-                positiveActiveEnergyTariff2, negativeActiveEnergyTariff1, negativeActiveEnergyTariff2);
+    private AmrProfileStatusCodeDto toAmrProfileStatusCode(final int amrProfileStatus) {
+        final Set<AmrProfileStatusCodeFlagDto> flags = this.amrProfileStatusCodeHelperService
+                .toAmrProfileStatusCodeFlags(amrProfileStatus);
+        return new AmrProfileStatusCodeDto(flags);
     }
 
     private AttributeAddress[] getProfileBufferAndScalerUnit(final PeriodTypeDto periodType,
@@ -9,8 +9,10 @@ package org.osgp.adapter.protocol.dlms.domain.commands;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -23,6 +25,8 @@ import org.openmuc.jdlms.SelectiveAccessDescription;
 import org.openmuc.jdlms.datatypes.DataObject;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.PeriodicMeterReadsColumns;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.ScalerUnit;
 import org.osgp.adapter.protocol.dlms.exceptions.BufferedDateTimeValidationException;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.slf4j.Logger;
@@ -34,7 +38,6 @@ import com.alliander.osgp.dto.valueobjects.smartmetering.ActionRequestDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.AmrProfileStatusCodeDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.AmrProfileStatusCodeFlagDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.ChannelDto;
-import com.alliander.osgp.dto.valueobjects.smartmetering.CosemDateTimeDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadGasResponseDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsGasRequestDto;
@@ -215,13 +218,15 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
     @Autowired
     private AmrProfileStatusCodeHelperService amrProfileStatusCodeHelperService;
 
+    @Autowired
+    private DeviceCapabilityHelperService deviceCapabilityHelperService;
+
     private final PeriodTypeDto periodType;
     private final DateTime beginDateTime;
     private final DateTime endDateTime;
     private final List<DataObject> bufferedObjects;
     private final ChannelDto channel;
     private final boolean isSelectiveAccessSupported;
-    private final List<GetResult> results;
 
     public GetPeriodicMeterReadsGasCommandExecutor() {
         super(PeriodicMeterReadsGasRequestDto.class);
@@ -231,7 +236,6 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
         this.bufferedObjects = null;
         this.channel = null;
         this.isSelectiveAccessSupported = false;
-        this.results = null;
     }
 
     private GetPeriodicMeterReadsGasCommandExecutor(final Builder builder) {
@@ -242,7 +246,6 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
         this.bufferedObjects = builder.bufferedObjects;
         this.channel = builder.channel;
         this.isSelectiveAccessSupported = builder.isSelectiveAccessSupported;
-        this.results = builder.results;
     }
 
     public static class Builder {
@@ -253,7 +256,6 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
         private List<DataObject> bufferedObjects = null;
         private ChannelDto channel = null;
         private boolean isSelectiveAccessSupported = false;
-        private List<GetResult> results = null;
 
         public Builder withPeriodType(final PeriodTypeDto periodType) {
             this.periodType = periodType;
@@ -285,11 +287,6 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
             return this;
         }
 
-        public Builder withResults(final List<GetResult> results) {
-            this.results = results;
-            return this;
-        }
-
         public GetPeriodicMeterReadsGasCommandExecutor build() {
             return new GetPeriodicMeterReadsGasCommandExecutor(this);
         }
@@ -314,6 +311,19 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
     @Override
     public PeriodicMeterReadGasResponseDto execute(final DlmsConnectionHolder conn, final DlmsDevice device,
             final PeriodicMeterReadsRequestDto periodicMeterReadsQuery) throws ProtocolAdapterException {
+        return this.toResponseDto(this.readColumns(conn, device, periodicMeterReadsQuery));
+    }
+
+    /**
+     * Retrieves the periodic meter reads like {@link #execute}, without
+     * creating objects per buffer entry.
+     *
+     * @return the entries of the buffer within the requested period, with the
+     *         gas value as the only register and the capture time of each gas
+     *         value.
+     */
+    public PeriodicMeterReadsColumns readColumns(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final PeriodicMeterReadsRequestDto periodicMeterReadsQuery) throws ProtocolAdapterException {
 
         final PeriodTypeDto periodType;
         final DateTime beginDateTime;
@@ -327,8 +337,11 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
                     "PeriodicMeterReadsQuery should contain PeriodType, BeginDate and EndDate.");
         }
 
+        final boolean isSelectiveAccessSupported = this.deviceCapabilityHelperService
+                .isSelectiveAccessSupported(device);
         final AttributeAddress[] profileBufferAndScalerUnit = this.getProfileBufferAndScalerUnit(periodType,
-                periodicMeterReadsQuery.getChannel(), beginDateTime, endDateTime, device.isSelectiveAccessSupported());
+                periodicMeterReadsQuery.getChannel(), beginDateTime, endDateTime, isSelectiveAccessSupported);
+        this.checkProfileAvailable(device, periodType, profileBufferAndScalerUnit[0]);
 
         LOGGER.debug("Retrieving current billing period and profiles for gas for period type: {}, from: {}, to: {}",
                 periodType, beginDateTime, endDateTime);
@@ -353,7 +366,16 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
                 "Periodic G-Meter Reads");
         final List<DataObject> bufferedObjectsList = resultData.getValue();
 
-        final List<PeriodicMeterReadsGasResponseItemDto> periodicMeterReads = new ArrayList<>();
+        // The scaler and unit are the same for every entry of the buffer.
+        final ScalerUnit[] scalerUnit = new ScalerUnit[1];
+        if (!bufferedObjectsList.isEmpty()) {
+            scalerUnit[0] = this.dlmsHelperService
+                    .readScalerUnit(getResultList.get(RESULT_INDEX_SCALER_UNIT).getResultData(), GAS_VALUE);
+        }
+        final PeriodicMeterReadsColumns columns = new PeriodicMeterReadsColumns(periodType, scalerUnit,
+                periodType != PeriodTypeDto.MONTHLY, true, bufferedObjectsList.size());
+        final long[] rawValue = new long[1];
+        final boolean[] captured = new boolean[1];
         for (final DataObject bufferedObject : bufferedObjectsList) {
             final List<DataObject> bufferedObjectValue = bufferedObject.getValue();
 
@@ -361,99 +383,303 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
                     .newBuilder().withPeriodType(periodType).withBeginDateTime(beginDateTime)
                     .withEndDateTime(endDateTime).withBufferedObjects(bufferedObjectValue)
                     .withChannel(periodicMeterReadsQuery.getChannel())
-                    .withIsSelectiveAccessSupported(device.isSelectiveAccessSupported()).withResults(getResultList)
-                    .build();
+                    .withIsSelectiveAccessSupported(isSelectiveAccessSupported).build();
             try {
-                periodicMeterReads.add(this.getNextPeriodicMeterReads(getPeriodicMeterReadsGasCommandExecutor));
+                this.readNextPeriodicMeterReads(getPeriodicMeterReadsGasCommandExecutor, rawValue, captured,
+                        columns);
             } catch (final BufferedDateTimeValidationException e) {
                 LOGGER.warn(e.getMessage(), e);
             }
         }
+        columns.trimToSize();
 
+        return columns;
+    }
+
+    /**
+     * Converts periodic gas meter reads in columnar form to a response item per
+     * buffer entry.
+     */
+    public PeriodicMeterReadGasResponseDto toResponseDto(final PeriodicMeterReadsColumns columns) {
+        final PeriodTypeDto periodType = columns.getPeriodType();
+        final List<PeriodicMeterReadsGasResponseItemDto> periodicMeterReads = new ArrayList<>(columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            final Date bufferedDateTime = new Date(columns.getBufferedDateTime(row));
+            final Date captureTime = new Date(columns.getCaptureTime(row));
+            if (columns.hasAmrProfileStatus()) {
+                final Set<AmrProfileStatusCodeFlagDto> flags = this.amrProfileStatusCodeHelperService
+                        .toAmrProfileStatusCodeFlags(columns.getAmrProfileStatus(row));
+                periodicMeterReads.add(new PeriodicMeterReadsGasResponseItemDto(bufferedDateTime,
+                        columns.getValue(0, row), captureTime, new AmrProfileStatusCodeDto(flags)));
+            } else {
+                periodicMeterReads.add(new PeriodicMeterReadsGasResponseItemDto(bufferedDateTime,
+                        columns.getValue(0, row), captureTime));
+            }
+        }
         return new PeriodicMeterReadGasResponseDto(periodType, periodicMeterReads);
     }
 
-    private PeriodicMeterReadsGasResponseItemDto getNextPeriodicMeterReads(
-            final GetPeriodicMeterReadsGasCommandExecutor getPeriodicMeterReadsGasCommandExecutor)
-            throws ProtocolAdapterException, BufferedDateTimeValidationException {
+    /**
+     * Retrieves the periodic meter reads like {@link #execute}, for several
+     * M-Bus channels at once.
+     *
+     * @return the response per requested channel, in the order of the
+     *         channels.
+     * @see #readColumns(DlmsConnectionHolder, DlmsDevice, PeriodTypeDto, Date,
+     *      Date, List)
+     */
+    public Map<ChannelDto, PeriodicMeterReadGasResponseDto> execute(final DlmsConnectionHolder conn,
+            final DlmsDevice device, final PeriodTypeDto periodType, final Date beginDate, final Date endDate,
+            final List<ChannelDto> channels) throws ProtocolAdapterException {
+
+        final Map<ChannelDto, PeriodicMeterReadGasResponseDto> responses = new LinkedHashMap<>();
+        for (final Map.Entry<ChannelDto, PeriodicMeterReadsColumns> columns : this
+                .readColumns(conn, device, periodType, beginDate, endDate, channels).entrySet()) {
+            responses.put(columns.getKey(), this.toResponseDto(columns.getValue()));
+        }
+        return responses;
+    }
 
-        final CosemDateTimeDto cosemDateTime = this.dlmsHelperService.readDateTime(
-                getPeriodicMeterReadsGasCommandExecutor.bufferedObjects.get(BUFFER_INDEX_CLOCK),
-                "Clock from " + getPeriodicMeterReadsGasCommandExecutor.periodType + " buffer gas");
-        final DateTime bufferedDateTime = cosemDateTime == null ? null : cosemDateTime.asDateTime();
+    /**
+     * Retrieves the periodic meter reads of several M-Bus channels with a
+     * single get-with-list.
+     * <p>
+     * The daily and monthly billing profiles hold the values of all channels,
+     * so their buffer is read once, selecting the values of the requested
+     * channels if the device supports selective access. The interval profiles
+     * are kept per channel, so their buffers are requested together.
+     *
+     * @return the entries of the buffer within the requested period per
+     *         requested channel, in the order of the channels.
+     */
+    public Map<ChannelDto, PeriodicMeterReadsColumns> readColumns(final DlmsConnectionHolder conn,
+            final DlmsDevice device, final PeriodTypeDto periodType, final Date beginDate, final Date endDate,
+            final List<ChannelDto> channels) throws ProtocolAdapterException {
 
-        this.dlmsHelperService.validateBufferedDateTime(bufferedDateTime, cosemDateTime,
-                getPeriodicMeterReadsGasCommandExecutor.beginDateTime,
-                getPeriodicMeterReadsGasCommandExecutor.endDateTime);
+        if (periodType == null || beginDate == null || endDate == null || channels.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Periodic meter reads for channels need a PeriodType, BeginDate, EndDate and channels.");
+        }
+        final DateTime beginDateTime = new DateTime(beginDate);
+        final DateTime endDateTime = new DateTime(endDate);
+        final boolean isSelectiveAccessSupported = this.deviceCapabilityHelperService
+                .isSelectiveAccessSupported(device);
+
+        final SelectiveAccessDescription access = this.getSelectiveAccessDescription(channels, periodType,
+                beginDateTime, endDateTime, isSelectiveAccessSupported);
+        final List<AttributeAddress> attributeAddresses = new ArrayList<>();
+        switch (periodType) {
+        case INTERVAL:
+            for (final ChannelDto channel : channels) {
+                attributeAddresses.add(new AttributeAddress(CLASS_ID_PROFILE_GENERIC, this.intervalForChannel(channel),
+                        ATTRIBUTE_ID_BUFFER, access));
+            }
+            break;
+        case DAILY:
+            attributeAddresses.add(new AttributeAddress(CLASS_ID_PROFILE_GENERIC, OBIS_CODE_DAILY_BILLING,
+                    ATTRIBUTE_ID_BUFFER, access));
+            break;
+        case MONTHLY:
+            attributeAddresses.add(new AttributeAddress(CLASS_ID_PROFILE_GENERIC, OBIS_CODE_MONTHLY_BILLING,
+                    ATTRIBUTE_ID_BUFFER, access));
+            break;
+        default:
+            throw new ProtocolAdapterException(String.format("periodtype %s not supported", periodType));
+        }
+        final int numberOfBuffers = attributeAddresses.size();
+        for (final AttributeAddress profileBuffer : attributeAddresses) {
+            this.checkProfileAvailable(device, periodType, profileBuffer);
+        }
+        for (final ChannelDto channel : channels) {
+            attributeAddresses.add(this.getScalerUnit(channel));
+        }
+        final AttributeAddress[] profileBuffersAndScalerUnits = attributeAddresses
+                .toArray(new AttributeAddress[attributeAddresses.size()]);
+
+        LOGGER.debug("Retrieving profiles for gas for channels: {}, period type: {}, from: {}, to: {}", channels,
+                periodType, beginDateTime, endDateTime);
+
+        conn.getDlmsMessageListener()
+                .setDescription("GetPeriodicMeterReadsGas for channels " + channels + ", " + periodType + " from "
+                        + beginDateTime + " until " + endDateTime + ", retrieve attributes: "
+                        + JdlmsObjectToStringUtil.describeAttributes(profileBuffersAndScalerUnits));
+
+        final List<GetResult> getResultList = this.dlmsHelperService.getAndCheck(conn, device,
+                "retrieve periodic meter reads for " + periodType + ", channels " + channels,
+                profileBuffersAndScalerUnits);
+
+        // The billing profiles hold the values of all channels in one buffer.
+        final boolean sharedBuffer = periodType != PeriodTypeDto.INTERVAL;
+        final Map<ChannelDto, PeriodicMeterReadsColumns> columnsPerChannel = new LinkedHashMap<>();
+        final List<List<DataObject>> buffers = new ArrayList<>(numberOfBuffers);
+        for (int i = 0; i < numberOfBuffers; i++) {
+            buffers.add(this.dlmsHelperService.readDataObject(getResultList.get(i), "Periodic G-Meter Reads")
+                    .<List<DataObject>> getValue());
+        }
+        for (int i = 0; i < channels.size(); i++) {
+            final List<DataObject> bufferedObjectsList = buffers.get(sharedBuffer ? 0 : i);
+            final ScalerUnit[] scalerUnit = new ScalerUnit[1];
+            if (!bufferedObjectsList.isEmpty()) {
+                scalerUnit[0] = this.dlmsHelperService
+                        .readScalerUnit(getResultList.get(numberOfBuffers + i).getResultData(), GAS_VALUE);
+            }
+            columnsPerChannel.put(channels.get(i), new PeriodicMeterReadsColumns(periodType, scalerUnit,
+                    periodType != PeriodTypeDto.MONTHLY, true, bufferedObjectsList.size()));
+        }
+
+        if (sharedBuffer) {
+            final List<PeriodicMeterReadsColumns> columns = new ArrayList<>(columnsPerChannel.values());
+            final int[] valueIndexes = new int[channels.size()];
+            for (int i = 0; i < channels.size(); i++) {
+                valueIndexes[i] = this.valueIndex(periodType, channels.get(i), i, isSelectiveAccessSupported);
+            }
+            this.readBuffer(buffers.get(0), periodType, beginDateTime, endDateTime, valueIndexes, columns);
+        } else {
+            for (int i = 0; i < channels.size(); i++) {
+                this.readBuffer(buffers.get(i), periodType, beginDateTime, endDateTime,
+                        new int[] { BUFFER_INDEX_MBUS_VALUE_INT },
+                        Collections.singletonList(columnsPerChannel.get(channels.get(i))));
+            }
+        }
+        for (final PeriodicMeterReadsColumns columns : columnsPerChannel.values()) {
+            columns.trimToSize();
+        }
 
-        LOGGER.debug("Processing profile (" + getPeriodicMeterReadsGasCommandExecutor.periodType
-                + ") objects captured at: {}", cosemDateTime);
+        return columnsPerChannel;
+    }
 
-        final GetPeriodicMeterReadsGasCommandExecutor getPeriodicMeterReadsGasCommandExecutorPeriodType = GetPeriodicMeterReadsGasCommandExecutor
-                .newBuilder().withPeriodType(getPeriodicMeterReadsGasCommandExecutor.periodType)
-                .withBeginDateTime(getPeriodicMeterReadsGasCommandExecutor.beginDateTime)
-                .withEndDateTime(getPeriodicMeterReadsGasCommandExecutor.endDateTime)
-                .withBufferedObjects(getPeriodicMeterReadsGasCommandExecutor.bufferedObjects)
-                .withChannel(getPeriodicMeterReadsGasCommandExecutor.channel)
-                .withIsSelectiveAccessSupported(getPeriodicMeterReadsGasCommandExecutor.isSelectiveAccessSupported)
-                .withResults(getPeriodicMeterReadsGasCommandExecutor.results).build();
+    /**
+     * Fails without requesting the profile buffer when the association object
+     * list of the model of the device is known and does not contain it.
+     */
+    private void checkProfileAvailable(final DlmsDevice device, final PeriodTypeDto periodType,
+            final AttributeAddress profileBuffer) throws ProtocolAdapterException {
+        if (!this.deviceCapabilityHelperService.isAttributeAvailable(device, profileBuffer)) {
+            throw new ProtocolAdapterException(String.format("Device %s has no %s profile %s",
+                    device.getDeviceIdentification(), periodType, profileBuffer.getInstanceId().asDecimalString()));
+        }
+    }
 
-        return this.getNextPeriodicMeterReadsBasedOnPeriodType(getPeriodicMeterReadsGasCommandExecutorPeriodType,
-                bufferedDateTime);
+    /**
+     * Adds the entries of a buffer within the requested period to the columns
+     * of every channel the buffer holds values of.
+     *
+     * @param valueIndexes
+     *            the position of the value of each channel in a buffer entry,
+     *            followed by its capture time.
+     */
+    private void readBuffer(final List<DataObject> bufferedObjectsList, final PeriodTypeDto periodType,
+            final DateTime beginDateTime, final DateTime endDateTime, final int[] valueIndexes,
+            final List<PeriodicMeterReadsColumns> columns) throws ProtocolAdapterException {
+
+        final long[] rawValue = new long[1];
+        final boolean[] captured = new boolean[1];
+        for (final DataObject bufferedObject : bufferedObjectsList) {
+            final List<DataObject> bufferedObjects = bufferedObject.getValue();
+            final long bufferedDateTime;
+            try {
+                bufferedDateTime = this.dlmsHelperService.readBufferedDateTime(
+                        bufferedObjects.get(BUFFER_INDEX_CLOCK), beginDateTime, endDateTime,
+                        "Clock from " + periodType + " buffer gas");
+            } catch (final BufferedDateTimeValidationException e) {
+                LOGGER.warn(e.getMessage(), e);
+                continue;
+            }
+
+            final int amrProfileStatus = periodType == PeriodTypeDto.MONTHLY ? 0
+                    : this.readAmrProfileStatus(bufferedObjects.get(BUFFER_INDEX_AMR_STATUS));
+            for (int i = 0; i < valueIndexes.length; i++) {
+                final DataObject gasValue = bufferedObjects.get(valueIndexes[i]);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(GAS_VALUES, this.dlmsHelperService.getDebugInfo(gasValue));
+                }
+                final long captureTime = this.readCaptureTime(bufferedObjects.get(valueIndexes[i] + 1),
+                        "gas capture time for mbus " + periodType);
+                this.readRawValue(gasValue, rawValue, captured);
+                columns.get(i).addRow(bufferedDateTime, rawValue, captured, amrProfileStatus, captureTime);
+            }
+        }
+    }
+
+    /**
+     * @return the position of the value of the channel in an entry of the
+     *         daily or monthly billing profile, when the values of the
+     *         requested channels are selected in the order of the channels, or
+     *         when all values are read.
+     */
+    private int valueIndex(final PeriodTypeDto periodType, final ChannelDto channel, final int channelPosition,
+            final boolean isSelectiveAccessSupported) {
+        final int selectedValuesOffset = 2 * channelPosition;
+        if (periodType == PeriodTypeDto.DAILY) {
+            return isSelectiveAccessSupported
+                    ? INDEX_DAILY_SELECTIVE_ACCESS_MBUS_VALUE_MAP.get(1) + selectedValuesOffset
+                    : INDEX_DAILY_MBUS_VALUE_MAP.get(channel.getChannelNumber());
+        }
+        return isSelectiveAccessSupported
+                ? INDEX_MONTHLY_SELECTIVE_ACCESS_MBUS_VALUE_MAP.get(1) + selectedValuesOffset
+                : INDEX_MONTHLY_MBUS_VALUE_MAP.get(channel.getChannelNumber());
     }
 
-    private PeriodicMeterReadsGasResponseItemDto getNextPeriodicMeterReadsBasedOnPeriodType(
+    private void readNextPeriodicMeterReads(
             final GetPeriodicMeterReadsGasCommandExecutor getPeriodicMeterReadsGasCommandExecutor,
-            final DateTime bufferedDateTime) throws ProtocolAdapterException, AssertionError {
+            final long[] rawValue, final boolean[] captured, final PeriodicMeterReadsColumns columns)
+            throws ProtocolAdapterException, BufferedDateTimeValidationException {
+
+        final long bufferedDateTime = this.dlmsHelperService.readBufferedDateTime(
+                getPeriodicMeterReadsGasCommandExecutor.bufferedObjects.get(BUFFER_INDEX_CLOCK),
+                getPeriodicMeterReadsGasCommandExecutor.beginDateTime,
+                getPeriodicMeterReadsGasCommandExecutor.endDateTime,
+                "Clock from " + getPeriodicMeterReadsGasCommandExecutor.periodType + " buffer gas");
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Processing profile ({}) objects captured at: {}",
+                    getPeriodicMeterReadsGasCommandExecutor.periodType, new Date(bufferedDateTime));
+        }
+
+        final List<DataObject> bufferedObjects = getPeriodicMeterReadsGasCommandExecutor.bufferedObjects;
+        final ChannelDto channel = getPeriodicMeterReadsGasCommandExecutor.channel;
+        final boolean isSelectiveAccessSupported = getPeriodicMeterReadsGasCommandExecutor.isSelectiveAccessSupported;
         switch (getPeriodicMeterReadsGasCommandExecutor.periodType) {
         case INTERVAL:
-            return this.getNextPeriodicMeterReadsForInterval(getPeriodicMeterReadsGasCommandExecutor.bufferedObjects,
-                    bufferedDateTime, getPeriodicMeterReadsGasCommandExecutor.results);
+            this.readNextPeriodicMeterReadsForInterval(bufferedObjects, bufferedDateTime, rawValue, captured,
+                    columns);
+            break;
         case DAILY:
-            return this.getNextPeriodicMeterReadsForDaily(getPeriodicMeterReadsGasCommandExecutor.bufferedObjects,
-                    bufferedDateTime, getPeriodicMeterReadsGasCommandExecutor.channel,
-                    getPeriodicMeterReadsGasCommandExecutor.isSelectiveAccessSupported,
-                    getPeriodicMeterReadsGasCommandExecutor.results);
+            this.readNextPeriodicMeterReadsForDaily(bufferedObjects, bufferedDateTime, channel,
+                    isSelectiveAccessSupported, rawValue, captured, columns);
+            break;
         case MONTHLY:
-            return this.getNextPeriodicMeterReadsForMonthly(getPeriodicMeterReadsGasCommandExecutor.bufferedObjects,
-                    bufferedDateTime, getPeriodicMeterReadsGasCommandExecutor.channel,
-                    getPeriodicMeterReadsGasCommandExecutor.isSelectiveAccessSupported,
-                    getPeriodicMeterReadsGasCommandExecutor.results);
+            this.readNextPeriodicMeterReadsForMonthly(bufferedObjects, bufferedDateTime, channel,
+                    isSelectiveAccessSupported, rawValue, captured, columns);
+            break;
         default:
             throw new AssertionError("Unknown PeriodType: " + getPeriodicMeterReadsGasCommandExecutor.periodType);
         }
     }
 
-    private PeriodicMeterReadsGasResponseItemDto getNextPeriodicMeterReadsForInterval(
-            final List<DataObject> bufferedObjects, final DateTime bufferedDateTime, final List<GetResult> results)
-            throws ProtocolAdapterException {
+    private void readNextPeriodicMeterReadsForInterval(final List<DataObject> bufferedObjects,
+            final long bufferedDateTime, final long[] rawValue, final boolean[] captured,
+            final PeriodicMeterReadsColumns columns) throws ProtocolAdapterException {
 
-        final AmrProfileStatusCodeDto amrProfileStatusCode = this
-                .readAmrProfileStatusCode(bufferedObjects.get(BUFFER_INDEX_AMR_STATUS));
+        final int amrProfileStatus = this.readAmrProfileStatus(bufferedObjects.get(BUFFER_INDEX_AMR_STATUS));
 
         final DataObject gasValue = bufferedObjects.get(BUFFER_INDEX_MBUS_VALUE_INT);
-        LOGGER.debug(GAS_VALUES, this.dlmsHelperService.getDebugInfo(gasValue));
-
-        final CosemDateTimeDto cosemDateTime = this.dlmsHelperService.readDateTime(
-                bufferedObjects.get(BUFFER_INDEX_MBUS_CAPTURETIME_INT), "Clock from mbus interval extended register");
-        final Date captureTime;
-        if (cosemDateTime.isDateTimeSpecified()) {
-            captureTime = cosemDateTime.asDateTime().toDate();
-        } else {
-            throw new ProtocolAdapterException(UNEXPECTED_VALUE);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(GAS_VALUES, this.dlmsHelperService.getDebugInfo(gasValue));
         }
-        return new PeriodicMeterReadsGasResponseItemDto(bufferedDateTime.toDate(),
-                this.dlmsHelperService.getScaledMeterValue(gasValue,
-                        results.get(RESULT_INDEX_SCALER_UNIT).getResultData(), GAS_VALUE),
-                captureTime, amrProfileStatusCode);
+
+        final long captureTime = this.readCaptureTime(bufferedObjects.get(BUFFER_INDEX_MBUS_CAPTURETIME_INT),
+                "Clock from mbus interval extended register");
+        this.readRawValue(gasValue, rawValue, captured);
+        columns.addRow(bufferedDateTime, rawValue, captured, amrProfileStatus, captureTime);
     }
 
-    private PeriodicMeterReadsGasResponseItemDto getNextPeriodicMeterReadsForDaily(
-            final List<DataObject> bufferedObjects, final DateTime bufferedDateTime, final ChannelDto channel,
-            final boolean isSelectiveAccessSupported, final List<GetResult> results) throws ProtocolAdapterException {
+    private void readNextPeriodicMeterReadsForDaily(final List<DataObject> bufferedObjects,
+            final long bufferedDateTime, final ChannelDto channel, final boolean isSelectiveAccessSupported,
+            final long[] rawValue, final boolean[] captured, final PeriodicMeterReadsColumns columns)
+            throws ProtocolAdapterException {
 
-        final AmrProfileStatusCodeDto amrProfileStatusCode = this
-                .readAmrProfileStatusCode(bufferedObjects.get(BUFFER_INDEX_AMR_STATUS));
+        final int amrProfileStatus = this.readAmrProfileStatus(bufferedObjects.get(BUFFER_INDEX_AMR_STATUS));
 
         DataObject gasValue;
         DataObject gasCaptureTime;
@@ -467,26 +693,21 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
                     .get(INDEX_DAILY_MBUS_VALUE_CAPTURE_TIME_MAP.get(channel.getChannelNumber()));
         }
 
-        LOGGER.debug(GAS_VALUES, this.dlmsHelperService.getDebugInfo(gasValue));
-        LOGGER.debug("gasCaptureTime: {}", this.dlmsHelperService.getDebugInfo(gasCaptureTime));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(GAS_VALUES, this.dlmsHelperService.getDebugInfo(gasValue));
+            LOGGER.debug("gasCaptureTime: {}", this.dlmsHelperService.getDebugInfo(gasCaptureTime));
+        }
 
-        final CosemDateTimeDto cosemDateTime = this.dlmsHelperService.readDateTime(gasCaptureTime,
+        final long captureTime = this.readCaptureTime(gasCaptureTime,
                 "Clock from daily mbus daily extended register");
-        final Date captureTime;
-        if (cosemDateTime.isDateTimeSpecified()) {
-            captureTime = cosemDateTime.asDateTime().toDate();
-        } else {
-            throw new ProtocolAdapterException(UNEXPECTED_VALUE);
-        }
-        return new PeriodicMeterReadsGasResponseItemDto(bufferedDateTime.toDate(),
-                this.dlmsHelperService.getScaledMeterValue(gasValue,
-                        results.get(RESULT_INDEX_SCALER_UNIT).getResultData(), GAS_VALUE),
-                captureTime, amrProfileStatusCode);
+        this.readRawValue(gasValue, rawValue, captured);
+        columns.addRow(bufferedDateTime, rawValue, captured, amrProfileStatus, captureTime);
     }
 
-    private PeriodicMeterReadsGasResponseItemDto getNextPeriodicMeterReadsForMonthly(
-            final List<DataObject> bufferedObjects, final DateTime bufferedDateTime, final ChannelDto channel,
-            final boolean isSelectiveAccessSupported, final List<GetResult> results) throws ProtocolAdapterException {
+    private void readNextPeriodicMeterReadsForMonthly(final List<DataObject> bufferedObjects,
+            final long bufferedDateTime, final ChannelDto channel, final boolean isSelectiveAccessSupported,
+            final long[] rawValue, final boolean[] captured, final PeriodicMeterReadsColumns columns)
+            throws ProtocolAdapterException {
 
         DataObject gasValue;
         DataObject gasCaptureTime;
@@ -501,20 +722,30 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
                     .get(INDEX_MONTHLY_MBUS_VALUE_CAPTURE_TIME_MAP.get(channel.getChannelNumber()));
         }
 
-        LOGGER.debug(GAS_VALUES, this.dlmsHelperService.getDebugInfo(gasValue));
-        LOGGER.debug("gasCaptureTime: {}", this.dlmsHelperService.getDebugInfo(gasCaptureTime));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(GAS_VALUES, this.dlmsHelperService.getDebugInfo(gasValue));
+            LOGGER.debug("gasCaptureTime: {}", this.dlmsHelperService.getDebugInfo(gasCaptureTime));
+        }
 
-        final CosemDateTimeDto cosemDateTime = this.dlmsHelperService.readDateTime(gasCaptureTime,
-                "gas capture time for mbus monthly");
-        final Date captureTime;
-        if (cosemDateTime.isDateTimeSpecified()) {
-            captureTime = cosemDateTime.asDateTime().toDate();
-        } else {
+        final long captureTime = this.readCaptureTime(gasCaptureTime, "gas capture time for mbus monthly");
+        this.readRawValue(gasValue, rawValue, captured);
+        columns.addRow(bufferedDateTime, rawValue, captured, 0, captureTime);
+    }
+
+    private void readRawValue(final DataObject gasValue, final long[] rawValue, final boolean[] captured)
+            throws ProtocolAdapterException {
+        final Long value = this.dlmsHelperService.readLong(gasValue, GAS_VALUE);
+        captured[0] = value != null;
+        rawValue[0] = value == null ? 0 : value;
+    }
+
+    private long readCaptureTime(final DataObject captureTime, final String description)
+            throws ProtocolAdapterException {
+        final long captureTimeMillis = this.dlmsHelperService.readEpochMillis(captureTime, description);
+        if (captureTimeMillis == DlmsHelperService.EPOCH_MILLIS_NOT_SPECIFIED) {
             throw new ProtocolAdapterException(UNEXPECTED_VALUE);
         }
-        return new PeriodicMeterReadsGasResponseItemDto(bufferedDateTime.toDate(), this.dlmsHelperService
-                .getScaledMeterValue(gasValue, results.get(RESULT_INDEX_SCALER_UNIT).getResultData(), GAS_VALUE),
-                captureTime);
+        return captureTimeMillis;
     }
 
     private ObisCode intervalForChannel(final ChannelDto channel) throws ProtocolAdapterException {
@@ -536,8 +767,9 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
             final DateTime beginDateTime, final DateTime endDateTime, final boolean isSelectingValuesSupported)
             throws ProtocolAdapterException {
 
-        final SelectiveAccessDescription access = this.getSelectiveAccessDescription(channel, periodType, beginDateTime,
-                endDateTime, isSelectingValuesSupported);
+        final SelectiveAccessDescription access = this.getSelectiveAccessDescription(
+                Collections.singletonList(channel), periodType, beginDateTime, endDateTime,
+                isSelectingValuesSupported);
 
         final List<AttributeAddress> profileBuffer = new ArrayList<>();
         switch (periodType) {
@@ -580,7 +812,7 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
         }
     }
 
-    private SelectiveAccessDescription getSelectiveAccessDescription(final ChannelDto channel,
+    private SelectiveAccessDescription getSelectiveAccessDescription(final List<ChannelDto> channels,
             final PeriodTypeDto periodType, final DateTime beginDateTime, final DateTime endDateTime,
             final boolean isSelectingValuesSupported) {
 
@@ -597,7 +829,7 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
 
         final List<DataObject> objectDefinitions = new ArrayList<>();
         if (isSelectingValuesSupported) {
-            this.addSelectedValues(channel, periodType, objectDefinitions);
+            this.addSelectedValues(channels, periodType, objectDefinitions);
         }
         final DataObject selectedValues = DataObject.newArrayData(objectDefinitions);
 
@@ -607,7 +839,7 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
         return new SelectiveAccessDescription(accessSelector, accessParameter);
     }
 
-    private void addSelectedValues(final ChannelDto channel, final PeriodTypeDto periodType,
+    private void addSelectedValues(final List<ChannelDto> channels, final PeriodTypeDto periodType,
             final List<DataObject> objectDefinitions) {
 
         switch (periodType) {
@@ -616,17 +848,18 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
             // hence selective access is not applicable
             break;
         case DAILY:
-            this.addSelectedValuesForDaily(objectDefinitions, channel);
+            this.addSelectedValuesForDaily(objectDefinitions, channels);
             break;
         case MONTHLY:
-            this.addSelectedValuesForMonthly(objectDefinitions, channel);
+            this.addSelectedValuesForMonthly(objectDefinitions, channels);
             break;
         default:
             throw new AssertionError("Unknown PeriodType: " + periodType);
         }
     }
 
-    private void addSelectedValuesForMonthly(final List<DataObject> objectDefinitions, final ChannelDto channel) {
+    private void addSelectedValuesForMonthly(final List<DataObject> objectDefinitions,
+            final List<ChannelDto> channels) {
         /*-
          * Available objects in the profile buffer (0-0:98.1.0.255):
          * {8,0-0:1.0.0.255,2,0}    -  clock
@@ -637,7 +870,7 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
          * {3,1-0:2.8.1.255,2,0}    -  Active energy export (-A) rate 1
          * {3,1-0:2.8.2.255,2,0}    -  Active energy export (-A) rate 2
          *
-         * Objects retrieved depending on the channel value passed in:
+         * Objects retrieved depending on the channel values passed in:
          * {4,0-1.24.2.1.255,2,0}  -  M-Bus Master Value 1 Channel 1
          * {4,0-1.24.2.1.255,5,0}  -  M-Bus Master Value 1 Channel 1 Capture time
          * {4,0-2.24.2.1.255,2,0}  -  M-Bus Master Value 1 Channel 2
@@ -650,11 +883,14 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
 
         objectDefinitions.add(this.dlmsHelperService.getClockDefinition());
 
-        this.addMBusMasterValue1(objectDefinitions, channel);
-        this.addMBusMasterValue1CaptureTime(objectDefinitions, channel);
+        for (final ChannelDto channel : channels) {
+            this.addMBusMasterValue1(objectDefinitions, channel);
+            this.addMBusMasterValue1CaptureTime(objectDefinitions, channel);
+        }
     }
 
-    private void addSelectedValuesForDaily(final List<DataObject> objectDefinitions, final ChannelDto channel) {
+    private void addSelectedValuesForDaily(final List<DataObject> objectDefinitions,
+            final List<ChannelDto> channels) {
         /*-
          * Available objects in the profile buffer (1-0:99.2.0.255):
          * {8,0-0:1.0.0.255,2,0}    -  clock
@@ -666,7 +902,7 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
          * {3,1-0:2.8.1.255,2,0}    -  Active energy export (-A) rate 1
          * {3,1-0:2.8.2.255,2,0}    -  Active energy export (-A) rate 2
          *
-         * Objects retrieved depending on the channel value passed in:
+         * Objects retrieved depending on the channel values passed in:
          * {4,0-1.24.2.1.255,2,0}  -  M-Bus Master Value 1 Channel 1
          * {4,0-1.24.2.1.255,5,0}  -  M-Bus Master Value 1 Channel 1 Capture time
          * {4,0-2.24.2.1.255,2,0}  -  M-Bus Master Value 1 Channel 2
@@ -681,30 +917,29 @@ public class GetPeriodicMeterReadsGasCommandExecutor extends
 
         objectDefinitions.add(this.dlmsHelperService.getAMRProfileDefinition());
 
-        this.addMBusMasterValue1(objectDefinitions, channel);
-        this.addMBusMasterValue1CaptureTime(objectDefinitions, channel);
+        for (final ChannelDto channel : channels) {
+            this.addMBusMasterValue1(objectDefinitions, channel);
+            this.addMBusMasterValue1CaptureTime(objectDefinitions, channel);
+        }
     }
 
     /**
-     * Reads AmrProfileStatusCode from DataObject holding a bitvalue in a numeric
-     * datatype.
+     * Reads the AMR profile status register from a DataObject holding a
+     * bitvalue in a numeric datatype.
      *
      * @param amrProfileStatusData
      *            AMR profile register value.
-     * @return AmrProfileStatusCode object holding status enum values.
+     * @return the AMR profile status register value.
      * @throws ProtocolAdapterException
      *             on invalid register data.
      */
-    private AmrProfileStatusCodeDto readAmrProfileStatusCode(final DataObject amrProfileStatusData)
-            throws ProtocolAdapterException {
+    private int readAmrProfileStatus(final DataObject amrProfileStatusData) throws ProtocolAdapterException {
 
         if (!amrProfileStatusData.isNumber()) {
             throw new ProtocolAdapterException("Could not read AMR profile register data. Invalid data type.");
         }
 
-        final Set<AmrProfileStatusCodeFlagDto> flags = this.amrProfileStatusCodeHelperService
-                .toAmrProfileStatusCodeFlags((Number) amrProfileStatusData.getValue());
-        return new AmrProfileStatusCodeDto(flags);
+        return ((Number) amrProfileStatusData.getValue()).intValue();
     }
 
     private void addMBusMasterValue1(final List<DataObject> objectDefinitions, final ChannelDto channel) {
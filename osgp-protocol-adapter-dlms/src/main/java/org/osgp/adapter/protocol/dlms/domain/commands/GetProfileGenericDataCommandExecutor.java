@@ -67,6 +67,9 @@ public class GetProfileGenericDataCommandExecutor
     @Autowired
     private DlmsHelperService dlmsHelperService;
 
+    @Autowired
+    private DeviceCapabilityHelperService deviceCapabilityHelperService;
+
     public GetProfileGenericDataCommandExecutor() {
         super(ProfileGenericDataRequestDataDto.class);
     }
@@ -86,10 +89,12 @@ public class GetProfileGenericDataCommandExecutor
 
         final List<GetResult> captureObjects = this.retrieveCaptureObjects(conn, device, obisCode);
         final List<ScalerUnitInfo> scalerUnitInfos = this.retrieveScalerUnits(conn, device, captureObjects);
+        final boolean isSelectiveAccessSupported = this.deviceCapabilityHelperService
+                .isSelectiveAccessSupported(device);
         final List<GetResult> bufferList = this.retrieveBuffer(conn, device, obisCode, beginDateTime, endDateTime,
-                selectedValues);
+                selectedValues, isSelectiveAccessSupported);
         return this.processData(obisCodeValues, captureObjects, scalerUnitInfos, selectedValues,
-                device.isSelectiveAccessSupported(), bufferList);
+                isSelectiveAccessSupported, bufferList);
     }
 
     private List<GetResult> retrieveCaptureObjects(final DlmsConnectionHolder conn, final DlmsDevice device,
@@ -103,9 +108,10 @@ public class GetProfileGenericDataCommandExecutor
 
     private List<GetResult> retrieveBuffer(final DlmsConnectionHolder conn, final DlmsDevice device,
             final ObisCode obisCode, final DateTime beginDateTime, final DateTime endDateTime,
-            final List<CaptureObjectDefinitionDto> selectedValues) throws ProtocolAdapterException {
+            final List<CaptureObjectDefinitionDto> selectedValues, final boolean isSelectiveAccessSupported)
+            throws ProtocolAdapterException {
         final SelectiveAccessDescription access = this.getSelectiveAccessDescription(beginDateTime, endDateTime,
-                selectedValues, device.isSelectiveAccessSupported());
+                selectedValues, isSelectiveAccessSupported);
         final AttributeAddress bufferAttributeAddress = new AttributeAddress(InterfaceClass.PROFILE_GENERIC.id(),
                 obisCode, ProfileGenericAttribute.BUFFER.attributeId(), access);
         return this.dlmsHelperService.getAndCheck(conn, device, "retrieve profile generic buffer",
@@ -367,9 +373,13 @@ public class GetProfileGenericDataCommandExecutor
                         .readObjectDefinition(captureObjectDataObject, CAPTURE_OBJECT);
                 final int classId = cosemObjectDefinitionDto.getClassId();
                 final String logicalName = cosemObjectDefinitionDto.getLogicalName().toString();
-                if (this.hasScalerUnit(classId)) {
-                    final AttributeAddress addr = new AttributeAddress(classId, logicalName,
-                            SCALER_UNITS_MAP.get(classId));
+                final AttributeAddress addr = this.hasScalerUnit(classId)
+                        ? new AttributeAddress(classId, logicalName, SCALER_UNITS_MAP.get(classId)) : null;
+                /*
+                 * A scaler and unit that is not in the association object list
+                 * is not requested, the values are then returned unscaled.
+                 */
+                if (addr != null && this.deviceCapabilityHelperService.isAttributeAvailable(device, addr)) {
                     final List<GetResult> scalerUnitResult = this.dlmsHelperService.getAndCheck(conn, device,
                             "retrieve scaler unit for capture object", addr);
                     final DataObject scalerUnitDataObject = scalerUnitResult.get(0).getResultData();
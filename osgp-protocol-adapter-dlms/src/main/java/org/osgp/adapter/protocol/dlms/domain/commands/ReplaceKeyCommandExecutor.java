@@ -8,6 +8,10 @@
 package org.osgp.adapter.protocol.dlms.domain.commands;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 import org.openmuc.jdlms.MethodParameter;
 import org.openmuc.jdlms.MethodResultCode;
@@ -57,7 +61,7 @@ public class ReplaceKeyCommandExecutor
     @Autowired
     private SecurityKeyService securityKeyService;
 
-    static class KeyWrapper {
+    public static class KeyWrapper {
         private final byte[] bytes;
         private final KeyId keyId;
         private final SecurityKeyType securityKeyType;
@@ -133,6 +137,56 @@ public class ReplaceKeyCommandExecutor
         return this.securityKeyService.validateNewKey(devicePostSave, keyWrapper.getSecurityKeyType());
     }
 
+    /**
+     * Replaces several keys on the device in one go. All new keys are stored
+     * with a single save before any of them is sent, and the keys that have
+     * been set on the device are validated with a single save afterwards.
+     * When sending one of the keys fails, the keys set before it are still
+     * validated, the failed key is kept as new key for a key recovery, and the
+     * keys after it, that were never sent, are discarded.
+     *
+     * @param conn
+     *            jDLMS connection.
+     * @param device
+     *            Device instance
+     * @param keyWrappers
+     *            Key data, sent to the device in the given order
+     * @return the device after saving the keys
+     * @throws OsgpException
+     *             if one of the keys could not be replaced
+     */
+    public DlmsDevice replaceKeys(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final List<ReplaceKeyCommandExecutor.KeyWrapper> keyWrappers) throws OsgpException {
+
+        final Map<SecurityKeyType, byte[]> newKeys = new EnumMap<>(SecurityKeyType.class);
+        for (final KeyWrapper keyWrapper : keyWrappers) {
+            newKeys.put(keyWrapper.getSecurityKeyType(), keyWrapper.getBytes());
+        }
+        final DlmsDevice devicePostSave = this.securityKeyService.storeNewKeys(device, newKeys);
+
+        final List<SecurityKeyType> replacedKeyTypes = new ArrayList<>();
+        try {
+            for (final KeyWrapper keyWrapper : keyWrappers) {
+                this.sendToDevice(conn, devicePostSave, keyWrapper);
+                replacedKeyTypes.add(keyWrapper.getSecurityKeyType());
+            }
+        } catch (final ProtocolAdapterException | RuntimeException e) {
+            final List<SecurityKeyType> unsentKeyTypes = new ArrayList<>();
+            for (final KeyWrapper keyWrapper : keyWrappers.subList(replacedKeyTypes.size() + 1, keyWrappers.size())) {
+                unsentKeyTypes.add(keyWrapper.getSecurityKeyType());
+            }
+            DlmsDevice deviceAfterFailure = devicePostSave;
+            if (!unsentKeyTypes.isEmpty()) {
+                deviceAfterFailure = this.securityKeyService.discardNewKeys(deviceAfterFailure, unsentKeyTypes);
+            }
+            if (!replacedKeyTypes.isEmpty()) {
+                this.securityKeyService.validateNewKeys(deviceAfterFailure, replacedKeyTypes);
+            }
+            throw e;
+        }
+        return this.securityKeyService.validateNewKeys(devicePostSave, replacedKeyTypes);
+    }
+
     /**
      * Send the key to the device.
      *
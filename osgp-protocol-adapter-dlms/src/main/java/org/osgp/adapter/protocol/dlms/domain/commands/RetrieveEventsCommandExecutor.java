@@ -8,10 +8,13 @@
 package org.osgp.adapter.protocol.dlms.domain.commands;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.joda.time.DateTime;
 import org.openmuc.jdlms.AccessResultCode;
@@ -22,12 +25,15 @@ import org.openmuc.jdlms.SelectiveAccessDescription;
 import org.openmuc.jdlms.datatypes.DataObject;
 import org.osgp.adapter.protocol.dlms.application.mapping.DataObjectToEventListConverter;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.EventLogHighWaterMark;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.EventLogHighWaterMarkRepository;
 import org.osgp.adapter.protocol.dlms.exceptions.ConnectionException;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.alliander.osgp.dto.valueobjects.smartmetering.ActionResponseDto;
@@ -36,6 +42,16 @@ import com.alliander.osgp.dto.valueobjects.smartmetering.EventLogCategoryDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.EventMessageDataResponseDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FindEventsRequestDto;
 
+/**
+ * Reads the events of one event log of a meter.
+ * <p>
+ * With incremental event log synchronisation enabled, a high-water mark is
+ * kept per device and event log. Only events after the mark are read from the
+ * meter and returned. The marks moved past the returned events are returned
+ * with them by {@link #retrieveEvents(DlmsConnectionHolder, DlmsDevice, List)},
+ * to be saved once the events have been sent to core. Events retrieved in a
+ * bundle are read from the marks, but do not move them.
+ */
 @Component()
 public class RetrieveEventsCommandExecutor extends AbstractCommandExecutor<FindEventsRequestDto, List<EventDto>> {
 
@@ -56,6 +72,12 @@ public class RetrieveEventsCommandExecutor extends AbstractCommandExecutor<FindE
     @Autowired
     private DlmsHelperService dlmsHelperService;
 
+    @Autowired
+    private EventLogHighWaterMarkRepository eventLogHighWaterMarkRepository;
+
+    @Value("${event.log.incremental.sync}")
+    private boolean incrementalEventLogSync;
+
     // @formatter:off
     private static final EnumMap<EventLogCategoryDto, ObisCode> EVENT_LOG_CATEGORY_OBISCODE_MAP = new EnumMap<>(
             EventLogCategoryDto.class);
@@ -76,43 +98,181 @@ public class RetrieveEventsCommandExecutor extends AbstractCommandExecutor<FindE
         return new EventMessageDataResponseDto(executionResult);
     }
 
+    /**
+     * The events read from one or more event logs, and the high-water marks
+     * of these event logs moved past the events. The marks have not been
+     * saved.
+     */
+    public static class RetrievedEvents {
+        private final List<EventDto> events;
+        private final List<EventLogHighWaterMark> highWaterMarks;
+
+        public RetrievedEvents(final List<EventDto> events, final List<EventLogHighWaterMark> highWaterMarks) {
+            this.events = events;
+            this.highWaterMarks = highWaterMarks;
+        }
+
+        public List<EventDto> getEvents() {
+            return this.events;
+        }
+
+        public List<EventLogHighWaterMark> getHighWaterMarks() {
+            return this.highWaterMarks;
+        }
+    }
+
     @Override
     public List<EventDto> execute(final DlmsConnectionHolder conn, final DlmsDevice device,
             final FindEventsRequestDto findEventsQuery) throws ProtocolAdapterException {
+        return this.retrieveEvents(conn, device, Collections.singletonList(findEventsQuery)).getEvents();
+    }
+
+    /**
+     * Reads the events of several event logs. The event log buffers are read
+     * with a single get-with-list request when the device supports it. Every
+     * event log is read once: queries for the same event log are combined
+     * into one query from the earliest start until the latest end.
+     *
+     * @return the events of all event logs, in the order in which the event
+     *         logs are first queried, with the high-water marks moved past
+     *         them. The marks are only moved when all event logs have been
+     *         read successfully.
+     */
+    public RetrievedEvents retrieveEvents(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final List<FindEventsRequestDto> findEventsQueries) throws ProtocolAdapterException {
+
+        final Map<EventLogCategoryDto, EventLogRetrieval> retrievalPerCategory = new LinkedHashMap<>();
+        for (final FindEventsRequestDto findEventsQuery : findEventsQueries) {
+            final EventLogRetrieval retrieval = retrievalPerCategory.get(findEventsQuery.getEventLogCategory());
+            if (retrieval == null) {
+                retrievalPerCategory.put(findEventsQuery.getEventLogCategory(),
+                        new EventLogRetrieval(findEventsQuery.getEventLogCategory(), findEventsQuery.getFrom(),
+                                findEventsQuery.getUntil()));
+            } else {
+                retrieval.include(findEventsQuery.getFrom(), findEventsQuery.getUntil());
+            }
+        }
+
+        final List<EventLogRetrieval> retrievals = new ArrayList<>(retrievalPerCategory.values());
+        final List<AttributeAddress> eventLogBuffers = new ArrayList<>(retrievals.size());
+        for (final EventLogRetrieval retrieval : retrievals) {
+            this.prepare(device, retrieval);
+            if (retrieval.eventLogBuffer != null) {
+                eventLogBuffers.add(retrieval.eventLogBuffer);
+            }
+        }
+
+        final List<GetResult> getResults = this.get(conn, device, retrievals, eventLogBuffers);
+
+        final List<List<EventDto>> eventsPerRetrieval = new ArrayList<>(retrievals.size());
+        int resultIndex = 0;
+        for (final EventLogRetrieval retrieval : retrievals) {
+            if (retrieval.eventLogBuffer == null) {
+                eventsPerRetrieval.add(Collections.<EventDto> emptyList());
+            } else {
+                eventsPerRetrieval.add(this.toEvents(retrieval, getResults.get(resultIndex++)));
+            }
+        }
+
+        final List<EventDto> events = new ArrayList<>();
+        final List<EventLogHighWaterMark> highWaterMarks = new ArrayList<>();
+        for (int i = 0; i < retrievals.size(); i++) {
+            final EventLogHighWaterMark highWaterMark = retrievals.get(i).highWaterMark;
+            if (highWaterMark != null && !eventsPerRetrieval.get(i).isEmpty()) {
+                highWaterMark.advance(eventsPerRetrieval.get(i));
+                highWaterMarks.add(highWaterMark);
+            }
+            events.addAll(eventsPerRetrieval.get(i));
+        }
+        return new RetrievedEvents(events, highWaterMarks);
+    }
+
+    /**
+     * Reads the high-water mark of the event log when synchronising
+     * incrementally, and determines the range of the event log buffer to
+     * read, if any.
+     */
+    private void prepare(final DlmsDevice device, final EventLogRetrieval retrieval) {
+        final EventLogCategoryDto eventLogCategory = retrieval.eventLogCategory;
+        if (this.incrementalEventLogSync) {
+            retrieval.highWaterMark = this.getHighWaterMark(device, eventLogCategory);
+            final DateTime lastEventTime = retrieval.highWaterMark.getLastEventTime();
+            if (lastEventTime != null && lastEventTime.isAfter(retrieval.from)) {
+                retrieval.from = lastEventTime;
+            }
+            if (retrieval.from.isAfter(retrieval.until)) {
+                LOGGER.info("No new events for {} until {}, {}", eventLogCategory, retrieval.until,
+                        retrieval.highWaterMark);
+                return;
+            }
+        }
+
+        retrieval.eventLogBuffer = new AttributeAddress(CLASS_ID,
+                EVENT_LOG_CATEGORY_OBISCODE_MAP.get(eventLogCategory), ATTRIBUTE_ID,
+                this.getSelectiveAccessDescription(retrieval.from, retrieval.until));
+    }
 
-        final SelectiveAccessDescription selectiveAccessDescription = this.getSelectiveAccessDescription(
-                findEventsQuery.getFrom(), findEventsQuery.getUntil());
+    private List<GetResult> get(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final List<EventLogRetrieval> retrievals, final List<AttributeAddress> eventLogBuffers)
+            throws ProtocolAdapterException {
 
-        final AttributeAddress eventLogBuffer = new AttributeAddress(CLASS_ID,
-                EVENT_LOG_CATEGORY_OBISCODE_MAP.get(findEventsQuery.getEventLogCategory()), ATTRIBUTE_ID,
-                selectiveAccessDescription);
+        if (eventLogBuffers.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        conn.getDlmsMessageListener()
-                .setDescription("RetrieveEvents for " + findEventsQuery.getEventLogCategory() + " from "
-                        + findEventsQuery.getFrom() + " until " + findEventsQuery.getUntil() + ", retrieve attribute: "
-                        + JdlmsObjectToStringUtil.describeAttributes(eventLogBuffer));
+        final AttributeAddress[] attributeAddresses = eventLogBuffers
+                .toArray(new AttributeAddress[eventLogBuffers.size()]);
+        conn.getDlmsMessageListener().setDescription("RetrieveEvents for " + retrievals + ", retrieve attribute"
+                + (attributeAddresses.length == 1 ? "" : "s") + ": "
+                + JdlmsObjectToStringUtil.describeAttributes(attributeAddresses));
 
-        GetResult getResult;
+        if (attributeAddresses.length > 1) {
+            return this.dlmsHelperService.getWithList(conn, device, attributeAddresses);
+        }
         try {
-            getResult = conn.getConnection().get(eventLogBuffer);
+            return Collections.singletonList(conn.getConnection().get(attributeAddresses[0]));
         } catch (final IOException e) {
             throw new ConnectionException(e);
         }
+    }
+
+    private List<EventDto> toEvents(final EventLogRetrieval retrieval, final GetResult getResult)
+            throws ProtocolAdapterException {
 
         if (getResult == null) {
-            throw new ProtocolAdapterException("No GetResult received while retrieving event register "
-                    + findEventsQuery.getEventLogCategory());
+            throw new ProtocolAdapterException(
+                    "No GetResult received while retrieving event register " + retrieval.eventLogCategory);
         }
 
         if (!AccessResultCode.SUCCESS.equals(getResult.getResultCode())) {
-            LOGGER.info("Result of getting events for {} is {}", findEventsQuery.getEventLogCategory(),
+            LOGGER.info("Result of getting events for {} is {}", retrieval.eventLogCategory,
                     getResult.getResultCode());
-            throw new ProtocolAdapterException("Getting the events for  " + findEventsQuery.getEventLogCategory()
+            throw new ProtocolAdapterException("Getting the events for  " + retrieval.eventLogCategory
                     + " from the meter resulted in: " + getResult.getResultCode());
         }
 
         final DataObject resultData = getResult.getResultData();
-        return this.dataObjectToEventListConverter.convert(resultData, findEventsQuery.getEventLogCategory());
+        final List<EventDto> events = this.dataObjectToEventListConverter.convert(resultData,
+                retrieval.eventLogCategory);
+
+        if (retrieval.highWaterMark == null) {
+            return events;
+        }
+        final List<EventDto> newEvents = retrieval.highWaterMark.newEvents(events);
+        LOGGER.info("Retrieved {} events of which {} are new since {}", events.size(), newEvents.size(),
+                retrieval.highWaterMark);
+        return newEvents;
+    }
+
+    private EventLogHighWaterMark getHighWaterMark(final DlmsDevice device,
+            final EventLogCategoryDto eventLogCategory) {
+        final EventLogHighWaterMark highWaterMark = this.eventLogHighWaterMarkRepository
+                .findByDeviceIdentificationAndEventLogCategory(device.getDeviceIdentification(),
+                        eventLogCategory.name());
+        if (highWaterMark == null) {
+            return new EventLogHighWaterMark(device.getDeviceIdentification(), eventLogCategory);
+        }
+        return highWaterMark;
     }
 
     private SelectiveAccessDescription getSelectiveAccessDescription(final DateTime beginDateTime,
@@ -145,4 +305,39 @@ public class RetrieveEventsCommandExecutor extends AbstractCommandExecutor<FindE
         return new SelectiveAccessDescription(accessSelector, accessParameter);
     }
 
+    /**
+     * The range of one event log to read, and its high-water mark when
+     * synchronising incrementally.
+     */
+    private static class EventLogRetrieval {
+        private final EventLogCategoryDto eventLogCategory;
+        private DateTime from;
+        private DateTime until;
+        private EventLogHighWaterMark highWaterMark;
+        private AttributeAddress eventLogBuffer;
+
+        EventLogRetrieval(final EventLogCategoryDto eventLogCategory, final DateTime from, final DateTime until) {
+            this.eventLogCategory = eventLogCategory;
+            this.from = from;
+            this.until = until;
+        }
+
+        /**
+         * Extends the range to read to include another query of the same
+         * event log.
+         */
+        void include(final DateTime otherFrom, final DateTime otherUntil) {
+            if (otherFrom.isBefore(this.from)) {
+                this.from = otherFrom;
+            }
+            if (otherUntil.isAfter(this.until)) {
+                this.until = otherUntil;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return this.eventLogCategory + " from " + this.from + " until " + this.until;
+        }
+    }
 }
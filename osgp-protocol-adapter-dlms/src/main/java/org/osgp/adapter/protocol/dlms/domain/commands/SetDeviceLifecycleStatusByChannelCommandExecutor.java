@@ -7,9 +7,9 @@
  */
 package org.osgp.adapter.protocol.dlms.domain.commands;
 
+import org.osgp.adapter.protocol.dlms.application.services.DomainHelperService;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
-import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -30,7 +30,7 @@ public class SetDeviceLifecycleStatusByChannelCommandExecutor extends
     private GetMBusDeviceOnChannelCommandExecutor getMBusDeviceOnChannelCommandExecutor;
 
     @Autowired
-    private DlmsDeviceRepository dlmsDeviceRepository;
+    private DomainHelperService domainHelperService;
 
     public SetDeviceLifecycleStatusByChannelCommandExecutor() {
         super(SetDeviceLifecycleStatusByChannelRequestDataDto.class);
@@ -52,10 +52,9 @@ public class SetDeviceLifecycleStatusByChannelCommandExecutor extends
                     ComponentType.PROTOCOL_DLMS);
         }
 
-        final DlmsDevice mbusDevice = this.dlmsDeviceRepository
-                .findByMbusIdentificationNumberAndMbusManufacturerIdentification(
-                        Long.valueOf(channelElementValues.getIdentificationNumber()),
-                        channelElementValues.getManufacturerIdentification());
+        final DlmsDevice mbusDevice = this.domainHelperService.lookUpMbusDevice(
+                Long.valueOf(channelElementValues.getIdentificationNumber()),
+                channelElementValues.getManufacturerIdentification());
 
         if (mbusDevice == null) {
             throw new FunctionalException(FunctionalExceptionType.NO_MATCHING_MBUS_DEVICE_FOUND,
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.entities;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.shared.domain.entities.AbstractEntity;
+
+/**
+ * What a bulk read plan reads from each of its devices, and where the results
+ * are sent to. The devices of the plan are {@link BulkReadPlanDevice}s with the
+ * same plan identification.
+ */
+@Entity
+public class BulkReadPlan extends AbstractEntity {
+
+    private static final long serialVersionUID = -6084261731948217130L;
+
+    private static final String PERIOD_TYPE_SEPARATOR = ",";
+
+    @Column(nullable = false, unique = true)
+    private String planIdentification;
+
+    @Column(nullable = false, length = 40)
+    private String organisationIdentification;
+
+    @Column(nullable = false)
+    private String domain;
+
+    @Column(nullable = false)
+    private String domainVersion;
+
+    @Column(nullable = false)
+    private int messagePriority;
+
+    @Column(nullable = false, length = 50)
+    private String periodTypes;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date beginDate;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date endDate;
+
+    public BulkReadPlan() {
+        // Default constructor
+    }
+
+    public BulkReadPlan(final String planIdentification, final String organisationIdentification,
+            final String domain, final String domainVersion, final int messagePriority,
+            final List<PeriodTypeDto> periodTypes, final Date beginDate, final Date endDate) {
+        this.planIdentification = planIdentification;
+        this.organisationIdentification = organisationIdentification;
+        this.domain = domain;
+        this.domainVersion = domainVersion;
+        this.messagePriority = messagePriority;
+        this.periodTypes = StringUtils.join(periodTypes, PERIOD_TYPE_SEPARATOR);
+        this.beginDate = new Date(beginDate.getTime());
+        this.endDate = new Date(endDate.getTime());
+    }
+
+    public String getPlanIdentification() {
+        return this.planIdentification;
+    }
+
+    public String getOrganisationIdentification() {
+        return this.organisationIdentification;
+    }
+
+    public String getDomain() {
+        return this.domain;
+    }
+
+    public String getDomainVersion() {
+        return this.domainVersion;
+    }
+
+    public int getMessagePriority() {
+        return this.messagePriority;
+    }
+
+    /**
+     * @return the period types to read from each device, in the order they are
+     *         read in.
+     */
+    public List<PeriodTypeDto> getPeriodTypes() {
+        final List<PeriodTypeDto> result = new ArrayList<>();
+        for (final String periodType : StringUtils.split(this.periodTypes, PERIOD_TYPE_SEPARATOR)) {
+            result.add(PeriodTypeDto.valueOf(periodType));
+        }
+        return result;
+    }
+
+    public Date getBeginDate() {
+        return new Date(this.beginDate.getTime());
+    }
+
+    public Date getEndDate() {
+        return new Date(this.endDate.getTime());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkReadPlan[plan=%s, periodTypes=%s, from=%s, until=%s]", this.planIdentification,
+                this.periodTypes, this.beginDate, this.endDate);
+    }
+}
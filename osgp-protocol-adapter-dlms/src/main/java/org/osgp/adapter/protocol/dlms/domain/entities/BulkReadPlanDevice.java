@@ -0,0 +1,119 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.entities;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import com.alliander.osgp.shared.domain.entities.AbstractEntity;
+
+/**
+ * Progress of a bulk read plan for a single device.
+ */
+@Entity
+public class BulkReadPlanDevice extends AbstractEntity {
+
+    private static final long serialVersionUID = 4520937618720447391L;
+
+    private static final int MAX_FAILURE_LENGTH = 255;
+
+    @Column(nullable = false)
+    private String planIdentification;
+
+    @Column(nullable = false, length = 40)
+    private String deviceIdentification;
+
+    @Column(length = 50)
+    private String ipAddress;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BulkReadStatus status = BulkReadStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column
+    private String lastFailure;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column
+    private Date readTime;
+
+    public BulkReadPlanDevice() {
+        // Default constructor
+    }
+
+    public BulkReadPlanDevice(final String planIdentification, final String deviceIdentification,
+            final String ipAddress) {
+        this.planIdentification = planIdentification;
+        this.deviceIdentification = deviceIdentification;
+        this.ipAddress = ipAddress;
+    }
+
+    public String getPlanIdentification() {
+        return this.planIdentification;
+    }
+
+    public String getDeviceIdentification() {
+        return this.deviceIdentification;
+    }
+
+    public String getIpAddress() {
+        return this.ipAddress;
+    }
+
+    public BulkReadStatus getStatus() {
+        return this.status;
+    }
+
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    public String getLastFailure() {
+        return this.lastFailure;
+    }
+
+    public Date getReadTime() {
+        return this.readTime;
+    }
+
+    public void read() {
+        this.attempts += 1;
+        this.status = BulkReadStatus.READ;
+        this.lastFailure = null;
+        this.readTime = new Date();
+    }
+
+    /**
+     * Registers a failed attempt. The device stays pending until the maximum
+     * number of attempts is reached.
+     */
+    public void failed(final String failure, final int maxAttempts) {
+        this.attempts += 1;
+        this.status = this.attempts >= maxAttempts ? BulkReadStatus.FAILED : BulkReadStatus.PENDING;
+        if (failure != null && failure.length() > MAX_FAILURE_LENGTH) {
+            this.lastFailure = failure.substring(0, MAX_FAILURE_LENGTH);
+        } else {
+            this.lastFailure = failure;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkReadPlanDevice[plan=%s, device=%s, status=%s, attempts=%d]",
+                this.planIdentification, this.deviceIdentification, this.status, this.attempts);
+    }
+}
@@ -13,17 +13,22 @@ import java.util.List;
 import java.util.Objects;
 
 import javax.persistence.CascadeType;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.OneToMany;
 import javax.persistence.Transient;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Cascade;
 
 import com.alliander.osgp.shared.domain.entities.AbstractEntity;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class DlmsDevice extends AbstractEntity {
 
     /**
@@ -59,6 +64,7 @@ public class DlmsDevice extends AbstractEntity {
 
     @OneToMany(mappedBy = "dlmsDevice", fetch = FetchType.EAGER, cascade = { CascadeType.ALL })
     @Cascade(org.hibernate.annotations.CascadeType.DELETE_ORPHAN)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private final List<SecurityKey> securityKeys = new ArrayList<>();
 
     @Column
@@ -99,6 +105,12 @@ public class DlmsDevice extends AbstractEntity {
     @Column(length = 3)
     private String mbusManufacturerIdentification;
 
+    @Column
+    private String activeFirmwareVersion;
+
+    @Column
+    private Integer maxGetWithListSize;
+
     // -- This comes from: Core Device.
 
     @Transient
@@ -322,6 +334,31 @@ public class DlmsDevice extends AbstractEntity {
         this.mbusManufacturerIdentification = mbusManufacturerIdentification;
     }
 
+    /**
+     * @return the active firmware version as last read from the device, or
+     *         {@code null} if it is not known.
+     */
+    public String getActiveFirmwareVersion() {
+        return this.activeFirmwareVersion;
+    }
+
+    public void setActiveFirmwareVersion(final String activeFirmwareVersion) {
+        this.activeFirmwareVersion = activeFirmwareVersion;
+    }
+
+    /**
+     * @return the largest number of attributes this device has accepted in
+     *         one get-with-list request, or {@code null} if the device has not
+     *         rejected a get-with-list request for its size.
+     */
+    public Integer getMaxGetWithListSize() {
+        return this.maxGetWithListSize;
+    }
+
+    public void setMaxGetWithListSize(final Integer maxGetWithListSize) {
+        this.maxGetWithListSize = maxGetWithListSize;
+    }
+
     /**
      * The IP address is not part of the data in the protocol adapter database.
      * The value needs to have been set based on information from the core
@@ -0,0 +1,161 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.entities;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+
+import org.joda.time.DateTime;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventLogCategoryDto;
+import com.alliander.osgp.shared.domain.entities.AbstractEntity;
+
+/**
+ * The last event of an event log of a device that has been retrieved.
+ * <p>
+ * Events are identified by their time, and for events with the same time by
+ * their position in the event log. Not every event log has event counters, so
+ * the number of events retrieved with the last event time is kept instead.
+ */
+@Entity
+public class EventLogHighWaterMark extends AbstractEntity {
+
+    private static final long serialVersionUID = 6301427836153806411L;
+
+    @Column(nullable = false, length = 40)
+    private String deviceIdentification;
+
+    @Column(nullable = false, length = 40)
+    private String eventLogCategory;
+
+    @Column(nullable = true)
+    private Date lastEventTime;
+
+    @Column(nullable = false)
+    private int eventsAtLastEventTime;
+
+    public EventLogHighWaterMark() {
+        // Default constructor
+    }
+
+    public EventLogHighWaterMark(final String deviceIdentification, final EventLogCategoryDto eventLogCategory) {
+        this.deviceIdentification = deviceIdentification;
+        this.eventLogCategory = eventLogCategory.name();
+    }
+
+    public String getDeviceIdentification() {
+        return this.deviceIdentification;
+    }
+
+    public EventLogCategoryDto getEventLogCategory() {
+        return EventLogCategoryDto.valueOf(this.eventLogCategory);
+    }
+
+    /**
+     * @return the time of the last retrieved event, or {@code null} if no
+     *         events have been retrieved yet.
+     */
+    public DateTime getLastEventTime() {
+        return this.lastEventTime == null ? null : new DateTime(this.lastEventTime);
+    }
+
+    public int getEventsAtLastEventTime() {
+        return this.eventsAtLastEventTime;
+    }
+
+    /**
+     * Returns the events that have not been retrieved before.
+     *
+     * @param events
+     *            the events as read from the event log, in the order of the
+     *            log.
+     * @return the events after the high-water mark.
+     */
+    public List<EventDto> newEvents(final List<EventDto> events) {
+        if (this.lastEventTime == null) {
+            return events;
+        }
+
+        final long lastEventMillis = this.lastEventTime.getTime();
+        final List<EventDto> newEvents = new ArrayList<>(events.size());
+        int skippedAtLastEventTime = 0;
+        for (final EventDto event : events) {
+            final long eventMillis = event.getTimestamp().getMillis();
+            if (eventMillis < lastEventMillis) {
+                continue;
+            }
+            if (eventMillis == lastEventMillis && skippedAtLastEventTime < this.eventsAtLastEventTime) {
+                skippedAtLastEventTime += 1;
+                continue;
+            }
+            newEvents.add(event);
+        }
+        return newEvents;
+    }
+
+    /**
+     * Moves the high-water mark past the given events.
+     *
+     * @param newEvents
+     *            events returned by {@link #newEvents(List)}.
+     */
+    public void advance(final List<EventDto> newEvents) {
+        long latestMillis = this.lastEventTime == null ? Long.MIN_VALUE : this.lastEventTime.getTime();
+        int eventsAtLatest = this.eventsAtLastEventTime;
+        for (final EventDto event : newEvents) {
+            final long eventMillis = event.getTimestamp().getMillis();
+            if (eventMillis > latestMillis) {
+                latestMillis = eventMillis;
+                eventsAtLatest = 1;
+            } else if (eventMillis == latestMillis) {
+                eventsAtLatest += 1;
+            }
+        }
+
+        if (latestMillis != Long.MIN_VALUE) {
+            this.lastEventTime = new Date(latestMillis);
+            this.eventsAtLastEventTime = eventsAtLatest;
+        }
+    }
+
+    /**
+     * Moves this high-water mark to the given mark of the same event log, if
+     * the given mark is further.
+     *
+     * @param other
+     *            another copy of the high-water mark, for instance one saved
+     *            by a concurrent retrieval.
+     * @return whether this high-water mark has been moved.
+     */
+    public boolean mergeWith(final EventLogHighWaterMark other) {
+        if (other.lastEventTime == null) {
+            return false;
+        }
+        if (this.lastEventTime != null) {
+            final int comparison = other.lastEventTime.compareTo(this.lastEventTime);
+            if (comparison < 0 || comparison == 0 && other.eventsAtLastEventTime <= this.eventsAtLastEventTime) {
+                return false;
+            }
+        }
+        this.lastEventTime = new Date(other.lastEventTime.getTime());
+        this.eventsAtLastEventTime = other.eventsAtLastEventTime;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EventLogHighWaterMark[device=%s, category=%s, lastEventTime=%s, events=%d]",
+                this.deviceIdentification, this.eventLogCategory, this.getLastEventTime(),
+                this.eventsAtLastEventTime);
+    }
+}
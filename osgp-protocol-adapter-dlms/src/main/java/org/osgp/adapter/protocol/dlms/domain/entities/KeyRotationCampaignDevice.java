@@ -0,0 +1,119 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.entities;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+
+import com.alliander.osgp.shared.domain.entities.AbstractEntity;
+
+/**
+ * Progress of a key rotation campaign for a single device.
+ */
+@Entity
+public class KeyRotationCampaignDevice extends AbstractEntity {
+
+    private static final long serialVersionUID = -3177364915285717412L;
+
+    private static final int MAX_FAILURE_LENGTH = 255;
+
+    @Column(nullable = false)
+    private String campaignIdentification;
+
+    @Column(nullable = false, length = 40)
+    private String deviceIdentification;
+
+    @Column(length = 50)
+    private String ipAddress;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private KeyRotationStatus status = KeyRotationStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column
+    private String lastFailure;
+
+    public KeyRotationCampaignDevice() {
+        // Default constructor
+    }
+
+    public KeyRotationCampaignDevice(final String campaignIdentification, final String deviceIdentification,
+            final String ipAddress) {
+        this.campaignIdentification = campaignIdentification;
+        this.deviceIdentification = deviceIdentification;
+        this.ipAddress = ipAddress;
+    }
+
+    public String getCampaignIdentification() {
+        return this.campaignIdentification;
+    }
+
+    public String getDeviceIdentification() {
+        return this.deviceIdentification;
+    }
+
+    public String getIpAddress() {
+        return this.ipAddress;
+    }
+
+    public KeyRotationStatus getStatus() {
+        return this.status;
+    }
+
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    public String getLastFailure() {
+        return this.lastFailure;
+    }
+
+    public void rotated() {
+        this.attempts += 1;
+        this.status = KeyRotationStatus.ROTATED;
+        this.lastFailure = null;
+    }
+
+    /**
+     * Registers a failed attempt. The device stays pending until the maximum
+     * number of attempts is reached.
+     */
+    public void failed(final String failure, final int maxAttempts) {
+        this.attempts += 1;
+        this.status = this.attempts >= maxAttempts ? KeyRotationStatus.FAILED : KeyRotationStatus.PENDING;
+        this.setLastFailure(failure);
+    }
+
+    /**
+     * Registers that the device was not attempted in this pass. The device
+     * stays pending, without using up an attempt.
+     */
+    public void deferred(final String reason) {
+        this.status = KeyRotationStatus.PENDING;
+        this.setLastFailure(reason);
+    }
+
+    private void setLastFailure(final String failure) {
+        if (failure != null && failure.length() > MAX_FAILURE_LENGTH) {
+            this.lastFailure = failure.substring(0, MAX_FAILURE_LENGTH);
+        } else {
+            this.lastFailure = failure;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KeyRotationCampaignDevice[campaign=%s, device=%s, status=%s, attempts=%d]",
+                this.campaignIdentification, this.deviceIdentification, this.status, this.attempts);
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.entities;
+
+public enum KeyRotationStatus {
+    /**
+     * Keys of the device still have to be rotated.
+     */
+    PENDING,
+    /**
+     * Keys of the device have been rotated.
+     */
+    ROTATED,
+    /**
+     * Rotating the keys of the device failed for the maximum number of
+     * attempts.
+     */
+    FAILED;
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.entities;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.PeriodicMeterReadsColumns;
+import org.springframework.util.SerializationUtils;
+
+import com.alliander.osgp.shared.domain.entities.AbstractEntity;
+
+/**
+ * The periodic meter reads of one time window of a long period, read for the
+ * request with the correlation UID. Stored in the database, so a retry of the
+ * request only reads the missing windows, whichever instance of the protocol
+ * adapter handles the retry.
+ */
+@Entity
+public class PeriodicMeterReadsCheckpoint extends AbstractEntity {
+
+    private static final long serialVersionUID = 2846031917452297106L;
+
+    @Column(nullable = false)
+    private String correlationUid;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date windowBegin;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date windowEnd;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date expiresAt;
+
+    @Column(nullable = false)
+    private byte[] periodicMeterReads;
+
+    public PeriodicMeterReadsCheckpoint() {
+        // Default constructor
+    }
+
+    public PeriodicMeterReadsCheckpoint(final String correlationUid, final Date windowBegin, final Date windowEnd,
+            final Date expiresAt, final PeriodicMeterReadsColumns periodicMeterReads) {
+        this.correlationUid = correlationUid;
+        this.windowBegin = new Date(windowBegin.getTime());
+        this.windowEnd = new Date(windowEnd.getTime());
+        this.expiresAt = new Date(expiresAt.getTime());
+        this.periodicMeterReads = SerializationUtils.serialize(periodicMeterReads);
+    }
+
+    public String getCorrelationUid() {
+        return this.correlationUid;
+    }
+
+    public boolean isExpired(final Date now) {
+        return this.expiresAt.before(now);
+    }
+
+    public PeriodicMeterReadsColumns getPeriodicMeterReads() {
+        return (PeriodicMeterReadsColumns) SerializationUtils.deserialize(this.periodicMeterReads);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PeriodicMeterReadsCheckpoint[correlationUid=%s, windowBegin=%s, windowEnd=%s]",
+                this.correlationUid, this.windowBegin, this.windowEnd);
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.factories;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.exceptions.CircuitBreakerOpenException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of consecutive connection failures per device and per
+ * communication provider, to prevent the full connection set-up (session
+ * provider lookup, wake-up SMS, polling for a session and the TCP connect
+ * timeout) from being repeated for devices that are known to be unreachable.
+ * <p>
+ * A circuit opens after a configured number of consecutive failures. While
+ * open, connection attempts fail fast with a
+ * {@link CircuitBreakerOpenException}. After the open duration has passed a
+ * single probe attempt is let through (half-open); if it succeeds the circuit
+ * closes, if it fails the circuit opens again. A push notification from a
+ * device closes the circuits for that device and its communication provider.
+ */
+public class ConnectionCircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionCircuitBreaker.class);
+
+    private final ConcurrentMap<String, Circuit> deviceCircuits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Circuit> providerCircuits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> providerPerDevice = new ConcurrentHashMap<>();
+
+    private final int deviceFailureThreshold;
+    private final int providerFailureThreshold;
+    private final long openDuration;
+
+    /**
+     * @param deviceFailureThreshold
+     *            number of consecutive connection failures after which the
+     *            circuit for a device opens, a value of {@code 0} or less
+     *            disables the device circuits.
+     * @param providerFailureThreshold
+     *            number of consecutive connection failures with devices of the
+     *            same communication provider after which the circuit for the
+     *            provider opens, a value of {@code 0} or less disables the
+     *            provider circuits.
+     * @param openDuration
+     *            time in milliseconds an opened circuit rejects connection
+     *            attempts before a probe attempt is let through.
+     */
+    public ConnectionCircuitBreaker(final int deviceFailureThreshold, final int providerFailureThreshold,
+            final long openDuration) {
+        this.deviceFailureThreshold = deviceFailureThreshold;
+        this.providerFailureThreshold = providerFailureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Checks if a connection with the given device may be attempted.
+     *
+     * @param device
+     *            the device to connect to.
+     * @throws CircuitBreakerOpenException
+     *             if the circuit for the device or for its communication
+     *             provider is open.
+     */
+    public void checkConnectionAllowed(final DlmsDevice device) {
+        final String deviceIdentification = device.getDeviceIdentification();
+        final String communicationProvider = device.getCommunicationProvider();
+        if (communicationProvider != null) {
+            this.providerPerDevice.put(deviceIdentification, communicationProvider);
+        }
+
+        final long now = System.currentTimeMillis();
+
+        /*
+         * The device circuit is checked first, so a device that is known to be
+         * unreachable does not take the probe attempt of a half-open provider
+         * circuit away from the other devices of the provider.
+         */
+        final Circuit deviceCircuit = this.getCircuit(this.deviceCircuits, deviceIdentification);
+        if (deviceCircuit != null && !deviceCircuit.allowAttempt(now, this.openDuration)) {
+            throw new CircuitBreakerOpenException(String.format(
+                    "Not connecting to device %s, circuit for the device is open after %d consecutive connection failures",
+                    deviceIdentification, deviceCircuit.getConsecutiveFailures()));
+        }
+
+        final Circuit providerCircuit = this.getCircuit(this.providerCircuits, communicationProvider);
+        if (providerCircuit != null && !providerCircuit.allowAttempt(now, this.openDuration)) {
+            if (deviceCircuit != null) {
+                deviceCircuit.releaseProbe(now);
+            }
+            throw new CircuitBreakerOpenException(String.format(
+                    "Not connecting to device %s, circuit for communication provider %s is open after %d consecutive connection failures",
+                    deviceIdentification, communicationProvider, providerCircuit.getConsecutiveFailures()));
+        }
+    }
+
+    /**
+     * Registers a successful connection with the given device, closing the
+     * circuits for the device and its communication provider.
+     *
+     * @param device
+     *            the device a connection was set up with.
+     */
+    public void connectionSucceeded(final DlmsDevice device) {
+        this.close(this.deviceCircuits, device.getDeviceIdentification());
+        this.close(this.providerCircuits, device.getCommunicationProvider());
+    }
+
+    /**
+     * Registers a failed connection attempt with the given device.
+     *
+     * @param device
+     *            the device the connection attempt failed for.
+     */
+    public void connectionFailed(final DlmsDevice device) {
+        final long now = System.currentTimeMillis();
+        this.registerFailure(this.deviceCircuits, device.getDeviceIdentification(), this.deviceFailureThreshold, now);
+        this.registerFailure(this.providerCircuits, device.getCommunicationProvider(), this.providerFailureThreshold,
+                now);
+    }
+
+    /**
+     * Closes the circuits for the device with the given identification and its
+     * communication provider (if known), because the device has shown to be
+     * reachable, for instance by sending a push notification.
+     *
+     * @param deviceIdentification
+     *            the identification of the device that has been heard from.
+     */
+    public void deviceReachable(final String deviceIdentification) {
+        if (deviceIdentification == null) {
+            return;
+        }
+        this.close(this.deviceCircuits, deviceIdentification);
+        final String communicationProvider = this.providerPerDevice.get(deviceIdentification);
+        this.close(this.providerCircuits, communicationProvider);
+    }
+
+    public boolean isDeviceCircuitOpen(final String deviceIdentification) {
+        final Circuit circuit = this.getCircuit(this.deviceCircuits, deviceIdentification);
+        return circuit != null && circuit.isOpen();
+    }
+
+    public boolean isProviderCircuitOpen(final String communicationProvider) {
+        final Circuit circuit = this.getCircuit(this.providerCircuits, communicationProvider);
+        return circuit != null && circuit.isOpen();
+    }
+
+    private Circuit getCircuit(final ConcurrentMap<String, Circuit> circuits, final String key) {
+        if (key == null) {
+            return null;
+        }
+        return circuits.get(key);
+    }
+
+    private void close(final ConcurrentMap<String, Circuit> circuits, final String key) {
+        if (key == null) {
+            return;
+        }
+        final Circuit circuit = circuits.remove(key);
+        if (circuit != null && circuit.isOpen()) {
+            LOGGER.info("Closing connection circuit for {}", key);
+        }
+    }
+
+    private void registerFailure(final ConcurrentMap<String, Circuit> circuits, final String key,
+            final int failureThreshold, final long now) {
+        if (key == null || failureThreshold <= 0) {
+            return;
+        }
+        Circuit circuit = circuits.get(key);
+        if (circuit == null) {
+            final Circuit newCircuit = new Circuit();
+            circuit = circuits.putIfAbsent(key, newCircuit);
+            if (circuit == null) {
+                circuit = newCircuit;
+            }
+        }
+        if (circuit.registerFailure(failureThreshold, now)) {
+            LOGGER.warn("Opening connection circuit for {} after {} consecutive connection failures", key,
+                    circuit.getConsecutiveFailures());
+        }
+    }
+
+    private static class Circuit {
+        private int consecutiveFailures;
+        private boolean open;
+        private long openedAt;
+        private long probeStartedAt = -1;
+
+        private synchronized boolean allowAttempt(final long now, final long openDuration) {
+            if (!this.open) {
+                return true;
+            }
+            if (now - this.openedAt < openDuration) {
+                return false;
+            }
+            /*
+             * Half-open: let a single probe through. If the probe never reports
+             * back (for instance because the request failed before connecting)
+             * another probe is allowed after the open duration has passed
+             * again.
+             */
+            if (this.probeStartedAt >= 0 && now - this.probeStartedAt < openDuration) {
+                return false;
+            }
+            this.probeStartedAt = now;
+            return true;
+        }
+
+        /**
+         * Gives back the probe attempt started at the given time, when the
+         * attempt is not made after all.
+         */
+        private synchronized void releaseProbe(final long startedAt) {
+            if (this.probeStartedAt == startedAt) {
+                this.probeStartedAt = -1;
+            }
+        }
+
+        /**
+         * @return {@code true} if the circuit changed from closed to open.
+         */
+        private synchronized boolean registerFailure(final int failureThreshold, final long now) {
+            this.consecutiveFailures += 1;
+            this.probeStartedAt = -1;
+            if (this.open) {
+                this.openedAt = now;
+                return false;
+            }
+            if (this.consecutiveFailures >= failureThreshold) {
+                this.open = true;
+                this.openedAt = now;
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized boolean isOpen() {
+            return this.open;
+        }
+
+        private synchronized int getConsecutiveFailures() {
+            return this.consecutiveFailures;
+        }
+    }
+}
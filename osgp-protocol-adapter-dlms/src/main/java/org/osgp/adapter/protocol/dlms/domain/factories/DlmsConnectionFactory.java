@@ -10,8 +10,12 @@ package org.osgp.adapter.protocol.dlms.domain.factories;
 import javax.inject.Provider;
 
 import org.openmuc.jdlms.DlmsConnection;
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
+import org.osgp.adapter.protocol.dlms.application.scheduling.DeviceSessionRegistry;
 import org.osgp.adapter.protocol.dlms.application.services.DomainHelperService;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.exceptions.ConnectionException;
+import org.osgp.adapter.protocol.dlms.exceptions.DeviceBusyException;
 import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsMessageListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +51,15 @@ public class DlmsConnectionFactory {
     @Autowired
     private DomainHelperService domainHelperService;
 
+    @Autowired
+    private ConnectionCircuitBreaker connectionCircuitBreaker;
+
+    @Autowired
+    private DlmsMetrics dlmsMetrics;
+
+    @Autowired
+    private DeviceSessionRegistry deviceSessionRegistry;
+
     /**
      * Returns an open connection using the appropriate security settings for
      * the device.
@@ -63,6 +76,9 @@ public class DlmsConnectionFactory {
      *            debug logging will be done.
      * @return a holder providing access to an open DLMS connection as well as
      *         an optional message listener active in the connection.
+     * @throws DeviceBusyException
+     *             when there already is a session with the device, which
+     *             ends when the connection of that session is closed.
      * @throws OsgpException
      *             in case of a TechnicalException or FunctionalException
      */
@@ -82,9 +98,26 @@ public class DlmsConnectionFactory {
                     ComponentType.PROTOCOL_DLMS);
         }
 
+        final String deviceIdentification = device.getDeviceIdentification();
+        if (!this.deviceSessionRegistry.tryStart(deviceIdentification)) {
+            throw new DeviceBusyException("There already is a session with device " + deviceIdentification);
+        }
         final DlmsConnectionHolder holder = new DlmsConnectionHolder(connector, device, dlmsMessageListener,
-                this.domainHelperService);
-        holder.connect();
+                this.domainHelperService, this.dlmsMetrics,
+                () -> this.deviceSessionRegistry.end(deviceIdentification));
+        boolean connected = false;
+        try {
+            holder.connect();
+            connected = true;
+        } catch (final ConnectionException e) {
+            this.connectionCircuitBreaker.connectionFailed(device);
+            throw e;
+        } finally {
+            if (!connected) {
+                this.deviceSessionRegistry.end(deviceIdentification);
+            }
+        }
+        this.connectionCircuitBreaker.connectionSucceeded(device);
         return holder;
     }
 }
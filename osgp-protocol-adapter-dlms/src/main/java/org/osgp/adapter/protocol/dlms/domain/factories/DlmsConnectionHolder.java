@@ -11,6 +11,7 @@ import java.io.IOException;
 
 import org.openmuc.jdlms.DlmsConnection;
 import org.openmuc.jdlms.RawMessageData;
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
 import org.osgp.adapter.protocol.dlms.application.services.DomainHelperService;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsMessageListener;
@@ -42,14 +43,24 @@ public class DlmsConnectionHolder implements AutoCloseable {
     private final DlmsDevice device;
     private final DlmsMessageListener dlmsMessageListener;
     private final DomainHelperService domainHelperService;
+    private final DlmsMetrics dlmsMetrics;
+    private Runnable sessionEnded;
 
     private DlmsConnection dlmsConnection;
 
+    /**
+     * @param sessionEnded
+     *            called once, when the connection is {@link #close()
+     *            closed}, which ends the session with the device.
+     */
     public DlmsConnectionHolder(final DlmsConnector connector, final DlmsDevice device,
-            final DlmsMessageListener dlmsMessageListener, final DomainHelperService domainHelperService) {
+            final DlmsMessageListener dlmsMessageListener, final DomainHelperService domainHelperService,
+            final DlmsMetrics dlmsMetrics, final Runnable sessionEnded) {
         this.connector = connector;
         this.device = device;
         this.domainHelperService = domainHelperService;
+        this.dlmsMetrics = dlmsMetrics;
+        this.sessionEnded = sessionEnded;
         if (dlmsMessageListener == null) {
             this.dlmsMessageListener = DO_NOTHING_LISTENER;
         } else {
@@ -89,6 +100,7 @@ public class DlmsConnectionHolder implements AutoCloseable {
         if (this.dlmsConnection != null) {
             this.dlmsConnection.disconnect();
             this.dlmsConnection = null;
+            this.dlmsMetrics.associationClosed();
         }
     }
 
@@ -111,7 +123,7 @@ public class DlmsConnectionHolder implements AutoCloseable {
             throw new IllegalStateException("Cannot create a new connection because a connection already exists.");
         }
 
-        this.dlmsConnection = this.connector.connect(this.device, this.dlmsMessageListener);
+        this.associate();
     }
 
     /**
@@ -130,7 +142,18 @@ public class DlmsConnectionHolder implements AutoCloseable {
         if (!this.device.isIpAddressIsStatic()) {
             this.device.setIpAddress(this.domainHelperService.getDeviceIpAddressFromSessionProvider(this.device));
         }
-        this.dlmsConnection = this.connector.connect(this.device, this.dlmsMessageListener);
+        this.associate();
+    }
+
+    private void associate() throws OsgpException {
+        final long start = System.nanoTime();
+        try {
+            this.dlmsConnection = this.connector.connect(this.device, this.dlmsMessageListener);
+        } finally {
+            this.dlmsMetrics.timer(DlmsMetrics.Timer.CONNECTION_SETUP, DlmsMetrics.PHASE_ASSOCIATION)
+                    .recordSince(start);
+        }
+        this.dlmsMetrics.associationOpened();
     }
 
     /**
@@ -140,7 +163,17 @@ public class DlmsConnectionHolder implements AutoCloseable {
      */
     @Override
     public void close() throws Exception {
-        this.dlmsConnection.close();
-        this.dlmsConnection = null;
+        try {
+            if (this.dlmsConnection != null) {
+                this.dlmsMetrics.associationClosed();
+            }
+            this.dlmsConnection.close();
+            this.dlmsConnection = null;
+        } finally {
+            if (this.sessionEnded != null) {
+                this.sessionEnded.run();
+                this.sessionEnded = null;
+            }
+        }
     }
 }
@@ -17,6 +17,7 @@ import org.openmuc.jdlms.settings.client.ReferencingMethod;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.exceptions.ConnectionException;
 import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsMessageListener;
+import org.osgp.adapter.protocol.dlms.infra.messaging.InvocationCountingDlmsMessageListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,7 +74,7 @@ public class Lls0Connector extends DlmsConnector {
 
         this.setOptionalValues(device, tcpConnectionBuilder);
 
-        if (device.isInDebugMode()) {
+        if (device.isInDebugMode() || dlmsMessageListener instanceof InvocationCountingDlmsMessageListener) {
             tcpConnectionBuilder.setRawMessageListener(dlmsMessageListener);
         }
 
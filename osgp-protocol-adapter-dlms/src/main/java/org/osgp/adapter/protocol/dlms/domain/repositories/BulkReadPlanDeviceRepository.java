@@ -0,0 +1,38 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.repositories;
+
+import java.util.Date;
+import java.util.List;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadPlanDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BulkReadPlanDeviceRepository extends JpaRepository<BulkReadPlanDevice, Long> {
+
+    List<BulkReadPlanDevice> findByPlanIdentificationAndStatusAndIdGreaterThanOrderByIdAsc(String planIdentification,
+            BulkReadStatus status, Long id, Pageable pageable);
+
+    long countByPlanIdentificationAndStatus(String planIdentification, BulkReadStatus status);
+
+    long countByPlanIdentification(String planIdentification);
+
+    long countByPlanIdentificationAndReadTimeAfter(String planIdentification, Date readTime);
+
+    BulkReadPlanDevice findByPlanIdentificationAndDeviceIdentification(String planIdentification,
+            String deviceIdentification);
+
+    @Query("SELECT DISTINCT d.planIdentification FROM BulkReadPlanDevice d WHERE d.status = (:status)")
+    List<String> findPlanIdentificationsWithStatus(@Param("status") BulkReadStatus status);
+}
@@ -0,0 +1,18 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.repositories;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadPlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BulkReadPlanRepository extends JpaRepository<BulkReadPlan, Long> {
+
+    BulkReadPlan findByPlanIdentification(String planIdentification);
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.repositories;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.DeviceCapabilities;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.DeviceModel;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Keeps the capabilities of every device model that has been seen since the
+ * protocol adapter was started.
+ */
+@Repository
+public class DeviceCapabilityCachingRepository implements CachingRepository<DeviceModel, DeviceCapabilities> {
+
+    private final Map<DeviceModel, DeviceCapabilities> cache = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isAvailable(final DeviceModel key) {
+        return key != null && this.cache.containsKey(key);
+    }
+
+    @Override
+    public DeviceCapabilities retrieve(final DeviceModel key) {
+        return key == null ? null : this.cache.get(key);
+    }
+
+    @Override
+    public void store(final DeviceModel key, final DeviceCapabilities value) {
+        if (key != null) {
+            this.cache.put(key, value);
+        }
+    }
+
+    public void evict(final DeviceModel key) {
+        if (key != null) {
+            this.cache.remove(key);
+        }
+    }
+}
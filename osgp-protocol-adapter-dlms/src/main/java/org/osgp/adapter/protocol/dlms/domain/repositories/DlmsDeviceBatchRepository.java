@@ -0,0 +1,127 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.repositories;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.SecurityKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Inserts new devices with their security keys using JDBC batch statements,
+ * for provisioning large numbers of devices at once.
+ * <p>
+ * The rows are written with the same columns Hibernate writes when saving a
+ * new {@link DlmsDevice} through the {@link DlmsDeviceRepository}. Because
+ * the inserts bypass Hibernate, cached device lookups have to be evicted after
+ * using this repository.
+ */
+@Repository
+public class DlmsDeviceBatchRepository {
+
+    private static final String INSERT_DEVICE = "INSERT INTO dlms_device (creation_time, modification_time, version, "
+            + "device_identification, communication_method, communication_provider, icc_id, lls1active, hls3active, "
+            + "hls4active, hls5active, challenge_length, with_list_supported, selective_access_supported, "
+            + "ip_address_is_static, port, client_id, logical_id, in_debug_mode, use_hdlc, use_sn, "
+            + "mbus_identification_number, mbus_manufacturer_identification) "
+            + "VALUES (?, ?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SECURITY_KEY = "INSERT INTO security_key (creation_time, modification_time, "
+            + "version, dlms_device_id, security_key_type, valid_from, valid_to, security_key, invocation_counter) "
+            + "SELECT ?, ?, 0, id, ?, ?, ?, ?, ? FROM dlms_device WHERE device_identification = ?";
+
+    private static final String SELECT_EXISTING_DEVICE_IDENTIFICATIONS = "SELECT device_identification "
+            + "FROM dlms_device WHERE device_identification IN (:deviceIdentifications)";
+
+    @Autowired
+    private JdbcTemplate dlmsJdbcTemplate;
+
+    /**
+     * Returns the identifications of the given devices that are already stored.
+     */
+    @Transactional(value = "transactionManager", readOnly = true)
+    public Set<String> findExistingDeviceIdentifications(final Collection<String> deviceIdentifications) {
+        if (deviceIdentifications.isEmpty()) {
+            return new HashSet<>();
+        }
+        final MapSqlParameterSource parameters = new MapSqlParameterSource("deviceIdentifications",
+                deviceIdentifications);
+        return new HashSet<>(new NamedParameterJdbcTemplate(this.dlmsJdbcTemplate)
+                .queryForList(SELECT_EXISTING_DEVICE_IDENTIFICATIONS, parameters, String.class));
+    }
+
+    /**
+     * Inserts the given new devices and their security keys in a single
+     * transaction, using one batch statement for the devices and one for the
+     * security keys.
+     *
+     * @param devices
+     *            new devices, that are not yet stored.
+     */
+    @Transactional(value = "transactionManager")
+    public void insert(final List<DlmsDevice> devices) {
+        if (devices.isEmpty()) {
+            return;
+        }
+
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        final List<Object[]> deviceRows = new ArrayList<>(devices.size());
+        final List<Object[]> securityKeyRows = new ArrayList<>();
+        for (final DlmsDevice device : devices) {
+            deviceRows.add(this.deviceRow(device, now));
+            for (final SecurityKey securityKey : device.getSecurityKeys()) {
+                securityKeyRows.add(this.securityKeyRow(device, securityKey, now));
+            }
+        }
+
+        this.dlmsJdbcTemplate.batchUpdate(INSERT_DEVICE, deviceRows);
+        if (!securityKeyRows.isEmpty()) {
+            this.dlmsJdbcTemplate.batchUpdate(INSERT_SECURITY_KEY, securityKeyRows);
+        }
+    }
+
+    private Object[] deviceRow(final DlmsDevice device, final Timestamp now) {
+        return new Object[] { now, now, device.getDeviceIdentification(), device.getCommunicationMethod(),
+                device.getCommunicationProvider(), device.getIccId(), device.isLls1Active(), device.isHls3Active(),
+                device.isHls4Active(), device.isHls5Active(), nullable(Types.INTEGER, device.getChallengeLength()),
+                device.isWithListSupported(), device.isSelectiveAccessSupported(), device.isIpAddressIsStatic(),
+                nullable(Types.BIGINT, device.getPort()), nullable(Types.BIGINT, device.getClientId()),
+                nullable(Types.BIGINT, device.getLogicalId()), device.isInDebugMode(), device.isUseHdlc(),
+                device.isUseSn(), nullable(Types.BIGINT, device.getMbusIdentificationNumber()),
+                nullable(Types.VARCHAR, device.getMbusManufacturerIdentification()) };
+    }
+
+    private Object[] securityKeyRow(final DlmsDevice device, final SecurityKey securityKey, final Timestamp now) {
+        return new Object[] { now, now, securityKey.getSecurityKeyType().name(),
+                nullable(Types.TIMESTAMP, toTimestamp(securityKey.getValidFrom())),
+                nullable(Types.TIMESTAMP, toTimestamp(securityKey.getValidTo())), securityKey.getKey(),
+                securityKey.getInvocationCounter(), device.getDeviceIdentification() };
+    }
+
+    private static SqlParameterValue nullable(final int sqlType, final Object value) {
+        return new SqlParameterValue(sqlType, value);
+    }
+
+    private static Timestamp toTimestamp(final Date date) {
+        return date == null ? null : new Timestamp(date.getTime());
+    }
+}
@@ -7,15 +7,51 @@
  */
 package org.osgp.adapter.protocol.dlms.domain.repositories;
 
+import javax.persistence.QueryHint;
+
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface DlmsDeviceRepository extends JpaRepository<DlmsDevice, Long> {
 
+    /**
+     * Query cache region for device lookups by device identification.
+     */
+    String DEVICE_LOOKUP_CACHE_REGION = "dlms-device-lookup";
+
+    @QueryHints({ @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = DEVICE_LOOKUP_CACHE_REGION) })
     DlmsDevice findByDeviceIdentification(String deviceIdentification);
 
     DlmsDevice findByMbusIdentificationNumberAndMbusManufacturerIdentification(Long mbusIdentificationNumber,
             String mbusManufacturerIdentification);
+
+    /**
+     * Updates only the learned get-with-list limit of a device, so it can be
+     * stored while other settings of the device are being changed.
+     */
+    @Transactional(value = "transactionManager")
+    @Modifying
+    @Query("UPDATE DlmsDevice d SET d.maxGetWithListSize = :maxGetWithListSize "
+            + "WHERE d.deviceIdentification = :deviceIdentification")
+    int updateMaxGetWithListSize(@Param("deviceIdentification") String deviceIdentification,
+            @Param("maxGetWithListSize") Integer maxGetWithListSize);
+
+    /**
+     * Updates only the active firmware version of a device, so the version
+     * of the device entity in use stays current.
+     */
+    @Transactional(value = "transactionManager")
+    @Modifying
+    @Query("UPDATE DlmsDevice d SET d.activeFirmwareVersion = :activeFirmwareVersion "
+            + "WHERE d.deviceIdentification = :deviceIdentification")
+    int updateActiveFirmwareVersion(@Param("deviceIdentification") String deviceIdentification,
+            @Param("activeFirmwareVersion") String activeFirmwareVersion);
 }
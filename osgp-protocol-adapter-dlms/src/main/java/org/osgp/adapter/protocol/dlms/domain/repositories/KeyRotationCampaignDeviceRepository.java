@@ -0,0 +1,32 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.repositories;
+
+import java.util.List;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.KeyRotationCampaignDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.KeyRotationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface KeyRotationCampaignDeviceRepository extends JpaRepository<KeyRotationCampaignDevice, Long> {
+
+    List<KeyRotationCampaignDevice> findByCampaignIdentificationAndStatus(String campaignIdentification,
+            KeyRotationStatus status);
+
+    long countByCampaignIdentificationAndStatus(String campaignIdentification, KeyRotationStatus status);
+
+    KeyRotationCampaignDevice findByCampaignIdentificationAndDeviceIdentification(String campaignIdentification,
+            String deviceIdentification);
+
+    @Query("SELECT DISTINCT d.campaignIdentification FROM KeyRotationCampaignDevice d WHERE d.status = (:status)")
+    List<String> findCampaignIdentificationsWithStatus(@Param("status") KeyRotationStatus status);
+}
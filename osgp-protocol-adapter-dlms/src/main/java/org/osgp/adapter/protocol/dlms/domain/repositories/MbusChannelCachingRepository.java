@@ -0,0 +1,81 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.repositories;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.ChannelElementValuesDto;
+
+/**
+ * Keeps the M-Bus Client Setup attribute values last read from the channels of
+ * gateway devices, so M-Bus flows do not have to read them again for every
+ * request.
+ * <p>
+ * Entries have to be evicted when the M-Bus device on a channel changes, as
+ * far as the adapter knows about that: after coupling or decoupling, and when
+ * a gateway reports a new M-Bus device on a channel. Entries expire after a
+ * configurable time to live, for changes the adapter does not learn about.
+ */
+@Repository
+public class MbusChannelCachingRepository {
+
+    private final Map<String, CachedChannel> cache = new ConcurrentHashMap<>();
+
+    @Value("${mbus.channel.cache.time.to.live.seconds}")
+    private long timeToLiveSeconds;
+
+    /**
+     * @return the values of the channel as last read from the gateway device,
+     *         or {@code null} if they are not cached or have expired.
+     */
+    public ChannelElementValuesDto retrieve(final String gatewayDeviceIdentification, final short channel) {
+        final String key = key(gatewayDeviceIdentification, channel);
+        final CachedChannel cachedChannel = this.cache.get(key);
+        if (cachedChannel == null) {
+            return null;
+        }
+        if (cachedChannel.isExpired(TimeUnit.SECONDS.toMillis(this.timeToLiveSeconds))) {
+            this.cache.remove(key, cachedChannel);
+            return null;
+        }
+        return cachedChannel.channelElementValues;
+    }
+
+    public void store(final String gatewayDeviceIdentification, final ChannelElementValuesDto channelElementValues) {
+        if (this.timeToLiveSeconds > 0) {
+            this.cache.put(key(gatewayDeviceIdentification, channelElementValues.getChannel()),
+                    new CachedChannel(channelElementValues));
+        }
+    }
+
+    public void evict(final String gatewayDeviceIdentification, final short channel) {
+        this.cache.remove(key(gatewayDeviceIdentification, channel));
+    }
+
+    private static String key(final String gatewayDeviceIdentification, final short channel) {
+        return gatewayDeviceIdentification + "/" + channel;
+    }
+
+    private static final class CachedChannel {
+        private final ChannelElementValuesDto channelElementValues;
+        private final long storedAt = System.currentTimeMillis();
+
+        CachedChannel(final ChannelElementValuesDto channelElementValues) {
+            this.channelElementValues = channelElementValues;
+        }
+
+        boolean isExpired(final long timeToLiveMillis) {
+            return System.currentTimeMillis() - this.storedAt > timeToLiveMillis;
+        }
+    }
+}
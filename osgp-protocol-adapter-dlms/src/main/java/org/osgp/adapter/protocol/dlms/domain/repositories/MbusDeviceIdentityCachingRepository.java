@@ -0,0 +1,58 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.repositories;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Maps the M-Bus identification number and manufacturer identification of
+ * M-Bus devices to their device identification, so an M-Bus device can be
+ * found by the identity read from a channel of its gateway with a cached
+ * lookup by device identification.
+ * <p>
+ * Only devices that have been found are kept, so adding a device never makes
+ * an entry wrong. The identity of a device that is found through this
+ * repository should still be checked, in case it has changed.
+ */
+@Repository
+public class MbusDeviceIdentityCachingRepository {
+
+    private final Map<String, String> deviceIdentificationPerMbusIdentity = new ConcurrentHashMap<>();
+
+    /**
+     * @return the identification of the device last stored with the given
+     *         M-Bus identity, or {@code null} if none has been stored.
+     */
+    public String retrieve(final Long mbusIdentificationNumber, final String mbusManufacturerIdentification) {
+        return this.deviceIdentificationPerMbusIdentity
+                .get(key(mbusIdentificationNumber, mbusManufacturerIdentification));
+    }
+
+    /**
+     * Stores the M-Bus identity of the device, if it has one.
+     */
+    public void store(final DlmsDevice device) {
+        if (device.getMbusIdentificationNumber() != null && device.getMbusManufacturerIdentification() != null) {
+            this.deviceIdentificationPerMbusIdentity.put(
+                    key(device.getMbusIdentificationNumber(), device.getMbusManufacturerIdentification()),
+                    device.getDeviceIdentification());
+        }
+    }
+
+    public void evict(final Long mbusIdentificationNumber, final String mbusManufacturerIdentification) {
+        this.deviceIdentificationPerMbusIdentity.remove(key(mbusIdentificationNumber, mbusManufacturerIdentification));
+    }
+
+    private static String key(final Long mbusIdentificationNumber, final String mbusManufacturerIdentification) {
+        return mbusIdentificationNumber + "/" + mbusManufacturerIdentification;
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.repositories;
+
+import java.util.Date;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.PeriodicMeterReadsCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface PeriodicMeterReadsCheckpointRepository extends JpaRepository<PeriodicMeterReadsCheckpoint, Long> {
+
+    PeriodicMeterReadsCheckpoint findByCorrelationUidAndWindowBeginAndWindowEnd(String correlationUid,
+            Date windowBegin, Date windowEnd);
+
+    @Transactional(value = "transactionManager")
+    @Modifying
+    @Query("DELETE FROM PeriodicMeterReadsCheckpoint c WHERE c.correlationUid = :correlationUid")
+    int deleteByCorrelationUid(@Param("correlationUid") String correlationUid);
+
+    @Transactional(value = "transactionManager")
+    @Modifying
+    @Query("DELETE FROM PeriodicMeterReadsCheckpoint c WHERE c.expiresAt < :now")
+    int deleteExpired(@Param("now") Date now);
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.valueobjects;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of adding a batch of meters: the number of meters added and the
+ * reason of failure for each meter that could not be added.
+ */
+public class BulkAddMeterResult {
+
+    private int numberOfAddedMeters;
+
+    private final Map<String, String> failures = new LinkedHashMap<>();
+
+    public synchronized void added(final int numberOfMeters) {
+        this.numberOfAddedMeters += numberOfMeters;
+    }
+
+    public synchronized void failed(final String deviceIdentification, final String reason) {
+        this.failures.put(deviceIdentification, reason);
+    }
+
+    public synchronized int getNumberOfAddedMeters() {
+        return this.numberOfAddedMeters;
+    }
+
+    public synchronized int getNumberOfFailedMeters() {
+        return this.failures.size();
+    }
+
+    /**
+     * @return the reason of failure by device identification.
+     */
+    public synchronized Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(this.failures));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("BulkAddMeterResult[added=%d, failed=%d]", this.numberOfAddedMeters,
+                this.failures.size());
+    }
+}
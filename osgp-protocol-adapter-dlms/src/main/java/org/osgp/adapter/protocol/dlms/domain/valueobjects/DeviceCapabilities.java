@@ -0,0 +1,67 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.valueobjects;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openmuc.jdlms.ObisCode;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.AssociationLnListTypeDto;
+
+/**
+ * What devices of one {@link DeviceModel} support: the attributes of their
+ * association object list, and whether their profiles can be read with
+ * selective access.
+ */
+public class DeviceCapabilities {
+
+    private final AssociationLnListTypeDto associationLnList;
+    private final Set<String> attributes;
+    private final boolean selectiveAccessSupported;
+
+    /**
+     * @param associationLnList
+     *            the association object list as returned to core.
+     * @param attributes
+     *            the attributes in the association object list, as keys
+     *            created with {@link #attributeKey(int, ObisCode, int)}.
+     * @param selectiveAccessSupported
+     *            whether the buffers of profile generic objects can be read
+     *            with selective access.
+     */
+    public DeviceCapabilities(final AssociationLnListTypeDto associationLnList, final Set<String> attributes,
+            final boolean selectiveAccessSupported) {
+        this.associationLnList = associationLnList;
+        this.attributes = Collections.unmodifiableSet(new HashSet<>(attributes));
+        this.selectiveAccessSupported = selectiveAccessSupported;
+    }
+
+    public static String attributeKey(final int classId, final ObisCode obisCode, final int attributeId) {
+        return classId + "/" + obisCode.asDecimalString() + "/" + attributeId;
+    }
+
+    public AssociationLnListTypeDto getAssociationLnList() {
+        return this.associationLnList;
+    }
+
+    public boolean hasAttribute(final int classId, final ObisCode obisCode, final int attributeId) {
+        return this.attributes.contains(attributeKey(classId, obisCode, attributeId));
+    }
+
+    public boolean isSelectiveAccessSupported() {
+        return this.selectiveAccessSupported;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DeviceCapabilities[attributes=%d, selectiveAccess=%b]", this.attributes.size(),
+                this.selectiveAccessSupported);
+    }
+}
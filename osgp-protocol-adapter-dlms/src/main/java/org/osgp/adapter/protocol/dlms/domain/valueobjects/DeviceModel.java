@@ -0,0 +1,74 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.valueobjects;
+
+import java.util.Objects;
+
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+
+/**
+ * Identifies devices that behave the same: devices of one manufacturer with
+ * the same active firmware version.
+ * <p>
+ * The device model itself is not known in the protocol adapter. DSMR meters
+ * report firmware versions per model, so the firmware version stands in for
+ * it.
+ */
+public final class DeviceModel {
+
+    private final String manufacturer;
+    private final String firmwareVersion;
+
+    public DeviceModel(final String manufacturer, final String firmwareVersion) {
+        this.manufacturer = manufacturer;
+        this.firmwareVersion = firmwareVersion;
+    }
+
+    /**
+     * @return the model of the device, or {@code null} if its manufacturer or
+     *         active firmware version is not known.
+     */
+    public static DeviceModel of(final DlmsDevice device) {
+        if (device.getManufacturerId() == null || device.getActiveFirmwareVersion() == null) {
+            return null;
+        }
+        return new DeviceModel(device.getManufacturerId(), device.getActiveFirmwareVersion());
+    }
+
+    public String getManufacturer() {
+        return this.manufacturer;
+    }
+
+    public String getFirmwareVersion() {
+        return this.firmwareVersion;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeviceModel)) {
+            return false;
+        }
+        final DeviceModel other = (DeviceModel) o;
+        return Objects.equals(this.manufacturer, other.manufacturer)
+                && Objects.equals(this.firmwareVersion, other.firmwareVersion);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.manufacturer, this.firmwareVersion);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DeviceModel[manufacturer=%s, firmwareVersion=%s]", this.manufacturer,
+                this.firmwareVersion);
+    }
+}
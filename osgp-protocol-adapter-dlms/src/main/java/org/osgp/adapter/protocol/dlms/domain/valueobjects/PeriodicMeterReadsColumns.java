@@ -0,0 +1,227 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.valueobjects;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsMeterValueDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+
+/**
+ * Periodic meter reads stored per column instead of per entry of the profile
+ * buffer: the capture times in epoch millis, the raw value of every register
+ * with one scaler and unit per register, and the AMR profile status as a byte.
+ * Whether a register value was captured in a buffer entry is kept in a bitmap
+ * per register, so every raw value, including {@link Long#MIN_VALUE}, is a
+ * valid register value.
+ * <p>
+ * Values are only scaled, and AMR profile status flags only created, when they
+ * are asked for.
+ */
+public class PeriodicMeterReadsColumns implements Serializable {
+
+    private static final long serialVersionUID = 6318530419427796574L;
+
+    private final PeriodTypeDto periodType;
+    private final ScalerUnit[] scalerUnits;
+    private final long[][] rawValues;
+    private final BitSet[] captured;
+    private long[] bufferedDateTimes;
+    private byte[] amrProfileStatus;
+    private long[] captureTimes;
+    private int size;
+
+    /**
+     * @param scalerUnits
+     *            the scaler and unit of each register column.
+     * @param withAmrProfileStatus
+     *            whether the buffer has an AMR profile status column.
+     * @param withCaptureTimes
+     *            whether the buffer has a capture time column for the
+     *            register values, as M-Bus buffers have.
+     * @param capacity
+     *            the number of entries in the buffer.
+     */
+    public PeriodicMeterReadsColumns(final PeriodTypeDto periodType, final ScalerUnit[] scalerUnits,
+            final boolean withAmrProfileStatus, final boolean withCaptureTimes, final int capacity) {
+        this.periodType = periodType;
+        this.scalerUnits = scalerUnits.clone();
+        this.rawValues = new long[scalerUnits.length][capacity];
+        this.captured = new BitSet[scalerUnits.length];
+        for (int column = 0; column < this.captured.length; column++) {
+            this.captured[column] = new BitSet(capacity);
+        }
+        this.bufferedDateTimes = new long[capacity];
+        this.amrProfileStatus = withAmrProfileStatus ? new byte[capacity] : null;
+        this.captureTimes = withCaptureTimes ? new long[capacity] : null;
+    }
+
+    /**
+     * Adds a buffer entry.
+     *
+     * @param rawValues
+     *            the raw value of every register column. The array is copied,
+     *            so it can be reused for the next entry.
+     * @param captured
+     *            whether the value of every register column was captured, the
+     *            raw value of a register that was not captured is ignored.
+     * @param amrProfileStatus
+     *            the AMR profile status register, ignored if the buffer does
+     *            not have one.
+     * @param captureTime
+     *            the capture time of the register values, ignored if the buffer
+     *            does not have capture times.
+     */
+    public void addRow(final long bufferedDateTime, final long[] rawValues, final boolean[] captured,
+            final int amrProfileStatus, final long captureTime) {
+        if (this.size == this.bufferedDateTimes.length) {
+            throw new IllegalStateException("Capacity of " + this.size + " buffer entries exceeded");
+        }
+        this.bufferedDateTimes[this.size] = bufferedDateTime;
+        for (int column = 0; column < this.rawValues.length; column++) {
+            this.rawValues[column][this.size] = rawValues[column];
+            this.captured[column].set(this.size, captured[column]);
+        }
+        if (this.amrProfileStatus != null) {
+            this.amrProfileStatus[this.size] = (byte) amrProfileStatus;
+        }
+        if (this.captureTimes != null) {
+            this.captureTimes[this.size] = captureTime;
+        }
+        this.size++;
+    }
+
+    /**
+     * Drops the space reserved for buffer entries that were not added, for
+     * instance because they were outside the requested period.
+     */
+    public void trimToSize() {
+        if (this.size == this.bufferedDateTimes.length) {
+            return;
+        }
+        this.bufferedDateTimes = Arrays.copyOf(this.bufferedDateTimes, this.size);
+        for (int column = 0; column < this.rawValues.length; column++) {
+            this.rawValues[column] = Arrays.copyOf(this.rawValues[column], this.size);
+        }
+        if (this.amrProfileStatus != null) {
+            this.amrProfileStatus = Arrays.copyOf(this.amrProfileStatus, this.size);
+        }
+        if (this.captureTimes != null) {
+            this.captureTimes = Arrays.copyOf(this.captureTimes, this.size);
+        }
+    }
+
+    /**
+     * Joins the entries of buffers read for consecutive periods, in order.
+     * Entries that are not after the last entry joined so far are left out, so
+     * an entry at the boundary of two periods is only joined once.
+     *
+     * @param parts
+     *            at least one set of columns, all with the same registers.
+     */
+    public static PeriodicMeterReadsColumns concatenate(final List<PeriodicMeterReadsColumns> parts) {
+        PeriodicMeterReadsColumns first = parts.get(0);
+        int capacity = 0;
+        for (final PeriodicMeterReadsColumns part : parts) {
+            if (first.size == 0) {
+                // Only buffers with entries have read the scaler and units.
+                first = part;
+            }
+            capacity += part.size;
+        }
+
+        final PeriodicMeterReadsColumns joined = new PeriodicMeterReadsColumns(first.periodType, first.scalerUnits,
+                first.amrProfileStatus != null, first.captureTimes != null, capacity);
+        final long[] rawValues = new long[first.scalerUnits.length];
+        final boolean[] captured = new boolean[first.scalerUnits.length];
+        for (final PeriodicMeterReadsColumns part : parts) {
+            for (int row = 0; row < part.size; row++) {
+                if (joined.size > 0 && part.bufferedDateTimes[row] <= joined.bufferedDateTimes[joined.size - 1]) {
+                    continue;
+                }
+                for (int column = 0; column < rawValues.length; column++) {
+                    rawValues[column] = part.rawValues[column][row];
+                    captured[column] = part.captured[column].get(row);
+                }
+                joined.addRow(part.bufferedDateTimes[row], rawValues, captured,
+                        part.amrProfileStatus == null ? 0 : part.amrProfileStatus[row],
+                        part.captureTimes == null ? 0 : part.captureTimes[row]);
+            }
+        }
+        joined.trimToSize();
+        return joined;
+    }
+
+    public PeriodTypeDto getPeriodType() {
+        return this.periodType;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int getNumberOfColumns() {
+        return this.scalerUnits.length;
+    }
+
+    public ScalerUnit getScalerUnit(final int column) {
+        return this.scalerUnits[column];
+    }
+
+    public long getBufferedDateTime(final int row) {
+        return this.bufferedDateTimes[row];
+    }
+
+    public boolean isCaptured(final int column, final int row) {
+        return this.captured[column].get(row);
+    }
+
+    /**
+     * @return the raw value of a register in a buffer entry, only meaningful
+     *         if the value was captured.
+     */
+    public long getRawValue(final int column, final int row) {
+        return this.rawValues[column][row];
+    }
+
+    /**
+     * @return the scaled value of a register in a buffer entry, or
+     *         {@code null} if the value was not captured.
+     */
+    public DlmsMeterValueDto getValue(final int column, final int row) {
+        return this.isCaptured(column, row) ? this.scalerUnits[column].scale(this.rawValues[column][row]) : null;
+    }
+
+    public boolean hasAmrProfileStatus() {
+        return this.amrProfileStatus != null;
+    }
+
+    /**
+     * @return the unsigned AMR profile status register of a buffer entry.
+     */
+    public int getAmrProfileStatus(final int row) {
+        return this.amrProfileStatus[row] & 0xFF;
+    }
+
+    public boolean hasCaptureTimes() {
+        return this.captureTimes != null;
+    }
+
+    public long getCaptureTime(final int row) {
+        return this.captureTimes[row];
+    }
+
+    @Override
+    public String toString() {
+        return "PeriodicMeterReadsColumns[periodType=" + this.periodType + ", size=" + this.size + ", scalerUnits="
+                + Arrays.toString(this.scalerUnits) + "]";
+    }
+}
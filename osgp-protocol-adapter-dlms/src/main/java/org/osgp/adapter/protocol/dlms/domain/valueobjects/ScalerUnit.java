@@ -0,0 +1,76 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.valueobjects;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsMeterValueDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsUnitTypeDto;
+
+/**
+ * The scaler and unit of a register, resolved once to scale any number of
+ * values of that register.
+ * <p>
+ * A value is scaled by multiplying it with
+ * {@code BigDecimal.valueOf(Math.pow(10, scaler))}, which is computed once
+ * for every scaler in the range of the integer8 scaler attribute.
+ */
+public final class ScalerUnit implements Serializable {
+
+    private static final long serialVersionUID = -3407166225862718443L;
+
+    private static final BigDecimal[] POWERS_OF_TEN = new BigDecimal[Byte.MAX_VALUE - Byte.MIN_VALUE + 1];
+    static {
+        for (int scaler = Byte.MIN_VALUE; scaler <= Byte.MAX_VALUE; scaler++) {
+            POWERS_OF_TEN[scaler - Byte.MIN_VALUE] = BigDecimal.valueOf(Math.pow(10, scaler));
+        }
+    }
+
+    private final int scaler;
+    private final DlmsUnitTypeDto unit;
+    private final BigDecimal factor;
+
+    public ScalerUnit(final int scaler, final DlmsUnitTypeDto unit) {
+        this.scaler = scaler;
+        this.unit = unit;
+        this.factor = scaler == 0 ? null : powerOfTen(scaler);
+    }
+
+    private static BigDecimal powerOfTen(final int scaler) {
+        if (scaler >= Byte.MIN_VALUE && scaler <= Byte.MAX_VALUE) {
+            return POWERS_OF_TEN[scaler - Byte.MIN_VALUE];
+        }
+        return BigDecimal.valueOf(Math.pow(10, scaler));
+    }
+
+    public int getScaler() {
+        return this.scaler;
+    }
+
+    public DlmsUnitTypeDto getUnit() {
+        return this.unit;
+    }
+
+    /**
+     * @return the given raw register value with the scaler applied, in the
+     *         unit of the register.
+     */
+    public DlmsMeterValueDto scale(final long rawValue) {
+        BigDecimal scaledValue = BigDecimal.valueOf(rawValue);
+        if (this.factor != null) {
+            scaledValue = scaledValue.multiply(this.factor);
+        }
+        return new DlmsMeterValueDto(scaledValue, this.unit);
+    }
+
+    @Override
+    public String toString() {
+        return "ScalerUnit[scaler=" + this.scaler + ", unit=" + this.unit + "]";
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.exceptions;
+
+/**
+ * Thrown when communication with a device is not attempted, because earlier
+ * attempts to connect to the device (or to devices with the same communication
+ * provider) failed consecutively.
+ */
+public class CircuitBreakerOpenException extends RetryableException {
+
+    private static final long serialVersionUID = 2846133059725630542L;
+
+    public CircuitBreakerOpenException(final String message) {
+        super(message);
+    }
+}
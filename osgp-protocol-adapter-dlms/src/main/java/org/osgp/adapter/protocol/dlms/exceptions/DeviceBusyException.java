@@ -0,0 +1,21 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.exceptions;
+
+/**
+ * Thrown when communication with a device is not attempted, because the
+ * protocol adapter already has a session with the device.
+ */
+public class DeviceBusyException extends RetryableException {
+
+    private static final long serialVersionUID = 7311602448215967358L;
+
+    public DeviceBusyException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.infra.messaging;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
+import org.osgp.adapter.protocol.dlms.application.services.MonitoringService;
+import org.osgp.adapter.protocol.dlms.application.tracing.RequestTrace;
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadPlan;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.exceptions.DeviceBusyException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsRequestDto;
+import com.alliander.osgp.shared.exceptionhandling.OsgpException;
+
+/**
+ * Reads a device for a bulk read plan in a single session. The connection is
+ * handled like the connection of a request from core, so the session is
+ * counted in the metrics and traced (with the plan and device as correlation
+ * UID), and the invocation counter of the device is updated.
+ */
+@Component
+public class BulkReadSessionProcessor extends DlmsConnectionMessageProcessor {
+
+    /**
+     * Type of the sessions in the traces and the request metrics, apart from
+     * the {@link DeviceRequestMessageType#BULK_READ} requests starting a plan.
+     */
+    private static final String SESSION_TYPE = "BULK_READ_SESSION";
+
+    @Autowired
+    private MonitoringService monitoringService;
+
+    /**
+     * @return the correlation UID of the session with the device, under which
+     *         the windows of interval values read for the plan are kept.
+     */
+    public static String correlationUid(final BulkReadPlan plan, final String deviceIdentification) {
+        return plan.getPlanIdentification() + "/" + deviceIdentification;
+    }
+
+    /**
+     * @param device
+     *            the device to read, with the IP address to connect to.
+     * @return the response for each period type of the plan.
+     * @throws DeviceBusyException
+     *             when there already is a session with the device.
+     */
+    public ArrayList<Serializable> read(final BulkReadPlan plan, final DlmsDevice device) throws OsgpException {
+        final long start = System.nanoTime();
+        final String correlationUid = correlationUid(plan, device.getDeviceIdentification());
+        final RequestTrace trace = this.requestTracer.start(correlationUid, SESSION_TYPE,
+                device.getDeviceIdentification());
+        DlmsConnectionHolder conn = null;
+
+        try {
+            long phaseStart = System.nanoTime();
+            conn = this.createConnectionForDevice(device, null);
+            trace.phase("Connect", phaseStart);
+
+            phaseStart = System.nanoTime();
+            final ArrayList<Serializable> results = new ArrayList<>();
+            for (final PeriodTypeDto periodType : plan.getPeriodTypes()) {
+                results.add(this.monitoringService.requestPeriodicMeterReads(conn, device,
+                        new PeriodicMeterReadsRequestDto(periodType, plan.getBeginDate(), plan.getEndDate()),
+                        correlationUid));
+            }
+            trace.phase("Handle request", phaseStart);
+            return results;
+        } catch (final OsgpException | RuntimeException e) {
+            trace.event("Failed: " + e);
+            trace.failed();
+            throw e;
+        } finally {
+            final long phaseStart = System.nanoTime();
+            this.doConnectionPostProcessing(device, conn);
+            trace.phase("Close connection", phaseStart);
+            this.requestTracer.finish(trace);
+            this.dlmsMetrics.timer(DlmsMetrics.Timer.REQUEST, SESSION_TYPE).recordSince(start);
+        }
+    }
+}
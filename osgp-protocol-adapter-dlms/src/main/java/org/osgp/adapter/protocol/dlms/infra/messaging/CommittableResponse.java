@@ -0,0 +1,41 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.infra.messaging;
+
+import java.io.Serializable;
+
+/**
+ * A response to a device request, with state that may only be committed once
+ * the response has been sent to core, like a high-water mark moved past the
+ * events in the response. When sending the response fails, the state is not
+ * committed, and a next request returns the same data again.
+ * <p>
+ * Returned from {@code handleMessage} by a {@link DeviceRequestMessageProcessor},
+ * which sends the wrapped response and then commits. The wrapper itself is
+ * never sent.
+ */
+public class CommittableResponse implements Serializable {
+
+    private static final long serialVersionUID = 3408521839461176150L;
+
+    private final Serializable response;
+    private final transient Runnable commit;
+
+    public CommittableResponse(final Serializable response, final Runnable commit) {
+        this.response = response;
+        this.commit = commit;
+    }
+
+    public Serializable getResponse() {
+        return this.response;
+    }
+
+    public void commit() {
+        this.commit.run();
+    }
+}
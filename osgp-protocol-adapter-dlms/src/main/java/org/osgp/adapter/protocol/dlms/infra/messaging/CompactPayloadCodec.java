@@ -0,0 +1,246 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.infra.messaging;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.AssociationLnListTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.BundleMessagesRequestDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventMessageDataResponseDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadGasResponseDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsResponseDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.ProfileGenericDataResponseDto;
+
+/**
+ * Compact binary encoding of the data object of large responses, sent as the
+ * body of a {@link javax.jms.BytesMessage} instead of an ObjectMessage holding
+ * the serialized response message. Core opts in per request, by setting the
+ * {@value #ACCEPT_ENCODING} property of the request to {@value #ENCODING}. The
+ * other fields of the response are sent as message properties, as they are
+ * for an ObjectMessage, and a compactly encoded response has its
+ * {@value #PAYLOAD_ENCODING} property set to {@value #ENCODING}.
+ * <p>
+ * The body is a format version byte, a flags byte, the length of the payload
+ * as an int and the payload. The payload is the object graph of the data
+ * object, with the class descriptors reduced to the class name and the
+ * serialVersionUID, as both sides use the same DTO classes. A payload with a
+ * class whose serialVersionUID differs from the local class is rejected.
+ * Payloads larger than the compression threshold are deflated.
+ * <p>
+ * Only classes of the DTO packages, of Joda-Time, and a fixed set of JDK value
+ * and collection classes are decoded, no class is loaded for any other name in
+ * a payload.
+ */
+public class CompactPayloadCodec {
+
+    public static final String ACCEPT_ENCODING = "AcceptResponseEncoding";
+    public static final String PAYLOAD_ENCODING = "PayloadEncoding";
+    public static final String ENCODING = "compact-v2";
+
+    private static final byte FORMAT_VERSION = 2;
+    private static final byte FLAG_DEFLATED = 1;
+    private static final int HEADER_LENGTH = 2 + Integer.BYTES;
+
+    /**
+     * Response types that may hold thousands of entries or deep object graphs.
+     * Small responses are not worth a format core has to know about.
+     */
+    private static final Set<Class<?>> LARGE_RESPONSE_TYPES = Collections
+            .unmodifiableSet(new HashSet<>(Arrays.asList(PeriodicMeterReadsResponseDto.class,
+                    PeriodicMeterReadGasResponseDto.class, ProfileGenericDataResponseDto.class,
+                    EventMessageDataResponseDto.class, AssociationLnListTypeDto.class,
+                    BundleMessagesRequestDto.class)));
+
+    private static final String[] ALLOWED_PACKAGES = { "com.alliander.osgp.dto.", "org.joda.time." };
+
+    /**
+     * JDK classes the DTOs are built of. Sets of flags decoded from registers
+     * are unmodifiable enum sets, which are serialized by their proxy as the
+     * element type and an array of {@code java.lang.Enum}.
+     */
+    private static final Set<String> ALLOWED_JDK_CLASSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "java.lang.Object", "java.lang.Number", "java.lang.Enum", "java.lang.String", "java.lang.Boolean",
+            "java.lang.Byte", "java.lang.Character", "java.lang.Short", "java.lang.Integer", "java.lang.Long",
+            "java.lang.Float", "java.lang.Double", "java.math.BigDecimal", "java.math.BigInteger", "java.util.Date",
+            "java.util.ArrayList", "java.util.LinkedList", "java.util.HashMap", "java.util.LinkedHashMap",
+            "java.util.TreeMap", "java.util.HashSet", "java.util.LinkedHashSet", "java.util.EnumMap",
+            "java.util.EnumSet$SerializationProxy",
+            "java.util.Arrays$ArrayList", "java.util.Collections$UnmodifiableCollection",
+            "java.util.Collections$UnmodifiableList", "java.util.Collections$UnmodifiableRandomAccessList",
+            "java.util.Collections$UnmodifiableSet", "java.util.Collections$UnmodifiableMap",
+            "java.util.Collections$EmptyList", "java.util.Collections$EmptySet", "java.util.Collections$EmptyMap",
+            "java.util.Collections$SingletonList", "java.util.Collections$SingletonSet",
+            "java.util.Collections$SingletonMap")));
+
+    private final boolean enabled;
+    private final int compressionThreshold;
+
+    /**
+     * @param enabled
+     *            whether responses are encoded compactly for requests that
+     *            accept it.
+     * @param compressionThreshold
+     *            the size in bytes above which payloads are deflated.
+     */
+    public CompactPayloadCodec(final boolean enabled, final int compressionThreshold) {
+        this.enabled = enabled;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * @return whether the data object is sent compactly encoded, for a request
+     *         that accepts it.
+     */
+    public boolean isEncoded(final Serializable dataObject) {
+        return this.enabled && dataObject != null && LARGE_RESPONSE_TYPES.contains(dataObject.getClass());
+    }
+
+    public byte[] encode(final Serializable dataObject) throws IOException {
+        final ByteArrayOutputStream graph = new ByteArrayOutputStream(8192);
+        writeGraph(dataObject, graph);
+
+        byte flags = 0;
+        byte[] payload = graph.toByteArray();
+        if (payload.length > this.compressionThreshold) {
+            final ByteArrayOutputStream deflated = new ByteArrayOutputStream(payload.length / 4);
+            final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream out = new DeflaterOutputStream(deflated, deflater)) {
+                out.write(payload);
+            } finally {
+                deflater.end();
+            }
+            flags |= FLAG_DEFLATED;
+            payload = deflated.toByteArray();
+        }
+
+        return ByteBuffer.allocate(HEADER_LENGTH + payload.length).put(FORMAT_VERSION).put(flags)
+                .putInt(payload.length).put(payload).array();
+    }
+
+    /**
+     * Decodes the body of a compactly encoded response, as core does.
+     */
+    public static Serializable decode(final byte[] body) throws IOException, ClassNotFoundException {
+        final ByteBuffer frame = ByteBuffer.wrap(body);
+        if (body.length < HEADER_LENGTH || frame.get() != FORMAT_VERSION) {
+            throw new StreamCorruptedException("Not a " + ENCODING + " payload");
+        }
+        final byte flags = frame.get();
+        final int length = frame.getInt();
+        if (length != frame.remaining()) {
+            throw new StreamCorruptedException(
+                    "Payload length " + length + " does not match the " + frame.remaining() + " bytes received");
+        }
+
+        final InputStream payload = new ByteArrayInputStream(body, HEADER_LENGTH, length);
+        if ((flags & FLAG_DEFLATED) == 0) {
+            return readGraph(payload);
+        }
+        try (InputStream inflated = new InflaterInputStream(payload)) {
+            return readGraph(inflated);
+        }
+    }
+
+    private static void writeGraph(final Serializable dataObject, final OutputStream out) throws IOException {
+        try (ObjectOutputStream objects = new ObjectOutputStream(out) {
+            @Override
+            protected void writeClassDescriptor(final ObjectStreamClass descriptor) throws IOException {
+                this.writeUTF(descriptor.getName());
+                this.writeLong(descriptor.getSerialVersionUID());
+            }
+        }) {
+            objects.writeObject(dataObject);
+        }
+    }
+
+    private static Serializable readGraph(final InputStream in) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objects = new ObjectInputStream(in) {
+            @Override
+            protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+                final String name = this.readUTF();
+                final long serialVersionUID = this.readLong();
+                final ObjectStreamClass descriptor = ObjectStreamClass.lookupAny(resolveAllowedClass(name));
+                if (descriptor.getSerialVersionUID() != serialVersionUID) {
+                    throw new InvalidClassException(name, "serialVersionUID " + serialVersionUID
+                            + " in the payload does not match local serialVersionUID "
+                            + descriptor.getSerialVersionUID());
+                }
+                return descriptor;
+            }
+
+            @Override
+            protected Class<?> resolveClass(final ObjectStreamClass descriptor)
+                    throws IOException, ClassNotFoundException {
+                return resolveAllowedClass(descriptor.getName());
+            }
+
+            @Override
+            protected Class<?> resolveProxyClass(final String[] interfaces) throws IOException {
+                throw new InvalidClassException("Proxy classes are not allowed in a " + ENCODING + " payload");
+            }
+        }) {
+            return (Serializable) objects.readObject();
+        }
+    }
+
+    private static Class<?> resolveAllowedClass(final String name) throws IOException, ClassNotFoundException {
+        if (!isAllowed(name)) {
+            throw new InvalidClassException(name, "Class is not allowed in a " + ENCODING + " payload");
+        }
+        return Class.forName(name, false, CompactPayloadCodec.class.getClassLoader());
+    }
+
+    /**
+     * @return whether the class, or the element class of an array class, may
+     *         be decoded.
+     */
+    private static boolean isAllowed(final String name) {
+        int dimensions = 0;
+        while (dimensions < name.length() && name.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        String className = name.substring(dimensions);
+        if (dimensions > 0) {
+            if (className.length() == 1) {
+                // An array of primitives
+                return true;
+            }
+            if (!className.startsWith("L") || !className.endsWith(";")) {
+                return false;
+            }
+            className = className.substring(1, className.length() - 1);
+        }
+        if (ALLOWED_JDK_CLASSES.contains(className)) {
+            return true;
+        }
+        for (final String allowedPackage : ALLOWED_PACKAGES) {
+            if (className.startsWith(allowedPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -12,6 +12,9 @@ import javax.jms.Message;
 import javax.jms.MessageListener;
 import javax.jms.ObjectMessage;
 
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
+import org.osgp.adapter.protocol.dlms.application.scheduling.DeviceWorkScheduler;
+import org.osgp.adapter.protocol.dlms.application.scheduling.Lane;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,19 +33,50 @@ public class DeviceRequestMessageListener implements MessageListener {
     @Qualifier("protocolDlmsDeviceRequestMessageProcessorMap")
     private MessageProcessorMap dlmsRequestMessageProcessorMap;
 
+    @Autowired
+    private DlmsMetrics dlmsMetrics;
+
+    @Autowired
+    private DeviceWorkScheduler deviceWorkScheduler;
+
     @Override
     public void onMessage(final Message message) {
+        final long start = System.nanoTime();
+        String messageType = null;
         try {
-            LOGGER.info("Received message of type: {}", message.getJMSType());
+            messageType = message.getJMSType();
+            LOGGER.info("Received message of type: {}", messageType);
+            if (message.getJMSRedelivered()) {
+                this.dlmsMetrics.counter(DlmsMetrics.Counter.JMS_REDELIVERIES, messageType).increment();
+            }
 
             final ObjectMessage objectMessage = (ObjectMessage) message;
 
             final MessageProcessor processor = this.dlmsRequestMessageProcessorMap.getMessageProcessor(objectMessage);
 
-            processor.processMessage(objectMessage);
+            /*
+             * Waits for admission on this consumer thread. The listener
+             * container of the lane has no more consumers than the requests
+             * of the lane that can be admitted at once, so only requests of
+             * other lanes keep it waiting.
+             */
+            final Lane lane = Lane.forJmsPriority(message.getJMSPriority());
+            final long queued = System.nanoTime();
+            this.deviceWorkScheduler.acquire(lane);
+            this.dlmsMetrics.timer(DlmsMetrics.Timer.SCHEDULING_WAIT, lane.name()).recordSince(queued);
+            try {
+                processor.processMessage(objectMessage);
+            } finally {
+                this.deviceWorkScheduler.release();
+            }
 
         } catch (final JMSException ex) {
             LOGGER.error("Exception: {} ", ex.getMessage(), ex);
+        } catch (final InterruptedException ex) {
+            LOGGER.error("Interrupted while waiting to handle message of type: {}", messageType, ex);
+            Thread.currentThread().interrupt();
+        } finally {
+            this.dlmsMetrics.timer(DlmsMetrics.Timer.JMS_PROCESSING, messageType).recordSince(start);
         }
     }
 }
@@ -13,7 +13,10 @@ import javax.annotation.PostConstruct;
 import javax.jms.JMSException;
 import javax.jms.ObjectMessage;
 
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
+import org.osgp.adapter.protocol.dlms.application.services.DlmsDeviceCacheService;
 import org.osgp.adapter.protocol.dlms.application.services.DomainHelperService;
+import org.osgp.adapter.protocol.dlms.application.tracing.RequestTrace;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
 import org.slf4j.Logger;
@@ -48,6 +51,9 @@ public abstract class DeviceRequestMessageProcessor extends DlmsConnectionMessag
     @Autowired
     protected DomainHelperService domainHelperService;
 
+    @Autowired
+    protected DlmsDeviceCacheService dlmsDeviceCacheService;
+
     protected final DeviceRequestMessageType deviceRequestMessageType;
 
     /**
@@ -75,21 +81,28 @@ public abstract class DeviceRequestMessageProcessor extends DlmsConnectionMessag
     public void processMessage(final ObjectMessage message) throws JMSException {
         LOGGER.debug("Processing {} request message", this.deviceRequestMessageType);
 
+        final long start = System.nanoTime();
         MessageMetadata messageMetadata = null;
+        RequestTrace trace = null;
         DlmsConnectionHolder conn = null;
         DlmsDevice device = null;
 
         try {
             messageMetadata = MessageMetadata.fromMessage(message);
+            trace = this.requestTracer.start(messageMetadata);
+            long phaseStart = System.nanoTime();
 
             /**
              * The happy flow for addMeter requires that the dlmsDevice does not exist.
              * Because the findDlmsDevice below throws a runtime exception, we skip this
              * call in the addMeter flow. The AddMeterRequestMessageProcessor will throw the
              * appropriate 'dlmsDevice already exists' error if the dlmsDevice does exists!
+             * Bulk add meter requests are not for a single existing device either.
              */
-            if (!DeviceRequestMessageType.ADD_METER.name().equals(messageMetadata.getMessageType())) {
-                device = this.domainHelperService.findDlmsDevice(messageMetadata);
+            if (!DeviceRequestMessageType.ADD_METER.name().equals(messageMetadata.getMessageType())
+                    && !DeviceRequestMessageType.BULK_ADD_METER.name().equals(messageMetadata.getMessageType())) {
+                device = this.findDlmsDevice(messageMetadata);
+                trace.phase("Find device (including the session provider)", phaseStart);
             }
 
             LOGGER.info("{} called for device: {} for organisation: {}", message.getJMSType(),
@@ -97,28 +110,90 @@ public abstract class DeviceRequestMessageProcessor extends DlmsConnectionMessag
 
             Serializable response = null;
             if (this.usesDeviceConnection()) {
+                phaseStart = System.nanoTime();
                 conn = this.createConnectionForDevice(device, messageMetadata);
-                response = this.handleMessage(conn, device, message.getObject());
+                trace.phase("Connect", phaseStart);
+                phaseStart = System.nanoTime();
+                response = this.handleMessage(conn, device, message.getObject(), messageMetadata);
+                trace.phase("Handle request", phaseStart);
             } else {
+                phaseStart = System.nanoTime();
                 response = this.handleMessage(device, message.getObject());
+                trace.phase("Handle request", phaseStart);
+            }
+
+            CommittableResponse committableResponse = null;
+            if (response instanceof CommittableResponse) {
+                committableResponse = (CommittableResponse) response;
+                response = committableResponse.getResponse();
             }
 
             // Send response
+            phaseStart = System.nanoTime();
             this.sendResponseMessage(messageMetadata, ResponseMessageResultType.OK, null, this.responseMessageSender,
-                    response);
+                    response, this.acceptsCompactPayload(message));
+            trace.phase("Send response", phaseStart);
+
+            if (committableResponse != null) {
+                this.commit(committableResponse, messageMetadata);
+            }
         } catch (final JMSException exception) {
             this.logJmsException(LOGGER, exception, messageMetadata);
         } catch (final Exception exception) {
             // Return original request + exception
             LOGGER.error("Unexpected exception during {}", this.deviceRequestMessageType.name(), exception);
+            if (trace != null) {
+                trace.event("Failed: " + exception);
+                trace.failed();
+            }
 
             this.sendResponseMessage(messageMetadata, ResponseMessageResultType.NOT_OK, exception,
                     this.responseMessageSender, message.getObject());
         } finally {
+            final long phaseStart = System.nanoTime();
             this.doConnectionPostProcessing(device, conn);
+            this.dlmsDeviceCacheService.messageProcessed();
+            if (trace != null) {
+                trace.phase("Close connection", phaseStart);
+                this.requestTracer.finish(trace);
+            }
+            this.dlmsMetrics.timer(DlmsMetrics.Timer.REQUEST, this.deviceRequestMessageType.name()).recordSince(start);
+        }
+    }
+
+    /**
+     * Commits the state that belongs to a response that has been sent. A
+     * failure is only logged, as core already has the response.
+     */
+    private void commit(final CommittableResponse committableResponse, final MessageMetadata messageMetadata) {
+        try {
+            committableResponse.commit();
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unable to commit after sending the {} response for device {}",
+                    this.deviceRequestMessageType, messageMetadata.getDeviceIdentification(), e);
         }
     }
 
+    /**
+     * Looks up the device the message is for. Only when the device will be
+     * communicated with, its IP address is determined (and the connection
+     * circuit breaker is consulted).
+     */
+    private DlmsDevice findDlmsDevice(final MessageMetadata messageMetadata) throws OsgpException {
+        if (this.usesDeviceConnection()) {
+            return this.domainHelperService.findDlmsDevice(messageMetadata);
+        }
+        return this.domainHelperService.findDlmsDevice(messageMetadata.getDeviceIdentification());
+    }
+
+    /**
+     * @return whether core accepts a compactly encoded response to the request
+     *         (see {@link CompactPayloadCodec}).
+     */
+    private boolean acceptsCompactPayload(final ObjectMessage message) throws JMSException {
+        return CompactPayloadCodec.ENCODING.equals(message.getStringProperty(CompactPayloadCodec.ACCEPT_ENCODING));
+    }
+
     protected boolean getBooleanPropertyValue(final ObjectMessage message, final String propertyName)
             throws JMSException {
         return message.propertyExists(propertyName) ? message.getBooleanProperty(propertyName) : false;
@@ -145,6 +220,16 @@ public abstract class DeviceRequestMessageProcessor extends DlmsConnectionMessag
                 "handleMessage(DlmsConnection, DlmsDevice, Serializable) should be overriden by a subclass, or usesDeviceConnection should return false.");
     }
 
+    /**
+     * Like {@link #handleMessage(DlmsConnectionHolder, DlmsDevice, Serializable)},
+     * for implementations that need the metadata of the request message, like
+     * its correlation UID. Delegates to that method by default.
+     */
+    protected Serializable handleMessage(final DlmsConnectionHolder conn, final DlmsDevice device,
+            final Serializable requestObject, final MessageMetadata messageMetadata) throws OsgpException {
+        return this.handleMessage(conn, device, requestObject);
+    }
+
     protected Serializable handleMessage(final DlmsDevice device, final Serializable requestObject)
             throws OsgpException {
         throw new UnsupportedOperationException(
@@ -29,6 +29,9 @@ public enum DeviceRequestMessageType {
     UPDATE_KEY,
     REVOKE_KEY,
     ADD_METER,
+    BULK_ADD_METER,
+    KEY_ROTATION_CAMPAIGN,
+    BULK_READ,
     FIND_EVENTS,
     REQUEST_PERIODIC_METER_DATA,
     SYNCHRONIZE_TIME,
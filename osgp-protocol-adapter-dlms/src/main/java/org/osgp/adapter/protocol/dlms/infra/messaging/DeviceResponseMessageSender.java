@@ -7,9 +7,11 @@
  */
 package org.osgp.adapter.protocol.dlms.infra.messaging;
 
+import java.io.IOException;
+
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Message;
-import javax.jms.ObjectMessage;
 import javax.jms.Session;
 
 import org.apache.commons.lang3.StringUtils;
@@ -30,40 +32,60 @@ public class DeviceResponseMessageSender implements ResponseMessageSender {
     private static final class ProtocolResponseMessageCreator implements MessageCreator {
 
         private final ProtocolResponseMessage responseMessage;
+        private final byte[] compactPayload;
 
         public ProtocolResponseMessageCreator(final ProtocolResponseMessage responseMessage) {
+            this(responseMessage, null);
+        }
+
+        /**
+         * @param compactPayload
+         *            the compactly encoded data object of the response, sent
+         *            in a BytesMessage, or {@code null} to send the response
+         *            in an ObjectMessage.
+         */
+        public ProtocolResponseMessageCreator(final ProtocolResponseMessage responseMessage,
+                final byte[] compactPayload) {
             this.responseMessage = responseMessage;
+            this.compactPayload = compactPayload;
         }
 
         @Override
         public Message createMessage(final Session session) throws JMSException {
-            final ObjectMessage objectMessage = session.createObjectMessage(this.responseMessage);
-            objectMessage.setJMSCorrelationID(this.responseMessage.getCorrelationUid());
-            objectMessage.setStringProperty(Constants.DOMAIN, this.responseMessage.getDomain());
-            objectMessage.setStringProperty(Constants.DOMAIN_VERSION, this.responseMessage.getDomainVersion());
-            objectMessage.setJMSType(this.responseMessage.getMessageType());
-            objectMessage.setJMSPriority(this.responseMessage.getMessagePriority());
-            objectMessage.setStringProperty(Constants.ORGANISATION_IDENTIFICATION,
+            final Message message;
+            if (this.compactPayload == null) {
+                message = session.createObjectMessage(this.responseMessage);
+            } else {
+                final BytesMessage bytesMessage = session.createBytesMessage();
+                bytesMessage.writeBytes(this.compactPayload);
+                bytesMessage.setStringProperty(CompactPayloadCodec.PAYLOAD_ENCODING, CompactPayloadCodec.ENCODING);
+                message = bytesMessage;
+            }
+            message.setJMSCorrelationID(this.responseMessage.getCorrelationUid());
+            message.setStringProperty(Constants.DOMAIN, this.responseMessage.getDomain());
+            message.setStringProperty(Constants.DOMAIN_VERSION, this.responseMessage.getDomainVersion());
+            message.setJMSType(this.responseMessage.getMessageType());
+            message.setJMSPriority(this.responseMessage.getMessagePriority());
+            message.setStringProperty(Constants.ORGANISATION_IDENTIFICATION,
                     this.responseMessage.getOrganisationIdentification());
-            objectMessage.setStringProperty(Constants.DEVICE_IDENTIFICATION,
+            message.setStringProperty(Constants.DEVICE_IDENTIFICATION,
                     this.responseMessage.getDeviceIdentification());
-            objectMessage.setStringProperty(Constants.RESULT, this.responseMessage.getResult().toString());
+            message.setStringProperty(Constants.RESULT, this.responseMessage.getResult().toString());
             if (this.responseMessage.getOsgpException() != null) {
-                objectMessage.setStringProperty(Constants.DESCRIPTION,
+                message.setStringProperty(Constants.DESCRIPTION,
                         this.responseMessage.getOsgpException().getMessage());
             }
-            objectMessage.setBooleanProperty(Constants.IS_SCHEDULED, this.responseMessage.isScheduled());
-            objectMessage.setIntProperty(Constants.RETRY_COUNT, this.responseMessage.getRetryCount());
-            objectMessage.setBooleanProperty(Constants.BYPASS_RETRY, this.responseMessage.bypassRetry());
+            message.setBooleanProperty(Constants.IS_SCHEDULED, this.responseMessage.isScheduled());
+            message.setIntProperty(Constants.RETRY_COUNT, this.responseMessage.getRetryCount());
+            message.setBooleanProperty(Constants.BYPASS_RETRY, this.responseMessage.bypassRetry());
 
             if (this.responseMessage.getRetryHeader().shouldRetry()) {
-                objectMessage.setIntProperty(Constants.MAX_RETRIES,
-                        this.responseMessage.getRetryHeader().getMaxRetries());
-                objectMessage.setLongProperty(Constants.SCHEDULE_TIME,
+                message.setIntProperty(Constants.MAX_RETRIES, this.responseMessage.getRetryHeader().getMaxRetries());
+                message.setLongProperty(Constants.SCHEDULE_TIME,
                         this.responseMessage.getRetryHeader().getScheduledRetryTime().getTime());
             }
 
-            return objectMessage;
+            return message;
         }
     }
 
@@ -73,8 +95,20 @@ public class DeviceResponseMessageSender implements ResponseMessageSender {
     @Qualifier("dlmsResponsesJmsTemplate")
     private JmsTemplate dlmsResponsesJmsTemplate;
 
+    @Autowired
+    private CompactPayloadCodec compactPayloadCodec;
+
     @Override
     public void send(final ResponseMessage responseMessage) {
+        this.send(responseMessage, false);
+    }
+
+    /**
+     * Sends the response, with its data object compactly encoded if the request
+     * accepted that and the data object is a large response type (see
+     * {@link CompactPayloadCodec}).
+     */
+    public void send(final ResponseMessage responseMessage, final boolean compactPayloadAccepted) {
         if (!(responseMessage instanceof ProtocolResponseMessage)) {
             LOGGER.error("Only ProtocolResponseMessage type is expected for DeviceResponseMessageSender");
             return;
@@ -86,7 +120,11 @@ public class DeviceResponseMessageSender implements ResponseMessageSender {
             return;
         }
 
-        this.sendMessage(msg);
+        if (compactPayloadAccepted && this.compactPayloadCodec.isEncoded(msg.getDataObject())) {
+            this.sendCompactMessage(msg);
+        } else {
+            this.sendMessage(msg);
+        }
     }
 
     private boolean checkMessage(final ProtocolResponseMessage msg) {
@@ -121,4 +159,17 @@ public class DeviceResponseMessageSender implements ResponseMessageSender {
     private void sendMessage(final ProtocolResponseMessage responseMessage) {
         this.dlmsResponsesJmsTemplate.send(new ProtocolResponseMessageCreator(responseMessage));
     }
+
+    private void sendCompactMessage(final ProtocolResponseMessage responseMessage) {
+        final byte[] compactPayload;
+        try {
+            compactPayload = this.compactPayloadCodec.encode(responseMessage.getDataObject());
+        } catch (final IOException e) {
+            LOGGER.warn("Unable to encode {} response compactly, sending it serialized",
+                    responseMessage.getMessageType(), e);
+            this.sendMessage(responseMessage);
+            return;
+        }
+        this.dlmsResponsesJmsTemplate.send(new ProtocolResponseMessageCreator(responseMessage, compactPayload));
+    }
 }
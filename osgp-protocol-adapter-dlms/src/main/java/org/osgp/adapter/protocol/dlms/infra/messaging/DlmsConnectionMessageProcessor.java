@@ -11,7 +11,10 @@ import java.io.Serializable;
 
 import javax.jms.JMSException;
 
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
 import org.osgp.adapter.protocol.dlms.application.services.SecurityKeyService;
+import org.osgp.adapter.protocol.dlms.application.tracing.RequestTrace;
+import org.osgp.adapter.protocol.dlms.application.tracing.RequestTracer;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.entities.SecurityKeyType;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionFactory;
@@ -53,6 +56,12 @@ public abstract class DlmsConnectionMessageProcessor {
     @Autowired
     private RetryHeaderFactory retryHeaderFactory;
 
+    @Autowired
+    protected DlmsMetrics dlmsMetrics;
+
+    @Autowired
+    protected RequestTracer requestTracer;
+
     protected DlmsConnectionHolder createConnectionForDevice(final DlmsDevice device,
             final MessageMetadata messageMetadata) throws OsgpException {
 
@@ -69,10 +78,16 @@ public abstract class DlmsConnectionMessageProcessor {
                     this.dlmsLogItemRequestMessageSender);
             dlmsMessageListener.setMessageMetadata(messageMetadata);
             dlmsMessageListener.setDescription("Create connection");
-        } else if (device.isHls5Active()) {
-            dlmsMessageListener = new InvocationCountingDlmsMessageListener();
         } else {
-            dlmsMessageListener = null;
+            /*
+             * Counting is needed for the invocation counter of HLS 5 devices,
+             * and for the APDU and byte metrics of all devices.
+             */
+            dlmsMessageListener = new InvocationCountingDlmsMessageListener();
+        }
+        final RequestTrace trace = this.requestTracer.current();
+        if (trace.isRecording()) {
+            dlmsMessageListener.setRequestTrace(trace);
         }
         return dlmsMessageListener;
     }
@@ -88,6 +103,7 @@ public abstract class DlmsConnectionMessageProcessor {
         }
 
         this.closeDlmsConnection(device, conn);
+        this.countTraffic(conn);
 
         if (device.isHls5Active()) {
             this.updateInvocationCounterForEncryptionKey(device, conn);
@@ -105,6 +121,21 @@ public abstract class DlmsConnectionMessageProcessor {
         }
     }
 
+    private void countTraffic(final DlmsConnectionHolder conn) {
+        if (!(conn.getDlmsMessageListener() instanceof InvocationCountingDlmsMessageListener)) {
+            return;
+        }
+        final InvocationCountingDlmsMessageListener dlmsMessageListener = (InvocationCountingDlmsMessageListener) conn
+                .getDlmsMessageListener();
+        this.dlmsMetrics.counter(DlmsMetrics.Counter.APDUS_SENT).add(dlmsMessageListener.getNumberOfSentMessages());
+        this.dlmsMetrics.counter(DlmsMetrics.Counter.APDUS_RECEIVED)
+                .add(dlmsMessageListener.getNumberOfReceivedMessages());
+        this.dlmsMetrics.counter(DlmsMetrics.Counter.BYTES_SENT).add(dlmsMessageListener.getNumberOfSentBytes());
+        this.dlmsMetrics.counter(DlmsMetrics.Counter.BYTES_RECEIVED)
+                .add(dlmsMessageListener.getNumberOfReceivedBytes());
+        this.dlmsMetrics.counter(DlmsMetrics.Counter.CONNECTIONS_COUNTED).increment();
+    }
+
     protected void updateInvocationCounterForEncryptionKey(final DlmsDevice device, final DlmsConnectionHolder conn) {
 
         if (!(conn.getDlmsMessageListener() instanceof InvocationCountingDlmsMessageListener)) {
@@ -155,6 +186,25 @@ public abstract class DlmsConnectionMessageProcessor {
             final Exception exception, final DeviceResponseMessageSender responseMessageSender,
             final Serializable responseObject) {
 
+        responseMessageSender.send(this.createResponseMessage(messageMetadata, result, exception, responseObject));
+    }
+
+    /**
+     * Like {@link #sendResponseMessage(MessageMetadata, ResponseMessageResultType,
+     * Exception, DeviceResponseMessageSender, Serializable)}, for a request that
+     * may accept a compactly encoded response.
+     */
+    protected void sendResponseMessage(final MessageMetadata messageMetadata, final ResponseMessageResultType result,
+            final Exception exception, final DeviceResponseMessageSender responseMessageSender,
+            final Serializable responseObject, final boolean compactPayloadAccepted) {
+
+        responseMessageSender.send(this.createResponseMessage(messageMetadata, result, exception, responseObject),
+                compactPayloadAccepted);
+    }
+
+    private ProtocolResponseMessage createResponseMessage(final MessageMetadata messageMetadata,
+            final ResponseMessageResultType result, final Exception exception, final Serializable responseObject) {
+
         OsgpException osgpException = null;
         if (exception != null) {
             osgpException = this.osgpExceptionConverter.ensureOsgpOrTechnicalException(exception);
@@ -167,12 +217,10 @@ public abstract class DlmsConnectionMessageProcessor {
             retryHeader = this.retryHeaderFactory.createEmtpyRetryHeader();
         }
 
-        final ProtocolResponseMessage responseMessage = new ProtocolResponseMessage.Builder()
+        return new ProtocolResponseMessage.Builder()
                 .deviceMessageMetadata(new DeviceMessageMetadata(messageMetadata)).domain(messageMetadata.getDomain())
                 .domainVersion(messageMetadata.getDomainVersion()).result(result).osgpException(osgpException)
                 .dataObject(responseObject).retryCount(messageMetadata.getRetryCount()).retryHeader(retryHeader)
                 .scheduled(messageMetadata.isScheduled()).build();
-
-        responseMessageSender.send(responseMessage);
     }
 }
@@ -8,9 +8,11 @@
 package org.osgp.adapter.protocol.dlms.infra.messaging;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openmuc.jdlms.RawMessageData;
 import org.openmuc.jdlms.RawMessageData.MessageSource;
+import org.osgp.adapter.protocol.dlms.application.tracing.RequestTrace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,11 +24,31 @@ public class InvocationCountingDlmsMessageListener implements DlmsMessageListene
 
     private AtomicInteger numberOfSentMessages = new AtomicInteger(0);
 
+    private AtomicInteger numberOfReceivedMessages = new AtomicInteger(0);
+
+    private AtomicLong numberOfSentBytes = new AtomicLong(0);
+
+    private AtomicLong numberOfReceivedBytes = new AtomicLong(0);
+
+    private volatile RequestTrace requestTrace;
+
     @Override
     public void messageCaptured(final RawMessageData rawMessageData) {
 
-        if (MessageSource.CLIENT == rawMessageData.getMessageSource()) {
+        final byte[] message = rawMessageData.getMessage();
+        final int length = message == null ? 0 : message.length;
+        final boolean sent = MessageSource.CLIENT == rawMessageData.getMessageSource();
+        if (sent) {
             this.numberOfSentMessages.incrementAndGet();
+            this.numberOfSentBytes.addAndGet(length);
+        } else {
+            this.numberOfReceivedMessages.incrementAndGet();
+            this.numberOfReceivedBytes.addAndGet(length);
+        }
+
+        final RequestTrace trace = this.requestTrace;
+        if (trace != null) {
+            trace.apdu(sent, length);
         }
     }
 
@@ -38,9 +60,34 @@ public class InvocationCountingDlmsMessageListener implements DlmsMessageListene
     @Override
     public void setDescription(final String description) {
         LOGGER.debug("InvocationCountingDlmsMessageListener will be listening for \"{}\"", description);
+
+        final RequestTrace trace = this.requestTrace;
+        if (trace != null) {
+            trace.event(description);
+        }
+    }
+
+    /**
+     * Records the APDUs and the descriptions of the communication steps on the
+     * timeline of the request.
+     */
+    public void setRequestTrace(final RequestTrace requestTrace) {
+        this.requestTrace = requestTrace;
     }
 
     public int getNumberOfSentMessages() {
         return this.numberOfSentMessages.get();
     }
+
+    public int getNumberOfReceivedMessages() {
+        return this.numberOfReceivedMessages.get();
+    }
+
+    public long getNumberOfSentBytes() {
+        return this.numberOfSentBytes.get();
+    }
+
+    public long getNumberOfReceivedBytes() {
+        return this.numberOfReceivedBytes.get();
+    }
 }
@@ -168,6 +168,7 @@ public class LoggingDlmsMessageListener extends InvocationCountingDlmsMessageLis
 
     @Override
     public void setDescription(final String description) {
+        super.setDescription(description);
         if (StringUtils.isBlank(description)) {
             this.description = null;
         } else {
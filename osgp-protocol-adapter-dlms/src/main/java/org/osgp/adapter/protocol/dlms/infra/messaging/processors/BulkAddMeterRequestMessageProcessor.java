@@ -0,0 +1,58 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.infra.messaging.processors;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+
+import org.osgp.adapter.protocol.dlms.application.services.BulkInstallationService;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.BulkAddMeterResult;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageProcessor;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.SmartMeteringDeviceDto;
+import com.alliander.osgp.shared.exceptionhandling.OsgpException;
+
+/**
+ * Class for processing bulk add meter request messages, containing a list of
+ * meters to add.
+ * <p>
+ * The response maps the identification of each meter that could not be added
+ * to the reason of failure.
+ */
+@Component
+public class BulkAddMeterRequestMessageProcessor extends DeviceRequestMessageProcessor {
+
+    @Autowired
+    private BulkInstallationService bulkInstallationService;
+
+    public BulkAddMeterRequestMessageProcessor() {
+        super(DeviceRequestMessageType.BULK_ADD_METER);
+    }
+
+    @Override
+    protected boolean usesDeviceConnection() {
+        return false;
+    }
+
+    @Override
+    protected Serializable handleMessage(final DlmsDevice device, final Serializable requestObject)
+            throws OsgpException {
+        this.assertRequestObjectType(List.class, requestObject);
+
+        @SuppressWarnings("unchecked")
+        final List<SmartMeteringDeviceDto> smartMeteringDevices = (List<SmartMeteringDeviceDto>) requestObject;
+        final BulkAddMeterResult result = this.bulkInstallationService.addMeters(smartMeteringDevices.stream());
+
+        return new HashMap<>(result.getFailures());
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.infra.messaging.processors;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import javax.jms.JMSException;
+import javax.jms.ObjectMessage;
+
+import org.apache.commons.lang3.StringUtils;
+import org.osgp.adapter.protocol.dlms.application.services.BulkReadService;
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadPlan;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageProcessor;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.shared.infra.jms.MessageMetadata;
+import com.alliander.osgp.shared.infra.jms.ResponseMessageResultType;
+
+/**
+ * Class for processing bulk read request messages, containing the
+ * identifications of the devices to read, mapped to their IP address. The
+ * message properties {@value #PERIOD_TYPES} (comma separated),
+ * {@value #BEGIN_DATE} and {@value #END_DATE} (milliseconds since the epoch)
+ * tell what to read. The correlation UID of the message identifies the plan;
+ * sending devices again with the same correlation UID adds them to the plan.
+ * <p>
+ * The plan runs in the background, the response is sent once the plan has
+ * been scheduled. The results are sent per device, with the correlation UID of
+ * the plan.
+ */
+@Component
+public class BulkReadRequestMessageProcessor extends DeviceRequestMessageProcessor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkReadRequestMessageProcessor.class);
+
+    static final String PERIOD_TYPES = "PeriodTypes";
+    static final String BEGIN_DATE = "BeginDate";
+    static final String END_DATE = "EndDate";
+
+    @Autowired
+    private BulkReadService bulkReadService;
+
+    public BulkReadRequestMessageProcessor() {
+        super(DeviceRequestMessageType.BULK_READ);
+    }
+
+    @Override
+    public void processMessage(final ObjectMessage message) throws JMSException {
+        LOGGER.debug("Processing {} request message", this.deviceRequestMessageType);
+        MessageMetadata messageMetadata = null;
+        Serializable requestObject = null;
+
+        try {
+            messageMetadata = MessageMetadata.fromMessage(message);
+            requestObject = message.getObject();
+            this.assertRequestObjectType(Map.class, requestObject);
+
+            @SuppressWarnings("unchecked")
+            final Map<String, String> ipAddressPerDevice = (Map<String, String>) requestObject;
+            LOGGER.info("{} called for {} devices for organisation: {}", messageMetadata.getMessageType(),
+                    ipAddressPerDevice.size(), messageMetadata.getOrganisationIdentification());
+
+            final List<PeriodTypeDto> periodTypes = new ArrayList<>();
+            for (final String periodType : StringUtils.split(message.getStringProperty(PERIOD_TYPES), ',')) {
+                periodTypes.add(PeriodTypeDto.valueOf(periodType.trim()));
+            }
+            final BulkReadPlan plan = new BulkReadPlan(messageMetadata.getCorrelationUid(),
+                    messageMetadata.getOrganisationIdentification(), messageMetadata.getDomain(),
+                    messageMetadata.getDomainVersion(), messageMetadata.getMessagePriority(), periodTypes,
+                    new Date(message.getLongProperty(BEGIN_DATE)), new Date(message.getLongProperty(END_DATE)));
+            this.bulkReadService.startPlan(plan, ipAddressPerDevice);
+
+            this.sendResponseMessage(messageMetadata, ResponseMessageResultType.OK, null, this.responseMessageSender,
+                    null);
+        } catch (final JMSException exception) {
+            this.logJmsException(LOGGER, exception, messageMetadata);
+        } catch (final Exception exception) {
+            LOGGER.error("Unexpected exception during {}", this.deviceRequestMessageType.name(), exception);
+
+            this.sendResponseMessage(messageMetadata, ResponseMessageResultType.NOT_OK, exception,
+                    this.responseMessageSender, requestObject);
+        }
+    }
+}
@@ -9,14 +9,18 @@ package org.osgp.adapter.protocol.dlms.infra.messaging.processors;
 
 import java.io.Serializable;
 
+import org.osgp.adapter.protocol.dlms.application.services.EventLogHighWaterMarkService;
 import org.osgp.adapter.protocol.dlms.application.services.ManagementService;
+import org.osgp.adapter.protocol.dlms.domain.commands.RetrieveEventsCommandExecutor.RetrievedEvents;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.infra.messaging.CommittableResponse;
 import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageProcessor;
 import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventMessageDataResponseDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FindEventsRequestList;
 import com.alliander.osgp.shared.exceptionhandling.OsgpException;
 
@@ -29,6 +33,9 @@ public class FindEventsRequestMessageProcessor extends DeviceRequestMessageProce
     @Autowired
     private ManagementService managementService;
 
+    @Autowired
+    private EventLogHighWaterMarkService eventLogHighWaterMarkService;
+
     public FindEventsRequestMessageProcessor() {
         super(DeviceRequestMessageType.FIND_EVENTS);
     }
@@ -39,6 +46,14 @@ public class FindEventsRequestMessageProcessor extends DeviceRequestMessageProce
 
         this.assertRequestObjectType(FindEventsRequestList.class, requestObject);
 
-        return this.managementService.findEvents(conn, device, (FindEventsRequestList) requestObject);
+        final RetrievedEvents retrievedEvents = this.managementService.findEvents(conn, device,
+                (FindEventsRequestList) requestObject);
+
+        /*
+         * The high-water marks are only saved once core has the events, so
+         * events are never skipped when sending the response fails.
+         */
+        return new CommittableResponse(new EventMessageDataResponseDto(retrievedEvents.getEvents()),
+                () -> this.eventLogHighWaterMarkService.saveHighWaterMarks(retrievedEvents.getHighWaterMarks()));
     }
 }
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.infra.messaging.processors;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import javax.jms.JMSException;
+import javax.jms.ObjectMessage;
+
+import org.osgp.adapter.protocol.dlms.application.services.KeyRotationCampaignService;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageProcessor;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.alliander.osgp.shared.infra.jms.MessageMetadata;
+import com.alliander.osgp.shared.infra.jms.ResponseMessageResultType;
+
+/**
+ * Class for processing key rotation campaign request messages, containing the
+ * identifications of the devices to rotate the keys for, mapped to their IP
+ * address. The correlation UID of the message identifies the campaign; sending
+ * devices again with the same correlation UID adds them to the campaign.
+ * <p>
+ * The campaign runs in the background, the response is sent once the campaign
+ * has been scheduled.
+ */
+@Component
+public class KeyRotationCampaignRequestMessageProcessor extends DeviceRequestMessageProcessor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyRotationCampaignRequestMessageProcessor.class);
+
+    @Autowired
+    private KeyRotationCampaignService keyRotationCampaignService;
+
+    public KeyRotationCampaignRequestMessageProcessor() {
+        super(DeviceRequestMessageType.KEY_ROTATION_CAMPAIGN);
+    }
+
+    @Override
+    public void processMessage(final ObjectMessage message) throws JMSException {
+        LOGGER.debug("Processing {} request message", this.deviceRequestMessageType);
+        MessageMetadata messageMetadata = null;
+        Serializable requestObject = null;
+
+        try {
+            messageMetadata = MessageMetadata.fromMessage(message);
+            requestObject = message.getObject();
+            this.assertRequestObjectType(Map.class, requestObject);
+
+            @SuppressWarnings("unchecked")
+            final Map<String, String> ipAddressPerDevice = (Map<String, String>) requestObject;
+            LOGGER.info("{} called for {} devices for organisation: {}", messageMetadata.getMessageType(),
+                    ipAddressPerDevice.size(), messageMetadata.getOrganisationIdentification());
+            this.keyRotationCampaignService.startCampaign(messageMetadata.getCorrelationUid(), ipAddressPerDevice);
+
+            this.sendResponseMessage(messageMetadata, ResponseMessageResultType.OK, null, this.responseMessageSender,
+                    null);
+        } catch (final JMSException exception) {
+            this.logJmsException(LOGGER, exception, messageMetadata);
+        } catch (final Exception exception) {
+            LOGGER.error("Unexpected exception during {}", this.deviceRequestMessageType.name(), exception);
+
+            this.sendResponseMessage(messageMetadata, ResponseMessageResultType.NOT_OK, exception,
+                    this.responseMessageSender, requestObject);
+        }
+    }
+}
@@ -10,8 +10,10 @@ package org.osgp.adapter.protocol.dlms.infra.messaging.processors;
 import java.io.Serializable;
 
 import org.osgp.adapter.protocol.dlms.application.services.MonitoringService;
+import org.osgp.adapter.protocol.dlms.application.services.PeriodicMeterReadsCheckpointService;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.infra.messaging.CommittableResponse;
 import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageProcessor;
 import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceRequestMessageType;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +21,7 @@ import org.springframework.stereotype.Component;
 
 import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsRequestDto;
 import com.alliander.osgp.shared.exceptionhandling.OsgpException;
+import com.alliander.osgp.shared.infra.jms.MessageMetadata;
 
 /**
  * Class for processing Periodic Meter Request messages
@@ -29,18 +32,31 @@ public class PeriodicMeterReadsRequestMessageProcessor extends DeviceRequestMess
     @Autowired
     private MonitoringService monitoringService;
 
+    @Autowired
+    private PeriodicMeterReadsCheckpointService periodicMeterReadsCheckpointService;
+
     public PeriodicMeterReadsRequestMessageProcessor() {
         super(DeviceRequestMessageType.REQUEST_PERIODIC_METER_DATA);
     }
 
     @Override
     protected Serializable handleMessage(final DlmsConnectionHolder conn, final DlmsDevice device,
-            final Serializable requestObject) throws OsgpException {
+            final Serializable requestObject, final MessageMetadata messageMetadata) throws OsgpException {
 
         this.assertRequestObjectType(PeriodicMeterReadsRequestDto.class, requestObject);
 
         final PeriodicMeterReadsRequestDto periodicMeterReadsQuery = (PeriodicMeterReadsRequestDto) requestObject;
 
-        return this.monitoringService.requestPeriodicMeterReads(conn, device, periodicMeterReadsQuery);
+        final String correlationUid = messageMetadata.getCorrelationUid();
+        final Serializable response = this.monitoringService.requestPeriodicMeterReads(conn, device,
+                periodicMeterReadsQuery, correlationUid);
+
+        /*
+         * The windows of interval values that were read are kept until core
+         * has the response, so a retry after failing to send it does not read
+         * them from the device again.
+         */
+        return new CommittableResponse(response,
+                () -> this.periodicMeterReadsCheckpointService.evict(correlationUid));
     }
 }
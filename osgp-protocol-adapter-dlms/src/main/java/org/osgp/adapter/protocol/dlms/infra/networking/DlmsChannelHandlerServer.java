@@ -8,10 +8,14 @@
 package org.osgp.adapter.protocol.dlms.infra.networking;
 
 import java.net.InetSocketAddress;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.UUID;
 
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.channel.MessageEvent;
+import org.osgp.adapter.protocol.dlms.domain.factories.ConnectionCircuitBreaker;
+import org.osgp.adapter.protocol.dlms.domain.repositories.MbusChannelCachingRepository;
 import org.osgp.adapter.protocol.dlms.infra.messaging.requests.to.core.OsgpRequestMessageSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +23,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import com.alliander.osgp.dlms.DlmsPushNotification;
 import com.alliander.osgp.dto.valueobjects.DeviceFunctionDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.AlarmTypeDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.PushNotificationAlarmDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.PushNotificationSmsDto;
 import com.alliander.osgp.shared.infra.jms.RequestMessage;
@@ -30,9 +35,25 @@ public class DlmsChannelHandlerServer extends DlmsChannelHandler {
     private static final String PUSH_ALARM_TRIGGER = "Push alarm monitor";
     private static final String PUSH_SMS_TRIGGER = "Push sms wakeup";
 
+    private static final Map<AlarmTypeDto, Short> CHANNEL_PER_NEW_M_BUS_DEVICE_ALARM = new EnumMap<>(
+            AlarmTypeDto.class);
+
+    static {
+        CHANNEL_PER_NEW_M_BUS_DEVICE_ALARM.put(AlarmTypeDto.NEW_M_BUS_DEVICE_DISCOVERED_CHANNEL_1, (short) 1);
+        CHANNEL_PER_NEW_M_BUS_DEVICE_ALARM.put(AlarmTypeDto.NEW_M_BUS_DEVICE_DISCOVERED_CHANNEL_2, (short) 2);
+        CHANNEL_PER_NEW_M_BUS_DEVICE_ALARM.put(AlarmTypeDto.NEW_M_BUS_DEVICE_DISCOVERED_CHANNEL_3, (short) 3);
+        CHANNEL_PER_NEW_M_BUS_DEVICE_ALARM.put(AlarmTypeDto.NEW_M_BUS_DEVICE_DISCOVERED_CHANNEL_4, (short) 4);
+    }
+
     @Autowired
     private OsgpRequestMessageSender osgpRequestMessageSender;
 
+    @Autowired
+    private ConnectionCircuitBreaker connectionCircuitBreaker;
+
+    @Autowired
+    private MbusChannelCachingRepository mbusChannelCachingRepository;
+
     @Override
     public void messageReceived(final ChannelHandlerContext ctx, final MessageEvent e) throws Exception {
 
@@ -42,6 +63,9 @@ public class DlmsChannelHandlerServer extends DlmsChannelHandler {
         final String deviceIdentification = message.getEquipmentIdentifier();
         final String ipAddress = this.retrieveIpAddress(ctx, deviceIdentification);
 
+        // A device pushing a notification is reachable again.
+        this.connectionCircuitBreaker.deviceReachable(deviceIdentification);
+
         this.processPushedMessage(message, correlationId, deviceIdentification, ipAddress);
     }
 
@@ -61,6 +85,7 @@ public class DlmsChannelHandlerServer extends DlmsChannelHandler {
     private void processPushedAlarm(final DlmsPushNotification message, final String correlationId,
             final String deviceIdentification, final String ipAddress) {
         this.logMessage(message);
+        this.evictChannelsWithNewMbusDevices(deviceIdentification, message);
 
         final PushNotificationAlarmDto pushNotificationAlarm = new PushNotificationAlarmDto(deviceIdentification,
                 message.getAlarms(), message.toByteArray());
@@ -72,6 +97,20 @@ public class DlmsChannelHandlerServer extends DlmsChannelHandler {
         this.osgpRequestMessageSender.send(requestMessage, DeviceFunctionDto.PUSH_NOTIFICATION_ALARM.name(), null);
     }
 
+    /**
+     * Core couples an M-Bus device discovered on a channel by reading the
+     * channel, which should not be answered from the cache.
+     */
+    private void evictChannelsWithNewMbusDevices(final String deviceIdentification,
+            final DlmsPushNotification message) {
+        for (final AlarmTypeDto alarm : message.getAlarms()) {
+            final Short channel = CHANNEL_PER_NEW_M_BUS_DEVICE_ALARM.get(alarm);
+            if (channel != null) {
+                this.mbusChannelCachingRepository.evict(deviceIdentification, channel);
+            }
+        }
+    }
+
     private void processPushedSms(final DlmsPushNotification message, final String correlationId,
             final String deviceIdentification, final String ipAddress) {
         this.logMessage(message);
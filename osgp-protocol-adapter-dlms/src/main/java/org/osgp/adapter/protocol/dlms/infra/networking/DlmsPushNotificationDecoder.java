@@ -40,6 +40,8 @@ public class DlmsPushNotificationDecoder extends ReplayingDecoder<DlmsPushNotifi
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DlmsPushNotificationDecoder.class);
 
+    private static final AlarmHelperService ALARM_HELPER_SERVICE = new AlarmHelperService();
+
     /**
      * The elements inside the DLMS Push notification (Alarm or Wakeup SMS are
      * expressed in bytes separated by a comma (byte 0x2C).
@@ -154,7 +156,7 @@ public class DlmsPushNotificationDecoder extends ReplayingDecoder<DlmsPushNotifi
         final byte[] alarmBytes = new byte[NUMBER_OF_BYTES_FOR_ALARM];
         buffer.readBytes(alarmBytes, 0, NUMBER_OF_BYTES_FOR_ALARM);
 
-        final Set<AlarmTypeDto> alarms = new AlarmHelperService().toAlarmTypes(ByteBuffer.wrap(alarmBytes).getInt());
+        final Set<AlarmTypeDto> alarms = ALARM_HELPER_SERVICE.toAlarmTypes(ByteBuffer.wrap(alarmBytes).getInt());
 
         this.builder.withTriggerType(PUSH_ALARM_TRIGGER);
         this.builder.withAlarms(alarms);
@@ -0,0 +1,31 @@
+DO
+$$
+BEGIN
+
+IF NOT EXISTS (SELECT 1 FROM information_schema.tables
+    WHERE table_schema=current_schema
+    AND table_name = 'key_rotation_campaign_device') THEN
+
+CREATE TABLE key_rotation_campaign_device (
+    id bigserial NOT NULL,
+    creation_time timestamp without time zone NOT NULL,
+    modification_time timestamp without time zone NOT NULL,
+    version bigint,
+    campaign_identification character varying(255) NOT NULL,
+    device_identification character varying(40) NOT NULL,
+    ip_address character varying(50),
+    status character varying(20) NOT NULL,
+    attempts integer NOT NULL DEFAULT 0,
+    last_failure character varying(255),
+    CONSTRAINT key_rotation_campaign_device_pkey PRIMARY KEY (id),
+    CONSTRAINT key_rotation_campaign_device_key UNIQUE (campaign_identification, device_identification)
+);
+
+ALTER TABLE public.key_rotation_campaign_device OWNER TO osp_admin;
+
+CREATE INDEX key_rotation_campaign_device_status_idx ON key_rotation_campaign_device (status, campaign_identification);
+
+END IF;
+
+END;
+$$
@@ -0,0 +1,27 @@
+DO
+$$
+BEGIN
+
+IF NOT EXISTS (SELECT 1 FROM information_schema.tables
+    WHERE table_schema=current_schema
+    AND table_name = 'event_log_high_water_mark') THEN
+
+CREATE TABLE event_log_high_water_mark (
+    id bigserial NOT NULL,
+    creation_time timestamp without time zone NOT NULL,
+    modification_time timestamp without time zone NOT NULL,
+    version bigint,
+    device_identification character varying(40) NOT NULL,
+    event_log_category character varying(40) NOT NULL,
+    last_event_time timestamp without time zone,
+    events_at_last_event_time integer NOT NULL DEFAULT 0,
+    CONSTRAINT event_log_high_water_mark_pkey PRIMARY KEY (id),
+    CONSTRAINT event_log_high_water_mark_key UNIQUE (device_identification, event_log_category)
+);
+
+ALTER TABLE public.event_log_high_water_mark OWNER TO osp_admin;
+
+END IF;
+
+END;
+$$
@@ -0,0 +1,14 @@
+DO $$
+BEGIN
+
+IF NOT EXISTS (
+    SELECT 1 FROM information_schema.columns
+    WHERE table_schema=current_schema
+    AND table_name = 'dlms_device'
+    AND column_name='active_firmware_version'
+) THEN
+    ALTER TABLE ONLY dlms_device ADD COLUMN active_firmware_version character varying(255);
+END IF;
+
+END;
+$$
@@ -0,0 +1,14 @@
+DO $$
+BEGIN
+
+IF NOT EXISTS (
+    SELECT 1 FROM information_schema.columns
+    WHERE table_schema=current_schema
+    AND table_name = 'dlms_device'
+    AND column_name='max_get_with_list_size'
+) THEN
+    ALTER TABLE ONLY dlms_device ADD COLUMN max_get_with_list_size integer;
+END IF;
+
+END;
+$$
@@ -0,0 +1,16 @@
+DO $$
+BEGIN
+
+IF NOT EXISTS (
+    SELECT 1
+    FROM   pg_catalog.pg_class c
+    JOIN   pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+    WHERE  c.relname = 'dlms_device_mbus_identification_idx'
+    AND    n.nspname = current_schema
+    ) THEN
+    CREATE INDEX dlms_device_mbus_identification_idx
+        ON dlms_device (mbus_identification_number, mbus_manufacturer_identification);
+END IF;
+
+END;
+$$
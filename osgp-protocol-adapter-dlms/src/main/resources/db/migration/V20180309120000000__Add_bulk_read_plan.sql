@@ -0,0 +1,57 @@
+DO
+$$
+BEGIN
+
+IF NOT EXISTS (SELECT 1 FROM information_schema.tables
+    WHERE table_schema=current_schema
+    AND table_name = 'bulk_read_plan') THEN
+
+CREATE TABLE bulk_read_plan (
+    id bigserial NOT NULL,
+    creation_time timestamp without time zone NOT NULL,
+    modification_time timestamp without time zone NOT NULL,
+    version bigint,
+    plan_identification character varying(255) NOT NULL,
+    organisation_identification character varying(40) NOT NULL,
+    domain character varying(255) NOT NULL,
+    domain_version character varying(255) NOT NULL,
+    message_priority integer NOT NULL,
+    period_types character varying(50) NOT NULL,
+    begin_date timestamp without time zone NOT NULL,
+    end_date timestamp without time zone NOT NULL,
+    CONSTRAINT bulk_read_plan_pkey PRIMARY KEY (id),
+    CONSTRAINT bulk_read_plan_key UNIQUE (plan_identification)
+);
+
+ALTER TABLE public.bulk_read_plan OWNER TO osp_admin;
+
+END IF;
+
+IF NOT EXISTS (SELECT 1 FROM information_schema.tables
+    WHERE table_schema=current_schema
+    AND table_name = 'bulk_read_plan_device') THEN
+
+CREATE TABLE bulk_read_plan_device (
+    id bigserial NOT NULL,
+    creation_time timestamp without time zone NOT NULL,
+    modification_time timestamp without time zone NOT NULL,
+    version bigint,
+    plan_identification character varying(255) NOT NULL,
+    device_identification character varying(40) NOT NULL,
+    ip_address character varying(50),
+    status character varying(20) NOT NULL,
+    attempts integer NOT NULL DEFAULT 0,
+    last_failure character varying(255),
+    read_time timestamp without time zone,
+    CONSTRAINT bulk_read_plan_device_pkey PRIMARY KEY (id),
+    CONSTRAINT bulk_read_plan_device_key UNIQUE (plan_identification, device_identification)
+);
+
+ALTER TABLE public.bulk_read_plan_device OWNER TO osp_admin;
+
+CREATE INDEX bulk_read_plan_device_status_idx ON bulk_read_plan_device (status, plan_identification);
+
+END IF;
+
+END;
+$$
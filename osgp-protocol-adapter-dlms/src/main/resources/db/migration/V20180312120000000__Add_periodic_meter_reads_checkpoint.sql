@@ -0,0 +1,30 @@
+DO
+$$
+BEGIN
+
+IF NOT EXISTS (SELECT 1 FROM information_schema.tables
+    WHERE table_schema=current_schema
+    AND table_name = 'periodic_meter_reads_checkpoint') THEN
+
+CREATE TABLE periodic_meter_reads_checkpoint (
+    id bigserial NOT NULL,
+    creation_time timestamp without time zone NOT NULL,
+    modification_time timestamp without time zone NOT NULL,
+    version bigint,
+    correlation_uid character varying(255) NOT NULL,
+    window_begin timestamp without time zone NOT NULL,
+    window_end timestamp without time zone NOT NULL,
+    expires_at timestamp without time zone NOT NULL,
+    periodic_meter_reads bytea NOT NULL,
+    CONSTRAINT periodic_meter_reads_checkpoint_pkey PRIMARY KEY (id),
+    CONSTRAINT periodic_meter_reads_checkpoint_key UNIQUE (correlation_uid, window_begin, window_end)
+);
+
+ALTER TABLE public.periodic_meter_reads_checkpoint OWNER TO osp_admin;
+
+CREATE INDEX periodic_meter_reads_checkpoint_expires_at_idx ON periodic_meter_reads_checkpoint (expires_at);
+
+END IF;
+
+END;
+$$
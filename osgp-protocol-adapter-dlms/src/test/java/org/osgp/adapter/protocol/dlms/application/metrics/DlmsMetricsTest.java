@@ -0,0 +1,46 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.metrics;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class DlmsMetricsTest {
+
+    private final DlmsMetrics dlmsMetrics = new DlmsMetrics();
+
+    @Test
+    public void scrapesCumulativeBucketsPerLabel() {
+        // Arrange
+        final LatencyHistogram histogram = this.dlmsMetrics.timer(DlmsMetrics.Timer.EXECUTOR, "GetClockExecutor");
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(40));
+        histogram.record(TimeUnit.MINUTES.toNanos(5));
+        this.dlmsMetrics.counter(DlmsMetrics.Counter.APDUS_SENT).add(7);
+        this.dlmsMetrics.associationOpened();
+
+        // Act
+        final String scrape = this.dlmsMetrics.scrape();
+
+        // Assert
+        assertTrue(scrape, scrape.contains(
+                "dlms_executor_duration_seconds_bucket{executor=\"GetClockExecutor\",le=\"0.005\"} 1\n"));
+        assertTrue(scrape, scrape.contains(
+                "dlms_executor_duration_seconds_bucket{executor=\"GetClockExecutor\",le=\"0.05\"} 2\n"));
+        assertTrue(scrape, scrape.contains(
+                "dlms_executor_duration_seconds_bucket{executor=\"GetClockExecutor\",le=\"120.0\"} 2\n"));
+        assertTrue(scrape, scrape.contains(
+                "dlms_executor_duration_seconds_bucket{executor=\"GetClockExecutor\",le=\"+Inf\"} 3\n"));
+        assertTrue(scrape, scrape.contains("dlms_executor_duration_seconds_count{executor=\"GetClockExecutor\"} 3\n"));
+        assertTrue(scrape, scrape.contains("dlms_apdus_sent_total 7\n"));
+        assertTrue(scrape, scrape.contains("dlms_associations_in_flight 1\n"));
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class DeviceWorkSchedulerTest {
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    private final List<Lane> admitted = Collections.synchronizedList(new ArrayList<Lane>());
+
+    @After
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+
+    @Test
+    public void keepsReservedCapacityForHighPriority() throws Exception {
+        // Arrange
+        final DeviceWorkScheduler scheduler = new DeviceWorkScheduler(2, 1, 60000);
+        scheduler.acquire(Lane.NORMAL);
+        final Future<?> normal = this.handle(scheduler, Lane.NORMAL);
+        this.awaitWaiting(scheduler, 1);
+
+        // Act
+        scheduler.acquire(Lane.HIGH);
+
+        // Assert
+        assertEquals(2, scheduler.getRunning());
+        assertFalse(normal.isDone());
+        scheduler.release();
+        scheduler.release();
+        normal.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(Lane.NORMAL), this.admitted);
+    }
+
+    @Test
+    public void admitsAllCapacityOnlyToHighPriority() {
+        // Arrange
+        final DeviceWorkScheduler scheduler = new DeviceWorkScheduler(16, 4, 60000);
+
+        // Act & Assert
+        assertEquals(16, scheduler.getAdmissible(Lane.HIGH));
+        assertEquals(12, scheduler.getAdmissible(Lane.NORMAL));
+        assertEquals(12, scheduler.getAdmissible(Lane.LOW));
+    }
+
+    @Test
+    public void admitsHigherPriorityFirst() throws Exception {
+        // Arrange
+        final DeviceWorkScheduler scheduler = new DeviceWorkScheduler(1, 0, 60000);
+        scheduler.acquire(Lane.LOW);
+        final Future<?> low = this.handle(scheduler, Lane.LOW);
+        this.awaitWaiting(scheduler, 1);
+        final Future<?> high = this.handle(scheduler, Lane.HIGH);
+        this.awaitWaiting(scheduler, 2);
+
+        // Act
+        scheduler.release();
+
+        // Assert
+        low.get(5, TimeUnit.SECONDS);
+        high.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(Lane.HIGH, Lane.LOW), this.admitted);
+    }
+
+    @Test
+    public void raisesThePriorityOfWaitingRequests() throws Exception {
+        // Arrange
+        final DeviceWorkScheduler scheduler = new DeviceWorkScheduler(1, 0, 200);
+        scheduler.acquire(Lane.NORMAL);
+        final Future<?> low = this.handle(scheduler, Lane.LOW);
+        this.awaitWaiting(scheduler, 1);
+        Thread.sleep(500);
+        final Future<?> normal = this.handle(scheduler, Lane.NORMAL);
+        this.awaitWaiting(scheduler, 2);
+
+        // Act
+        scheduler.release();
+
+        // Assert
+        low.get(5, TimeUnit.SECONDS);
+        normal.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(Lane.LOW, Lane.NORMAL), this.admitted);
+    }
+
+    private Future<?> handle(final DeviceWorkScheduler scheduler, final Lane lane) {
+        return this.executorService.submit(() -> {
+            scheduler.acquire(lane);
+            this.admitted.add(lane);
+            scheduler.release();
+            return null;
+        });
+    }
+
+    private void awaitWaiting(final DeviceWorkScheduler scheduler, final int waiting) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getWaiting() < waiting && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(waiting, scheduler.getWaiting());
+    }
+}
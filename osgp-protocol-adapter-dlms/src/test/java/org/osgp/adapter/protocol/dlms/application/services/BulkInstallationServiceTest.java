@@ -0,0 +1,165 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceBatchRepository;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.BulkAddMeterResult;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.SmartMeteringDeviceDto;
+import com.alliander.osgp.shared.exceptionhandling.ComponentType;
+import com.alliander.osgp.shared.exceptionhandling.FunctionalException;
+import com.alliander.osgp.shared.exceptionhandling.FunctionalExceptionType;
+
+public class BulkInstallationServiceTest {
+
+    @Mock
+    private InstallationService installationService;
+
+    @Mock
+    private DlmsDeviceBatchRepository dlmsDeviceBatchRepository;
+
+    @Mock
+    private DlmsDeviceCacheService dlmsDeviceCacheService;
+
+    @InjectMocks
+    private BulkInstallationService bulkInstallationService;
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        this.executorService = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(this.bulkInstallationService, "bulkAddMeterExecutorService",
+                this.executorService);
+        ReflectionTestUtils.setField(this.bulkInstallationService, "chunkSize", 2);
+        when(this.installationService.toNewDevice(any(SmartMeteringDeviceDto.class)))
+                .thenAnswer(invocation -> new DlmsDevice(
+                        ((SmartMeteringDeviceDto) invocation.getArguments()[0]).getDeviceIdentification()));
+    }
+
+    @After
+    public void tearDown() {
+        this.executorService.shutdownNow();
+    }
+
+    @Test
+    public void addsAllMetersInChunks() {
+        // Act
+        final BulkAddMeterResult result = this.bulkInstallationService
+                .addMeters(this.meters("E001", "E002", "E003").stream());
+
+        // Assert
+        assertEquals(3, result.getNumberOfAddedMeters());
+        assertEquals(0, result.getNumberOfFailedMeters());
+        verify(this.dlmsDeviceBatchRepository).insert(argThat(this.devicesWithIdentifications("E001", "E002")));
+        verify(this.dlmsDeviceBatchRepository).insert(argThat(this.devicesWithIdentifications("E003")));
+        verify(this.dlmsDeviceCacheService).evictLookups();
+    }
+
+    @Test
+    public void reportsExistingDuplicateAndUnencryptableMetersWithoutAbortingTheBatch() throws Exception {
+        // Arrange
+        when(this.dlmsDeviceBatchRepository.findExistingDeviceIdentifications(anyCollectionOf(String.class)))
+                .thenReturn(Collections.singleton("E001"));
+        final SmartMeteringDeviceDto unencryptable = this.meter("E003");
+        when(this.installationService.toNewDevice(unencryptable)).thenThrow(new FunctionalException(
+                FunctionalExceptionType.DECRYPTION_EXCEPTION, ComponentType.PROTOCOL_DLMS));
+        final List<SmartMeteringDeviceDto> meters = Arrays.asList(this.meter("E001"), this.meter("E002"),
+                this.meter("E002"), unencryptable, this.meter("E004"));
+
+        // Act
+        final BulkAddMeterResult result = this.bulkInstallationService.addMeters(meters.stream());
+
+        // Assert
+        assertEquals(2, result.getNumberOfAddedMeters());
+        assertEquals(3, result.getNumberOfFailedMeters());
+        assertTrue(result.getFailures().containsKey("E001"));
+        assertTrue(result.getFailures().containsKey("E002"));
+        assertTrue(result.getFailures().containsKey("E003"));
+    }
+
+    @Test
+    public void failedBatchIsRetriedPerMeter() {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(this.dlmsDeviceBatchRepository)
+                .insert(argThat(this.devicesWithIdentifications("E001", "E002")));
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(this.dlmsDeviceBatchRepository)
+                .insert(argThat(this.devicesWithIdentifications("E002")));
+
+        // Act
+        final BulkAddMeterResult result = this.bulkInstallationService
+                .addMeters(this.meters("E001", "E002").stream());
+
+        // Assert
+        assertEquals(1, result.getNumberOfAddedMeters());
+        assertEquals(Collections.singleton("E002"), result.getFailures().keySet());
+        verify(this.dlmsDeviceBatchRepository).insert(argThat(this.devicesWithIdentifications("E001")));
+    }
+
+    private List<SmartMeteringDeviceDto> meters(final String... deviceIdentifications) {
+        final SmartMeteringDeviceDto[] meters = new SmartMeteringDeviceDto[deviceIdentifications.length];
+        for (int i = 0; i < deviceIdentifications.length; i++) {
+            meters[i] = this.meter(deviceIdentifications[i]);
+        }
+        return Arrays.asList(meters);
+    }
+
+    private SmartMeteringDeviceDto meter(final String deviceIdentification) {
+        final SmartMeteringDeviceDto meter = mock(SmartMeteringDeviceDto.class);
+        when(meter.getDeviceIdentification()).thenReturn(deviceIdentification);
+        return meter;
+    }
+
+    private ArgumentMatcher<List<DlmsDevice>> devicesWithIdentifications(final String... deviceIdentifications) {
+        return new ArgumentMatcher<List<DlmsDevice>>() {
+            @Override
+            public boolean matches(final Object argument) {
+                if (!(argument instanceof List)) {
+                    return false;
+                }
+                final List<?> devices = (List<?>) argument;
+                if (devices.size() != deviceIdentifications.length) {
+                    return false;
+                }
+                for (int i = 0; i < deviceIdentifications.length; i++) {
+                    if (!deviceIdentifications[i].equals(((DlmsDevice) devices.get(i)).getDeviceIdentification())) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+}
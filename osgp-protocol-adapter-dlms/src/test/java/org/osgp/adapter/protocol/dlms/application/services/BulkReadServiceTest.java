@@ -0,0 +1,178 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
+import org.osgp.adapter.protocol.dlms.application.scheduling.DeviceWorkScheduler;
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadPlan;
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadPlanDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.BulkReadStatus;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.repositories.BulkReadPlanDeviceRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.BulkReadPlanRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.DeviceBusyException;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.osgp.adapter.protocol.dlms.infra.messaging.BulkReadSessionProcessor;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DeviceResponseMessageSender;
+import org.osgp.adapter.protocol.dlms.infra.messaging.RetryHeaderFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.shared.infra.jms.ProtocolResponseMessage;
+
+public class BulkReadServiceTest {
+
+    private static final String PLAN = "plan-1";
+
+    @Mock
+    private BulkReadPlanRepository bulkReadPlanRepository;
+
+    @Mock
+    private BulkReadPlanDeviceRepository bulkReadPlanDeviceRepository;
+
+    @Mock
+    private DomainHelperService domainHelperService;
+
+    @Mock
+    private BulkReadSessionProcessor bulkReadSessionProcessor;
+
+    @Mock
+    private PeriodicMeterReadsCheckpointService periodicMeterReadsCheckpointService;
+
+    @Mock
+    private DeviceResponseMessageSender responseMessageSender;
+
+    @Mock
+    private RetryHeaderFactory retryHeaderFactory;
+
+    @Mock
+    private ScheduledExecutorService planExecutorService;
+
+    @InjectMocks
+    private BulkReadService bulkReadService;
+
+    private ExecutorService sessionExecutorService;
+
+    private BulkReadPlan plan;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        this.sessionExecutorService = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(this.bulkReadService, "sessionExecutorService", this.sessionExecutorService);
+        ReflectionTestUtils.setField(this.bulkReadService, "waveSize", 3);
+        ReflectionTestUtils.setField(this.bulkReadService, "maxConcurrentSessionsPerProvider", 1);
+        ReflectionTestUtils.setField(this.bulkReadService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(this.bulkReadService, "passDelay", 1000L);
+        ReflectionTestUtils.setField(this.bulkReadService, "deviceWorkScheduler", new DeviceWorkScheduler(2, 0, 60000));
+        ReflectionTestUtils.setField(this.bulkReadService, "dlmsMetrics", new DlmsMetrics());
+
+        this.plan = new BulkReadPlan(PLAN, "test-org", "SMART_METERING", "1.0", 4,
+                Arrays.asList(PeriodTypeDto.DAILY, PeriodTypeDto.MONTHLY), new Date(0), new Date());
+        when(this.bulkReadPlanRepository.findByPlanIdentification(PLAN)).thenReturn(this.plan);
+    }
+
+    @After
+    public void tearDown() {
+        this.sessionExecutorService.shutdownNow();
+    }
+
+    @Test
+    public void readsPendingDevicesAndDefersDevicesThatAreBeingCommunicatedWith() throws Exception {
+        // Arrange
+        final BulkReadPlanDevice read = this.pendingDevice(1L, "E001");
+        final BulkReadPlanDevice failing = this.pendingDevice(2L, "E002");
+        final BulkReadPlanDevice busy = this.pendingDevice(3L, "E003");
+        this.givenPendingDevicesAfter(0L, Arrays.asList(read, failing, busy));
+        this.givenPendingDevicesAfter(3L, Collections.<BulkReadPlanDevice> emptyList());
+        when(this.bulkReadSessionProcessor.read(same(this.plan), any(DlmsDevice.class)))
+                .thenReturn(new ArrayList<Serializable>());
+        final DlmsDevice failingDevice = this.domainHelperService.findDlmsDevice("E002");
+        when(this.bulkReadSessionProcessor.read(same(this.plan), same(failingDevice)))
+                .thenThrow(new ProtocolAdapterException("No response"));
+        final DlmsDevice busyDevice = this.domainHelperService.findDlmsDevice("E003");
+        when(this.bulkReadSessionProcessor.read(same(this.plan), same(busyDevice)))
+                .thenThrow(new DeviceBusyException("There already is a session with device E003"));
+
+        // Act
+        this.bulkReadService.runPass(PLAN);
+
+        // Assert
+        assertEquals(BulkReadStatus.READ, read.getStatus());
+        assertEquals(BulkReadStatus.PENDING, failing.getStatus());
+        assertEquals(1, failing.getAttempts());
+        assertEquals(BulkReadStatus.PENDING, busy.getStatus());
+        assertEquals(0, busy.getAttempts());
+        verify(this.domainHelperService, times(3)).setIpAddressForConnection(any(DlmsDevice.class),
+                any(String.class));
+        verify(this.responseMessageSender, times(1)).send(any(ProtocolResponseMessage.class));
+        verify(this.periodicMeterReadsCheckpointService, times(1)).evict(any(String.class));
+        verify(this.periodicMeterReadsCheckpointService).evict(PLAN + "/E001");
+        verify(this.bulkReadPlanDeviceRepository, times(1)).save(anyListOf(BulkReadPlanDevice.class));
+    }
+
+    @Test
+    public void readsPendingDevicesOneWaveAtATime() throws Exception {
+        // Arrange
+        final BulkReadPlanDevice first = this.pendingDevice(1L, "E001");
+        final BulkReadPlanDevice second = this.pendingDevice(4L, "E004");
+        this.givenPendingDevicesAfter(0L, Collections.singletonList(first));
+        this.givenPendingDevicesAfter(1L, Collections.singletonList(second));
+        this.givenPendingDevicesAfter(4L, Collections.<BulkReadPlanDevice> emptyList());
+        when(this.bulkReadSessionProcessor.read(same(this.plan), any(DlmsDevice.class)))
+                .thenReturn(new ArrayList<Serializable>());
+
+        // Act
+        this.bulkReadService.runPass(PLAN);
+
+        // Assert
+        assertEquals(BulkReadStatus.READ, first.getStatus());
+        assertEquals(BulkReadStatus.READ, second.getStatus());
+        verify(this.responseMessageSender, times(2)).send(any(ProtocolResponseMessage.class));
+        verify(this.bulkReadPlanDeviceRepository, times(2)).save(anyListOf(BulkReadPlanDevice.class));
+    }
+
+    private void givenPendingDevicesAfter(final Long id, final List<BulkReadPlanDevice> devices) {
+        when(this.bulkReadPlanDeviceRepository.findByPlanIdentificationAndStatusAndIdGreaterThanOrderByIdAsc(eq(PLAN),
+                eq(BulkReadStatus.PENDING), eq(id), any(Pageable.class))).thenReturn(devices);
+    }
+
+    private BulkReadPlanDevice pendingDevice(final Long id, final String deviceIdentification) throws Exception {
+        final DlmsDevice device = new DlmsDevice(deviceIdentification);
+        when(this.domainHelperService.findDlmsDevice(deviceIdentification)).thenReturn(device);
+        final BulkReadPlanDevice planDevice = new BulkReadPlanDevice(PLAN, deviceIdentification, null);
+        ReflectionTestUtils.setField(planDevice, "id", id);
+        return planDevice;
+    }
+}
@@ -11,20 +11,31 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
+import org.osgp.adapter.protocol.dlms.domain.commands.GetPeriodicMeterReadsGasCommandExecutor;
 import org.osgp.adapter.protocol.dlms.domain.commands.stub.AbstractCommandExecutorStub;
 import org.osgp.adapter.protocol.dlms.domain.commands.stub.CommandExecutorMapStub;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
 import org.osgp.adapter.protocol.dlms.exceptions.ConnectionException;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 
@@ -32,15 +43,23 @@ import com.alliander.osgp.dto.valueobjects.smartmetering.ActionDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.ActionDtoBuilder;
 import com.alliander.osgp.dto.valueobjects.smartmetering.ActionRequestDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.BundleMessagesRequestDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.ChannelDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FaultResponseDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FaultResponseParameterDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.FindEventsRequestDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.OsgpResultTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadGasResponseDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsGasRequestDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsGasResponseItemDto;
 import com.alliander.osgp.shared.exceptionhandling.ComponentType;
 
 @RunWith(MockitoJUnitRunner.class)
 public class BundleServiceTest {
 
+    @Spy
+    private DlmsMetrics dlmsMetrics = new DlmsMetrics();
+
     @InjectMocks
     private BundleService bundleService;
 
@@ -49,6 +68,9 @@ public class BundleServiceTest {
     @Spy
     private CommandExecutorMapStub bundleCommandExecutorMap = new CommandExecutorMapStub();
 
+    @Mock
+    private GetPeriodicMeterReadsGasCommandExecutor getPeriodicMeterReadsGasCommandExecutor;
+
     final String defaultMessage = "Unable to handle request";
     final List<FaultResponseParameterDto> parameters = new ArrayList<>();
     final ComponentType defaultComponent = ComponentType.PROTOCOL_DLMS;
@@ -119,6 +141,29 @@ public class BundleServiceTest {
 
     }
 
+    @Test
+    public void readsPeriodicMeterReadsGasOfSeveralChannelsAtOnce() throws Exception {
+        final Date beginDate = new Date(1514764800000L);
+        final Date endDate = new Date(1517443200000L);
+        final ActionDto channelOne = new ActionDto(
+                new PeriodicMeterReadsGasRequestDto(PeriodTypeDto.DAILY, beginDate, endDate, ChannelDto.ONE));
+        final ActionDto channelTwo = new ActionDto(
+                new PeriodicMeterReadsGasRequestDto(PeriodTypeDto.DAILY, beginDate, endDate, ChannelDto.TWO));
+        final Map<ChannelDto, PeriodicMeterReadGasResponseDto> responses = new LinkedHashMap<>();
+        responses.put(ChannelDto.ONE, new PeriodicMeterReadGasResponseDto(PeriodTypeDto.DAILY,
+                new ArrayList<PeriodicMeterReadsGasResponseItemDto>()));
+        responses.put(ChannelDto.TWO, new PeriodicMeterReadGasResponseDto(PeriodTypeDto.DAILY,
+                new ArrayList<PeriodicMeterReadsGasResponseItemDto>()));
+        when(this.getPeriodicMeterReadsGasCommandExecutor.execute(any(DlmsConnectionHolder.class),
+                any(DlmsDevice.class), eq(PeriodTypeDto.DAILY), eq(beginDate), eq(endDate),
+                eq(Arrays.asList(ChannelDto.ONE, ChannelDto.TWO)))).thenReturn(responses);
+
+        this.callExecutors(new BundleMessagesRequestDto(Arrays.asList(channelOne, channelTwo)));
+
+        assertSame(responses.get(ChannelDto.ONE), channelOne.getResponse());
+        assertSame(responses.get(ChannelDto.TWO), channelTwo.getResponse());
+    }
+
     @Test
     public void exceptionDetailsWithDefaultComponentInFaultResponse() throws Exception {
 
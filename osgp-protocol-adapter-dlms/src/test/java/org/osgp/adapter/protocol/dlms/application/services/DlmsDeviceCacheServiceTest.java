@@ -0,0 +1,80 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.ejb.HibernateEntityManagerFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class DlmsDeviceCacheServiceTest {
+
+    private static final Long DEVICE_ID = 42L;
+
+    @InjectMocks
+    private DlmsDeviceCacheService dlmsDeviceCacheService;
+
+    @Mock
+    private HibernateEntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(this.entityManagerFactory.getSessionFactory()).thenReturn(this.sessionFactory);
+        when(this.sessionFactory.getCache()).thenReturn(this.cache);
+        this.dlmsDeviceCacheService.init();
+    }
+
+    @Test
+    public void evictRemovesDeviceAndItsSecurityKeys() {
+        // Arrange
+        final DlmsDevice device = new DlmsDevice("E0000000000000001");
+        ReflectionTestUtils.setField(device, "id", DEVICE_ID);
+
+        // Act
+        this.dlmsDeviceCacheService.evict(device);
+
+        // Assert
+        verify(this.cache).evictEntity(DlmsDevice.class, DEVICE_ID);
+        verify(this.cache).evictCollection(DlmsDevice.class.getName() + ".securityKeys", DEVICE_ID);
+    }
+
+    @Test
+    public void evictIgnoresUnsavedDevice() {
+        this.dlmsDeviceCacheService.evict(new DlmsDevice("E0000000000000001"));
+
+        verify(this.cache, never()).evictEntity(any(Class.class), any(Serializable.class));
+    }
+
+    @Test
+    public void evictLookupsClearsLookupRegion() {
+        this.dlmsDeviceCacheService.evictLookups();
+
+        verify(this.cache).evictQueryRegion(DlmsDeviceRepository.DEVICE_LOOKUP_CACHE_REGION);
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.MbusDeviceIdentityCachingRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DomainHelperServiceTest {
+
+    private static final Long MBUS_IDENTIFICATION_NUMBER = 12056731L;
+    private static final String MBUS_MANUFACTURER_IDENTIFICATION = "LGB";
+
+    @Mock
+    private DlmsDeviceRepository dlmsDeviceRepository;
+
+    @Spy
+    private MbusDeviceIdentityCachingRepository mbusDeviceIdentityCachingRepository =
+            new MbusDeviceIdentityCachingRepository();
+
+    @Spy
+    private DlmsMetrics dlmsMetrics = new DlmsMetrics();
+
+    @InjectMocks
+    private DomainHelperService domainHelperService;
+
+    private final DlmsDevice mbusDevice = new DlmsDevice("G0001");
+
+    @Before
+    public void setUp() {
+        this.mbusDevice.setMbusIdentificationNumber(MBUS_IDENTIFICATION_NUMBER);
+        this.mbusDevice.setMbusManufacturerIdentification(MBUS_MANUFACTURER_IDENTIFICATION);
+        when(this.dlmsDeviceRepository.findByMbusIdentificationNumberAndMbusManufacturerIdentification(
+                MBUS_IDENTIFICATION_NUMBER, MBUS_MANUFACTURER_IDENTIFICATION)).thenReturn(this.mbusDevice);
+        when(this.dlmsDeviceRepository.findByDeviceIdentification("G0001")).thenReturn(this.mbusDevice);
+    }
+
+    @Test
+    public void mbusDevicesFoundBeforeAreLookedUpByDeviceIdentification() {
+        // Arrange
+        this.domainHelperService.lookUpMbusDevice(MBUS_IDENTIFICATION_NUMBER, MBUS_MANUFACTURER_IDENTIFICATION);
+
+        // Act
+        final DlmsDevice found = this.domainHelperService.lookUpMbusDevice(MBUS_IDENTIFICATION_NUMBER,
+                MBUS_MANUFACTURER_IDENTIFICATION);
+
+        // Assert
+        assertSame(this.mbusDevice, found);
+        verify(this.dlmsDeviceRepository, times(1)).findByMbusIdentificationNumberAndMbusManufacturerIdentification(
+                MBUS_IDENTIFICATION_NUMBER, MBUS_MANUFACTURER_IDENTIFICATION);
+        verify(this.dlmsDeviceRepository, times(1)).findByDeviceIdentification("G0001");
+    }
+
+    @Test
+    public void changedIdentitiesAreLookedUpAgain() {
+        // Arrange
+        final DlmsDevice otherDevice = new DlmsDevice("G0002");
+        otherDevice.setMbusIdentificationNumber(MBUS_IDENTIFICATION_NUMBER);
+        otherDevice.setMbusManufacturerIdentification(MBUS_MANUFACTURER_IDENTIFICATION);
+        this.mbusDeviceIdentityCachingRepository.store(otherDevice);
+
+        // Act
+        final DlmsDevice found = this.domainHelperService.lookUpMbusDevice(MBUS_IDENTIFICATION_NUMBER,
+                MBUS_MANUFACTURER_IDENTIFICATION);
+
+        // Assert
+        assertSame(this.mbusDevice, found);
+        verify(this.dlmsDeviceRepository, times(1)).findByMbusIdentificationNumberAndMbusManufacturerIdentification(
+                MBUS_IDENTIFICATION_NUMBER, MBUS_MANUFACTURER_IDENTIFICATION);
+    }
+}
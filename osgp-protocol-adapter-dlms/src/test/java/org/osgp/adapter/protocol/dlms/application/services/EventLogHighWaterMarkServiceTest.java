@@ -0,0 +1,88 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.osgp.adapter.protocol.dlms.domain.entities.EventLogHighWaterMark;
+import org.osgp.adapter.protocol.dlms.domain.repositories.EventLogHighWaterMarkRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventLogCategoryDto;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventLogHighWaterMarkServiceTest {
+
+    private static final String DEVICE_IDENTIFICATION = "E0001";
+    private static final DateTime T1 = new DateTime(2018, 3, 1, 10, 0, DateTimeZone.UTC);
+    private static final DateTime T2 = T1.plusMinutes(1);
+
+    @Mock
+    private EventLogHighWaterMarkRepository eventLogHighWaterMarkRepository;
+
+    @InjectMocks
+    private EventLogHighWaterMarkService eventLogHighWaterMarkService;
+
+    @Test
+    public void savesTheMergedMarkWhenAFurtherMarkWasSavedConcurrently() {
+        // Arrange
+        final EventLogHighWaterMark highWaterMark = this.highWaterMarkAt(T2);
+        final EventLogHighWaterMark concurrentlySaved = this.highWaterMarkAt(T1);
+        when(this.eventLogHighWaterMarkRepository.save(same(highWaterMark)))
+                .thenThrow(new OptimisticLockingFailureException("Version changed"));
+        when(this.eventLogHighWaterMarkRepository.findByDeviceIdentificationAndEventLogCategory(DEVICE_IDENTIFICATION,
+                EventLogCategoryDto.STANDARD_EVENT_LOG.name())).thenReturn(concurrentlySaved);
+
+        // Act
+        this.eventLogHighWaterMarkService.saveHighWaterMarks(Collections.singletonList(highWaterMark));
+
+        // Assert
+        verify(this.eventLogHighWaterMarkRepository).save(same(concurrentlySaved));
+        assertEquals(T2.getMillis(), concurrentlySaved.getLastEventTime().getMillis());
+    }
+
+    @Test
+    public void keepsTheConcurrentlyInsertedMarkWhenItIsFurther() {
+        // Arrange
+        final EventLogHighWaterMark highWaterMark = this.highWaterMarkAt(T1);
+        final EventLogHighWaterMark concurrentlySaved = this.highWaterMarkAt(T2);
+        when(this.eventLogHighWaterMarkRepository.save(same(highWaterMark)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate key"));
+        when(this.eventLogHighWaterMarkRepository.findByDeviceIdentificationAndEventLogCategory(DEVICE_IDENTIFICATION,
+                EventLogCategoryDto.STANDARD_EVENT_LOG.name())).thenReturn(concurrentlySaved);
+
+        // Act
+        this.eventLogHighWaterMarkService.saveHighWaterMarks(Collections.singletonList(highWaterMark));
+
+        // Assert
+        verify(this.eventLogHighWaterMarkRepository, never()).save(same(concurrentlySaved));
+        assertEquals(T2.getMillis(), concurrentlySaved.getLastEventTime().getMillis());
+    }
+
+    private EventLogHighWaterMark highWaterMarkAt(final DateTime lastEventTime) {
+        final EventLogHighWaterMark highWaterMark = new EventLogHighWaterMark(DEVICE_IDENTIFICATION,
+                EventLogCategoryDto.STANDARD_EVENT_LOG);
+        highWaterMark.advance(Collections.singletonList(new EventDto(lastEventTime, 1, null)));
+        return highWaterMark;
+    }
+}
@@ -18,10 +18,12 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.osgp.adapter.protocol.dlms.domain.commands.DeviceCapabilityHelperService;
 import org.osgp.adapter.protocol.dlms.domain.commands.GetFirmwareVersionsCommandExecutor;
 import org.osgp.adapter.protocol.dlms.domain.commands.UpdateFirmwareCommandExecutor;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
 import org.osgp.adapter.protocol.dlms.domain.repositories.FirmwareFileCachingRepository;
 import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
 
@@ -39,6 +41,15 @@ public class FirmwareServiceTest {
     @Mock
     private UpdateFirmwareCommandExecutor updateFirmwareCommandExecutor;
 
+    @Mock
+    private DlmsDeviceRepository dlmsDeviceRepository;
+
+    @Mock
+    private DlmsDeviceCacheService dlmsDeviceCacheService;
+
+    @Mock
+    private DeviceCapabilityHelperService deviceCapabilityHelperService;
+
     @Mock
     private DlmsConnectionHolder dlmsConnectionHolderMock;
 
@@ -82,6 +93,27 @@ public class FirmwareServiceTest {
                 firmwareIdentification);
     }
 
+    @Test
+    public void updateFirmwareShouldForgetTheActiveFirmwareVersion() throws OsgpException {
+        // Arrange
+        final String firmwareIdentification = "fw";
+        when(this.firmwareFileCachingRepository.isAvailable(firmwareIdentification)).thenReturn(true);
+        when(this.firmwareFileCachingRepository.retrieve(firmwareIdentification))
+                .thenReturn(firmwareIdentification.getBytes());
+
+        when(this.dlmsDeviceMock.getDeviceIdentification()).thenReturn("E0001");
+
+        // Act
+        this.firmwareService.updateFirmware(this.dlmsConnectionHolderMock, this.dlmsDeviceMock, firmwareIdentification);
+
+        // Assert
+        verify(this.dlmsDeviceMock).setActiveFirmwareVersion(null);
+        verify(this.dlmsDeviceRepository).updateActiveFirmwareVersion("E0001", null);
+        verify(this.deviceCapabilityHelperService).forgetMaxGetWithListSize(this.dlmsDeviceMock);
+        verify(this.dlmsDeviceRepository, never()).save(this.dlmsDeviceMock);
+        verify(this.dlmsDeviceCacheService).evict(this.dlmsDeviceMock);
+    }
+
     @Test(expected = ProtocolAdapterException.class)
     public void updateFirmwareShouldThrowExceptionWhenFirmwareFileNotInCache() throws OsgpException {
         // Arrange
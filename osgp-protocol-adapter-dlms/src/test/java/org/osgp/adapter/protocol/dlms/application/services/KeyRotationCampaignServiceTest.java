@@ -0,0 +1,175 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.osgp.adapter.protocol.dlms.domain.commands.ReplaceKeyCommandExecutor;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.KeyRotationCampaignDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.KeyRotationStatus;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionFactory;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.KeyRotationCampaignDeviceRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.CircuitBreakerOpenException;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class KeyRotationCampaignServiceTest {
+
+    private static final String CAMPAIGN = "campaign-1";
+
+    @Mock
+    private KeyRotationCampaignDeviceRepository keyRotationCampaignDeviceRepository;
+
+    @Mock
+    private DomainHelperService domainHelperService;
+
+    @Mock
+    private DlmsConnectionFactory dlmsConnectionFactory;
+
+    @Mock
+    private SecurityKeyService securityKeyService;
+
+    @Mock
+    private ReplaceKeyCommandExecutor replaceKeyCommandExecutor;
+
+    @Mock
+    private ScheduledExecutorService campaignExecutorService;
+
+    @InjectMocks
+    private KeyRotationCampaignService keyRotationCampaignService;
+
+    private ExecutorService sessionExecutorService;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        this.sessionExecutorService = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(this.keyRotationCampaignService, "sessionExecutorService",
+                this.sessionExecutorService);
+        ReflectionTestUtils.setField(this.keyRotationCampaignService, "waveSize", 2);
+        ReflectionTestUtils.setField(this.keyRotationCampaignService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(this.keyRotationCampaignService, "maxFailurePercentage", 50);
+        ReflectionTestUtils.setField(this.keyRotationCampaignService, "passDelay", 1000L);
+
+        when(this.securityKeyService.generateAndEncryptKey()).thenReturn(new byte[16]);
+        when(this.dlmsConnectionFactory.getConnection(any(DlmsDevice.class), any()))
+                .thenReturn(mock(DlmsConnectionHolder.class));
+    }
+
+    @After
+    public void tearDown() {
+        this.sessionExecutorService.shutdownNow();
+    }
+
+    @Test
+    public void rotatesPendingDevicesAndDefersDevicesWithPendingKeyRecovery() throws Exception {
+        // Arrange
+        final KeyRotationCampaignDevice rotated = this.pendingDevice("E001");
+        final KeyRotationCampaignDevice recovering = this.pendingDevice("E002");
+        final KeyRotationCampaignDevice alsoRotated = this.pendingDevice("E003");
+        when(this.keyRotationCampaignDeviceRepository.findByCampaignIdentificationAndStatus(CAMPAIGN,
+                KeyRotationStatus.PENDING)).thenReturn(Arrays.asList(rotated, recovering, alsoRotated));
+        final DlmsDevice deviceWithNewKey = mock(DlmsDevice.class);
+        when(deviceWithNewKey.hasNewSecurityKey()).thenReturn(true);
+        when(this.domainHelperService.findDlmsDevice("E002")).thenReturn(deviceWithNewKey);
+
+        // Act
+        this.keyRotationCampaignService.runPass(CAMPAIGN);
+
+        // Assert
+        assertEquals(KeyRotationStatus.ROTATED, rotated.getStatus());
+        assertEquals(KeyRotationStatus.ROTATED, alsoRotated.getStatus());
+        assertEquals(KeyRotationStatus.PENDING, recovering.getStatus());
+        assertEquals(0, recovering.getAttempts());
+        verify(this.replaceKeyCommandExecutor, times(2)).replaceKeys(any(DlmsConnectionHolder.class),
+                any(DlmsDevice.class), anyListOf(ReplaceKeyCommandExecutor.KeyWrapper.class));
+        verify(this.keyRotationCampaignDeviceRepository, times(2)).save(anyListOf(KeyRotationCampaignDevice.class));
+    }
+
+    @Test
+    public void pausesCampaignWhenTooManyDevicesOfAWaveFail() throws Exception {
+        // Arrange
+        final List<KeyRotationCampaignDevice> pending = Arrays.asList(this.pendingDevice("E001"),
+                this.pendingDevice("E002"), this.pendingDevice("E003"));
+        when(this.keyRotationCampaignDeviceRepository.findByCampaignIdentificationAndStatus(CAMPAIGN,
+                KeyRotationStatus.PENDING)).thenReturn(pending);
+        when(this.keyRotationCampaignDeviceRepository.countByCampaignIdentificationAndStatus(CAMPAIGN,
+                KeyRotationStatus.PENDING)).thenReturn(3L);
+        when(this.replaceKeyCommandExecutor.replaceKeys(any(DlmsConnectionHolder.class), any(DlmsDevice.class),
+                anyListOf(ReplaceKeyCommandExecutor.KeyWrapper.class)))
+                        .thenThrow(new ProtocolAdapterException("No response"));
+
+        // Act
+        this.keyRotationCampaignService.runPass(CAMPAIGN);
+
+        // Assert
+        assertEquals(1, pending.get(0).getAttempts());
+        assertEquals(1, pending.get(1).getAttempts());
+        assertEquals(0, pending.get(2).getAttempts());
+        verify(this.campaignExecutorService).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+        verify(this.campaignExecutorService, never()).schedule(any(Runnable.class), eq(0L),
+                any(TimeUnit.class));
+        verify(this.keyRotationCampaignDeviceRepository, times(1)).save(anyListOf(KeyRotationCampaignDevice.class));
+        verify(this.domainHelperService, never()).findDlmsDevice("E003");
+    }
+
+    @Test
+    public void defersDevicesWithAnOpenCircuitWithoutPausingTheCampaign() throws Exception {
+        // Arrange
+        final List<KeyRotationCampaignDevice> pending = Arrays.asList(this.pendingDevice("E001"),
+                this.pendingDevice("E002"), this.pendingDevice("E003"));
+        when(this.keyRotationCampaignDeviceRepository.findByCampaignIdentificationAndStatus(CAMPAIGN,
+                KeyRotationStatus.PENDING)).thenReturn(pending);
+        final DlmsDevice reachableDevice = this.domainHelperService.findDlmsDevice("E003");
+        doThrow(new CircuitBreakerOpenException("Circuit open")).when(this.domainHelperService)
+                .setIpAddressForConnection(any(DlmsDevice.class), eq((String) null));
+        doNothing().when(this.domainHelperService).setIpAddressForConnection(reachableDevice, null);
+
+        // Act
+        this.keyRotationCampaignService.runPass(CAMPAIGN);
+
+        // Assert
+        assertEquals(KeyRotationStatus.PENDING, pending.get(0).getStatus());
+        assertEquals(0, pending.get(0).getAttempts());
+        assertEquals(KeyRotationStatus.PENDING, pending.get(1).getStatus());
+        assertEquals(0, pending.get(1).getAttempts());
+        assertEquals(KeyRotationStatus.ROTATED, pending.get(2).getStatus());
+        verify(this.keyRotationCampaignDeviceRepository, times(2)).save(anyListOf(KeyRotationCampaignDevice.class));
+    }
+
+    private KeyRotationCampaignDevice pendingDevice(final String deviceIdentification) throws Exception {
+        final DlmsDevice device = new DlmsDevice(deviceIdentification);
+        when(this.domainHelperService.findDlmsDevice(deviceIdentification)).thenReturn(device);
+        return new KeyRotationCampaignDevice(CAMPAIGN, deviceIdentification, null);
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.threads;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class RecoverKeyProcessInitiatorTest {
+
+    private static final String DEVICE_IDENTIFICATION = "E0000000000000001";
+    private static final String IP_ADDRESS = "127.0.0.1";
+    private static final int RECOVER_KEY_DELAY = 1000;
+    private static final int MAX_ATTEMPTS = 2;
+
+    @Mock
+    private ScheduledExecutorService executorService;
+
+    @Mock
+    private Provider<RecoverKeyProcess> recoverKeyProcessProvider;
+
+    @Mock
+    private RecoverKeyProcess recoverKeyProcess;
+
+    private RecoverKeyProcessInitiator initiator;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(this.recoverKeyProcessProvider.get()).thenReturn(this.recoverKeyProcess);
+        this.initiator = new RecoverKeyProcessInitiator(this.executorService, this.recoverKeyProcessProvider,
+                RECOVER_KEY_DELAY, MAX_ATTEMPTS, 2, 0);
+    }
+
+    @Test
+    public void initiateSchedulesOneRecoveryPerDevice() {
+        // Act
+        this.initiator.initiate(DEVICE_IDENTIFICATION, IP_ADDRESS);
+        this.initiator.initiate(DEVICE_IDENTIFICATION, IP_ADDRESS);
+
+        // Assert
+        verify(this.executorService, times(1)).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+        assertEquals(1, this.initiator.getPendingRecoveries());
+    }
+
+    @Test
+    public void succeededRecoveryIsNoLongerPending() {
+        // Arrange
+        when(this.recoverKeyProcess.isRecovered()).thenReturn(true);
+
+        // Act
+        this.initiator.initiate(DEVICE_IDENTIFICATION, IP_ADDRESS);
+        this.runScheduledTask(1);
+
+        // Assert
+        assertEquals(0, this.initiator.getPendingRecoveries());
+        assertEquals(1, this.initiator.getSucceededRecoveries());
+    }
+
+    @Test
+    public void failedRecoveryIsRetriedAndAbandoned() {
+        // Arrange
+        when(this.recoverKeyProcess.isRecovered()).thenReturn(false);
+
+        // Act
+        this.initiator.initiate(DEVICE_IDENTIFICATION, IP_ADDRESS);
+        this.runScheduledTask(1);
+        this.runScheduledTask(2);
+
+        // Assert
+        assertEquals(0, this.initiator.getPendingRecoveries());
+        assertEquals(0, this.initiator.getSucceededRecoveries());
+        assertEquals(1, this.initiator.getAbandonedRecoveries());
+    }
+
+    private void runScheduledTask(final int numberOfScheduledTasks) {
+        final ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.executorService, times(numberOfScheduledTasks)).schedule(taskCaptor.capture(), anyLong(),
+                eq(TimeUnit.MILLISECONDS));
+        taskCaptor.getValue().run();
+    }
+}
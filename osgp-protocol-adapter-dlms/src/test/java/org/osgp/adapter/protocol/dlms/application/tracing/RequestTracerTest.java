@@ -0,0 +1,90 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.application.tracing;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+import com.alliander.osgp.shared.infra.jms.MessageMetadata;
+
+public class RequestTracerTest {
+
+    private final RequestTracer requestTracer = new RequestTracer(true, 60000, 2, 1024);
+
+    @Test
+    public void keepsTimelinesOfFailedRequestsOnly() {
+        // Arrange
+        final RequestTrace failed = this.requestTracer.start(this.messageMetadata("failed"));
+        failed.phase("Connect", System.nanoTime());
+        this.requestTracer.current().apdu(true, 42);
+        failed.failed();
+        this.requestTracer.finish(failed);
+        final RequestTrace fast = this.requestTracer.start(this.messageMetadata("fast"));
+        this.requestTracer.finish(fast);
+
+        // Act
+        final String timeline = this.requestTracer.timeline("failed");
+
+        // Assert
+        assertNotNull(timeline);
+        assertTrue(timeline, timeline.contains("] Connect"));
+        assertTrue(timeline, timeline.contains("APDU sent, 42 bytes"));
+        assertNull(this.requestTracer.timeline("fast"));
+    }
+
+    @Test
+    public void overwritesTheOldestTimeline() {
+        // Arrange
+        for (final String correlationUid : new String[] { "first", "second", "third" }) {
+            final RequestTrace trace = this.requestTracer.start(this.messageMetadata(correlationUid));
+            trace.failed();
+            this.requestTracer.finish(trace);
+        }
+
+        // Act
+        final String oldest = this.requestTracer.timeline("first");
+
+        // Assert
+        assertNull(oldest);
+        assertNotNull(this.requestTracer.timeline("second"));
+        assertNotNull(this.requestTracer.timeline("third"));
+    }
+
+    @Test
+    public void keepsTheHeaderAndTheLastEntriesOfALongTimeline() {
+        // Arrange
+        final RequestTrace trace = this.requestTracer.start(this.messageMetadata("long"));
+        for (int i = 0; i < 100; i++) {
+            trace.event("Step " + i);
+        }
+        trace.failed();
+        this.requestTracer.finish(trace);
+
+        // Act
+        final String timeline = this.requestTracer.timeline("long");
+
+        // Assert
+        assertTrue(timeline, timeline.startsWith("long REQUEST_PERIODIC_METER_DATA for E0001"));
+        assertTrue(timeline, timeline.endsWith("Step 99" + System.lineSeparator()));
+        assertFalse(timeline, timeline.contains("Step 0" + System.lineSeparator()));
+    }
+
+    private MessageMetadata messageMetadata(final String correlationUid) {
+        final MessageMetadata messageMetadata = mock(MessageMetadata.class);
+        when(messageMetadata.getCorrelationUid()).thenReturn(correlationUid);
+        when(messageMetadata.getMessageType()).thenReturn("REQUEST_PERIODIC_METER_DATA");
+        when(messageMetadata.getDeviceIdentification()).thenReturn("E0001");
+        return messageMetadata;
+    }
+}
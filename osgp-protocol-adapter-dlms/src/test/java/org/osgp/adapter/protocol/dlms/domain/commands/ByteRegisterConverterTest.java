@@ -0,0 +1,127 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ByteRegisterConverterTest {
+
+    private enum Flag {
+        BIT_0,
+        BIT_2,
+        BIT_7,
+        BIT_9,
+        BIT_17,
+        BIT_27
+    }
+
+    private static final int[] BIT_INDEXES = { 0, 2, 7, 9, 17, 27 };
+
+    private final ByteRegisterConverter<Flag> byteRegister = new ByteRegisterConverter<>(Flag.class,
+            bitIndexes(BIT_INDEXES.length - 3), 8);
+
+    private final ByteRegisterConverter<Flag> wordRegister = new ByteRegisterConverter<>(Flag.class,
+            bitIndexes(BIT_INDEXES.length), 32);
+
+    @Test
+    public void byteRegisterValuesDecodeToInternedSets() {
+        for (long value = 0; value < 256; value++) {
+            // Act
+            final Set<Flag> flags = this.byteRegister.toTypes(value);
+
+            // Assert
+            assertEquals(expectedFlags(value, BIT_INDEXES.length - 3), flags);
+            assertSame(flags, this.byteRegister.toTypes(value));
+        }
+        assertSame(this.byteRegister.toTypes(0x01L), this.byteRegister.toTypes(0x03L));
+    }
+
+    @Test
+    public void wordRegisterValuesDecodeToTheFlagsOfAllBytes() {
+        final Random random = new Random(35);
+        for (int i = 0; i < 10000; i++) {
+            // Arrange
+            final long value = random.nextInt() & 0xFFFFFFFFL;
+
+            // Act
+            final Set<Flag> flags = this.wordRegister.toTypes(value);
+
+            // Assert
+            assertEquals(Long.toHexString(value), expectedFlags(value, BIT_INDEXES.length), flags);
+        }
+    }
+
+    @Test
+    public void singleByteWordRegisterValueDecodesToInternedSet() {
+        // Act
+        final Set<Flag> flags = this.wordRegister.toTypes(0x00020000L);
+
+        // Assert
+        assertSame(flags, this.wordRegister.toTypes(0x00060000L));
+        assertEquals(EnumSet.of(Flag.BIT_17), flags);
+    }
+
+    @Test
+    public void bitsOutsideTheRegisterAreIgnored() {
+        // Act
+        final Set<Flag> flags = this.byteRegister.toTypes(0x0F0000000201L);
+
+        // Assert
+        assertEquals(EnumSet.of(Flag.BIT_0), flags);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void composedSetsAreUnmodifiable() {
+        // Arrange
+        final Set<Flag> flags = this.wordRegister.toTypes(0x08020201L);
+        assertTrue(flags.contains(Flag.BIT_27));
+
+        // Act
+        flags.clear();
+    }
+
+    @Test
+    public void toLongValueIsTheInverseOfToTypes() {
+        // Arrange
+        final long value = 0x08020285L;
+
+        // Act
+        final Long actual = this.wordRegister.toLongValue(this.wordRegister.toTypes(value));
+
+        // Assert
+        assertEquals(0x08020285L, (long) actual);
+    }
+
+    private static Map<Flag, Integer> bitIndexes(final int numberOfFlags) {
+        final Map<Flag, Integer> bitIndexes = new EnumMap<>(Flag.class);
+        for (int i = 0; i < numberOfFlags; i++) {
+            bitIndexes.put(Flag.values()[i], BIT_INDEXES[i]);
+        }
+        return bitIndexes;
+    }
+
+    private static Set<Flag> expectedFlags(final long value, final int numberOfFlags) {
+        final Set<Flag> flags = EnumSet.noneOf(Flag.class);
+        for (int i = 0; i < numberOfFlags; i++) {
+            if ((value & (1L << BIT_INDEXES[i])) != 0) {
+                flags.add(Flag.values()[i]);
+            }
+        }
+        return flags;
+    }
+}
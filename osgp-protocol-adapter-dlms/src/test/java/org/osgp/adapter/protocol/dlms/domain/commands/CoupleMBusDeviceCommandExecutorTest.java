@@ -0,0 +1,95 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.ChannelElementValuesDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.MbusChannelElementsDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.MbusChannelElementsResponseDto;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CoupleMBusDeviceCommandExecutorTest {
+
+    private static final short CHANNEL_1 = 1;
+    private static final short CHANNEL_2 = 2;
+    private static final short PRIMARY_ADDRESS = 9;
+    private static final String IDENTIFICATION_NUMBER = "12049260";
+    private static final String OTHER_IDENTIFICATION_NUMBER = "12049261";
+    private static final String MANUFACTURER_IDENTIFICATION = "LGB";
+    private static final short VERSION = 66;
+    private static final short DEVICE_TYPE_IDENTIFICATION = 3;
+
+    private static final MbusChannelElementsDto REQUEST = new MbusChannelElementsDto(PRIMARY_ADDRESS, "G0001",
+            IDENTIFICATION_NUMBER, MANUFACTURER_IDENTIFICATION, VERSION, DEVICE_TYPE_IDENTIFICATION);
+
+    @Mock
+    private DeviceChannelsHelper deviceChannelsHelper;
+
+    @Mock
+    private DlmsConnectionHolder conn;
+
+    @InjectMocks
+    private CoupleMBusDeviceCommandExecutor executor;
+
+    private final DlmsDevice device = new DlmsDevice("E0001");
+
+    @Test
+    public void confirmsTheCachedChannelOnTheDevice() throws Exception {
+        // Arrange
+        when(this.deviceChannelsHelper.findCachedMatchingChannelsForDevice(this.device, REQUEST))
+                .thenReturn(new ArrayList<>(Collections.singletonList(this.channel(CHANNEL_1, IDENTIFICATION_NUMBER))));
+        when(this.deviceChannelsHelper.readChannelElementValues(this.conn, this.device, CHANNEL_1))
+                .thenReturn(this.channel(CHANNEL_1, IDENTIFICATION_NUMBER));
+
+        // Act
+        final MbusChannelElementsResponseDto response = this.executor.execute(this.conn, this.device, REQUEST);
+
+        // Assert
+        assertEquals(Short.valueOf(CHANNEL_1), Short.valueOf(response.getChannel()));
+        verify(this.deviceChannelsHelper, never()).findCandidateChannelsForDevice(this.conn, this.device, REQUEST);
+    }
+
+    @Test
+    public void readsAllChannelsWhenTheCachedChannelIsStale() throws Exception {
+        // Arrange
+        when(this.deviceChannelsHelper.findCachedMatchingChannelsForDevice(this.device, REQUEST))
+                .thenReturn(new ArrayList<>(Collections.singletonList(this.channel(CHANNEL_1, IDENTIFICATION_NUMBER))));
+        when(this.deviceChannelsHelper.readChannelElementValues(this.conn, this.device, CHANNEL_1))
+                .thenReturn(this.channel(CHANNEL_1, OTHER_IDENTIFICATION_NUMBER));
+        when(this.deviceChannelsHelper.findCandidateChannelsForDevice(this.conn, this.device, REQUEST))
+                .thenReturn(new ArrayList<>(Arrays.asList(this.channel(CHANNEL_1, OTHER_IDENTIFICATION_NUMBER),
+                        this.channel(CHANNEL_2, IDENTIFICATION_NUMBER))));
+
+        // Act
+        final MbusChannelElementsResponseDto response = this.executor.execute(this.conn, this.device, REQUEST);
+
+        // Assert
+        assertEquals(Short.valueOf(CHANNEL_2), Short.valueOf(response.getChannel()));
+    }
+
+    private ChannelElementValuesDto channel(final short channel, final String identificationNumber) {
+        return new ChannelElementValuesDto(channel, PRIMARY_ADDRESS, identificationNumber, MANUFACTURER_IDENTIFICATION,
+                VERSION, DEVICE_TYPE_IDENTIFICATION);
+    }
+}
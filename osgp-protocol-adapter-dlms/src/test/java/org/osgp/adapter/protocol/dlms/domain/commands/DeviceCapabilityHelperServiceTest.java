@@ -0,0 +1,126 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openmuc.jdlms.AttributeAddress;
+import org.openmuc.jdlms.ObisCode;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DeviceCapabilityCachingRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.DeviceCapabilities;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DeviceCapabilityHelperServiceTest {
+
+    private static final ObisCode CLOCK = new ObisCode("0.0.1.0.0.255");
+    private static final ObisCode ACTIVE_ENERGY_IMPORT = new ObisCode("1.0.1.8.0.255");
+
+    @Spy
+    private DeviceCapabilityCachingRepository deviceCapabilityCachingRepository =
+            new DeviceCapabilityCachingRepository();
+
+    @Mock
+    private DlmsDeviceRepository dlmsDeviceRepository;
+
+    @InjectMocks
+    private DeviceCapabilityHelperService deviceCapabilityHelperService;
+
+    private final DlmsDevice device = new DlmsDevice("E0001");
+    private final DlmsDevice sameModel = new DlmsDevice("E0002");
+
+    @Before
+    public void setUp() {
+        for (final DlmsDevice dlmsDevice : new DlmsDevice[] { this.device, this.sameModel }) {
+            dlmsDevice.setMbusManufacturerIdentification("KAI");
+            dlmsDevice.setActiveFirmwareVersion("1.2.3");
+            dlmsDevice.setSelectiveAccessSupported(true);
+        }
+    }
+
+    @Test
+    public void everythingIsAvailableWhenTheCapabilitiesAreUnknown() {
+        // Act
+        final boolean available = this.deviceCapabilityHelperService.isAttributeAvailable(this.device,
+                new AttributeAddress(3, ACTIVE_ENERGY_IMPORT, 2));
+
+        // Assert
+        assertTrue(available);
+        assertTrue(this.deviceCapabilityHelperService.isSelectiveAccessSupported(this.device));
+        assertNull(this.deviceCapabilityHelperService.getMaxGetWithListSize(this.device));
+    }
+
+    @Test
+    public void capabilitiesAreSharedByDevicesOfTheSameModel() {
+        // Act
+        this.deviceCapabilityHelperService.storeCapabilities(this.device, new DeviceCapabilities(null,
+                Collections.singleton(DeviceCapabilities.attributeKey(8, CLOCK, 2)), false));
+
+        // Assert
+        assertTrue(this.deviceCapabilityHelperService.isAttributeAvailable(this.sameModel,
+                new AttributeAddress(8, CLOCK, 2)));
+        assertFalse(this.deviceCapabilityHelperService.isAttributeAvailable(this.sameModel,
+                new AttributeAddress(3, ACTIVE_ENERGY_IMPORT, 2)));
+        assertFalse(this.deviceCapabilityHelperService.isSelectiveAccessSupported(this.sameModel));
+    }
+
+    @Test
+    public void theGetWithListLimitIsLearnedPerDevice() {
+        // Act
+        this.deviceCapabilityHelperService.learnMaxGetWithListSize(this.device, 10);
+        this.deviceCapabilityHelperService.learnMaxGetWithListSize(this.device, 20);
+
+        // Assert
+        assertEquals(Integer.valueOf(10), this.deviceCapabilityHelperService.getMaxGetWithListSize(this.device));
+        assertNull(this.deviceCapabilityHelperService.getMaxGetWithListSize(this.sameModel));
+        verify(this.dlmsDeviceRepository, times(2)).updateMaxGetWithListSize("E0001", 10);
+    }
+
+    @Test
+    public void theGetWithListLimitGrowsWhenRequestsOfItsSizeAreAccepted() {
+        // Arrange
+        this.device.setMaxGetWithListSize(4);
+
+        // Act
+        this.deviceCapabilityHelperService.growMaxGetWithListSize(this.device, 2);
+        this.deviceCapabilityHelperService.growMaxGetWithListSize(this.device, 4);
+
+        // Assert
+        assertEquals(Integer.valueOf(5), this.deviceCapabilityHelperService.getMaxGetWithListSize(this.device));
+        assertNull(this.deviceCapabilityHelperService.getMaxGetWithListSize(this.sameModel));
+    }
+
+    @Test
+    public void capabilitiesAreNotStoredWhenTheFirmwareVersionIsUnknown() {
+        // Arrange
+        this.device.setActiveFirmwareVersion(null);
+
+        // Act
+        this.deviceCapabilityHelperService.storeCapabilities(this.device,
+                new DeviceCapabilities(null, Collections.<String> emptySet(), false));
+
+        // Assert
+        assertTrue(this.deviceCapabilityHelperService.isSelectiveAccessSupported(this.device));
+        assertNull(this.deviceCapabilityHelperService.getCapabilities(this.sameModel));
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openmuc.jdlms.AttributeAddress;
+import org.openmuc.jdlms.GetResult;
+import org.osgp.adapter.protocol.dlms.domain.commands.mbus.ManufacturerId;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.MbusChannelCachingRepository;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsMessageListener;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.ChannelElementValuesDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.MbusChannelElementsDto;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DeviceChannelsHelperTest {
+
+    private static final short PRIMARY_ADDRESS = 1;
+    private static final String IDENTIFICATION_NUMBER = "12049260";
+    private static final String MANUFACTURER_IDENTIFICATION = "LGB";
+
+    @Mock
+    private DlmsConnectionHolder conn;
+
+    @Mock
+    private DlmsMessageListener dlmsMessageListener;
+
+    @Mock
+    private DlmsHelperService dlmsHelperService;
+
+    @Spy
+    private MbusChannelCachingRepository mbusChannelCachingRepository = new MbusChannelCachingRepository();
+
+    @InjectMocks
+    private DeviceChannelsHelper deviceChannelsHelper;
+
+    private final DlmsDevice device = new DlmsDevice("E0001");
+
+    @Before
+    public void setUp() throws Exception {
+        ReflectionTestUtils.setField(this.mbusChannelCachingRepository, "timeToLiveSeconds", 3600L);
+        when(this.conn.getDlmsMessageListener()).thenReturn(this.dlmsMessageListener);
+        final List<GetResult> resultList = Collections.nCopies(20, mock(GetResult.class));
+        when(this.dlmsHelperService.getWithList(eq(this.conn), eq(this.device),
+                Matchers.<AttributeAddress> anyVararg())).thenReturn(resultList);
+        when(this.dlmsHelperService.readShort(any(GetResult.class), anyString())).thenReturn(PRIMARY_ADDRESS);
+        when(this.dlmsHelperService.readLong(any(GetResult.class), anyString()))
+                .thenReturn(Long.valueOf(IDENTIFICATION_NUMBER, 16));
+        when(this.dlmsHelperService.readInteger(any(GetResult.class), anyString()))
+                .thenReturn(ManufacturerId.fromIdentification(MANUFACTURER_IDENTIFICATION).getId());
+    }
+
+    @Test
+    public void readsAllChannelsWithOneRequest() throws Exception {
+        // Act
+        final List<ChannelElementValuesDto> channels = this.deviceChannelsHelper
+                .findCandidateChannelsForDevice(this.conn, this.device, null);
+
+        // Assert
+        assertEquals(4, channels.size());
+        assertEquals(IDENTIFICATION_NUMBER, channels.get(3).getIdentificationNumber());
+        verify(this.dlmsHelperService, times(1)).getWithList(eq(this.conn), eq(this.device),
+                Matchers.<AttributeAddress> anyVararg());
+    }
+
+    @Test
+    public void cachedChannelsAreUsedUntilEvicted() throws Exception {
+        // Arrange
+        this.deviceChannelsHelper.findCandidateChannelsForDevice(this.conn, this.device, null);
+        final MbusChannelElementsDto requestDto = new MbusChannelElementsDto(PRIMARY_ADDRESS, "G0001",
+                IDENTIFICATION_NUMBER, MANUFACTURER_IDENTIFICATION, PRIMARY_ADDRESS, PRIMARY_ADDRESS);
+
+        // Act
+        final List<ChannelElementValuesDto> cachedMatch = this.deviceChannelsHelper
+                .findCachedMatchingChannelsForDevice(this.device, requestDto);
+        this.deviceChannelsHelper.evictChannel(this.device, (short) 1);
+
+        // Assert
+        assertEquals(1, cachedMatch.size());
+        assertEquals(1, cachedMatch.get(0).getChannel());
+        verify(this.dlmsHelperService, times(1)).getWithList(eq(this.conn), eq(this.device),
+                Matchers.<AttributeAddress> anyVararg());
+        assertNull(this.deviceChannelsHelper.findCachedMatchingChannelsForDevice(this.device, requestDto));
+    }
+}
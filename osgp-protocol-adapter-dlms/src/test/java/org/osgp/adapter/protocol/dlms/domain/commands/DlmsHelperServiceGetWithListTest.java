@@ -0,0 +1,138 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openmuc.jdlms.AccessResultCode;
+import org.openmuc.jdlms.AttributeAddress;
+import org.openmuc.jdlms.DlmsConnection;
+import org.openmuc.jdlms.GetResult;
+import org.openmuc.jdlms.ObisCode;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DlmsHelperServiceGetWithListTest {
+
+    private static final int ACCEPTED_SIZE = 3;
+
+    @Mock
+    private DlmsConnectionHolder conn;
+
+    @Mock
+    private DlmsConnection dlmsConnection;
+
+    @Mock
+    private DeviceCapabilityHelperService deviceCapabilityHelperService;
+
+    @InjectMocks
+    private DlmsHelperService dlmsHelperService;
+
+    private final DlmsDevice device = new DlmsDevice("E0001");
+
+    private final List<Integer> requestSizes = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        this.device.setWithListSupported(true);
+        final GetResult success = this.getResult(AccessResultCode.SUCCESS);
+        final GetResult rejected = this.getResult(AccessResultCode.OTHER_REASON);
+        when(this.conn.getConnection()).thenReturn(this.dlmsConnection);
+        when(this.dlmsConnection.get(anyListOf(AttributeAddress.class))).thenAnswer(invocation -> {
+            final int requestSize = ((List<?>) invocation.getArguments()[0]).size();
+            this.requestSizes.add(requestSize);
+            if (requestSize > ACCEPTED_SIZE) {
+                return Collections.singletonList(rejected);
+            }
+            return Collections.nCopies(requestSize, success);
+        });
+    }
+
+    @Test
+    public void learnsTheMaximumSizeFromRejectedRequests() throws Exception {
+        // Act
+        final List<GetResult> getResults = this.dlmsHelperService.getWithList(this.conn, this.device,
+                this.attributeAddresses(8));
+
+        // Assert
+        assertEquals(8, getResults.size());
+        assertEquals(getResults.toString(), 0, getResults.stream()
+                .filter(getResult -> getResult.getResultCode() != AccessResultCode.SUCCESS).count());
+        assertEquals("[8, 4, 2, 2, 2, 2]", this.requestSizes.toString());
+        verify(this.deviceCapabilityHelperService).learnMaxGetWithListSize(this.device, 4);
+        verify(this.deviceCapabilityHelperService).learnMaxGetWithListSize(this.device, 2);
+    }
+
+    @Test
+    public void requestsChunksOfTheLearnedMaximumSize() throws Exception {
+        // Arrange
+        when(this.deviceCapabilityHelperService.getMaxGetWithListSize(this.device)).thenReturn(ACCEPTED_SIZE);
+
+        // Act
+        final List<GetResult> getResults = this.dlmsHelperService.getWithList(this.conn, this.device,
+                this.attributeAddresses(8));
+
+        // Assert
+        assertEquals(8, getResults.size());
+        assertEquals("[3, 3, 2]", this.requestSizes.toString());
+        verify(this.deviceCapabilityHelperService, never()).learnMaxGetWithListSize(eq(this.device), anyInt());
+        verify(this.deviceCapabilityHelperService).growMaxGetWithListSize(this.device, ACCEPTED_SIZE);
+    }
+
+    @Test
+    public void doesNotLearnFromAttributesThatAreUnavailable() throws Exception {
+        // Arrange
+        final GetResult unavailable = this.getResult(AccessResultCode.DATA_BLOCK_UNAVAILABLE);
+        when(this.dlmsConnection.get(anyListOf(AttributeAddress.class))).thenAnswer(invocation -> {
+            final int requestSize = ((List<?>) invocation.getArguments()[0]).size();
+            this.requestSizes.add(requestSize);
+            return Collections.nCopies(requestSize, unavailable);
+        });
+
+        // Act
+        final List<GetResult> getResults = this.dlmsHelperService.getWithList(this.conn, this.device,
+                this.attributeAddresses(ACCEPTED_SIZE));
+
+        // Assert
+        assertEquals(ACCEPTED_SIZE, getResults.size());
+        assertEquals("[3, 1]", this.requestSizes.toString());
+        verify(this.deviceCapabilityHelperService, never()).learnMaxGetWithListSize(eq(this.device), anyInt());
+    }
+
+    private AttributeAddress[] attributeAddresses(final int numberOfAttributes) {
+        final AttributeAddress[] attributeAddresses = new AttributeAddress[numberOfAttributes];
+        for (int i = 0; i < numberOfAttributes; i++) {
+            attributeAddresses[i] = new AttributeAddress(3, new ObisCode(1, 0, 1, 8, i, 255), 2);
+        }
+        return attributeAddresses;
+    }
+
+    private GetResult getResult(final AccessResultCode resultCode) {
+        final GetResult getResult = mock(GetResult.class);
+        when(getResult.getResultCode()).thenReturn(resultCode);
+        return getResult;
+    }
+}
@@ -13,7 +13,10 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -21,11 +24,14 @@ import org.joda.time.format.ISODateTimeFormat;
 import org.junit.Test;
 import org.openmuc.jdlms.datatypes.CosemDateTime;
 import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.ScalerUnit;
 
 import com.alliander.osgp.dto.valueobjects.smartmetering.ClockStatusDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.CosemDateDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.CosemDateTimeDto;
 import com.alliander.osgp.dto.valueobjects.smartmetering.CosemTimeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsMeterValueDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsUnitTypeDto;
 
 public class DlmsHelperServiceTest {
 
@@ -197,6 +203,111 @@ public class DlmsHelperServiceTest {
         assertEquals(expected, logMessage);
     }
 
+    @Test
+    public void testToEpochMillisGivesTheInstantOfCosemDateTimeDto() {
+        final Random random = new Random(20180214L);
+        for (int i = 0; i < 100000; i++) {
+            final byte[] dateTimeValue = this.randomDateTimeValue(random);
+
+            final String expected = this.instantFromCosemDateTimeDto(dateTimeValue);
+            final String actual = this.instantFromEpochMillis(dateTimeValue);
+
+            assertEquals("instant of " + Arrays.toString(dateTimeValue), expected, actual);
+        }
+    }
+
+    @Test
+    public void testReadEpochMillisFromCosemDateFormat() throws Exception {
+        final DataObject dateTime = this.dlmsHelperService.asDataObject(this.dateTimeSummerTime());
+
+        final long epochMillis = this.dlmsHelperService.readEpochMillis(dateTime, "clock");
+
+        assertEquals(this.dateTimeSummerTime().getMillis(), epochMillis);
+    }
+
+    @Test
+    public void testReadEpochMillisFromNullData() throws Exception {
+        final long epochMillis = this.dlmsHelperService.readEpochMillis(DataObject.newNullData(), "clock");
+
+        assertEquals(DlmsHelperService.EPOCH_MILLIS_NOT_SPECIFIED, epochMillis);
+    }
+
+    @Test
+    public void testScalerUnitScalesLikePowerOfTen() throws Exception {
+        final Random random = new Random(20180214L);
+        final int unit = 14;
+        for (int scaler = Byte.MIN_VALUE; scaler <= Byte.MAX_VALUE; scaler++) {
+            final DataObject scalerUnitObject = DataObject.newStructureData(
+                    Arrays.asList(DataObject.newInteger8Data((byte) scaler), DataObject.newEnumerateData(unit)));
+            final ScalerUnit scalerUnit = this.dlmsHelperService.readScalerUnit(scalerUnitObject, "scaler");
+            for (int i = 0; i < 100; i++) {
+                final long rawValue = i == 0 ? 0 : random.nextInt();
+                final DataObject value = DataObject.newInteger64Data(rawValue);
+
+                final DlmsMeterValueDto meterValue = this.dlmsHelperService.getScaledMeterValue(value, scalerUnit,
+                        "value");
+                final DlmsMeterValueDto meterValueFromScalerUnitObject = this.dlmsHelperService
+                        .getScaledMeterValue(value, scalerUnitObject, "value");
+
+                final BigDecimal expected = scaler == 0 ? BigDecimal.valueOf(rawValue)
+                        : BigDecimal.valueOf(rawValue).multiply(BigDecimal.valueOf(Math.pow(10, scaler)));
+                assertEquals(expected, meterValue.getValue());
+                assertEquals(expected, meterValueFromScalerUnitObject.getValue());
+                assertEquals(DlmsUnitTypeDto.getUnitType(unit), meterValue.getDlmsUnit());
+            }
+        }
+    }
+
+    /**
+     * Creates mostly valid COSEM date-times, with every field occasionally
+     * out of range or not specified.
+     */
+    private byte[] randomDateTimeValue(final Random random) {
+        final ByteBuffer bb = ByteBuffer.allocate(NUM_BYTES_DATE_TIME);
+        bb.putShort((short) this.randomField(random, 1900 + random.nextInt(300), CosemDateDto.YEAR_NOT_SPECIFIED));
+        bb.put((byte) this.randomField(random, 1 + random.nextInt(12), CosemDateDto.MONTH_NOT_SPECIFIED));
+        bb.put((byte) this.randomField(random, 1 + random.nextInt(31), CosemDateDto.DAY_OF_MONTH_NOT_SPECIFIED));
+        bb.put((byte) this.randomField(random, 1 + random.nextInt(7), CosemDateDto.DAY_OF_WEEK_NOT_SPECIFIED));
+        bb.put((byte) this.randomField(random, random.nextInt(24), CosemTimeDto.HOUR_NOT_SPECIFIED));
+        bb.put((byte) this.randomField(random, random.nextInt(60), CosemTimeDto.MINUTE_NOT_SPECIFIED));
+        bb.put((byte) this.randomField(random, random.nextInt(60), CosemTimeDto.SECOND_NOT_SPECIFIED));
+        bb.put((byte) this.randomField(random, random.nextInt(100), CosemTimeDto.HUNDREDTHS_NOT_SPECIFIED));
+        bb.putShort((short) this.randomField(random, random.nextInt(1441) - 720,
+                CosemDateTimeDto.DEVIATION_NOT_SPECIFIED));
+        bb.put(random.nextBoolean() ? CLOCK_STATUS_DST : CLOCK_STATUS_NO_DST);
+        return bb.array();
+    }
+
+    private int randomField(final Random random, final int validValue, final int notSpecified) {
+        final int dice = random.nextInt(50);
+        if (dice == 0) {
+            return notSpecified;
+        }
+        if (dice == 1) {
+            return random.nextInt(256);
+        }
+        return validValue;
+    }
+
+    private String instantFromCosemDateTimeDto(final byte[] dateTimeValue) {
+        try {
+            final DateTime dateTime = this.dlmsHelperService.fromDateTimeValue(dateTimeValue).asDateTime();
+            return dateTime == null ? "not specified" : String.valueOf(dateTime.getMillis());
+        } catch (final RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private String instantFromEpochMillis(final byte[] dateTimeValue) {
+        try {
+            final long epochMillis = this.dlmsHelperService.toEpochMillis(dateTimeValue);
+            return epochMillis == DlmsHelperService.EPOCH_MILLIS_NOT_SPECIFIED ? "not specified"
+                    : String.valueOf(epochMillis);
+        } catch (final RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
     private DateTime dateTimeSummerTime() {
         return new DateTime(YEAR, MONTH_SUMMER_TIME, DAY, HOUR, MINUTE, SECOND, HUNDREDTHS * 10,
                 DATE_TIME_ZONE_AMSTERDAM);
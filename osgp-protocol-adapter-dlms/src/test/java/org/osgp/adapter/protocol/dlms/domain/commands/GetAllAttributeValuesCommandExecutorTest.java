@@ -0,0 +1,103 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openmuc.jdlms.AccessResultCode;
+import org.openmuc.jdlms.AttributeAddress;
+import org.openmuc.jdlms.GetResult;
+import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsMessageListener;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GetAllAttributeValuesCommandExecutorTest {
+
+    @Mock
+    private DlmsConnectionHolder conn;
+
+    @Mock
+    private DlmsMessageListener dlmsMessageListener;
+
+    @Mock
+    private DlmsHelperService dlmsHelper;
+
+    @InjectMocks
+    private GetAllAttributeValuesCommandExecutor executor;
+
+    private final DlmsDevice device = new DlmsDevice("E0001");
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(this.executor, "chunkSize", 2);
+        when(this.conn.getDlmsMessageListener()).thenReturn(this.dlmsMessageListener);
+        when(this.dlmsHelper.getDebugInfo(any(DataObject.class))).thenReturn("value");
+    }
+
+    @Test
+    public void readsTheAttributesInChunks() throws Exception {
+        // Arrange
+        final DataObject objectList = DataObject.newArrayData(Arrays.asList(this.objectListElement(1, 2),
+                this.objectListElement(3, 3)));
+        when(this.dlmsHelper.getAttributeValue(eq(this.conn), any(AttributeAddress.class))).thenReturn(objectList);
+        final List<GetResult> pair = Arrays.asList(this.getResult(), this.getResult());
+        final List<GetResult> single = Collections.singletonList(this.getResult());
+        when(this.dlmsHelper.getWithList(eq(this.conn), eq(this.device), any(AttributeAddress.class),
+                any(AttributeAddress.class))).thenReturn(pair);
+        when(this.dlmsHelper.getWithList(eq(this.conn), eq(this.device), any(AttributeAddress.class)))
+                .thenReturn(single);
+
+        // Act
+        final String output = this.executor.execute(this.conn, this.device, null);
+
+        // Assert
+        verify(this.dlmsHelper, times(2)).getWithList(eq(this.conn), eq(this.device), any(AttributeAddress.class),
+                any(AttributeAddress.class));
+        verify(this.dlmsHelper).getWithList(eq(this.conn), eq(this.device), any(AttributeAddress.class));
+        assertEquals(output, 5, output.split(": SUCCESS").length - 1);
+        assertTrue(output, output.startsWith("{1,"));
+    }
+
+    private DataObject objectListElement(final int classId, final int numberOfAttributes) {
+        final DataObject[] attributeAccess = new DataObject[numberOfAttributes];
+        Arrays.fill(attributeAccess, DataObject.newNullData());
+        final DataObject accessRights = DataObject.newStructureData(Arrays.asList(
+                DataObject.newArrayData(Arrays.asList(attributeAccess)),
+                DataObject.newArrayData(Collections.<DataObject> emptyList())));
+        return DataObject.newStructureData(Arrays.asList(DataObject.newUInteger16Data(classId),
+                DataObject.newUInteger8Data((short) 0),
+                DataObject.newOctetStringData(new byte[] { 0, 0, 1, 0, 0, (byte) 255 }), accessRights));
+    }
+
+    private GetResult getResult() {
+        final GetResult getResult = mock(GetResult.class);
+        when(getResult.getResultCode()).thenReturn(AccessResultCode.SUCCESS);
+        when(getResult.getResultData()).thenReturn(DataObject.newUInteger8Data((short) 1));
+        return getResult;
+    }
+}
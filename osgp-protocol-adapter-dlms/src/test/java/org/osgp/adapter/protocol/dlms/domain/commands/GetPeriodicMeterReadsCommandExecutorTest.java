@@ -0,0 +1,142 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openmuc.jdlms.AttributeAddress;
+import org.openmuc.jdlms.GetResult;
+import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.application.services.PeriodicMeterReadsCheckpointService;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.PeriodicMeterReadsCheckpoint;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DeviceCapabilityCachingRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.PeriodicMeterReadsCheckpointRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsMessageListener;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsRequestDto;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GetPeriodicMeterReadsCommandExecutorTest {
+
+    private static final int CLASS_ID_PROFILE_GENERIC = 7;
+    private static final DateTime FROM = new DateTime(2018, 1, 1, 0, 0);
+    private static final DateTime UNTIL = FROM.plusWeeks(3);
+    private static final long WINDOW_MILLIS = 168 * 3600 * 1000L;
+
+    @Mock
+    private DlmsConnectionHolder conn;
+
+    @Mock
+    private DlmsMessageListener dlmsMessageListener;
+
+    @Mock
+    private DlmsHelperService dlmsHelperService;
+
+    @Mock
+    private PeriodicMeterReadsCheckpointRepository periodicMeterReadsCheckpointRepository;
+
+    @Spy
+    private PeriodicMeterReadsCheckpointService periodicMeterReadsCheckpointService =
+            new PeriodicMeterReadsCheckpointService();
+
+    @Spy
+    private DeviceCapabilityHelperService deviceCapabilityHelperService = new DeviceCapabilityHelperService();
+
+    @InjectMocks
+    private GetPeriodicMeterReadsCommandExecutor executor;
+
+    private final DlmsDevice device = new DlmsDevice("E0001");
+
+    private int bufferReads;
+
+    private int failingBufferRead;
+
+    private final List<PeriodicMeterReadsCheckpoint> checkpoints = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        ReflectionTestUtils.setField(this.executor, "intervalWindowHours", 168);
+        ReflectionTestUtils.setField(this.periodicMeterReadsCheckpointService,
+                "periodicMeterReadsCheckpointRepository", this.periodicMeterReadsCheckpointRepository);
+        ReflectionTestUtils.setField(this.periodicMeterReadsCheckpointService, "timeToLiveSeconds", 3600L);
+        ReflectionTestUtils.setField(this.deviceCapabilityHelperService, "deviceCapabilityCachingRepository",
+                new DeviceCapabilityCachingRepository());
+        when(this.periodicMeterReadsCheckpointRepository.save(any(PeriodicMeterReadsCheckpoint.class)))
+                .thenAnswer(invocation -> {
+                    final PeriodicMeterReadsCheckpoint checkpoint = (PeriodicMeterReadsCheckpoint) invocation
+                            .getArguments()[0];
+                    this.checkpoints.add(checkpoint);
+                    return checkpoint;
+                });
+        when(this.periodicMeterReadsCheckpointRepository.findByCorrelationUidAndWindowBeginAndWindowEnd(anyString(),
+                any(Date.class), any(Date.class))).thenAnswer(invocation -> {
+                    final int windowIndex = (int) ((((Date) invocation.getArguments()[1]).getTime()
+                            - FROM.getMillis()) / WINDOW_MILLIS);
+                    return windowIndex < this.checkpoints.size() ? this.checkpoints.get(windowIndex) : null;
+                });
+        when(this.conn.getDlmsMessageListener()).thenReturn(this.dlmsMessageListener);
+        when(this.dlmsHelperService.getClockDefinition()).thenReturn(DataObject.newNullData());
+        when(this.dlmsHelperService.asDataObject(any(DateTime.class))).thenReturn(DataObject.newNullData());
+        when(this.dlmsHelperService.readDataObject(any(GetResult.class), anyString()))
+                .thenReturn(DataObject.newArrayData(Collections.<DataObject> emptyList()));
+        when(this.dlmsHelperService.getAndCheck(eq(this.conn), eq(this.device), anyString(),
+                Matchers.<AttributeAddress> anyVararg())).thenAnswer(invocation -> {
+                    final AttributeAddress address = (AttributeAddress) invocation.getArguments()[3];
+                    if (address.getClassId() == CLASS_ID_PROFILE_GENERIC
+                            && ++this.bufferReads == this.failingBufferRead) {
+                        throw new ProtocolAdapterException("Response timeout");
+                    }
+                    return Collections.singletonList(mock(GetResult.class));
+                });
+    }
+
+    @Test
+    public void retriesOnlyReadTheWindowsThatAreMissing() throws Exception {
+        // Arrange
+        final PeriodicMeterReadsRequestDto request = new PeriodicMeterReadsRequestDto(PeriodTypeDto.INTERVAL,
+                FROM.toDate(), UNTIL.toDate());
+        this.failingBufferRead = 2;
+        try {
+            this.executor.readColumns(this.conn, this.device, request, "correlation-uid");
+            fail("The second window should have failed");
+        } catch (final ProtocolAdapterException e) {
+            // expected
+        }
+
+        // Act
+        this.executor.readColumns(this.conn, this.device, request, "correlation-uid");
+
+        // Assert
+        assertEquals("one window before, two windows after the failure", 4, this.bufferReads);
+    }
+}
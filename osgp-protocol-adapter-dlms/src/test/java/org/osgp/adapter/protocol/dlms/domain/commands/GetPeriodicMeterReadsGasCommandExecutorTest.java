@@ -0,0 +1,220 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openmuc.jdlms.AttributeAddress;
+import org.openmuc.jdlms.GetResult;
+import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DeviceCapabilityCachingRepository;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.DeviceCapabilities;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.PeriodicMeterReadsColumns;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsMessageListener;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.ChannelDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GetPeriodicMeterReadsGasCommandExecutorTest {
+
+    private static final Date FROM = new DateTime(2018, 3, 1, 0, 0).toDate();
+    private static final Date UNTIL = new DateTime(2018, 3, 2, 0, 0).toDate();
+
+    @Mock
+    private DlmsConnectionHolder conn;
+
+    @Mock
+    private DlmsMessageListener dlmsMessageListener;
+
+    @Mock
+    private DlmsHelperService dlmsHelperService;
+
+    @Spy
+    private DeviceCapabilityHelperService deviceCapabilityHelperService = new DeviceCapabilityHelperService();
+
+    @InjectMocks
+    private GetPeriodicMeterReadsGasCommandExecutor executor;
+
+    private final DlmsDevice device = new DlmsDevice("E0001");
+
+    @Before
+    public void setUp() throws Exception {
+        this.device.setSelectiveAccessSupported(true);
+        ReflectionTestUtils.setField(this.deviceCapabilityHelperService, "deviceCapabilityCachingRepository",
+                new DeviceCapabilityCachingRepository());
+        when(this.conn.getDlmsMessageListener()).thenReturn(this.dlmsMessageListener);
+        when(this.dlmsHelperService.getClockDefinition()).thenReturn(DataObject.newNullData());
+        when(this.dlmsHelperService.getAMRProfileDefinition()).thenReturn(DataObject.newNullData());
+        when(this.dlmsHelperService.asDataObject(any(DateTime.class))).thenReturn(DataObject.newNullData());
+        when(this.dlmsHelperService.readLong(any(DataObject.class), anyString()))
+                .thenAnswer(invocation -> ((Number) ((DataObject) invocation.getArguments()[0]).getValue())
+                        .longValue());
+        when(this.dlmsHelperService.readEpochMillis(any(DataObject.class), anyString())).thenReturn(2000L);
+    }
+
+    @Test
+    public void readsTheDailyValuesOfAllChannelsFromOneBuffer() throws Exception {
+        // Arrange
+        final DataObject bufferEntry = DataObject.newStructureData(Arrays.asList(DataObject.newNullData(),
+                DataObject.newUInteger8Data((short) 0), DataObject.newUInteger32Data(100),
+                DataObject.newNullData(), DataObject.newUInteger32Data(300), DataObject.newNullData()));
+        final DataObject buffer = DataObject.newArrayData(Collections.singletonList(bufferEntry));
+        final List<GetResult> getResults = Arrays.asList(mock(GetResult.class), mock(GetResult.class),
+                mock(GetResult.class));
+        when(this.dlmsHelperService.getAndCheck(eq(this.conn), eq(this.device), anyString(),
+                Matchers.<AttributeAddress> anyVararg())).thenReturn(getResults);
+        when(this.dlmsHelperService.readDataObject(getResults.get(0), "Periodic G-Meter Reads")).thenReturn(buffer);
+        when(this.dlmsHelperService.readBufferedDateTime(any(DataObject.class), any(DateTime.class),
+                any(DateTime.class), anyString())).thenReturn(1000L);
+
+        // Act
+        final Map<ChannelDto, PeriodicMeterReadsColumns> columnsPerChannel = this.executor.readColumns(this.conn,
+                this.device, PeriodTypeDto.DAILY, FROM, UNTIL, Arrays.asList(ChannelDto.ONE, ChannelDto.THREE));
+
+        // Assert
+        assertEquals(Arrays.asList(ChannelDto.ONE, ChannelDto.THREE),
+                Arrays.asList(columnsPerChannel.keySet().toArray()));
+        assertEquals(100, columnsPerChannel.get(ChannelDto.ONE).getRawValue(0, 0));
+        assertEquals(300, columnsPerChannel.get(ChannelDto.THREE).getRawValue(0, 0));
+        assertEquals(2000, columnsPerChannel.get(ChannelDto.THREE).getCaptureTime(0));
+        verify(this.dlmsHelperService, times(1)).getAndCheck(eq(this.conn), eq(this.device), anyString(),
+                Matchers.<AttributeAddress> anyVararg());
+    }
+
+    @Test
+    public void doesNotRequestAProfileThatIsNotInTheAssociationObjectList() throws Exception {
+        // Arrange
+        this.device.setMbusManufacturerIdentification("KAI");
+        this.device.setActiveFirmwareVersion("1.2.3");
+        this.deviceCapabilityHelperService.storeCapabilities(this.device,
+                new DeviceCapabilities(null, Collections.<String> emptySet(), true));
+
+        try {
+            // Act
+            this.executor.readColumns(this.conn, this.device, PeriodTypeDto.DAILY, FROM, UNTIL,
+                    Arrays.asList(ChannelDto.ONE, ChannelDto.TWO));
+            fail("The daily profile is not in the association object list");
+        } catch (final ProtocolAdapterException e) {
+            // Assert
+            verify(this.dlmsHelperService, never()).getAndCheck(eq(this.conn), eq(this.device), anyString(),
+                    Matchers.<AttributeAddress> anyVararg());
+        }
+    }
+
+    @Test
+    public void readsTheIntervalValueOfASingleChannelFromItsOwnBuffer() throws Exception {
+        // Arrange
+        final DataObject bufferEntry = DataObject.newStructureData(Arrays.asList(DataObject.newNullData(),
+                DataObject.newUInteger8Data((short) 4), DataObject.newUInteger32Data(700),
+                DataObject.newNullData()));
+        final DataObject buffer = DataObject.newArrayData(Collections.singletonList(bufferEntry));
+        final List<GetResult> getResults = Arrays.asList(mock(GetResult.class), mock(GetResult.class));
+        when(this.dlmsHelperService.getAndCheck(eq(this.conn), eq(this.device), anyString(),
+                Matchers.<AttributeAddress> anyVararg())).thenReturn(getResults);
+        when(this.dlmsHelperService.readDataObject(getResults.get(0), "Periodic G-Meter Reads")).thenReturn(buffer);
+        when(this.dlmsHelperService.readBufferedDateTime(any(DataObject.class), any(DateTime.class),
+                any(DateTime.class), anyString())).thenReturn(1000L);
+
+        // Act
+        final Map<ChannelDto, PeriodicMeterReadsColumns> columnsPerChannel = this.executor.readColumns(this.conn,
+                this.device, PeriodTypeDto.INTERVAL, FROM, UNTIL, Collections.singletonList(ChannelDto.TWO));
+
+        // Assert
+        final PeriodicMeterReadsColumns columns = columnsPerChannel.get(ChannelDto.TWO);
+        assertEquals(1, columns.size());
+        assertEquals(700, columns.getRawValue(0, 0));
+        assertEquals(4, columns.getAmrProfileStatus(0));
+        assertEquals(2000, columns.getCaptureTime(0));
+    }
+
+    @Test
+    public void readsTheIntervalValuesOfEveryChannelFromTheirOwnBuffers() throws Exception {
+        // Arrange
+        final DataObject firstBuffer = DataObject.newArrayData(Collections.singletonList(
+                DataObject.newStructureData(Arrays.asList(DataObject.newNullData(),
+                        DataObject.newUInteger8Data((short) 0), DataObject.newUInteger32Data(100),
+                        DataObject.newNullData()))));
+        final DataObject secondBuffer = DataObject.newArrayData(Collections.singletonList(
+                DataObject.newStructureData(Arrays.asList(DataObject.newNullData(),
+                        DataObject.newUInteger8Data((short) 0), DataObject.newUInteger32Data(400),
+                        DataObject.newNullData()))));
+        final List<GetResult> getResults = Arrays.asList(mock(GetResult.class), mock(GetResult.class),
+                mock(GetResult.class), mock(GetResult.class));
+        when(this.dlmsHelperService.getAndCheck(eq(this.conn), eq(this.device), anyString(),
+                Matchers.<AttributeAddress> anyVararg())).thenReturn(getResults);
+        when(this.dlmsHelperService.readDataObject(getResults.get(0), "Periodic G-Meter Reads"))
+                .thenReturn(firstBuffer);
+        when(this.dlmsHelperService.readDataObject(getResults.get(1), "Periodic G-Meter Reads"))
+                .thenReturn(secondBuffer);
+        when(this.dlmsHelperService.readBufferedDateTime(any(DataObject.class), any(DateTime.class),
+                any(DateTime.class), anyString())).thenReturn(1000L);
+
+        // Act
+        final Map<ChannelDto, PeriodicMeterReadsColumns> columnsPerChannel = this.executor.readColumns(this.conn,
+                this.device, PeriodTypeDto.INTERVAL, FROM, UNTIL, Arrays.asList(ChannelDto.ONE, ChannelDto.FOUR));
+
+        // Assert
+        assertEquals(100, columnsPerChannel.get(ChannelDto.ONE).getRawValue(0, 0));
+        assertEquals(400, columnsPerChannel.get(ChannelDto.FOUR).getRawValue(0, 0));
+    }
+
+    @Test
+    public void readsTheMonthlyValuesOfAllChannelsFromOneBuffer() throws Exception {
+        // Arrange
+        final DataObject bufferEntry = DataObject.newStructureData(Arrays.asList(DataObject.newNullData(),
+                DataObject.newUInteger32Data(200), DataObject.newNullData(), DataObject.newUInteger32Data(400),
+                DataObject.newNullData()));
+        final DataObject buffer = DataObject.newArrayData(Collections.singletonList(bufferEntry));
+        final List<GetResult> getResults = Arrays.asList(mock(GetResult.class), mock(GetResult.class),
+                mock(GetResult.class));
+        when(this.dlmsHelperService.getAndCheck(eq(this.conn), eq(this.device), anyString(),
+                Matchers.<AttributeAddress> anyVararg())).thenReturn(getResults);
+        when(this.dlmsHelperService.readDataObject(getResults.get(0), "Periodic G-Meter Reads")).thenReturn(buffer);
+        when(this.dlmsHelperService.readBufferedDateTime(any(DataObject.class), any(DateTime.class),
+                any(DateTime.class), anyString())).thenReturn(1000L);
+
+        // Act
+        final Map<ChannelDto, PeriodicMeterReadsColumns> columnsPerChannel = this.executor.readColumns(this.conn,
+                this.device, PeriodTypeDto.MONTHLY, FROM, UNTIL, Arrays.asList(ChannelDto.TWO, ChannelDto.FOUR));
+
+        // Assert
+        assertEquals(200, columnsPerChannel.get(ChannelDto.TWO).getRawValue(0, 0));
+        assertEquals(400, columnsPerChannel.get(ChannelDto.FOUR).getRawValue(0, 0));
+        assertFalse(columnsPerChannel.get(ChannelDto.TWO).hasAmrProfileStatus());
+    }
+}
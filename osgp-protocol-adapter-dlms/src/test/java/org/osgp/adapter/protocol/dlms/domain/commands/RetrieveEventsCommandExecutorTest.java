@@ -0,0 +1,190 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openmuc.jdlms.AccessResultCode;
+import org.openmuc.jdlms.AttributeAddress;
+import org.openmuc.jdlms.DlmsConnection;
+import org.openmuc.jdlms.GetResult;
+import org.openmuc.jdlms.datatypes.DataObject;
+import org.osgp.adapter.protocol.dlms.application.mapping.DataObjectToEventListConverter;
+import org.osgp.adapter.protocol.dlms.domain.commands.RetrieveEventsCommandExecutor.RetrievedEvents;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.domain.entities.EventLogHighWaterMark;
+import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
+import org.osgp.adapter.protocol.dlms.domain.repositories.EventLogHighWaterMarkRepository;
+import org.osgp.adapter.protocol.dlms.exceptions.ProtocolAdapterException;
+import org.osgp.adapter.protocol.dlms.infra.messaging.DlmsMessageListener;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventLogCategoryDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.FindEventsRequestDto;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RetrieveEventsCommandExecutorTest {
+
+    private static final DateTime FROM = new DateTime(2018, 3, 1, 0, 0);
+    private static final DateTime UNTIL = FROM.plusDays(1);
+
+    @Mock
+    private DlmsConnectionHolder conn;
+
+    @Mock
+    private DlmsConnection dlmsConnection;
+
+    @Mock
+    private DlmsMessageListener dlmsMessageListener;
+
+    @Mock
+    private DlmsHelperService dlmsHelperService;
+
+    @Mock
+    private DataObjectToEventListConverter dataObjectToEventListConverter;
+
+    @Mock
+    private EventLogHighWaterMarkRepository eventLogHighWaterMarkRepository;
+
+    @InjectMocks
+    private RetrieveEventsCommandExecutor executor;
+
+    private final DlmsDevice device = new DlmsDevice("E0001");
+
+    @Before
+    public void setUp() {
+        when(this.conn.getConnection()).thenReturn(this.dlmsConnection);
+        when(this.conn.getDlmsMessageListener()).thenReturn(this.dlmsMessageListener);
+        when(this.dlmsHelperService.asDataObject(any(DateTime.class))).thenReturn(DataObject.newNullData());
+    }
+
+    @Test
+    public void readsAllEventLogsWithOneGetWithList() throws Exception {
+        // Arrange
+        this.device.setWithListSupported(true);
+        final DataObject standardEvents = DataObject.newArrayData(Collections.<DataObject> emptyList());
+        final DataObject fraudEvents = DataObject.newArrayData(Collections.<DataObject> emptyList());
+        final List<GetResult> getResults = Arrays.asList(this.success(standardEvents), this.success(fraudEvents));
+        when(this.dlmsHelperService.getWithList(eq(this.conn), eq(this.device), any(AttributeAddress.class),
+                any(AttributeAddress.class))).thenReturn(getResults);
+        final EventDto standardEvent = mock(EventDto.class);
+        final EventDto fraudEvent = mock(EventDto.class);
+        when(this.dataObjectToEventListConverter.convert(standardEvents, EventLogCategoryDto.STANDARD_EVENT_LOG))
+                .thenReturn(Collections.singletonList(standardEvent));
+        when(this.dataObjectToEventListConverter.convert(fraudEvents, EventLogCategoryDto.FRAUD_DETECTION_LOG))
+                .thenReturn(Collections.singletonList(fraudEvent));
+
+        final List<FindEventsRequestDto> queries = Arrays.asList(this.query(EventLogCategoryDto.STANDARD_EVENT_LOG),
+                this.query(EventLogCategoryDto.FRAUD_DETECTION_LOG));
+
+        // Act
+        final List<EventDto> events = this.executor.retrieveEvents(this.conn, this.device, queries).getEvents();
+
+        // Assert
+        assertEquals(Arrays.asList(standardEvent, fraudEvent), events);
+        verify(this.dlmsConnection, never()).get(any(AttributeAddress.class));
+    }
+
+    @Test(expected = ProtocolAdapterException.class)
+    public void failsWhenOneOfTheEventLogsCannotBeRead() throws Exception {
+        // Arrange
+        final GetResult failure = mock(GetResult.class);
+        when(failure.getResultCode()).thenReturn(AccessResultCode.OBJECT_UNAVAILABLE);
+        final List<GetResult> getResults = Arrays
+                .asList(this.success(DataObject.newArrayData(Collections.<DataObject> emptyList())), failure);
+        when(this.dlmsHelperService.getWithList(eq(this.conn), eq(this.device), any(AttributeAddress.class),
+                any(AttributeAddress.class))).thenReturn(getResults);
+        final List<FindEventsRequestDto> queries = Arrays.asList(this.query(EventLogCategoryDto.STANDARD_EVENT_LOG),
+                this.query(EventLogCategoryDto.M_BUS_EVENT_LOG));
+
+        // Act
+        this.executor.retrieveEvents(this.conn, this.device, queries);
+    }
+
+    @Test
+    public void returnsTheMovedHighWaterMarksWithoutSavingThem() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(this.executor, "incrementalEventLogSync", true);
+        final DataObject standardEvents = DataObject.newArrayData(Collections.<DataObject> emptyList());
+        when(this.dlmsConnection.get(any(AttributeAddress.class))).thenReturn(this.success(standardEvents));
+        final EventDto event = new EventDto(FROM.plusHours(1), 1, null);
+        when(this.dataObjectToEventListConverter.convert(standardEvents, EventLogCategoryDto.STANDARD_EVENT_LOG))
+                .thenReturn(Collections.singletonList(event));
+
+        // Act
+        final RetrievedEvents retrievedEvents = this.executor.retrieveEvents(this.conn, this.device,
+                Collections.singletonList(this.query(EventLogCategoryDto.STANDARD_EVENT_LOG)));
+
+        // Assert
+        assertEquals(Collections.singletonList(event), retrievedEvents.getEvents());
+        assertEquals(1, retrievedEvents.getHighWaterMarks().size());
+        assertEquals(event.getTimestamp().getMillis(),
+                retrievedEvents.getHighWaterMarks().get(0).getLastEventTime().getMillis());
+        verify(this.eventLogHighWaterMarkRepository, never()).save(any(EventLogHighWaterMark.class));
+    }
+
+    @Test
+    public void readsAnEventLogQueriedTwiceOnce() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(this.executor, "incrementalEventLogSync", true);
+        this.device.setWithListSupported(true);
+        final DataObject standardEvents = DataObject.newArrayData(Collections.<DataObject> emptyList());
+        when(this.dlmsConnection.get(any(AttributeAddress.class))).thenReturn(this.success(standardEvents));
+        final EventDto event = new EventDto(FROM.plusHours(1), 1, null);
+        when(this.dataObjectToEventListConverter.convert(standardEvents, EventLogCategoryDto.STANDARD_EVENT_LOG))
+                .thenReturn(Collections.singletonList(event));
+
+        final List<FindEventsRequestDto> queries = Arrays.asList(this.query(EventLogCategoryDto.STANDARD_EVENT_LOG),
+                this.query(EventLogCategoryDto.STANDARD_EVENT_LOG));
+
+        // Act
+        final RetrievedEvents retrievedEvents = this.executor.retrieveEvents(this.conn, this.device, queries);
+
+        // Assert
+        assertEquals(Collections.singletonList(event), retrievedEvents.getEvents());
+        assertEquals(1, retrievedEvents.getHighWaterMarks().size());
+        assertEquals(1, retrievedEvents.getHighWaterMarks().get(0).getEventsAtLastEventTime());
+        verify(this.eventLogHighWaterMarkRepository, times(1)).findByDeviceIdentificationAndEventLogCategory(
+                this.device.getDeviceIdentification(), EventLogCategoryDto.STANDARD_EVENT_LOG.name());
+        verify(this.dlmsConnection, times(1)).get(any(AttributeAddress.class));
+    }
+
+    private FindEventsRequestDto query(final EventLogCategoryDto eventLogCategory) {
+        final FindEventsRequestDto query = mock(FindEventsRequestDto.class);
+        when(query.getEventLogCategory()).thenReturn(eventLogCategory);
+        when(query.getFrom()).thenReturn(FROM);
+        when(query.getUntil()).thenReturn(UNTIL);
+        return query;
+    }
+
+    private GetResult success(final DataObject resultData) {
+        final GetResult getResult = mock(GetResult.class);
+        when(getResult.getResultCode()).thenReturn(AccessResultCode.SUCCESS);
+        when(getResult.getResultData()).thenReturn(resultData);
+        return getResult;
+    }
+}
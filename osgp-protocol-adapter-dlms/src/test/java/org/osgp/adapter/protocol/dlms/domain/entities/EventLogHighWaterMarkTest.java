@@ -0,0 +1,116 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.entities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.EventLogCategoryDto;
+
+public class EventLogHighWaterMarkTest {
+
+    private static final DateTime T1 = new DateTime(2018, 3, 1, 10, 0, DateTimeZone.UTC);
+    private static final DateTime T2 = T1.plusMinutes(1);
+    private static final DateTime T3 = T1.plusMinutes(2);
+
+    private final EventLogHighWaterMark highWaterMark = new EventLogHighWaterMark("E0001",
+            EventLogCategoryDto.STANDARD_EVENT_LOG);
+
+    @Test
+    public void allEventsAreNewWithoutHighWaterMark() {
+        // Arrange
+        final List<EventDto> events = Arrays.asList(event(T1, 1), event(T2, 2));
+
+        // Act
+        final List<EventDto> newEvents = this.highWaterMark.newEvents(events);
+
+        // Assert
+        assertEquals(events, newEvents);
+        assertNull(this.highWaterMark.getLastEventTime());
+    }
+
+    @Test
+    public void onlyEventsAfterTheHighWaterMarkAreNew() {
+        // Arrange
+        final EventDto first = event(T1, 1);
+        final EventDto second = event(T2, 2);
+        final EventDto third = event(T2, 3);
+        this.highWaterMark.advance(Arrays.asList(first, second));
+
+        // Act
+        final List<EventDto> newEvents = this.highWaterMark
+                .newEvents(Arrays.asList(first, second, third, event(T3, 4)));
+
+        // Assert
+        assertEquals(3, newEvents.size());
+        assertEquals(third, newEvents.get(0));
+    }
+
+    @Test
+    public void advanceCountsTheEventsAtTheLastEventTime() {
+        // Arrange
+        this.highWaterMark.advance(Arrays.asList(event(T1, 1), event(T2, 2)));
+
+        // Act
+        this.highWaterMark.advance(Arrays.asList(event(T2, 3), event(T2, 4)));
+
+        // Assert
+        assertEquals(T2.getMillis(), this.highWaterMark.getLastEventTime().getMillis());
+        assertEquals(3, this.highWaterMark.getEventsAtLastEventTime());
+    }
+
+    @Test
+    public void advanceWithoutEventsKeepsTheHighWaterMark() {
+        // Arrange
+        this.highWaterMark.advance(Collections.singletonList(event(T1, 1)));
+
+        // Act
+        this.highWaterMark.advance(Collections.<EventDto> emptyList());
+
+        // Assert
+        assertEquals(T1.getMillis(), this.highWaterMark.getLastEventTime().getMillis());
+        assertEquals(1, this.highWaterMark.getEventsAtLastEventTime());
+    }
+
+    @Test
+    public void mergeKeepsTheFurthestHighWaterMark() {
+        // Arrange
+        this.highWaterMark.advance(Arrays.asList(event(T2, 1), event(T2, 2)));
+        final EventLogHighWaterMark behind = new EventLogHighWaterMark("E0001",
+                EventLogCategoryDto.STANDARD_EVENT_LOG);
+        behind.advance(Collections.singletonList(event(T2, 1)));
+        final EventLogHighWaterMark ahead = new EventLogHighWaterMark("E0001",
+                EventLogCategoryDto.STANDARD_EVENT_LOG);
+        ahead.advance(Collections.singletonList(event(T3, 3)));
+
+        // Act
+        final boolean movedBehind = this.highWaterMark.mergeWith(behind);
+        final boolean movedAhead = this.highWaterMark.mergeWith(ahead);
+
+        // Assert
+        assertFalse(movedBehind);
+        assertTrue(movedAhead);
+        assertEquals(T3.getMillis(), this.highWaterMark.getLastEventTime().getMillis());
+        assertEquals(1, this.highWaterMark.getEventsAtLastEventTime());
+    }
+
+    private static EventDto event(final DateTime timestamp, final int eventCode) {
+        return new EventDto(timestamp, eventCode, null);
+    }
+}
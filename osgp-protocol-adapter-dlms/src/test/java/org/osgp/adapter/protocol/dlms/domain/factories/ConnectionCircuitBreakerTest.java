@@ -0,0 +1,119 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.factories;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
+import org.osgp.adapter.protocol.dlms.exceptions.CircuitBreakerOpenException;
+
+public class ConnectionCircuitBreakerTest {
+
+    private static final int DEVICE_FAILURE_THRESHOLD = 3;
+    private static final int PROVIDER_FAILURE_THRESHOLD = 5;
+    private static final long OPEN_DURATION = 3600000;
+    private static final String PROVIDER = "KPN";
+
+    private ConnectionCircuitBreaker circuitBreaker;
+
+    @Before
+    public void setup() {
+        this.circuitBreaker = new ConnectionCircuitBreaker(DEVICE_FAILURE_THRESHOLD, PROVIDER_FAILURE_THRESHOLD,
+                OPEN_DURATION);
+    }
+
+    @Test
+    public void circuitStaysClosedBelowThreshold() {
+        final DlmsDevice device = this.device("E0000000000000001");
+
+        for (int i = 0; i < DEVICE_FAILURE_THRESHOLD - 1; i++) {
+            this.circuitBreaker.connectionFailed(device);
+        }
+
+        this.circuitBreaker.checkConnectionAllowed(device);
+        assertFalse(this.circuitBreaker.isDeviceCircuitOpen(device.getDeviceIdentification()));
+    }
+
+    @Test(expected = CircuitBreakerOpenException.class)
+    public void circuitOpensAfterConsecutiveFailures() {
+        final DlmsDevice device = this.device("E0000000000000001");
+
+        for (int i = 0; i < DEVICE_FAILURE_THRESHOLD; i++) {
+            this.circuitBreaker.connectionFailed(device);
+        }
+
+        assertTrue(this.circuitBreaker.isDeviceCircuitOpen(device.getDeviceIdentification()));
+        this.circuitBreaker.checkConnectionAllowed(device);
+    }
+
+    @Test
+    public void successResetsConsecutiveFailures() {
+        final DlmsDevice device = this.device("E0000000000000001");
+
+        for (int i = 0; i < DEVICE_FAILURE_THRESHOLD - 1; i++) {
+            this.circuitBreaker.connectionFailed(device);
+        }
+        this.circuitBreaker.connectionSucceeded(device);
+        this.circuitBreaker.connectionFailed(device);
+
+        this.circuitBreaker.checkConnectionAllowed(device);
+    }
+
+    @Test
+    public void pushNotificationClosesCircuit() {
+        final DlmsDevice device = this.device("E0000000000000001");
+        this.circuitBreaker.checkConnectionAllowed(device);
+
+        for (int i = 0; i < DEVICE_FAILURE_THRESHOLD; i++) {
+            this.circuitBreaker.connectionFailed(device);
+        }
+        this.circuitBreaker.deviceReachable(device.getDeviceIdentification());
+
+        assertFalse(this.circuitBreaker.isDeviceCircuitOpen(device.getDeviceIdentification()));
+        this.circuitBreaker.checkConnectionAllowed(device);
+    }
+
+    @Test
+    public void providerCircuitOpensForOtherDevicesOfTheProvider() {
+        for (int i = 0; i < PROVIDER_FAILURE_THRESHOLD; i++) {
+            this.circuitBreaker.connectionFailed(this.device("E000000000000000" + i));
+        }
+
+        assertTrue(this.circuitBreaker.isProviderCircuitOpen(PROVIDER));
+        try {
+            this.circuitBreaker.checkConnectionAllowed(this.device("E0000000000000099"));
+        } catch (final CircuitBreakerOpenException e) {
+            return;
+        }
+        throw new AssertionError("Expected a CircuitBreakerOpenException for the open provider circuit");
+    }
+
+    @Test
+    public void halfOpenCircuitLetsSingleProbeThrough() {
+        this.circuitBreaker = new ConnectionCircuitBreaker(DEVICE_FAILURE_THRESHOLD, PROVIDER_FAILURE_THRESHOLD, 0);
+        final DlmsDevice device = this.device("E0000000000000001");
+        for (int i = 0; i < DEVICE_FAILURE_THRESHOLD; i++) {
+            this.circuitBreaker.connectionFailed(device);
+        }
+
+        // With an open duration of 0 the circuit is half-open immediately.
+        this.circuitBreaker.checkConnectionAllowed(device);
+        this.circuitBreaker.connectionSucceeded(device);
+
+        assertFalse(this.circuitBreaker.isDeviceCircuitOpen(device.getDeviceIdentification()));
+    }
+
+    private DlmsDevice device(final String deviceIdentification) {
+        final DlmsDevice device = new DlmsDevice(deviceIdentification);
+        device.setCommunicationProvider(PROVIDER);
+        return device;
+    }
+}
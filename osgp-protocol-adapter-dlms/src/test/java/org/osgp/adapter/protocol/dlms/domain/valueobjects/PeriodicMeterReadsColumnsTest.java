@@ -0,0 +1,126 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.domain.valueobjects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsUnitTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+
+public class PeriodicMeterReadsColumnsTest {
+
+    private static final int UNIT_KWH = 30;
+    private static final boolean[] CAPTURED = { true, true };
+
+    @Test
+    public void scalesValuesWhenAskedFor() {
+        // Arrange
+        final PeriodicMeterReadsColumns columns = this.intervalColumns(2);
+
+        // Act
+        columns.addRow(1000L, new long[] { 12345L, 0L }, new boolean[] { true, false }, 0x88, 0L);
+
+        // Assert
+        assertEquals(1, columns.size());
+        assertEquals(1000L, columns.getBufferedDateTime(0));
+        assertEquals(new BigDecimal("12.345"), columns.getValue(0, 0).getValue());
+        assertNull(columns.getValue(1, 0));
+        assertEquals(0x88, columns.getAmrProfileStatus(0));
+        assertFalse(columns.hasCaptureTimes());
+    }
+
+    @Test
+    public void survivesSerializationAfterTrimming() throws Exception {
+        // Arrange
+        final PeriodicMeterReadsColumns columns = this.intervalColumns(3);
+        columns.addRow(1000L, new long[] { 1L, 2L }, CAPTURED, 0, 0L);
+        columns.addRow(2000L, new long[] { 3L, 4L }, CAPTURED, 1, 0L);
+        columns.trimToSize();
+
+        // Act
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(columns);
+        }
+        final PeriodicMeterReadsColumns copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (PeriodicMeterReadsColumns) in.readObject();
+        }
+
+        // Assert
+        assertEquals(2, copy.size());
+        assertEquals(2000L, copy.getBufferedDateTime(1));
+        assertEquals(4L, copy.getRawValue(1, 1));
+        assertEquals(columns.getValue(1, 1).getValue(), copy.getValue(1, 1).getValue());
+        assertEquals(1, copy.getAmrProfileStatus(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsMoreEntriesThanItsCapacity() {
+        final PeriodicMeterReadsColumns columns = this.intervalColumns(1);
+        columns.addRow(1000L, new long[] { 1L, 2L }, CAPTURED, 0, 0L);
+
+        columns.addRow(2000L, new long[] { 3L, 4L }, CAPTURED, 0, 0L);
+    }
+
+    @Test
+    public void concatenatesBoundaryEntriesOnce() {
+        // Arrange
+        final PeriodicMeterReadsColumns first = this.intervalColumns(2);
+        first.addRow(1000L, new long[] { 1L, 2L }, CAPTURED, 0, 0L);
+        first.addRow(2000L, new long[] { 3L, 4L }, CAPTURED, 0, 0L);
+        final PeriodicMeterReadsColumns second = this.intervalColumns(2);
+        second.addRow(2000L, new long[] { 3L, 4L }, CAPTURED, 0, 0L);
+        second.addRow(3000L, new long[] { 5L, 0L }, new boolean[] { true, false }, 0x88, 0L);
+
+        // Act
+        final PeriodicMeterReadsColumns joined = PeriodicMeterReadsColumns
+                .concatenate(Arrays.asList(first, second));
+
+        // Assert
+        assertEquals(3, joined.size());
+        assertEquals(3000L, joined.getBufferedDateTime(2));
+        assertEquals(5L, joined.getRawValue(0, 2));
+        assertNull(joined.getValue(1, 2));
+        assertEquals(0x88, joined.getAmrProfileStatus(2));
+    }
+
+    @Test
+    public void keepsTheSmallestRawValueApartFromValuesNotCaptured() {
+        // Arrange
+        final PeriodicMeterReadsColumns columns = this.intervalColumns(1);
+
+        // Act
+        columns.addRow(1000L, new long[] { Long.MIN_VALUE, 0L }, new boolean[] { true, false }, 0, 0L);
+
+        // Assert
+        assertTrue(columns.isCaptured(0, 0));
+        assertEquals(Long.MIN_VALUE, columns.getRawValue(0, 0));
+        assertNotNull(columns.getValue(0, 0));
+        assertFalse(columns.isCaptured(1, 0));
+    }
+
+    private PeriodicMeterReadsColumns intervalColumns(final int capacity) {
+        final ScalerUnit scalerUnit = new ScalerUnit(-3, DlmsUnitTypeDto.getUnitType(UNIT_KWH));
+        return new PeriodicMeterReadsColumns(PeriodTypeDto.INTERVAL, new ScalerUnit[] { scalerUnit, scalerUnit },
+                true, false, capacity);
+    }
+}
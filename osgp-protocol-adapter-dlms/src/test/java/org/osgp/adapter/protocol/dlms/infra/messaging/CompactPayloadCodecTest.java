@@ -0,0 +1,178 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.infra.messaging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+import org.osgp.adapter.protocol.dlms.domain.commands.AmrProfileStatusCodeHelperService;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.AmrProfileStatusCodeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsMeterValueDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.DlmsUnitTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodTypeDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadGasResponseDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsGasResponseItemDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsResponseDto;
+import com.alliander.osgp.dto.valueobjects.smartmetering.PeriodicMeterReadsResponseItemDto;
+
+public class CompactPayloadCodecTest {
+
+    private static final int UNIT_M3 = 13;
+    private static final int UNIT_KWH = 30;
+
+    private final CompactPayloadCodec codec = new CompactPayloadCodec(true, 4096);
+
+    @Test
+    public void decodesWhatItEncodes() throws Exception {
+        // Arrange
+        final PeriodicMeterReadGasResponseDto response = this.gasResponse(31 * 24);
+
+        // Act
+        final byte[] encoded = this.codec.encode(response);
+        final Serializable decoded = CompactPayloadCodec.decode(encoded);
+
+        // Assert
+        assertEquals(PeriodicMeterReadGasResponseDto.class, decoded.getClass());
+        assertArrayEquals(encoded, this.codec.encode(decoded));
+        assertTrue(encoded.length < this.serialize(response).length / 2);
+    }
+
+    @Test
+    public void decodesAmrProfileStatusFlags() throws Exception {
+        // Arrange
+        final PeriodicMeterReadsResponseDto response = this.intervalResponse(31 * 24);
+
+        // Act
+        final byte[] encoded = this.codec.encode(response);
+        final PeriodicMeterReadsResponseDto decoded = (PeriodicMeterReadsResponseDto) CompactPayloadCodec
+                .decode(encoded);
+
+        // Assert
+        assertEquals(response.getPeriodicMeterReads().get(1).getAmrProfileStatusCode().getAmrProfileStatusCodeFlags(),
+                decoded.getPeriodicMeterReads().get(1).getAmrProfileStatusCode().getAmrProfileStatusCodeFlags());
+        assertArrayEquals(encoded, this.codec.encode(decoded));
+    }
+
+    @Test
+    public void leavesSmallPayloadsUncompressed() throws Exception {
+        // Arrange
+        final PeriodicMeterReadGasResponseDto response = this.gasResponse(1);
+
+        // Act
+        final byte[] encoded = this.codec.encode(response);
+
+        // Assert
+        assertEquals(0, encoded[1]);
+        assertEquals(PeriodicMeterReadGasResponseDto.class, CompactPayloadCodec.decode(encoded).getClass());
+    }
+
+    @Test
+    public void encodesLargeResponseTypesOnlyWhenEnabled() {
+        // Arrange
+        final PeriodicMeterReadGasResponseDto response = this.gasResponse(1);
+
+        // Act & Assert
+        assertTrue(this.codec.isEncoded(response));
+        assertFalse(this.codec.isEncoded("small response"));
+        assertFalse(this.codec.isEncoded(null));
+        assertFalse(new CompactPayloadCodec(false, 4096).isEncoded(response));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void rejectsTruncatedPayloads() throws Exception {
+        // Arrange
+        final byte[] encoded = this.codec.encode(this.gasResponse(10));
+
+        // Act
+        CompactPayloadCodec.decode(Arrays.copyOf(encoded, encoded.length - 1));
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void rejectsClassesOutsideTheDtoPackages() throws Exception {
+        // Arrange
+        final byte[] encoded = this.codec.encode(new ConcurrentHashMap<String, String>());
+
+        // Act
+        CompactPayloadCodec.decode(encoded);
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void rejectsClassesWithAnotherSerialVersionUid() throws Exception {
+        // Arrange
+        final ByteArrayOutputStream graph = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(graph) {
+            @Override
+            protected void writeClassDescriptor(final ObjectStreamClass descriptor) throws IOException {
+                this.writeUTF(descriptor.getName());
+                this.writeLong(descriptor.getSerialVersionUID() + 1);
+            }
+        }) {
+            out.writeObject(this.gasResponse(1));
+        }
+        final byte[] payload = graph.toByteArray();
+        final byte[] encoded = ByteBuffer.allocate(2 + Integer.BYTES + payload.length).put((byte) 2).put((byte) 0)
+                .putInt(payload.length).put(payload).array();
+
+        // Act
+        CompactPayloadCodec.decode(encoded);
+    }
+
+    private PeriodicMeterReadGasResponseDto gasResponse(final int entries) {
+        final List<PeriodicMeterReadsGasResponseItemDto> periodicMeterReads = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            final Date bufferedDateTime = new Date(1514764800000L + i * 3600000L);
+            periodicMeterReads.add(new PeriodicMeterReadsGasResponseItemDto(bufferedDateTime,
+                    new DlmsMeterValueDto(BigDecimal.valueOf(1000 + i, 3), DlmsUnitTypeDto.getUnitType(UNIT_M3)),
+                    bufferedDateTime));
+        }
+        return new PeriodicMeterReadGasResponseDto(PeriodTypeDto.INTERVAL, periodicMeterReads);
+    }
+
+    private PeriodicMeterReadsResponseDto intervalResponse(final int entries) {
+        final AmrProfileStatusCodeHelperService amrProfileStatusCodeHelperService =
+                new AmrProfileStatusCodeHelperService();
+        final List<PeriodicMeterReadsResponseItemDto> periodicMeterReads = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            final DlmsMeterValueDto value = new DlmsMeterValueDto(BigDecimal.valueOf(1000 + i, 3),
+                    DlmsUnitTypeDto.getUnitType(UNIT_KWH));
+            // Alternately no flags, the clock adjusted and power down flags.
+            final int amrProfileStatus = i % 2 == 0 ? 0 : 0xA0;
+            periodicMeterReads.add(new PeriodicMeterReadsResponseItemDto(new Date(1514764800000L + i * 900000L),
+                    value, value, new AmrProfileStatusCodeDto(
+                            amrProfileStatusCodeHelperService.toAmrProfileStatusCodeFlags(amrProfileStatus))));
+        }
+        return new PeriodicMeterReadsResponseDto(PeriodTypeDto.INTERVAL, periodicMeterReads);
+    }
+
+    private byte[] serialize(final Serializable object) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -8,6 +8,7 @@
 package org.osgp.adapter.protocol.dlms.infra.messaging.processors;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -21,9 +22,12 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
 import org.osgp.adapter.protocol.dlms.application.services.ConfigurationService;
 import org.osgp.adapter.protocol.dlms.application.services.DomainHelperService;
 import org.osgp.adapter.protocol.dlms.application.services.FirmwareService;
+import org.osgp.adapter.protocol.dlms.application.tracing.RequestTracer;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionFactory;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
@@ -77,6 +81,12 @@ public class UpdateFirmwareRequestMessageProcessorTest {
     @Mock
     private DlmsDevice dlmsDeviceMock;
 
+    @Spy
+    private DlmsMetrics dlmsMetrics = new DlmsMetrics();
+
+    @Spy
+    private RequestTracer requestTracer = new RequestTracer(true, 0, 4, 1024);
+
     @InjectMocks
     private UpdateFirmwareRequestMessageProcessor processor;
 
@@ -85,7 +95,7 @@ public class UpdateFirmwareRequestMessageProcessorTest {
         MockitoAnnotations.initMocks(this);
 
         when(this.domainHelperService.findDlmsDevice(any(MessageMetadata.class))).thenReturn(this.dlmsDeviceMock);
-        when(this.dlmsConnectionFactory.getConnection(this.dlmsDeviceMock, null))
+        when(this.dlmsConnectionFactory.getConnection(eq(this.dlmsDeviceMock), any(DlmsMessageListener.class)))
                 .thenReturn(this.dlmsConnectionHolderMock);
         when(this.dlmsConnectionHolderMock.getDlmsMessageListener()).thenReturn(this.messageListenerMock);
     }
@@ -10,6 +10,7 @@ package org.osgp.adapter.protocol.dlms.infra.messaging.responses.from.core.proce
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -25,8 +26,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.osgp.adapter.protocol.dlms.application.metrics.DlmsMetrics;
 import org.osgp.adapter.protocol.dlms.application.services.DomainHelperService;
 import org.osgp.adapter.protocol.dlms.application.services.FirmwareService;
+import org.osgp.adapter.protocol.dlms.application.tracing.RequestTracer;
 import org.osgp.adapter.protocol.dlms.domain.entities.DlmsDevice;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionFactory;
 import org.osgp.adapter.protocol.dlms.domain.factories.DlmsConnectionHolder;
@@ -79,6 +83,12 @@ public class GetFirmwareFileResponseMessageProcessorTest {
     @Mock
     private DlmsDevice dlmsDeviceMock;
 
+    @Spy
+    private DlmsMetrics dlmsMetrics = new DlmsMetrics();
+
+    @Spy
+    private RequestTracer requestTracer = new RequestTracer(true, 0, 4, 1024);
+
     @InjectMocks
     private GetFirmwareFileResponseMessageProcessor getFirmwareFileResponseMessageProcessor;
 
@@ -102,7 +112,7 @@ public class GetFirmwareFileResponseMessageProcessorTest {
                 .forClass(ResponseMessage.class);
 
         when(this.domainHelperService.findDlmsDevice(any(MessageMetadata.class))).thenReturn(this.dlmsDeviceMock);
-        when(this.dlmsConnectionFactory.getConnection(this.dlmsDeviceMock, null))
+        when(this.dlmsConnectionFactory.getConnection(eq(this.dlmsDeviceMock), any(DlmsMessageListener.class)))
                 .thenReturn(this.dlmsConnectionHolderMock);
         when(this.dlmsConnectionHolderMock.getDlmsMessageListener()).thenReturn(this.dlmsMessageListenerMock);
         when(this.dlmsDeviceMock.isInDebugMode()).thenReturn(false);
@@ -0,0 +1,292 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.integrationtests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgp.adapter.protocol.dlms.application.mapping.InstallationMapper;
+import org.osgp.adapter.protocol.dlms.application.services.BulkInstallationService;
+import org.osgp.adapter.protocol.dlms.application.services.DlmsDeviceCacheService;
+import org.osgp.adapter.protocol.dlms.application.services.InstallationService;
+import org.osgp.adapter.protocol.dlms.application.services.SecurityKeyService;
+import org.osgp.adapter.protocol.dlms.domain.commands.CoupleMBusDeviceCommandExecutor;
+import org.osgp.adapter.protocol.dlms.domain.commands.CoupleMbusDeviceByChannelCommandExecutor;
+import org.osgp.adapter.protocol.dlms.domain.commands.DeCoupleMBusDeviceCommandExecutor;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceBatchRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.DlmsDeviceRepository;
+import org.osgp.adapter.protocol.dlms.domain.repositories.MbusDeviceIdentityCachingRepository;
+import org.osgp.adapter.protocol.dlms.domain.valueobjects.BulkAddMeterResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import com.alliander.osgp.dto.valueobjects.smartmetering.SmartMeteringDeviceDto;
+import com.alliander.osgp.shared.security.RsaEncryptionService;
+
+/**
+ * Measures the throughput of adding meters in bulk against a local PostgreSQL
+ * database, including the re-encryption of the keys of every meter by the
+ * {@link SecurityKeyService}, with platform keys generated for the benchmark.
+ * The results are logged.
+ * <p>
+ * Only runs when a database is configured, for instance with:
+ * {@code -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/osgp_adapter_protocol_dlms_benchmark}
+ * (and optionally {@code benchmark.db.username}, {@code benchmark.db.password}
+ * and {@code benchmark.meters}). Use an empty database: the DLMS migrations
+ * are applied to it, and the benchmark meters are deleted afterwards.
+ */
+public class BulkAddMeterBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkAddMeterBenchmark.class);
+
+    private static final String DEVICE_IDENTIFICATION_PREFIX = "BENCH";
+
+    private static final String[] KEY_FILES = { "secret.aes", "dlms_device_keys_private",
+            "dlms_device_keys_public" };
+
+    private final String databaseUrl = System.getProperty("benchmark.db.url");
+
+    private final int numberOfMeters = Integer.getInteger("benchmark.meters", 100000);
+
+    private AnnotationConfigApplicationContext context;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Path keyDirectory;
+
+    /**
+     * Keys as delivered with the meters, encrypted with the public key of the
+     * platform.
+     */
+    private byte[][] rsaEncryptedKeys;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("benchmark.db.url not set, skipping bulk add meter benchmark", this.databaseUrl != null);
+
+        BenchmarkConfig.properties = this.generatePlatformKeys();
+        this.context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+        this.jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+
+        final SecurityKeyService securityKeyService = this.context.getBean(SecurityKeyService.class);
+        final RsaEncryptionService rsaEncryptionService = this.context.getBean(RsaEncryptionService.class);
+        this.rsaEncryptedKeys = new byte[3][];
+        for (int i = 0; i < this.rsaEncryptedKeys.length; i++) {
+            this.rsaEncryptedKeys[i] = rsaEncryptionService.encrypt(securityKeyService.generateKey());
+        }
+
+        final Flyway flyway = new Flyway();
+        flyway.setDataSource(this.context.getBean(DataSource.class));
+        flyway.migrate();
+
+        this.deleteBenchmarkMeters();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (this.context != null) {
+            this.deleteBenchmarkMeters();
+            this.context.close();
+        }
+        if (this.keyDirectory != null) {
+            for (final String file : KEY_FILES) {
+                Files.deleteIfExists(this.keyDirectory.resolve(file));
+            }
+            Files.deleteIfExists(this.keyDirectory);
+        }
+    }
+
+    private Properties generatePlatformKeys() throws Exception {
+        this.keyDirectory = Files.createTempDirectory("dlms-benchmark-keys");
+        final Path aesKey = this.keyDirectory.resolve(KEY_FILES[0]);
+        final Path rsaPrivateKey = this.keyDirectory.resolve(KEY_FILES[1]);
+        final Path rsaPublicKey = this.keyDirectory.resolve(KEY_FILES[2]);
+
+        Files.write(aesKey, new SecurityKeyService().generateKey());
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        final KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        Files.write(rsaPrivateKey, keyPair.getPrivate().getEncoded());
+        Files.write(rsaPublicKey, keyPair.getPublic().getEncoded());
+
+        final Properties properties = new Properties();
+        properties.setProperty("bulk.add.meter.chunk.size", "500");
+        properties.setProperty("encryption.key.path", aesKey.toString());
+        properties.setProperty("encryption.rsa.private.key.path", rsaPrivateKey.toString());
+        properties.setProperty("encryption.rsa.public.key.path", rsaPublicKey.toString());
+        return properties;
+    }
+
+    @Test
+    public void singleMeterTransactions() {
+        this.run("chunks of 1", 1, Math.min(this.numberOfMeters, 5000));
+    }
+
+    @Test
+    public void batchedTransactions() {
+        this.run("chunks of 500", 500, this.numberOfMeters);
+    }
+
+    private void run(final String description, final int chunkSize, final int meters) {
+        final BulkInstallationService service = this.context.getBean(BulkInstallationService.class);
+        ReflectionTestUtils.setField(service, "chunkSize", chunkSize);
+
+        final long start = System.nanoTime();
+        final BulkAddMeterResult result = service.addMeters(this.meters(meters));
+        final long durationMillis = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+        assertEquals(meters, result.getNumberOfAddedMeters());
+        LOGGER.info("Bulk add meter, {}: {} meters in {} ms, {} meters/s", description, meters, durationMillis,
+                meters * 1000L / durationMillis);
+    }
+
+    private Stream<SmartMeteringDeviceDto> meters(final int meters) {
+        return IntStream.range(0, meters).mapToObj(i -> {
+            final SmartMeteringDeviceDto meter = new SmartMeteringDeviceDto();
+            meter.setDeviceIdentification(String.format("%s%012d", DEVICE_IDENTIFICATION_PREFIX, i));
+            meter.setCommunicationMethod("GPRS");
+            meter.setDeliveryDate(new Date());
+            meter.setMasterKey(this.rsaEncryptedKeys[0]);
+            meter.setAuthenticationKey(this.rsaEncryptedKeys[1]);
+            meter.setGlobalEncryptionUnicastKey(this.rsaEncryptedKeys[2]);
+            return meter;
+        });
+    }
+
+    private void deleteBenchmarkMeters() {
+        final String benchmarkDevices = "SELECT id FROM dlms_device WHERE device_identification LIKE '"
+                + DEVICE_IDENTIFICATION_PREFIX + "%'";
+        this.jdbcTemplate.update("DELETE FROM security_key WHERE dlms_device_id IN (" + benchmarkDevices + ")");
+        this.jdbcTemplate.update("DELETE FROM dlms_device WHERE id IN (" + benchmarkDevices + ")");
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @ComponentScan(basePackages = "com.alliander.osgp.shared.security")
+    static class BenchmarkConfig {
+
+        static Properties properties;
+
+        @Bean
+        public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+            final PropertySourcesPlaceholderConfigurer configurer = new PropertySourcesPlaceholderConfigurer();
+            configurer.setProperties(properties);
+            return configurer;
+        }
+
+        @Bean
+        public DataSource dataSource() {
+            return new DriverManagerDataSource(System.getProperty("benchmark.db.url"),
+                    System.getProperty("benchmark.db.username", "osp_admin"),
+                    System.getProperty("benchmark.db.password", "1234"));
+        }
+
+        @Bean
+        public JdbcTemplate dlmsJdbcTemplate() {
+            return new JdbcTemplate(this.dataSource());
+        }
+
+        @Bean
+        public DataSourceTransactionManager transactionManager() {
+            return new DataSourceTransactionManager(this.dataSource());
+        }
+
+        @Bean
+        public DlmsDeviceBatchRepository dlmsDeviceBatchRepository() {
+            return new DlmsDeviceBatchRepository();
+        }
+
+        @Bean
+        public BulkInstallationService bulkInstallationService() {
+            return new BulkInstallationService();
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        public ExecutorService bulkAddMeterExecutorService() {
+            return Executors.newFixedThreadPool(4);
+        }
+
+        @Bean
+        public DlmsDeviceCacheService dlmsDeviceCacheService() {
+            return mock(DlmsDeviceCacheService.class);
+        }
+
+        @Bean
+        public InstallationService installationService() {
+            return new InstallationService();
+        }
+
+        @Bean
+        public InstallationMapper installationMapper() {
+            return new InstallationMapper();
+        }
+
+        @Bean
+        public SecurityKeyService securityKeyService() {
+            return new SecurityKeyService();
+        }
+
+        /*
+         * Not used when adding meters in bulk, the meters are stored with the
+         * batch repository.
+         */
+        @Bean
+        public DlmsDeviceRepository dlmsDeviceRepository() {
+            return mock(DlmsDeviceRepository.class);
+        }
+
+        @Bean
+        public MbusDeviceIdentityCachingRepository mbusDeviceIdentityCachingRepository() {
+            return mock(MbusDeviceIdentityCachingRepository.class);
+        }
+
+        @Bean
+        public CoupleMBusDeviceCommandExecutor coupleMBusDeviceCommandExecutor() {
+            return mock(CoupleMBusDeviceCommandExecutor.class);
+        }
+
+        @Bean
+        public DeCoupleMBusDeviceCommandExecutor deCoupleMBusDeviceCommandExecutor() {
+            return mock(DeCoupleMBusDeviceCommandExecutor.class);
+        }
+
+        @Bean
+        public CoupleMbusDeviceByChannelCommandExecutor coupleMbusDeviceByChannelCommandExecutor() {
+            return mock(CoupleMbusDeviceByChannelCommandExecutor.class);
+        }
+    }
+}
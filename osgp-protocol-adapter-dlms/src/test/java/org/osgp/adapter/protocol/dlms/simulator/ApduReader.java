@@ -0,0 +1,80 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads APDUs, big-endian as DLMS is. Reading past the end throws a
+ * {@link java.nio.BufferUnderflowException}.
+ */
+class ApduReader {
+
+    private final ByteBuffer buffer;
+
+    ApduReader(final byte[] apdu) {
+        this(apdu, 0, apdu.length);
+    }
+
+    ApduReader(final byte[] apdu, final int offset, final int length) {
+        this.buffer = ByteBuffer.wrap(apdu, offset, length);
+    }
+
+    int u8() {
+        return this.buffer.get() & 0xFF;
+    }
+
+    int u16() {
+        return this.buffer.getShort() & 0xFFFF;
+    }
+
+    long u32() {
+        return this.buffer.getInt() & 0xFFFFFFFFL;
+    }
+
+    long u64() {
+        return this.buffer.getLong();
+    }
+
+    byte[] bytes(final int length) {
+        final byte[] bytes = new byte[length];
+        this.buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads a length written the A-XDR (or BER) way.
+     */
+    int length() {
+        final int first = this.u8();
+        if (first < 0x80) {
+            return first;
+        }
+        int length = 0;
+        for (int i = 0; i < (first & 0x7F); i++) {
+            length = (length << 8) | this.u8();
+        }
+        return length;
+    }
+
+    byte[] octetString() {
+        return this.bytes(this.length());
+    }
+
+    int peek() {
+        return this.buffer.get(this.buffer.position()) & 0xFF;
+    }
+
+    boolean hasRemaining() {
+        return this.buffer.hasRemaining();
+    }
+
+    byte[] remaining() {
+        return this.bytes(this.buffer.remaining());
+    }
+}
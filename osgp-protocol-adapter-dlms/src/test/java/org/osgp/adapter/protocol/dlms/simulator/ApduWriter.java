@@ -0,0 +1,83 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Writes APDUs, big-endian as DLMS is.
+ */
+class ApduWriter {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    ApduWriter u8(final int value) {
+        this.out.write(value);
+        return this;
+    }
+
+    ApduWriter u16(final int value) {
+        this.out.write(value >>> 8);
+        this.out.write(value);
+        return this;
+    }
+
+    ApduWriter u32(final long value) {
+        this.u16((int) (value >>> 16));
+        return this.u16((int) value);
+    }
+
+    ApduWriter u64(final long value) {
+        this.u32(value >>> 32);
+        return this.u32(value);
+    }
+
+    ApduWriter bytes(final byte[] bytes) {
+        this.out.write(bytes, 0, bytes.length);
+        return this;
+    }
+
+    /**
+     * Writes a length the A-XDR way: a single byte below 128, otherwise the
+     * number of length bytes (with the high bit set) followed by the length.
+     */
+    ApduWriter length(final int length) {
+        if (length < 0x80) {
+            return this.u8(length);
+        }
+        if (length <= 0xFF) {
+            return this.u8(0x81).u8(length);
+        }
+        if (length <= 0xFFFF) {
+            return this.u8(0x82).u16(length);
+        }
+        return this.u8(0x84).u32(length);
+    }
+
+    /**
+     * Writes the length and the bytes of an octet string.
+     */
+    ApduWriter octetString(final byte[] bytes) {
+        return this.length(bytes.length).bytes(bytes);
+    }
+
+    /**
+     * Writes a BER encoded tag, length and value.
+     */
+    ApduWriter ber(final int tag, final byte[] value) {
+        return this.u8(tag).length(value.length).bytes(value);
+    }
+
+    int size() {
+        return this.out.size();
+    }
+
+    byte[] toByteArray() {
+        return this.out.toByteArray();
+    }
+}
@@ -0,0 +1,595 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.nio.BufferUnderflowException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ExceptionEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves one connection to a virtual meter: the application association
+ * (AARQ and RLRQ) and the get, set and action services on it, over the TCP
+ * wrapper. Supports logical name referencing only, with no security, LLS or
+ * HLS5 GMAC authentication, and ciphering of APDUs with the global unicast
+ * encryption key.
+ */
+class AssociationHandler extends SimpleChannelUpstreamHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AssociationHandler.class);
+
+    private static final int AARQ = 0x60;
+    private static final int AARE = 0x61;
+    private static final int RLRQ = 0x62;
+    private static final int RLRE = 0x63;
+    private static final int GET_REQUEST = 0xC0;
+    private static final int SET_REQUEST = 0xC1;
+    private static final int ACTION_REQUEST = 0xC3;
+    private static final int GET_RESPONSE = 0xC4;
+    private static final int SET_RESPONSE = 0xC5;
+    private static final int ACTION_RESPONSE = 0xC7;
+    private static final int GLO_OFFSET = 0x08;
+    private static final int EXCEPTION_RESPONSE = 0xD8;
+    private static final int INITIATE_REQUEST = 0x01;
+    private static final int INITIATE_RESPONSE = 0x08;
+    private static final int GLO_INITIATE_REQUEST = 0x21;
+    private static final int GLO_INITIATE_RESPONSE = 0x28;
+
+    private static final int NORMAL = 1;
+    private static final int NEXT = 2;
+    private static final int WITH_LIST = 3;
+
+    private static final byte[] CONTEXT_NAME_PREFIX = { 0x60, (byte) 0x85, 0x74, 0x05, 0x08, 0x01 };
+    private static final int CONTEXT_LN = 1;
+    private static final int CONTEXT_LN_CIPHERED = 3;
+    private static final byte[] MECHANISM_NAME_PREFIX = { 0x60, (byte) 0x85, 0x74, 0x05, 0x08, 0x02 };
+    private static final int MECHANISM_NONE = 0;
+    private static final int MECHANISM_LLS = 1;
+    private static final int MECHANISM_HLS5_GMAC = 5;
+
+    private static final int RESULT_ACCEPTED = 0;
+    private static final int RESULT_REJECTED = 1;
+    private static final int DIAGNOSTIC_NONE = 0;
+    private static final int DIAGNOSTIC_CONTEXT_NOT_SUPPORTED = 2;
+    private static final int DIAGNOSTIC_MECHANISM_NOT_SUPPORTED = 11;
+    private static final int DIAGNOSTIC_AUTHENTICATION_FAILURE = 13;
+    private static final int DIAGNOSTIC_AUTHENTICATION_REQUIRED = 14;
+
+    /**
+     * Get, set, action, selective access, block transfer with get, multiple
+     * references and priority management.
+     */
+    private static final byte[] CONFORMANCE = { 0x00, 0x52, 0x1D };
+    private static final int SERVER_MAX_RECEIVE_PDU_SIZE = 0x0400;
+    private static final int BLOCK_OVERHEAD = 40;
+    private static final byte[] ASSOCIATION_LN = CosemObject.obisBytes("0.0.40.0.0.255");
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final VirtualMeter meter;
+    private final NetworkProfile networkProfile;
+    private final Timer timer;
+
+    private boolean associated;
+    private boolean authenticated;
+    private boolean ciphered;
+    private byte[] authenticationKey;
+    private byte[] encryptionKey;
+    private byte[] clientSystemTitle;
+    private byte[] clientToServerChallenge;
+    private byte[] serverToClientChallenge;
+    private int clientMaxReceivePduSize;
+
+    private byte[] pendingBlocks;
+    private int pendingOffset;
+    private long blockNumber;
+
+    AssociationHandler(final VirtualMeter meter, final NetworkProfile networkProfile, final Timer timer) {
+        this.meter = meter;
+        this.networkProfile = networkProfile;
+        this.timer = timer;
+    }
+
+    @Override
+    public void messageReceived(final ChannelHandlerContext ctx, final MessageEvent e) {
+        final ChannelBuffer frame = (ChannelBuffer) e.getMessage();
+        final int version = frame.readUnsignedShort();
+        final int source = frame.readUnsignedShort();
+        final int destination = frame.readUnsignedShort();
+        final byte[] apdu = new byte[frame.readUnsignedShort()];
+        frame.readBytes(apdu);
+
+        final byte[] response = this.respond(apdu);
+        if (response == null) {
+            return;
+        }
+        final ChannelBuffer responseFrame = ChannelBuffers.buffer(8 + response.length);
+        responseFrame.writeShort(version);
+        responseFrame.writeShort(destination);
+        responseFrame.writeShort(source);
+        responseFrame.writeShort(response.length);
+        responseFrame.writeBytes(response);
+        this.write(e.getChannel(), responseFrame);
+    }
+
+    private void write(final Channel channel, final ChannelBuffer frame) {
+        final long delay = this.networkProfile.nextDelay();
+        if (delay == 0) {
+            channel.write(frame);
+            return;
+        }
+        this.timer.newTimeout(timeout -> {
+            if (channel.isConnected()) {
+                channel.write(frame);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void exceptionCaught(final ChannelHandlerContext ctx, final ExceptionEvent e) {
+        LOGGER.warn("{} Unexpected exception on connection to {}", e.getChannel().getId(),
+                this.meter.getDeviceIdentification(), e.getCause());
+        e.getChannel().close();
+    }
+
+    byte[] respond(final byte[] apdu) {
+        try {
+            final int tag = apdu[0] & 0xFF;
+            if (tag == AARQ) {
+                return this.associate(new ApduReader(apdu));
+            }
+            if (tag == RLRQ) {
+                this.associated = false;
+                return new byte[] { RLRE, 0x03, (byte) 0x80, 0x01, 0x00 };
+            }
+            if (!this.associated) {
+                return exceptionResponse();
+            }
+            if (this.ciphered) {
+                return this.respondCiphered(apdu);
+            }
+            return this.respondPlain(apdu);
+        } catch (final BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            LOGGER.debug("Malformed APDU for {}", this.meter.getDeviceIdentification(), e);
+            return exceptionResponse();
+        }
+    }
+
+    private byte[] respondCiphered(final byte[] apdu) {
+        final ApduReader reader = new ApduReader(apdu);
+        final int tag = reader.u8();
+        if (tag != GET_REQUEST + GLO_OFFSET && tag != SET_REQUEST + GLO_OFFSET
+                && tag != ACTION_REQUEST + GLO_OFFSET) {
+            return exceptionResponse();
+        }
+        final byte[] plaintext = this.decipher(reader.octetString());
+        if (plaintext == null) {
+            return exceptionResponse();
+        }
+        final byte[] response = this.respondPlain(plaintext);
+        if ((response[0] & 0xFF) == EXCEPTION_RESPONSE) {
+            return response;
+        }
+        return this.cipher(response[0] & 0xFF, response);
+    }
+
+    private byte[] respondPlain(final byte[] apdu) {
+        final ApduReader reader = new ApduReader(apdu);
+        final int tag = reader.u8();
+        switch (tag) {
+        case GET_REQUEST:
+            return this.get(reader);
+        case SET_REQUEST:
+            return this.set(reader);
+        case ACTION_REQUEST:
+            return this.action(reader);
+        default:
+            return exceptionResponse();
+        }
+    }
+
+    private static byte[] exceptionResponse() {
+        return new byte[] { (byte) EXCEPTION_RESPONSE, 0x01, 0x02 };
+    }
+
+    /*
+     * Association.
+     */
+
+    private byte[] associate(final ApduReader reader) {
+        this.associated = false;
+        this.authenticated = false;
+        this.ciphered = false;
+        this.pendingBlocks = null;
+        this.clientSystemTitle = null;
+        this.clientToServerChallenge = null;
+        this.serverToClientChallenge = null;
+        this.authenticationKey = this.meter.getAuthenticationKey();
+        this.encryptionKey = this.meter.getEncryptionKey();
+
+        reader.u8();
+        final ApduReader aarq = new ApduReader(reader.octetString());
+        byte[] contextName = null;
+        byte[] mechanismName = null;
+        byte[] authenticationValue = null;
+        byte[] userInformation = null;
+        while (aarq.hasRemaining()) {
+            final int tag = aarq.u8();
+            final ApduReader value = new ApduReader(aarq.octetString());
+            switch (tag) {
+            case 0xA1:
+                value.u8();
+                contextName = value.octetString();
+                break;
+            case 0xA6:
+                value.u8();
+                this.clientSystemTitle = value.octetString();
+                break;
+            case 0x8B:
+                mechanismName = value.remaining();
+                break;
+            case 0xAC:
+                value.u8();
+                authenticationValue = value.octetString();
+                break;
+            case 0xBE:
+                value.u8();
+                userInformation = value.octetString();
+                break;
+            default:
+                break;
+            }
+        }
+
+        if (contextName == null || !startsWith(contextName, CONTEXT_NAME_PREFIX)) {
+            return this.aare(RESULT_REJECTED, DIAGNOSTIC_CONTEXT_NOT_SUPPORTED, null);
+        }
+        final int context = contextName[contextName.length - 1];
+        if (context != CONTEXT_LN && context != CONTEXT_LN_CIPHERED) {
+            return this.aare(RESULT_REJECTED, DIAGNOSTIC_CONTEXT_NOT_SUPPORTED, null);
+        }
+        this.ciphered = context == CONTEXT_LN_CIPHERED;
+        if (this.ciphered && (this.clientSystemTitle == null || this.clientSystemTitle.length != 8)) {
+            return this.aare(RESULT_REJECTED, DIAGNOSTIC_AUTHENTICATION_FAILURE, null);
+        }
+
+        final int mechanism = mechanismName == null ? MECHANISM_NONE : mechanismName[mechanismName.length - 1];
+        if (mechanismName != null && !startsWith(mechanismName, MECHANISM_NAME_PREFIX)) {
+            return this.aare(RESULT_REJECTED, DIAGNOSTIC_MECHANISM_NOT_SUPPORTED, null);
+        }
+        if (mechanism == MECHANISM_LLS && !this.meter.isPassword(authenticationValue)) {
+            return this.aare(RESULT_REJECTED, DIAGNOSTIC_AUTHENTICATION_FAILURE, null);
+        }
+        if (mechanism == MECHANISM_HLS5_GMAC && (!this.ciphered || authenticationValue == null)) {
+            return this.aare(RESULT_REJECTED, DIAGNOSTIC_AUTHENTICATION_FAILURE, null);
+        }
+        if (mechanism != MECHANISM_NONE && mechanism != MECHANISM_LLS && mechanism != MECHANISM_HLS5_GMAC) {
+            return this.aare(RESULT_REJECTED, DIAGNOSTIC_MECHANISM_NOT_SUPPORTED, null);
+        }
+
+        byte[] initiateRequest = userInformation;
+        if (userInformation != null && (userInformation[0] & 0xFF) == GLO_INITIATE_REQUEST) {
+            final ApduReader ciphered = new ApduReader(userInformation);
+            ciphered.u8();
+            initiateRequest = this.ciphered ? this.decipher(ciphered.octetString()) : null;
+        }
+        if (initiateRequest == null || (initiateRequest[0] & 0xFF) != INITIATE_REQUEST) {
+            return this.aare(RESULT_REJECTED, DIAGNOSTIC_AUTHENTICATION_FAILURE, null);
+        }
+        final byte[] conformance = this.readInitiateRequest(new ApduReader(initiateRequest));
+
+        if (mechanism == MECHANISM_HLS5_GMAC) {
+            this.clientToServerChallenge = authenticationValue;
+            this.serverToClientChallenge = new byte[16];
+            RANDOM.nextBytes(this.serverToClientChallenge);
+        } else {
+            this.authenticated = true;
+        }
+        this.associated = true;
+        return this.aare(RESULT_ACCEPTED,
+                mechanism == MECHANISM_HLS5_GMAC ? DIAGNOSTIC_AUTHENTICATION_REQUIRED : DIAGNOSTIC_NONE,
+                this.initiateResponse(conformance, mechanism));
+    }
+
+    /**
+     * @return the conformance negotiated with the client.
+     */
+    private byte[] readInitiateRequest(final ApduReader reader) {
+        reader.u8();
+        if (reader.u8() != 0) {
+            reader.octetString();
+        }
+        if (reader.u8() != 0) {
+            reader.u8();
+        }
+        if (reader.u8() != 0) {
+            reader.u8();
+        }
+        reader.u8();
+        reader.bytes(4);
+        final byte[] conformance = reader.bytes(3);
+        this.clientMaxReceivePduSize = reader.u16();
+        if (this.clientMaxReceivePduSize == 0) {
+            this.clientMaxReceivePduSize = 0xFFFF;
+        }
+        for (int i = 0; i < conformance.length; i++) {
+            conformance[i] &= CONFORMANCE[i];
+        }
+        return conformance;
+    }
+
+    private byte[] initiateResponse(final byte[] conformance, final int mechanism) {
+        final byte[] initiateResponse = new ApduWriter().u8(INITIATE_RESPONSE).u8(0).u8(6).u8(0x5F).u8(0x1F).u8(4)
+                .u8(0).bytes(conformance).u16(SERVER_MAX_RECEIVE_PDU_SIZE).u16(0x0007).toByteArray();
+        return this.ciphered ? this.cipher(GLO_INITIATE_RESPONSE - GLO_OFFSET, initiateResponse) : initiateResponse;
+    }
+
+    private byte[] aare(final int result, final int diagnostic, final byte[] userInformation) {
+        final ApduWriter aare = new ApduWriter();
+        aare.ber(0xA1, new ApduWriter().ber(0x06,
+                new ApduWriter().bytes(CONTEXT_NAME_PREFIX).u8(this.ciphered ? CONTEXT_LN_CIPHERED : CONTEXT_LN)
+                        .toByteArray())
+                .toByteArray());
+        aare.ber(0xA2, new byte[] { 0x02, 0x01, (byte) result });
+        aare.ber(0xA3, new byte[] { (byte) 0xA1, 0x03, 0x02, 0x01, (byte) diagnostic });
+        if (this.ciphered) {
+            aare.ber(0xA4, new ApduWriter().ber(0x04, this.meter.getSystemTitle()).toByteArray());
+        }
+        if (result == RESULT_ACCEPTED && this.serverToClientChallenge != null && !this.authenticated) {
+            aare.ber(0x88, new byte[] { 0x07, (byte) 0x80 });
+            aare.ber(0x89, new ApduWriter().bytes(MECHANISM_NAME_PREFIX).u8(MECHANISM_HLS5_GMAC).toByteArray());
+            aare.ber(0xAA, new ApduWriter().ber(0x80, this.serverToClientChallenge).toByteArray());
+        }
+        if (userInformation != null) {
+            aare.ber(0xBE, new ApduWriter().ber(0x04, userInformation).toByteArray());
+        }
+        return new ApduWriter().ber(AARE, aare.toByteArray()).toByteArray();
+    }
+
+    private static boolean startsWith(final byte[] bytes, final byte[] prefix) {
+        return bytes.length == prefix.length + 1 && Arrays.equals(Arrays.copyOf(bytes, prefix.length), prefix);
+    }
+
+    /*
+     * Ciphering.
+     */
+
+    /**
+     * @return the plaintext, or {@code null} if the APDU is not authenticated
+     *         and encrypted with the keys of the meter, or is replayed.
+     */
+    private byte[] decipher(final byte[] securedApdu) {
+        final ApduReader reader = new ApduReader(securedApdu);
+        final int securityControl = reader.u8();
+        final long invocationCounter = reader.u32();
+        if (securityControl != DlmsCipher.AUTHENTICATED_AND_ENCRYPTED
+                || !this.meter.acceptClientInvocationCounter(invocationCounter)) {
+            return null;
+        }
+        try {
+            return DlmsCipher.decrypt(this.encryptionKey, this.authenticationKey, this.clientSystemTitle,
+                    invocationCounter, reader.remaining());
+        } catch (final GeneralSecurityException e) {
+            LOGGER.debug("Failed to decipher APDU for {}", this.meter.getDeviceIdentification(), e);
+            return null;
+        }
+    }
+
+    private byte[] cipher(final int tag, final byte[] apdu) {
+        final long invocationCounter = this.meter.nextInvocationCounter();
+        try {
+            final byte[] ciphertext = DlmsCipher.encrypt(this.encryptionKey, this.authenticationKey,
+                    this.meter.getSystemTitle(), invocationCounter, apdu);
+            return new ApduWriter().u8(tag + GLO_OFFSET).octetString(new ApduWriter()
+                    .u8(DlmsCipher.AUTHENTICATED_AND_ENCRYPTED).u32(invocationCounter).bytes(ciphertext).toByteArray())
+                    .toByteArray();
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available", e);
+        }
+    }
+
+    /*
+     * Get, set and action.
+     */
+
+    private byte[] get(final ApduReader reader) {
+        final int type = reader.u8();
+        final int invokeIdAndPriority = reader.u8();
+        final ApduWriter rawData = new ApduWriter();
+        switch (type) {
+        case NORMAL:
+            this.pendingBlocks = null;
+            final ApduWriter result = new ApduWriter();
+            this.getDataResult(reader, result);
+            if (result.size() + BLOCK_OVERHEAD <= this.clientMaxReceivePduSize) {
+                return new ApduWriter().u8(GET_RESPONSE).u8(NORMAL).u8(invokeIdAndPriority).bytes(result.toByteArray())
+                        .toByteArray();
+            }
+            final byte[] data = result.toByteArray();
+            if (data[0] != 0) {
+                return new ApduWriter().u8(GET_RESPONSE).u8(NORMAL).u8(invokeIdAndPriority).bytes(data)
+                        .toByteArray();
+            }
+            rawData.bytes(Arrays.copyOfRange(data, 1, data.length));
+            return this.firstBlock(invokeIdAndPriority, rawData.toByteArray());
+        case NEXT:
+            return this.nextBlock(invokeIdAndPriority, reader.u32());
+        case WITH_LIST:
+            this.pendingBlocks = null;
+            final int count = reader.length();
+            rawData.length(count);
+            for (int i = 0; i < count; i++) {
+                this.getDataResult(reader, rawData);
+            }
+            if (rawData.size() + BLOCK_OVERHEAD <= this.clientMaxReceivePduSize) {
+                return new ApduWriter().u8(GET_RESPONSE).u8(WITH_LIST).u8(invokeIdAndPriority)
+                        .bytes(rawData.toByteArray()).toByteArray();
+            }
+            return this.firstBlock(invokeIdAndPriority, rawData.toByteArray());
+        default:
+            return exceptionResponse();
+        }
+    }
+
+    /**
+     * Reads an attribute descriptor with optional access selection, and
+     * writes the get-data-result.
+     */
+    private void getDataResult(final ApduReader reader, final ApduWriter result) {
+        final int classId = reader.u16();
+        final byte[] logicalName = reader.bytes(6);
+        final int attributeId = reader.u8();
+        CosemObject.AccessSelection selection = null;
+        if (reader.u8() != 0) {
+            selection = new CosemObject.AccessSelection(reader.u8(), AxdrData.decode(reader));
+        }
+        try {
+            if (!this.authenticated) {
+                throw new DataAccessException(DataAccessException.READ_WRITE_DENIED);
+            }
+            final CosemObject object = this.meter.find(classId, logicalName);
+            if (selection != null && !object.isSelectable(attributeId)) {
+                throw new DataAccessException(DataAccessException.SCOPE_OF_ACCESS_VIOLATED);
+            }
+            final AxdrData data = object.get(attributeId, selection);
+            result.u8(0);
+            data.encode(result);
+        } catch (final DataAccessException e) {
+            result.u8(1).u8(e.getResultCode());
+        }
+    }
+
+    private byte[] firstBlock(final int invokeIdAndPriority, final byte[] rawData) {
+        this.pendingBlocks = rawData;
+        this.pendingOffset = 0;
+        this.blockNumber = 0;
+        return this.nextBlock(invokeIdAndPriority, 0);
+    }
+
+    private byte[] nextBlock(final int invokeIdAndPriority, final long acknowledgedBlock) {
+        if (this.pendingBlocks == null || acknowledgedBlock != this.blockNumber) {
+            this.pendingBlocks = null;
+            return new ApduWriter().u8(GET_RESPONSE).u8(NEXT).u8(invokeIdAndPriority).u8(1)
+                    .u32(acknowledgedBlock).u8(1).u8(DataAccessException.DATA_BLOCK_NUMBER_INVALID).toByteArray();
+        }
+        final int blockSize = this.clientMaxReceivePduSize - BLOCK_OVERHEAD;
+        final int end = Math.min(this.pendingBlocks.length, this.pendingOffset + blockSize);
+        final byte[] block = Arrays.copyOfRange(this.pendingBlocks, this.pendingOffset, end);
+        final boolean lastBlock = end == this.pendingBlocks.length;
+        this.blockNumber++;
+        this.pendingOffset = end;
+        final byte[] response = new ApduWriter().u8(GET_RESPONSE).u8(NEXT).u8(invokeIdAndPriority)
+                .u8(lastBlock ? 1 : 0).u32(this.blockNumber).u8(0).octetString(block).toByteArray();
+        if (lastBlock) {
+            this.pendingBlocks = null;
+        }
+        return response;
+    }
+
+    private byte[] set(final ApduReader reader) {
+        final int type = reader.u8();
+        final int invokeIdAndPriority = reader.u8();
+        if (type != NORMAL) {
+            return exceptionResponse();
+        }
+        final int classId = reader.u16();
+        final byte[] logicalName = reader.bytes(6);
+        final int attributeId = reader.u8();
+        if (reader.u8() != 0) {
+            reader.u8();
+            AxdrData.decode(reader);
+        }
+        final AxdrData value = AxdrData.decode(reader);
+        int result = 0;
+        try {
+            if (!this.authenticated) {
+                throw new DataAccessException(DataAccessException.READ_WRITE_DENIED);
+            }
+            this.meter.find(classId, logicalName).set(attributeId, value);
+        } catch (final DataAccessException e) {
+            result = e.getResultCode();
+        }
+        return new ApduWriter().u8(SET_RESPONSE).u8(NORMAL).u8(invokeIdAndPriority).u8(result).toByteArray();
+    }
+
+    private byte[] action(final ApduReader reader) {
+        final int type = reader.u8();
+        final int invokeIdAndPriority = reader.u8();
+        if (type != NORMAL) {
+            return exceptionResponse();
+        }
+        final int classId = reader.u16();
+        final byte[] logicalName = reader.bytes(6);
+        final int methodId = reader.u8();
+        final AxdrData parameters = reader.u8() != 0 ? AxdrData.decode(reader) : AxdrData.nullData();
+        final ApduWriter response = new ApduWriter().u8(ACTION_RESPONSE).u8(NORMAL).u8(invokeIdAndPriority);
+        try {
+            final AxdrData returnParameters;
+            if (classId == 15 && Arrays.equals(logicalName, ASSOCIATION_LN) && methodId == 1) {
+                returnParameters = this.replyToHlsAuthentication(parameters);
+            } else if (!this.authenticated) {
+                throw new DataAccessException(DataAccessException.READ_WRITE_DENIED);
+            } else {
+                returnParameters = this.meter.find(classId, logicalName).invoke(methodId, parameters);
+            }
+            response.u8(0);
+            if (returnParameters == null) {
+                response.u8(0);
+            } else {
+                response.u8(1).u8(0);
+                returnParameters.encode(response);
+            }
+        } catch (final DataAccessException e) {
+            response.u8(e.getResultCode()).u8(0);
+        }
+        return response.toByteArray();
+    }
+
+    /**
+     * Checks f(StoC) from the client, and returns f(CtoS) to complete HLS5
+     * GMAC authentication.
+     */
+    private AxdrData replyToHlsAuthentication(final AxdrData clientResponse) throws DataAccessException {
+        if (this.authenticated || this.serverToClientChallenge == null
+                || clientResponse.getTag() != AxdrData.OCTET_STRING) {
+            throw new DataAccessException(DataAccessException.READ_WRITE_DENIED);
+        }
+        final ApduReader reader = new ApduReader(clientResponse.getBytes());
+        try {
+            final int securityControl = reader.u8();
+            final long clientInvocationCounter = reader.u32();
+            final byte[] tag = reader.remaining();
+            final byte[] expected = DlmsCipher.gmac(this.encryptionKey, this.authenticationKey,
+                    this.clientSystemTitle, clientInvocationCounter, this.serverToClientChallenge);
+            if (securityControl != DlmsCipher.AUTHENTICATED || !MessageDigest.isEqual(expected, tag)) {
+                throw new DataAccessException(DataAccessException.OTHER_REASON);
+            }
+            final long invocationCounter = this.meter.nextInvocationCounter();
+            final byte[] gmac = DlmsCipher.gmac(this.encryptionKey, this.authenticationKey,
+                    this.meter.getSystemTitle(), invocationCounter, this.clientToServerChallenge);
+            this.authenticated = true;
+            return AxdrData.octetString(new ApduWriter().u8(DlmsCipher.AUTHENTICATED).u32(invocationCounter)
+                    .bytes(gmac).toByteArray());
+        } catch (final GeneralSecurityException | BufferUnderflowException e) {
+            throw new DataAccessException(DataAccessException.OTHER_REASON);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A COSEM data value, as encoded in A-XDR: a type tag followed by the value.
+ */
+final class AxdrData {
+
+    static final int NULL_DATA = 0;
+    static final int ARRAY = 1;
+    static final int STRUCTURE = 2;
+    static final int BOOLEAN = 3;
+    static final int BIT_STRING = 4;
+    static final int DOUBLE_LONG = 5;
+    static final int DOUBLE_LONG_UNSIGNED = 6;
+    static final int OCTET_STRING = 9;
+    static final int VISIBLE_STRING = 10;
+    static final int UTF8_STRING = 12;
+    static final int BCD = 13;
+    static final int INTEGER = 15;
+    static final int LONG = 16;
+    static final int UNSIGNED = 17;
+    static final int LONG_UNSIGNED = 18;
+    static final int LONG64 = 20;
+    static final int LONG64_UNSIGNED = 21;
+    static final int ENUM = 22;
+    static final int FLOAT32 = 23;
+    static final int FLOAT64 = 24;
+    static final int DATE_TIME = 25;
+    static final int DATE = 26;
+    static final int TIME = 27;
+
+    private static final AxdrData NULL = new AxdrData(NULL_DATA, 0, null, null);
+
+    private final int tag;
+    private final long number;
+    private final byte[] bytes;
+    private final List<AxdrData> elements;
+
+    private AxdrData(final int tag, final long number, final byte[] bytes, final List<AxdrData> elements) {
+        this.tag = tag;
+        this.number = number;
+        this.bytes = bytes;
+        this.elements = elements;
+    }
+
+    static AxdrData nullData() {
+        return NULL;
+    }
+
+    static AxdrData array(final List<AxdrData> elements) {
+        return new AxdrData(ARRAY, 0, null, Collections.unmodifiableList(new ArrayList<>(elements)));
+    }
+
+    static AxdrData structure(final AxdrData... elements) {
+        return structure(Arrays.asList(elements));
+    }
+
+    static AxdrData structure(final List<AxdrData> elements) {
+        return new AxdrData(STRUCTURE, 0, null, Collections.unmodifiableList(new ArrayList<>(elements)));
+    }
+
+    static AxdrData bool(final boolean value) {
+        return new AxdrData(BOOLEAN, value ? 1 : 0, null, null);
+    }
+
+    /**
+     * @param bytes
+     *            the bits, the first bit being the most significant bit of
+     *            the first byte.
+     */
+    static AxdrData bitString(final byte[] bytes, final int numberOfBits) {
+        return new AxdrData(BIT_STRING, numberOfBits, bytes.clone(), null);
+    }
+
+    static AxdrData doubleLong(final int value) {
+        return new AxdrData(DOUBLE_LONG, value, null, null);
+    }
+
+    static AxdrData doubleLongUnsigned(final long value) {
+        return new AxdrData(DOUBLE_LONG_UNSIGNED, value & 0xFFFFFFFFL, null, null);
+    }
+
+    static AxdrData octetString(final byte[] value) {
+        return new AxdrData(OCTET_STRING, 0, value.clone(), null);
+    }
+
+    static AxdrData visibleString(final String value) {
+        return new AxdrData(VISIBLE_STRING, 0, value.getBytes(StandardCharsets.US_ASCII), null);
+    }
+
+    static AxdrData integer(final int value) {
+        return new AxdrData(INTEGER, (byte) value, null, null);
+    }
+
+    static AxdrData longInteger(final int value) {
+        return new AxdrData(LONG, (short) value, null, null);
+    }
+
+    static AxdrData unsigned(final int value) {
+        return new AxdrData(UNSIGNED, value & 0xFF, null, null);
+    }
+
+    static AxdrData longUnsigned(final int value) {
+        return new AxdrData(LONG_UNSIGNED, value & 0xFFFF, null, null);
+    }
+
+    static AxdrData long64(final long value) {
+        return new AxdrData(LONG64, value, null, null);
+    }
+
+    static AxdrData enumerate(final int value) {
+        return new AxdrData(ENUM, value & 0xFF, null, null);
+    }
+
+    int getTag() {
+        return this.tag;
+    }
+
+    boolean isNull() {
+        return this.tag == NULL_DATA;
+    }
+
+    /**
+     * @return the value of a boolean, integer or enum type.
+     */
+    long asLong() {
+        return this.number;
+    }
+
+    /**
+     * @return the value of a string, date or float type.
+     */
+    byte[] getBytes() {
+        return this.bytes.clone();
+    }
+
+    /**
+     * @return the elements of an array or structure.
+     */
+    List<AxdrData> getElements() {
+        return this.elements;
+    }
+
+    AxdrData get(final int index) {
+        return this.elements.get(index);
+    }
+
+    byte[] encode() {
+        final ApduWriter writer = new ApduWriter();
+        this.encode(writer);
+        return writer.toByteArray();
+    }
+
+    void encode(final ApduWriter writer) {
+        writer.u8(this.tag);
+        switch (this.tag) {
+        case NULL_DATA:
+            break;
+        case ARRAY:
+        case STRUCTURE:
+            writer.length(this.elements.size());
+            for (final AxdrData element : this.elements) {
+                element.encode(writer);
+            }
+            break;
+        case BIT_STRING:
+            writer.length((int) this.number).bytes(this.bytes);
+            break;
+        case OCTET_STRING:
+        case VISIBLE_STRING:
+        case UTF8_STRING:
+            writer.octetString(this.bytes);
+            break;
+        case BOOLEAN:
+        case BCD:
+        case INTEGER:
+        case UNSIGNED:
+        case ENUM:
+            writer.u8((int) this.number);
+            break;
+        case LONG:
+        case LONG_UNSIGNED:
+            writer.u16((int) this.number);
+            break;
+        case DOUBLE_LONG:
+        case DOUBLE_LONG_UNSIGNED:
+            writer.u32(this.number);
+            break;
+        case LONG64:
+        case LONG64_UNSIGNED:
+            writer.u64(this.number);
+            break;
+        default:
+            writer.bytes(this.bytes);
+            break;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             for an unknown type tag.
+     */
+    static AxdrData decode(final ApduReader reader) {
+        final int tag = reader.u8();
+        switch (tag) {
+        case NULL_DATA:
+            return NULL;
+        case ARRAY:
+        case STRUCTURE:
+            final int size = reader.length();
+            final List<AxdrData> elements = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                elements.add(decode(reader));
+            }
+            return new AxdrData(tag, 0, null, Collections.unmodifiableList(elements));
+        case BIT_STRING:
+            final int numberOfBits = reader.length();
+            return new AxdrData(tag, numberOfBits, reader.bytes((numberOfBits + 7) / 8), null);
+        case OCTET_STRING:
+        case VISIBLE_STRING:
+        case UTF8_STRING:
+            return new AxdrData(tag, 0, reader.octetString(), null);
+        case BOOLEAN:
+        case BCD:
+        case UNSIGNED:
+        case ENUM:
+            return new AxdrData(tag, reader.u8(), null, null);
+        case INTEGER:
+            return new AxdrData(tag, (byte) reader.u8(), null, null);
+        case LONG:
+            return new AxdrData(tag, (short) reader.u16(), null, null);
+        case LONG_UNSIGNED:
+            return new AxdrData(tag, reader.u16(), null, null);
+        case DOUBLE_LONG:
+            return new AxdrData(tag, (int) reader.u32(), null, null);
+        case DOUBLE_LONG_UNSIGNED:
+            return new AxdrData(tag, reader.u32(), null, null);
+        case LONG64:
+        case LONG64_UNSIGNED:
+            return new AxdrData(tag, reader.u64(), null, null);
+        case FLOAT32:
+        case TIME:
+            return new AxdrData(tag, 0, reader.bytes(4), null);
+        case FLOAT64:
+            return new AxdrData(tag, 0, reader.bytes(8), null);
+        case DATE_TIME:
+            return new AxdrData(tag, 0, reader.bytes(12), null);
+        case DATE:
+            return new AxdrData(tag, 0, reader.bytes(5), null);
+        default:
+            throw new IllegalArgumentException("Unknown data type tag: " + tag);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (this.elements != null) {
+            return (this.tag == ARRAY ? "array" : "structure") + this.elements;
+        }
+        if (this.bytes != null) {
+            return this.tag + ":" + Arrays.toString(this.bytes);
+        }
+        return this.tag + ":" + this.number;
+    }
+}
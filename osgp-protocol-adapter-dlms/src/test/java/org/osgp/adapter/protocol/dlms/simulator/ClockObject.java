@@ -0,0 +1,99 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The clock (class 8) of a virtual meter. The meter runs on UTC, at an
+ * offset from the system clock that is changed by setting its time.
+ */
+class ClockObject extends CosemObject {
+
+    private static final int NOT_SPECIFIED = 0xFF;
+    private static final int DEVIATION_NOT_SPECIFIED = 0x8000;
+
+    private volatile long offsetMillis;
+
+    private volatile AxdrData timeZone = AxdrData.longInteger(-60);
+    private volatile AxdrData daylightSavingsBegin = AxdrData
+            .octetString(new byte[] { (byte) 0xFF, (byte) 0xFF, 3, (byte) 0xFE, 7, 2, 0, 0, 0, (byte) 0x80, 0, 0 });
+    private volatile AxdrData daylightSavingsEnd = AxdrData
+            .octetString(new byte[] { (byte) 0xFF, (byte) 0xFF, 10, (byte) 0xFE, 7, 3, 0, 0, 0, (byte) 0x80, 0, 0 });
+    private volatile AxdrData daylightSavingsDeviation = AxdrData.integer(60);
+    private volatile AxdrData daylightSavingsEnabled = AxdrData.bool(true);
+
+    ClockObject() {
+        super(8, 0, "0.0.1.0.0.255");
+        this.writable(2, selection -> dateTime(this.now()), value -> this.offsetMillis = parseDateTime(value)
+                - System.currentTimeMillis());
+        this.writable(3, selection -> this.timeZone, value -> this.timeZone = value);
+        this.readable(4, selection -> AxdrData.unsigned(0));
+        this.writable(5, selection -> this.daylightSavingsBegin, value -> this.daylightSavingsBegin = value);
+        this.writable(6, selection -> this.daylightSavingsEnd, value -> this.daylightSavingsEnd = value);
+        this.writable(7, selection -> this.daylightSavingsDeviation, value -> this.daylightSavingsDeviation = value);
+        this.writable(8, selection -> this.daylightSavingsEnabled, value -> this.daylightSavingsEnabled = value);
+        this.readable(9, selection -> AxdrData.enumerate(1));
+    }
+
+    long now() {
+        return System.currentTimeMillis() + this.offsetMillis;
+    }
+
+    /**
+     * @return the date-time as an octet string in UTC, as meters send it.
+     */
+    static AxdrData dateTime(final long epochMillis) {
+        final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+        return AxdrData.octetString(new ApduWriter().u16(dateTime.getYear()).u8(dateTime.getMonthValue())
+                .u8(dateTime.getDayOfMonth()).u8(dateTime.getDayOfWeek().getValue()).u8(dateTime.getHour())
+                .u8(dateTime.getMinute()).u8(dateTime.getSecond()).u8(dateTime.getNano() / 10000000).u16(0).u8(0)
+                .toByteArray());
+    }
+
+    /**
+     * Parses a date-time sent as octet string or as date-time type, in local
+     * time with the deviation from UTC in minutes.
+     *
+     * @throws DataAccessException
+     *             when the value is not a fully specified date-time.
+     */
+    static long parseDateTime(final AxdrData value) throws DataAccessException {
+        if (value.getTag() != AxdrData.OCTET_STRING && value.getTag() != AxdrData.DATE_TIME) {
+            throw new DataAccessException(DataAccessException.TYPE_UNMATCHED);
+        }
+        final byte[] bytes = value.getBytes();
+        if (bytes.length != 12) {
+            throw new DataAccessException(DataAccessException.TYPE_UNMATCHED);
+        }
+        final ApduReader reader = new ApduReader(bytes);
+        final int year = reader.u16();
+        final int month = reader.u8();
+        final int day = reader.u8();
+        reader.u8();
+        final int hour = reader.u8();
+        final int minute = reader.u8();
+        final int second = reader.u8();
+        final int hundredths = reader.u8();
+        final int deviation = reader.u16();
+        if (year == 0xFFFF || month > 12 || day > 31 || hour == NOT_SPECIFIED || minute == NOT_SPECIFIED) {
+            throw new DataAccessException(DataAccessException.SCOPE_OF_ACCESS_VIOLATED);
+        }
+        final LocalDateTime local = LocalDateTime.of(year, month, day, hour, minute,
+                second == NOT_SPECIFIED ? 0 : second, hundredths == NOT_SPECIFIED ? 0 : hundredths * 10000000);
+        final long localMillis = local.toInstant(ZoneOffset.UTC).toEpochMilli();
+        if (deviation == DEVIATION_NOT_SPECIFIED) {
+            return localMillis;
+        }
+        // The deviation is that of local time to UTC: UTC = local + deviation.
+        return localMillis + TimeUnit.MINUTES.toMillis((short) deviation);
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A COSEM interface object of a virtual meter: its attributes and methods.
+ * Attribute 1, the logical name, is there for every object.
+ */
+class CosemObject {
+
+    interface AttributeReader {
+        AxdrData read(AccessSelection selection) throws DataAccessException;
+    }
+
+    interface AttributeWriter {
+        void write(AxdrData value) throws DataAccessException;
+    }
+
+    interface MethodInvoker {
+        /**
+         * @return the return parameters, or {@code null} if there are none.
+         */
+        AxdrData invoke(AxdrData parameters) throws DataAccessException;
+    }
+
+    /**
+     * Selective access to an attribute: the access selector and its
+     * parameters.
+     */
+    static final class AccessSelection {
+        private final int selector;
+        private final AxdrData parameters;
+
+        AccessSelection(final int selector, final AxdrData parameters) {
+            this.selector = selector;
+            this.parameters = parameters;
+        }
+
+        int getSelector() {
+            return this.selector;
+        }
+
+        AxdrData getParameters() {
+            return this.parameters;
+        }
+    }
+
+    private final int classId;
+    private final int version;
+    private final byte[] logicalName;
+
+    private final Map<Integer, AttributeReader> readers = new TreeMap<>();
+    private final Map<Integer, AttributeWriter> writers = new TreeMap<>();
+    private final Map<Integer, MethodInvoker> methods = new TreeMap<>();
+
+    CosemObject(final int classId, final int version, final String logicalName) {
+        this.classId = classId;
+        this.version = version;
+        this.logicalName = obisBytes(logicalName);
+        final AxdrData logicalNameData = AxdrData.octetString(this.logicalName);
+        this.readable(1, selection -> logicalNameData);
+    }
+
+    static byte[] obisBytes(final String obisCode) {
+        final String[] parts = obisCode.split("\\.");
+        if (parts.length != 6) {
+            throw new IllegalArgumentException("Not an OBIS code: " + obisCode);
+        }
+        final byte[] bytes = new byte[6];
+        for (int i = 0; i < 6; i++) {
+            bytes[i] = (byte) Integer.parseInt(parts[i]);
+        }
+        return bytes;
+    }
+
+    final CosemObject readable(final int attributeId, final AttributeReader reader) {
+        this.readers.put(attributeId, reader);
+        return this;
+    }
+
+    final CosemObject writable(final int attributeId, final AttributeReader reader, final AttributeWriter writer) {
+        this.readers.put(attributeId, reader);
+        this.writers.put(attributeId, writer);
+        return this;
+    }
+
+    final CosemObject method(final int methodId, final MethodInvoker invoker) {
+        this.methods.put(methodId, invoker);
+        return this;
+    }
+
+    int getClassId() {
+        return this.classId;
+    }
+
+    int getVersion() {
+        return this.version;
+    }
+
+    byte[] getLogicalName() {
+        return this.logicalName.clone();
+    }
+
+    Set<Integer> getAttributeIds() {
+        return this.readers.keySet();
+    }
+
+    boolean isWritable(final int attributeId) {
+        return this.writers.containsKey(attributeId);
+    }
+
+    /**
+     * @return whether the attribute can be read with selective access.
+     */
+    boolean isSelectable(final int attributeId) {
+        return false;
+    }
+
+    Set<Integer> getMethodIds() {
+        return this.methods.keySet();
+    }
+
+    AxdrData get(final int attributeId, final AccessSelection selection) throws DataAccessException {
+        final AttributeReader reader = this.readers.get(attributeId);
+        if (reader == null) {
+            throw new DataAccessException(DataAccessException.OBJECT_UNDEFINED);
+        }
+        return reader.read(selection);
+    }
+
+    void set(final int attributeId, final AxdrData value) throws DataAccessException {
+        final AttributeWriter writer = this.writers.get(attributeId);
+        if (writer == null) {
+            throw new DataAccessException(this.readers.containsKey(attributeId) ? DataAccessException.READ_WRITE_DENIED
+                    : DataAccessException.OBJECT_UNDEFINED);
+        }
+        writer.write(value);
+    }
+
+    AxdrData invoke(final int methodId, final AxdrData parameters) throws DataAccessException {
+        final MethodInvoker invoker = this.methods.get(methodId);
+        if (invoker == null) {
+            throw new DataAccessException(DataAccessException.OBJECT_UNDEFINED);
+        }
+        return invoker.invoke(parameters);
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+/**
+ * Failure to access an attribute or invoke a method, with the data access
+ * (or action) result code that is returned to the client.
+ */
+class DataAccessException extends Exception {
+
+    static final int TEMPORARY_FAILURE = 2;
+    static final int READ_WRITE_DENIED = 3;
+    static final int OBJECT_UNDEFINED = 4;
+    static final int OBJECT_UNAVAILABLE = 11;
+    static final int TYPE_UNMATCHED = 12;
+    static final int SCOPE_OF_ACCESS_VIOLATED = 13;
+    static final int DATA_BLOCK_NUMBER_INVALID = 19;
+    static final int OTHER_REASON = 250;
+
+    private static final long serialVersionUID = 2390181386128757812L;
+
+    private final int resultCode;
+
+    DataAccessException(final int resultCode) {
+        super("Data access result " + resultCode);
+        this.resultCode = resultCode;
+    }
+
+    int getResultCode() {
+        return this.resultCode;
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * The AES-GCM-128 security suite of DLMS: authenticated encryption of APDUs,
+ * the GMAC of HLS5 authentication and unwrapping of transferred keys.
+ */
+final class DlmsCipher {
+
+    static final int AUTHENTICATED_AND_ENCRYPTED = 0x30;
+    static final int AUTHENTICATED = 0x10;
+
+    private static final int TAG_LENGTH_BITS = 96;
+
+    private DlmsCipher() {
+        // Only static methods.
+    }
+
+    /**
+     * @return the ciphertext followed by the authentication tag.
+     */
+    static byte[] encrypt(final byte[] encryptionKey, final byte[] authenticationKey, final byte[] systemTitle,
+            final long invocationCounter, final byte[] plaintext) throws GeneralSecurityException {
+        final Cipher cipher = gcm(Cipher.ENCRYPT_MODE, encryptionKey, systemTitle, invocationCounter);
+        cipher.updateAAD(new ApduWriter().u8(AUTHENTICATED_AND_ENCRYPTED).bytes(authenticationKey).toByteArray());
+        return cipher.doFinal(plaintext);
+    }
+
+    /**
+     * @throws GeneralSecurityException
+     *             when the authentication tag does not match.
+     */
+    static byte[] decrypt(final byte[] encryptionKey, final byte[] authenticationKey, final byte[] systemTitle,
+            final long invocationCounter, final byte[] ciphertext) throws GeneralSecurityException {
+        final Cipher cipher = gcm(Cipher.DECRYPT_MODE, encryptionKey, systemTitle, invocationCounter);
+        cipher.updateAAD(new ApduWriter().u8(AUTHENTICATED_AND_ENCRYPTED).bytes(authenticationKey).toByteArray());
+        return cipher.doFinal(ciphertext);
+    }
+
+    /**
+     * @return the authentication tag over the challenge, as HLS5 uses it.
+     */
+    static byte[] gmac(final byte[] encryptionKey, final byte[] authenticationKey, final byte[] systemTitle,
+            final long invocationCounter, final byte[] challenge) throws GeneralSecurityException {
+        final Cipher cipher = gcm(Cipher.ENCRYPT_MODE, encryptionKey, systemTitle, invocationCounter);
+        cipher.updateAAD(
+                new ApduWriter().u8(AUTHENTICATED).bytes(authenticationKey).bytes(challenge).toByteArray());
+        return cipher.doFinal();
+    }
+
+    static byte[] unwrapKey(final byte[] masterKey, final byte[] wrappedKey) throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance("AESWrap");
+        cipher.init(Cipher.UNWRAP_MODE, new SecretKeySpec(masterKey, "AES"));
+        final Key key = cipher.unwrap(wrappedKey, "AES", Cipher.SECRET_KEY);
+        return key.getEncoded();
+    }
+
+    private static Cipher gcm(final int mode, final byte[] encryptionKey, final byte[] systemTitle,
+            final long invocationCounter) throws GeneralSecurityException {
+        final byte[] iv = new ApduWriter().bytes(systemTitle).u32(invocationCounter).toByteArray();
+        final Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, new SecretKeySpec(encryptionKey, "AES"), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        return cipher;
+    }
+}
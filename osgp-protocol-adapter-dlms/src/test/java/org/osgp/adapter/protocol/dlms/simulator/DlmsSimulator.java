@@ -0,0 +1,157 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.io.Closeable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFactory;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.channel.group.ChannelGroup;
+import org.jboss.netty.channel.group.DefaultChannelGroup;
+import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.jboss.netty.handler.codec.frame.LengthFieldBasedFrameDecoder;
+import org.jboss.netty.util.HashedWheelTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulates a fleet of DSMR 4.2.2 meters, each listening on its own local
+ * port with the TCP wrapper, for testing the protocol adapter end to end and
+ * under load without hardware. Meters can push alarms and wakeup
+ * notifications to the push notification server of the protocol adapter.
+ * <p>
+ * Run {@link #main(String[])} to start a fleet from the command line:
+ * {@code <meters> <first port> <network profile> <push host:port>}, for
+ * instance {@code 2000 10000 gprs localhost:9598}. Meter {@code i} has serial
+ * number {@code i + 1} and listens on {@code first port + i}.
+ */
+public class DlmsSimulator implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DlmsSimulator.class);
+
+    private static final int WRAPPER_HEADER_LENGTH = 8;
+    private static final int MAX_FRAME_LENGTH = WRAPPER_HEADER_LENGTH + 0xFFFF;
+    private static final int PUSH_THREADS = 4;
+
+    private final List<VirtualMeter> meters;
+    private final NetworkProfile networkProfile;
+    private final PushNotifier pushNotifier;
+    private final ChannelFactory channelFactory;
+    private final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+    private final ChannelGroup channels = new DefaultChannelGroup("dlms-simulator");
+    private final List<Channel> serverChannels = new ArrayList<>();
+
+    /**
+     * Keeps track of accepted connections, to close them with the simulator.
+     */
+    private final ChannelHandler connectionTracker = new SimpleChannelUpstreamHandler() {
+        @Override
+        public void channelOpen(final ChannelHandlerContext ctx, final ChannelStateEvent e) {
+            DlmsSimulator.this.channels.add(e.getChannel());
+            ctx.sendUpstream(e);
+        }
+    };
+
+    DlmsSimulator(final List<VirtualMeter> meters, final NetworkProfile networkProfile,
+            final InetSocketAddress pushDestination) {
+        this.meters = Collections.unmodifiableList(new ArrayList<>(meters));
+        this.networkProfile = networkProfile;
+        this.pushNotifier = new PushNotifier(pushDestination, PUSH_THREADS);
+        this.channelFactory = new NioServerSocketChannelFactory(Executors.newCachedThreadPool(),
+                Executors.newCachedThreadPool());
+        for (final VirtualMeter meter : this.meters) {
+            meter.setPushSender(this.pushNotifier::push);
+        }
+    }
+
+    /**
+     * @return a fleet of meters with serial numbers 1 to {@code count} and
+     *         the default keys.
+     */
+    static List<VirtualMeter> fleet(final int count) {
+        final List<VirtualMeter> meters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            meters.add(VirtualMeter.builder(i + 1L).build());
+        }
+        return meters;
+    }
+
+    /**
+     * Starts listening for every meter on the loopback address.
+     *
+     * @param firstPort
+     *            the port of the first meter, the next meters listening on
+     *            the following ports; or 0 to have every meter listen on an
+     *            ephemeral port.
+     */
+    void start(final int firstPort) {
+        for (int i = 0; i < this.meters.size(); i++) {
+            final VirtualMeter meter = this.meters.get(i);
+            final ServerBootstrap bootstrap = new ServerBootstrap(this.channelFactory);
+            bootstrap.setPipelineFactory(
+                    () -> Channels.pipeline(this.connectionTracker,
+                            new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 6, 2),
+                            new AssociationHandler(meter, this.networkProfile, this.timer)));
+            bootstrap.setOption("child.tcpNoDelay", true);
+            bootstrap.setOption("reuseAddress", true);
+            final Channel channel = bootstrap.bind(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), firstPort == 0 ? 0 : firstPort + i));
+            this.serverChannels.add(channel);
+            this.channels.add(channel);
+        }
+        LOGGER.info("Started {} virtual meters", this.meters.size());
+    }
+
+    List<VirtualMeter> getMeters() {
+        return this.meters;
+    }
+
+    int getPort(final int meterIndex) {
+        return ((InetSocketAddress) this.serverChannels.get(meterIndex).getLocalAddress()).getPort();
+    }
+
+    @Override
+    public void close() {
+        this.channels.close().awaitUninterruptibly();
+        this.channelFactory.releaseExternalResources();
+        this.timer.stop();
+        this.pushNotifier.close();
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        final int numberOfMeters = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final int firstPort = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        final NetworkProfile networkProfile = NetworkProfile.valueOf(args.length > 2 ? args[2] : "local");
+        final String[] push = (args.length > 3 ? args[3] : "localhost:9598").split(":");
+
+        final DlmsSimulator simulator = new DlmsSimulator(fleet(numberOfMeters), networkProfile,
+                new InetSocketAddress(push[0], Integer.parseInt(push[1])));
+        simulator.start(firstPort);
+
+        final CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            simulator.close();
+            stopped.countDown();
+        }));
+        stopped.await();
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmuc.jdlms.AccessResultCode;
+import org.openmuc.jdlms.AttributeAddress;
+import org.openmuc.jdlms.AuthenticationMechanism;
+import org.openmuc.jdlms.DlmsConnection;
+import org.openmuc.jdlms.GetResult;
+import org.openmuc.jdlms.ObisCode;
+import org.openmuc.jdlms.SecuritySuite;
+import org.openmuc.jdlms.SecuritySuite.EncryptionMechanism;
+import org.openmuc.jdlms.TcpConnectionBuilder;
+import org.openmuc.jdlms.datatypes.DataObject;
+
+public class DlmsSimulatorTest {
+
+    private static final AttributeAddress CLOCK_TIME = new AttributeAddress(8, new ObisCode("0.0.1.0.0.255"), 2);
+    private static final AttributeAddress ACTIVE_ENERGY_IMPORT_RATE_1 = new AttributeAddress(3,
+            new ObisCode("1.0.1.8.1.255"), 2);
+    private static final AttributeAddress INTERVAL_VALUES = new AttributeAddress(7, new ObisCode("1.0.99.1.0.255"),
+            2);
+
+    private ServerSocket pushNotificationServer;
+    private DlmsSimulator simulator;
+
+    @Before
+    public void setUp() throws IOException {
+        this.pushNotificationServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.simulator = new DlmsSimulator(DlmsSimulator.fleet(2), NetworkProfile.LOCAL,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), this.pushNotificationServer.getLocalPort()));
+        this.simulator.start(0);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.simulator.close();
+        this.pushNotificationServer.close();
+    }
+
+    @Test
+    public void readsRegisterWithLowLevelSecurity() throws IOException {
+        // Arrange
+        final VirtualMeter meter = this.simulator.getMeters().get(0);
+        final SecuritySuite securitySuite = SecuritySuite.builder()
+                .setAuthenticationMechanism(AuthenticationMechanism.LOW)
+                .setPassword(VirtualMeter.DEFAULT_PASSWORD).build();
+
+        // Act
+        final DlmsConnection connection = this.connect(0).setSecuritySuite(securitySuite).build();
+        final GetResult result;
+        try {
+            result = connection.get(ACTIVE_ENERGY_IMPORT_RATE_1);
+        } finally {
+            connection.close();
+        }
+
+        // Assert
+        assertEquals(AccessResultCode.SUCCESS, result.getResultCode());
+        final long value = result.getResultData().getValue();
+        assertTrue(value <= meter.energy(meter.now(), 1, 1));
+    }
+
+    @Test
+    public void readsClockAndProfileWithHls5() throws IOException {
+        // Arrange
+        final SecuritySuite securitySuite = SecuritySuite.builder()
+                .setAuthenticationKey(VirtualMeter.DEFAULT_AUTHENTICATION_KEY)
+                .setAuthenticationMechanism(AuthenticationMechanism.HLS5_GMAC)
+                .setGlobalUnicastEncryptionKey(VirtualMeter.DEFAULT_ENCRYPTION_KEY)
+                .setEncryptionMechanism(EncryptionMechanism.AES_GMC_128).build();
+
+        // Act
+        final DlmsConnection connection = this.connect(1).setSecuritySuite(securitySuite).setSystemTitle("TST", 1)
+                .setFrameCounter(1).build();
+        final List<GetResult> results;
+        try {
+            results = connection.get(Arrays.asList(CLOCK_TIME, INTERVAL_VALUES));
+        } finally {
+            connection.close();
+        }
+
+        // Assert
+        assertEquals(AccessResultCode.SUCCESS, results.get(0).getResultCode());
+        final byte[] time = results.get(0).getResultData().getValue();
+        assertEquals(12, time.length);
+        assertEquals(AccessResultCode.SUCCESS, results.get(1).getResultCode());
+        final List<DataObject> entries = results.get(1).getResultData().getValue();
+        assertEquals(960, entries.size());
+    }
+
+    @Test
+    public void pushesAlarmToPushNotificationServer() throws IOException {
+        // Arrange
+        final VirtualMeter meter = this.simulator.getMeters().get(0);
+        final byte[] expected = (meter.getDeviceIdentification() + ",").getBytes(StandardCharsets.US_ASCII);
+
+        // Act
+        meter.raiseAlarm(0x00000002);
+
+        // Assert
+        try (final Socket socket = this.pushNotificationServer.accept()) {
+            final byte[] notification = new byte[expected.length + 4];
+            new DataInputStream(socket.getInputStream()).readFully(notification);
+            assertArrayEquals(expected, Arrays.copyOf(notification, expected.length));
+            assertArrayEquals(new byte[] { 0, 0, 0, 2 },
+                    Arrays.copyOfRange(notification, expected.length, notification.length));
+        }
+    }
+
+    private TcpConnectionBuilder connect(final int meterIndex) {
+        return new TcpConnectionBuilder(InetAddress.getLoopbackAddress()).setPort(this.simulator.getPort(meterIndex))
+                .setLogicalDeviceId(1).setClientId(1).setResponseTimeout(10000);
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * The image transfer (class 18) of a virtual meter. Blocks are kept in
+ * memory; verification succeeds when all blocks have been transferred, and
+ * activation hands the image identifier to the meter.
+ */
+class ImageTransfer extends CosemObject {
+
+    static final int NOT_INITIATED = 0;
+    static final int TRANSFER_INITIATED = 1;
+    static final int VERIFICATION_SUCCESSFUL = 3;
+    static final int VERIFICATION_FAILED = 4;
+    static final int ACTIVATION_SUCCESSFUL = 6;
+
+    private final int blockSize;
+    private final Consumer<byte[]> activation;
+
+    private byte[] identifier = new byte[0];
+    private byte[] image = new byte[0];
+    private BitSet transferred = new BitSet();
+    private int numberOfBlocks;
+    private int status = NOT_INITIATED;
+
+    /**
+     * @param activation
+     *            receives the identifier of an image that is activated.
+     */
+    ImageTransfer(final int blockSize, final Consumer<byte[]> activation) {
+        super(18, 0, "0.0.44.0.0.255");
+        this.blockSize = blockSize;
+        this.activation = activation;
+        this.readable(2, selection -> AxdrData.doubleLongUnsigned(blockSize));
+        this.readable(3, selection -> this.transferredBlocks());
+        this.readable(4, selection -> this.firstNotTransferredBlock());
+        this.readable(5, selection -> AxdrData.bool(true));
+        this.readable(6, selection -> this.status());
+        this.readable(7, selection -> this.imageToActivate());
+        this.method(1, this::initiate);
+        this.method(2, this::transferBlock);
+        this.method(3, parameters -> this.verify());
+        this.method(4, parameters -> this.activate());
+    }
+
+    private synchronized AxdrData transferredBlocks() {
+        final byte[] bits = new byte[(this.numberOfBlocks + 7) / 8];
+        for (int block = this.transferred.nextSetBit(0); block >= 0; block = this.transferred.nextSetBit(block + 1)) {
+            bits[block / 8] |= 0x80 >>> (block % 8);
+        }
+        return AxdrData.bitString(bits, this.numberOfBlocks);
+    }
+
+    private synchronized AxdrData firstNotTransferredBlock() {
+        return AxdrData.doubleLongUnsigned(this.transferred.nextClearBit(0));
+    }
+
+    private synchronized AxdrData status() {
+        return AxdrData.enumerate(this.status);
+    }
+
+    private synchronized AxdrData imageToActivate() {
+        return AxdrData.array(Arrays.asList(AxdrData.structure(AxdrData.doubleLongUnsigned(this.image.length),
+                AxdrData.octetString(this.identifier), AxdrData.octetString(new byte[0]))));
+    }
+
+    private synchronized AxdrData initiate(final AxdrData parameters) throws DataAccessException {
+        final long size = parameters.get(1).asLong();
+        if (size <= 0 || size > Integer.MAX_VALUE) {
+            throw new DataAccessException(DataAccessException.OTHER_REASON);
+        }
+        this.identifier = parameters.get(0).getBytes();
+        this.image = new byte[(int) size];
+        this.numberOfBlocks = (int) ((size + this.blockSize - 1) / this.blockSize);
+        this.transferred = new BitSet(this.numberOfBlocks);
+        this.status = TRANSFER_INITIATED;
+        return null;
+    }
+
+    private synchronized AxdrData transferBlock(final AxdrData parameters) throws DataAccessException {
+        final long block = parameters.get(0).asLong();
+        final byte[] value = parameters.get(1).getBytes();
+        if (this.status != TRANSFER_INITIATED) {
+            throw new DataAccessException(DataAccessException.TEMPORARY_FAILURE);
+        }
+        if (block >= this.numberOfBlocks || value.length > this.blockSize) {
+            throw new DataAccessException(DataAccessException.OTHER_REASON);
+        }
+        final int offset = (int) block * this.blockSize;
+        System.arraycopy(value, 0, this.image, offset, Math.min(value.length, this.image.length - offset));
+        this.transferred.set((int) block);
+        return null;
+    }
+
+    private synchronized AxdrData verify() throws DataAccessException {
+        if (this.transferred.cardinality() < this.numberOfBlocks || this.numberOfBlocks == 0) {
+            this.status = VERIFICATION_FAILED;
+            throw new DataAccessException(DataAccessException.OTHER_REASON);
+        }
+        this.status = VERIFICATION_SUCCESSFUL;
+        return null;
+    }
+
+    private synchronized AxdrData activate() throws DataAccessException {
+        if (this.status != VERIFICATION_SUCCESSFUL) {
+            throw new DataAccessException(DataAccessException.OTHER_REASON);
+        }
+        this.activation.accept(this.identifier);
+        this.status = ACTIVATION_SUCCESSFUL;
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.util.Collections;
+
+/**
+ * An M-Bus client setup (class 72, version 1) of a virtual meter: one channel
+ * to which a gas meter can be coupled. An identification number of 0 means
+ * no M-Bus device is coupled.
+ */
+class MbusClient extends CosemObject {
+
+    private static final int NO_ENCRYPTION_KEY = 0;
+    private static final int ENCRYPTION_KEY_SET = 1;
+    private static final int ENCRYPTION_KEY_TRANSFERRED = 2;
+    private static final int ENCRYPTION_KEY_SET_AND_TRANSFERRED = 3;
+
+    private volatile AxdrData primaryAddress;
+    private volatile AxdrData identificationNumber;
+    private volatile AxdrData manufacturerId;
+    private volatile AxdrData version;
+    private volatile AxdrData deviceType;
+    private volatile int encryptionKeyStatus = NO_ENCRYPTION_KEY;
+
+    MbusClient(final int channel, final long identificationNumber, final int manufacturerId) {
+        super(72, 1, "0." + channel + ".24.1.0.255");
+        final boolean coupled = identificationNumber != 0;
+        this.primaryAddress = AxdrData.unsigned(coupled ? channel : 0);
+        this.identificationNumber = AxdrData.doubleLongUnsigned(identificationNumber);
+        this.manufacturerId = AxdrData.longUnsigned(coupled ? manufacturerId : 0);
+        this.version = AxdrData.unsigned(coupled ? 0x50 : 0);
+        this.deviceType = AxdrData.unsigned(coupled ? 0x03 : 0);
+
+        this.readable(2, selection -> AxdrData.octetString(obisBytes("0.0.24.6.0.255")));
+        this.readable(3, selection -> AxdrData.array(Collections.emptyList()));
+        this.readable(4, selection -> AxdrData.doubleLongUnsigned(3600));
+        this.writable(5, selection -> this.primaryAddress, value -> this.primaryAddress = value);
+        this.writable(6, selection -> this.identificationNumber, value -> this.identificationNumber = value);
+        this.writable(7, selection -> this.manufacturerId, value -> this.manufacturerId = value);
+        this.writable(8, selection -> this.version, value -> this.version = value);
+        this.writable(9, selection -> this.deviceType, value -> this.deviceType = value);
+        this.readable(10, selection -> AxdrData.unsigned(0));
+        this.readable(11, selection -> AxdrData.unsigned(0));
+        this.readable(12, selection -> AxdrData.unsigned(0));
+        this.readable(13, selection -> AxdrData.longUnsigned(0));
+        this.readable(14, selection -> AxdrData.enumerate(this.encryptionKeyStatus));
+
+        this.method(1, parameters -> {
+            this.primaryAddress = AxdrData.unsigned((int) parameters.asLong());
+            return null;
+        });
+        this.method(2, parameters -> {
+            this.primaryAddress = AxdrData.unsigned(0);
+            this.encryptionKeyStatus = NO_ENCRYPTION_KEY;
+            return null;
+        });
+        this.method(7, parameters -> {
+            this.encryptionKeyStatus = ENCRYPTION_KEY_SET;
+            return null;
+        });
+        this.method(8, parameters -> {
+            this.encryptionKeyStatus = this.encryptionKeyStatus == ENCRYPTION_KEY_SET
+                    ? ENCRYPTION_KEY_SET_AND_TRANSFERRED : ENCRYPTION_KEY_TRANSFERRED;
+            return null;
+        });
+    }
+}
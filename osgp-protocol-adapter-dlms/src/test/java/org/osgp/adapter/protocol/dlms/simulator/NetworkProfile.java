@@ -0,0 +1,71 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The network between the protocol adapter and the virtual meters: a base
+ * latency with uniform jitter on every response, and packet loss. Since the
+ * meters talk TCP, a lost packet is not seen as a lost response but as the
+ * delay of its retransmission, which doubles with every retry.
+ */
+final class NetworkProfile {
+
+    static final NetworkProfile LOCAL = new NetworkProfile(0, 0, 0);
+    static final NetworkProfile GPRS = new NetworkProfile(600, 400, 0.02);
+    static final NetworkProfile CDMA = new NetworkProfile(250, 150, 0.01);
+
+    private static final long INITIAL_RETRANSMISSION_TIMEOUT = 1000;
+    private static final int MAX_RETRANSMISSIONS = 6;
+
+    private final long latency;
+    private final long jitter;
+    private final double loss;
+
+    /**
+     * @param latency
+     *            the base delay of a response, in milliseconds.
+     * @param jitter
+     *            the maximum extra delay of a response, in milliseconds.
+     * @param loss
+     *            the probability that a packet is lost.
+     */
+    NetworkProfile(final long latency, final long jitter, final double loss) {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.loss = loss;
+    }
+
+    static NetworkProfile valueOf(final String name) {
+        switch (name.toLowerCase()) {
+        case "local":
+            return LOCAL;
+        case "gprs":
+            return GPRS;
+        case "cdma":
+            return CDMA;
+        default:
+            throw new IllegalArgumentException("Unknown network profile: " + name);
+        }
+    }
+
+    /**
+     * @return the delay of the next response, in milliseconds.
+     */
+    long nextDelay() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = this.latency + (this.jitter > 0 ? random.nextLong(this.jitter + 1) : 0);
+        long retransmissionTimeout = INITIAL_RETRANSMISSION_TIMEOUT;
+        for (int retry = 0; retry < MAX_RETRANSMISSIONS && random.nextDouble() < this.loss; retry++) {
+            delay += retransmissionTimeout;
+            retransmissionTimeout *= 2;
+        }
+        return delay;
+    }
+}
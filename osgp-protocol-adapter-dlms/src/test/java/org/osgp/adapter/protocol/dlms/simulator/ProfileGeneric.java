@@ -0,0 +1,186 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * A profile generic (class 7) of a virtual meter. The buffer is not stored:
+ * its entries are generated for the capture times up to the meter's clock,
+ * so a meter always has a full buffer of {@code depth} entries. Selective
+ * access by range (selector 1) and by entry (selector 2) is supported.
+ */
+class ProfileGeneric extends CosemObject {
+
+    /**
+     * The value of a capture object at a capture time.
+     */
+    interface ColumnValue {
+        AxdrData at(long captureTime);
+    }
+
+    private static final class Column {
+        private final int classId;
+        private final byte[] logicalName;
+        private final int attributeId;
+        private final ColumnValue value;
+
+        Column(final int classId, final String logicalName, final int attributeId, final ColumnValue value) {
+            this.classId = classId;
+            this.logicalName = obisBytes(logicalName);
+            this.attributeId = attributeId;
+            this.value = value;
+        }
+
+        boolean matches(final AxdrData captureObjectDefinition) {
+            return this.classId == captureObjectDefinition.get(0).asLong()
+                    && Arrays.equals(this.logicalName, captureObjectDefinition.get(1).getBytes())
+                    && this.attributeId == captureObjectDefinition.get(2).asLong();
+        }
+
+        AxdrData definition() {
+            return AxdrData.structure(AxdrData.longUnsigned(this.classId), AxdrData.octetString(this.logicalName),
+                    AxdrData.integer(this.attributeId), AxdrData.longUnsigned(0));
+        }
+    }
+
+    private final List<Column> columns = new ArrayList<>();
+    private final long capturePeriod;
+    private final int depth;
+    private final LongSupplier clock;
+
+    /**
+     * @param capturePeriod
+     *            the capture period in seconds, or 0 for a profile captured
+     *            at the start of every month.
+     * @param clock
+     *            the meter's clock, in epoch milliseconds.
+     */
+    ProfileGeneric(final String logicalName, final long capturePeriod, final int depth, final LongSupplier clock) {
+        super(7, 1, logicalName);
+        this.capturePeriod = capturePeriod;
+        this.depth = depth;
+        this.clock = clock;
+        this.readable(2, this::buffer);
+        this.readable(3, selection -> this.captureObjects());
+        this.readable(4, selection -> AxdrData.doubleLongUnsigned(capturePeriod));
+        this.readable(5, selection -> AxdrData.enumerate(1));
+        this.readable(6, selection -> AxdrData.structure(AxdrData.longUnsigned(0), AxdrData.octetString(new byte[6]),
+                AxdrData.integer(0), AxdrData.longUnsigned(0)));
+        this.readable(7, selection -> AxdrData.doubleLongUnsigned(depth));
+        this.readable(8, selection -> AxdrData.doubleLongUnsigned(depth));
+    }
+
+    ProfileGeneric column(final int classId, final String logicalName, final int attributeId,
+            final ColumnValue value) {
+        this.columns.add(new Column(classId, logicalName, attributeId, value));
+        return this;
+    }
+
+    @Override
+    boolean isSelectable(final int attributeId) {
+        return attributeId == 2;
+    }
+
+    /**
+     * @return the capture times of the entries in the buffer, oldest first.
+     */
+    long[] captureTimes(final long now) {
+        final long[] captureTimes = new long[this.depth];
+        if (this.capturePeriod > 0) {
+            final long periodMillis = this.capturePeriod * 1000;
+            final long last = now - now % periodMillis;
+            for (int i = 0; i < this.depth; i++) {
+                captureTimes[i] = last - (this.depth - 1 - i) * periodMillis;
+            }
+        } else {
+            final ZonedDateTime last = ZonedDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneOffset.UTC)
+                    .withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+            for (int i = 0; i < this.depth; i++) {
+                captureTimes[i] = last.minusMonths(this.depth - 1L - i).toInstant().toEpochMilli();
+            }
+        }
+        return captureTimes;
+    }
+
+    private AxdrData captureObjects() {
+        final List<AxdrData> definitions = new ArrayList<>(this.columns.size());
+        for (final Column column : this.columns) {
+            definitions.add(column.definition());
+        }
+        return AxdrData.array(definitions);
+    }
+
+    private AxdrData buffer(final AccessSelection selection) throws DataAccessException {
+        final long[] captureTimes = this.captureTimes(this.clock.getAsLong());
+        int fromEntry = 0;
+        int toEntry = captureTimes.length;
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        List<Column> selectedColumns = this.columns;
+
+        if (selection != null) {
+            final AxdrData parameters = selection.getParameters();
+            try {
+                if (selection.getSelector() == 1) {
+                    from = ClockObject.parseDateTime(parameters.get(1));
+                    to = ClockObject.parseDateTime(parameters.get(2));
+                    selectedColumns = this.selectColumns(parameters.get(3).getElements());
+                } else if (selection.getSelector() == 2) {
+                    fromEntry = Math.max(0, (int) parameters.get(0).asLong() - 1);
+                    final int lastEntry = (int) parameters.get(1).asLong();
+                    toEntry = lastEntry == 0 ? captureTimes.length : Math.min(captureTimes.length, lastEntry);
+                    final int fromColumn = Math.max(0, (int) parameters.get(2).asLong() - 1);
+                    final int toColumn = (int) parameters.get(3).asLong();
+                    selectedColumns = this.columns.subList(Math.min(fromColumn, this.columns.size()),
+                            toColumn == 0 ? this.columns.size() : Math.min(this.columns.size(), toColumn));
+                } else {
+                    throw new DataAccessException(DataAccessException.SCOPE_OF_ACCESS_VIOLATED);
+                }
+            } catch (final IndexOutOfBoundsException | IllegalArgumentException | NullPointerException e) {
+                throw new DataAccessException(DataAccessException.TYPE_UNMATCHED);
+            }
+        }
+
+        final List<AxdrData> entries = new ArrayList<>();
+        for (int i = fromEntry; i < toEntry; i++) {
+            final long captureTime = captureTimes[i];
+            if (captureTime < from || captureTime > to) {
+                continue;
+            }
+            final List<AxdrData> values = new ArrayList<>(selectedColumns.size());
+            for (final Column column : selectedColumns) {
+                values.add(column.value.at(captureTime));
+            }
+            entries.add(AxdrData.structure(values));
+        }
+        return AxdrData.array(entries);
+    }
+
+    /**
+     * An empty list of selected values selects all capture objects.
+     */
+    private List<Column> selectColumns(final List<AxdrData> captureObjectDefinitions) throws DataAccessException {
+        if (captureObjectDefinitions.isEmpty()) {
+            return this.columns;
+        }
+        final List<Column> selected = new ArrayList<>(captureObjectDefinitions.size());
+        for (final AxdrData definition : captureObjectDefinitions) {
+            selected.add(this.columns.stream().filter(column -> column.matches(definition)).findFirst()
+                    .orElseThrow(() -> new DataAccessException(DataAccessException.SCOPE_OF_ACCESS_VIOLATED)));
+        }
+        return selected;
+    }
+}
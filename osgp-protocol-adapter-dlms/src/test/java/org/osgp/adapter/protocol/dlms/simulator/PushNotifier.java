@@ -0,0 +1,59 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the push notifications of virtual meters to the push notification
+ * server of the protocol adapter ({@code dlms.port.server}), one connection
+ * per notification as meters do.
+ */
+class PushNotifier implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PushNotifier.class);
+
+    private static final int CONNECT_TIMEOUT = 5000;
+
+    private final InetSocketAddress destination;
+    private final ExecutorService executor;
+
+    PushNotifier(final InetSocketAddress destination, final int threads) {
+        this.destination = destination;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    void push(final byte[] notification) {
+        this.executor.execute(() -> this.send(notification));
+    }
+
+    private void send(final byte[] notification) {
+        try (final Socket socket = new Socket()) {
+            socket.connect(this.destination, CONNECT_TIMEOUT);
+            final OutputStream out = socket.getOutputStream();
+            out.write(notification);
+            out.flush();
+        } catch (final IOException e) {
+            LOGGER.warn("Push notification to {} failed: {}", this.destination, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+}
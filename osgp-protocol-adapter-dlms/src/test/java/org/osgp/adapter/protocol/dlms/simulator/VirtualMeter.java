@@ -0,0 +1,440 @@
+/**
+ * Copyright 2018 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.osgp.adapter.protocol.dlms.simulator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.xml.bind.DatatypeConverter;
+
+/**
+ * A simulated smart meter with the COSEM objects of DSMR 4.2.2 that the
+ * protocol adapter uses. Meter values are derived from the meter's clock and
+ * serial number, so every read of a meter is consistent with earlier reads
+ * without any stored state.
+ */
+final class VirtualMeter {
+
+    static final byte[] DEFAULT_AUTHENTICATION_KEY = DatatypeConverter
+            .parseHexBinary("000102030405060708090A0B0C0D0E0F");
+    static final byte[] DEFAULT_ENCRYPTION_KEY = DatatypeConverter.parseHexBinary("101112131415161718191A1B1C1D1E1F");
+    static final byte[] DEFAULT_MASTER_KEY = DatatypeConverter.parseHexBinary("202122232425262728292A2B2C2D2E2F");
+    static final byte[] DEFAULT_PASSWORD = "12345678".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String MANUFACTURER_ID = "SIM";
+    private static final int MBUS_CHANNELS = 4;
+    private static final int IMAGE_BLOCK_SIZE = 192;
+
+    private static final int KEY_ID_ENCRYPTION = 0;
+    private static final int KEY_ID_AUTHENTICATION = 2;
+
+    private final String deviceIdentification;
+    private final long serialNumber;
+    private final byte[] systemTitle;
+    private final byte[] masterKey;
+    private final byte[] password;
+    private volatile byte[] authenticationKey;
+    private volatile byte[] encryptionKey;
+
+    private final AtomicLong invocationCounter = new AtomicLong();
+    private long clientInvocationCounter;
+
+    private final ClockObject clock = new ClockObject();
+    private final Map<String, CosemObject> objects = new LinkedHashMap<>();
+
+    private volatile long alarmRegister;
+    private volatile long alarmFilter = 0xFFFFFFFFL;
+    private volatile byte[] firmwareVersion = "SIM-1.0".getBytes(StandardCharsets.US_ASCII);
+    private volatile Consumer<byte[]> pushSender = payload -> {
+    };
+
+    private VirtualMeter(final Builder builder) {
+        this.serialNumber = builder.serialNumber;
+        this.deviceIdentification = String.format("E%016d", builder.serialNumber);
+        this.systemTitle = new ApduWriter().bytes(MANUFACTURER_ID.getBytes(StandardCharsets.US_ASCII))
+                .u8((int) (builder.serialNumber >>> 32)).u32(builder.serialNumber).toByteArray();
+        this.authenticationKey = builder.authenticationKey.clone();
+        this.encryptionKey = builder.encryptionKey.clone();
+        this.masterKey = builder.masterKey.clone();
+        this.password = builder.password.clone();
+        this.addObjects();
+    }
+
+    static Builder builder(final long serialNumber) {
+        return new Builder(serialNumber);
+    }
+
+    static final class Builder {
+        private final long serialNumber;
+        private byte[] authenticationKey = DEFAULT_AUTHENTICATION_KEY;
+        private byte[] encryptionKey = DEFAULT_ENCRYPTION_KEY;
+        private byte[] masterKey = DEFAULT_MASTER_KEY;
+        private byte[] password = DEFAULT_PASSWORD;
+
+        private Builder(final long serialNumber) {
+            this.serialNumber = serialNumber;
+        }
+
+        Builder withAuthenticationKey(final byte[] authenticationKey) {
+            this.authenticationKey = authenticationKey;
+            return this;
+        }
+
+        Builder withEncryptionKey(final byte[] encryptionKey) {
+            this.encryptionKey = encryptionKey;
+            return this;
+        }
+
+        Builder withMasterKey(final byte[] masterKey) {
+            this.masterKey = masterKey;
+            return this;
+        }
+
+        Builder withPassword(final byte[] password) {
+            this.password = password;
+            return this;
+        }
+
+        VirtualMeter build() {
+            return new VirtualMeter(this);
+        }
+    }
+
+    String getDeviceIdentification() {
+        return this.deviceIdentification;
+    }
+
+    byte[] getSystemTitle() {
+        return this.systemTitle.clone();
+    }
+
+    byte[] getAuthenticationKey() {
+        return this.authenticationKey.clone();
+    }
+
+    byte[] getEncryptionKey() {
+        return this.encryptionKey.clone();
+    }
+
+    boolean isPassword(final byte[] password) {
+        return Arrays.equals(this.password, password);
+    }
+
+    long nextInvocationCounter() {
+        return this.invocationCounter.incrementAndGet();
+    }
+
+    /**
+     * Accepts the invocation counter of a ciphered request only if it is
+     * higher than any accepted before, as meters protect against replay.
+     */
+    synchronized boolean acceptClientInvocationCounter(final long clientInvocationCounter) {
+        if (clientInvocationCounter <= this.clientInvocationCounter) {
+            return false;
+        }
+        this.clientInvocationCounter = clientInvocationCounter;
+        return true;
+    }
+
+    private synchronized long getClientInvocationCounter() {
+        return this.clientInvocationCounter;
+    }
+
+    long now() {
+        return this.clock.now();
+    }
+
+    void setPushSender(final Consumer<byte[]> pushSender) {
+        this.pushSender = pushSender;
+    }
+
+    Collection<CosemObject> getObjects() {
+        return this.objects.values();
+    }
+
+    CosemObject find(final int classId, final byte[] logicalName) throws DataAccessException {
+        final CosemObject object = this.objects.get(DatatypeConverter.printHexBinary(logicalName));
+        if (object == null || object.getClassId() != classId) {
+            throw new DataAccessException(DataAccessException.OBJECT_UNDEFINED);
+        }
+        return object;
+    }
+
+    /**
+     * Sets alarm bits in the alarm register, and pushes the alarm if any of
+     * them passes the alarm filter.
+     */
+    void raiseAlarm(final long alarmBits) {
+        this.alarmRegister |= alarmBits;
+        if ((alarmBits & this.alarmFilter) != 0) {
+            this.push(new ApduWriter().u32(alarmBits & this.alarmFilter).toByteArray());
+        }
+    }
+
+    /**
+     * Pushes the wakeup notification a meter sends after receiving a wakeup
+     * SMS.
+     */
+    void smsWakeup() {
+        this.push(CosemObject.obisBytes("0.0.2.3.0.255"));
+    }
+
+    private void push(final byte[] data) {
+        this.pushSender.accept(new ApduWriter().bytes(this.deviceIdentification.getBytes(StandardCharsets.US_ASCII))
+                .u8(',').bytes(data).toByteArray());
+    }
+
+    /**
+     * @return the energy register of the meter at the given time, in Wh.
+     *         Tariff 0 is the total of tariffs 1 and 2.
+     */
+    long energy(final long time, final int direction, final int tariff) {
+        if (tariff == 0) {
+            return this.energy(time, direction, 1) + this.energy(time, direction, 2);
+        }
+        final long rate = direction == 1 ? 11 + tariff + this.serialNumber % 5 : 1 + tariff;
+        return time / 36000 * rate;
+    }
+
+    /**
+     * @return the gas volume of the meter on an M-Bus channel, in dm3.
+     */
+    long gasVolume(final long time, final int channel) {
+        return time / 3600000 * (150 + channel * 10 + this.serialNumber % 7);
+    }
+
+    private void add(final CosemObject object) {
+        this.objects.put(DatatypeConverter.printHexBinary(object.getLogicalName()), object);
+    }
+
+    private CosemObject data(final String logicalName, final CosemObject.AttributeReader value) {
+        final CosemObject object = new CosemObject(1, 0, logicalName);
+        object.readable(2, value);
+        this.add(object);
+        return object;
+    }
+
+    private void register(final String logicalName, final int scaler, final int unit,
+            final CosemObject.AttributeReader value) {
+        final CosemObject object = new CosemObject(3, 0, logicalName);
+        object.readable(2, value);
+        object.readable(3, selection -> AxdrData.structure(AxdrData.integer(scaler), AxdrData.enumerate(unit)));
+        this.add(object);
+    }
+
+    private void addObjects() {
+        this.add(this.clock);
+        this.add(this.associationLn());
+        this.add(this.securitySetup());
+        this.data("0.0.43.1.0.255", selection -> AxdrData.doubleLongUnsigned(this.getClientInvocationCounter()));
+        this.data("0.0.96.1.0.255", selection -> AxdrData
+                .octetString(this.deviceIdentification.getBytes(StandardCharsets.US_ASCII)));
+
+        for (int direction = 1; direction <= 2; direction++) {
+            final int d = direction;
+            for (int tariff = 0; tariff <= 2; tariff++) {
+                final int t = tariff;
+                this.register("1.0." + direction + ".8." + tariff + ".255", 0, 30,
+                        selection -> AxdrData.doubleLongUnsigned(this.energy(this.now(), d, t)));
+            }
+            this.register("1.0." + direction + ".7.0.255", 0, 27,
+                    selection -> AxdrData.doubleLongUnsigned(d == 1 ? 800 + this.serialNumber % 400 : 0));
+        }
+
+        this.add(this.electricityProfile("1.0.99.1.0.255", 900, 960, false));
+        this.add(this.electricityProfile("1.0.99.2.0.255", 86400, 40, true));
+        this.add(this.monthlyProfile());
+
+        for (int channel = 1; channel <= MBUS_CHANNELS; channel++) {
+            this.addMbusChannel(channel);
+        }
+
+        this.data("0.0.97.98.0.255", selection -> AxdrData.doubleLongUnsigned(this.alarmRegister)).writable(2,
+                selection -> AxdrData.doubleLongUnsigned(this.alarmRegister),
+                value -> this.alarmRegister &= ~value.asLong());
+        this.data("0.0.97.98.10.255", selection -> AxdrData.doubleLongUnsigned(this.alarmFilter)).writable(2,
+                selection -> AxdrData.doubleLongUnsigned(this.alarmFilter), value -> this.alarmFilter = value.asLong());
+        for (final int log : new int[] { 0, 1, 3, 4 }) {
+            this.add(new ProfileGeneric("0.0.99.98." + log + ".255", 86400, 10, this::now)
+                    .column(8, "0.0.1.0.0.255", 2, ClockObject::dateTime)
+                    .column(1, "0.0.96.11." + log + ".255", 2,
+                            time -> AxdrData.unsigned((int) (time / 86400000 % 20) + 1)));
+        }
+
+        this.add(new ImageTransfer(IMAGE_BLOCK_SIZE, identifier -> this.firmwareVersion = identifier));
+        for (final String firmware : new String[] { "1.0.0.2.0.255", "1.1.0.2.0.255", "1.2.0.2.0.255" }) {
+            this.data(firmware, selection -> AxdrData.octetString(this.firmwareVersion));
+        }
+        final AxdrData[] administrativeStatus = { AxdrData.enumerate(1) };
+        this.data("0.1.94.31.0.255", selection -> administrativeStatus[0]).writable(2,
+                selection -> administrativeStatus[0], value -> administrativeStatus[0] = value);
+
+        this.add(this.pushSetup("0.1.25.9.0.255", "0.0.97.98.0.255"));
+        this.add(this.pushSetup("0.2.25.9.0.255", "0.0.2.3.0.255"));
+    }
+
+    private CosemObject associationLn() {
+        final CosemObject association = new CosemObject(15, 1, "0.0.40.0.0.255");
+        association.readable(2, selection -> this.objectList());
+        association.readable(3, selection -> AxdrData.structure(AxdrData.integer(1), AxdrData.longUnsigned(1)));
+        association.readable(8, selection -> AxdrData.enumerate(2));
+        // Method 1, reply_to_HLS_authentication, is part of the association.
+        return association;
+    }
+
+    private AxdrData objectList() {
+        final List<AxdrData> elements = new ArrayList<>(this.objects.size());
+        for (final CosemObject object : this.objects.values()) {
+            final List<AxdrData> attributeAccess = new ArrayList<>();
+            for (final int attributeId : object.getAttributeIds()) {
+                attributeAccess.add(AxdrData.structure(AxdrData.integer(attributeId),
+                        AxdrData.enumerate(object.isWritable(attributeId) ? 3 : 1),
+                        object.isSelectable(attributeId)
+                                ? AxdrData.array(Arrays.asList(AxdrData.integer(1), AxdrData.integer(2)))
+                                : AxdrData.nullData()));
+            }
+            final List<AxdrData> methodAccess = new ArrayList<>();
+            for (final int methodId : object.getMethodIds()) {
+                methodAccess.add(AxdrData.structure(AxdrData.integer(methodId), AxdrData.bool(true)));
+            }
+            elements.add(AxdrData.structure(AxdrData.longUnsigned(object.getClassId()),
+                    AxdrData.unsigned(object.getVersion()), AxdrData.octetString(object.getLogicalName()),
+                    AxdrData.structure(AxdrData.array(attributeAccess), AxdrData.array(methodAccess))));
+        }
+        return AxdrData.array(elements);
+    }
+
+    private CosemObject securitySetup() {
+        final CosemObject securitySetup = new CosemObject(64, 0, "0.0.43.0.0.255");
+        securitySetup.readable(2, selection -> AxdrData.enumerate(3));
+        securitySetup.readable(3, selection -> AxdrData.enumerate(0));
+        securitySetup.readable(5, selection -> AxdrData.octetString(this.systemTitle));
+        securitySetup.method(2, this::transferKeys);
+        return securitySetup;
+    }
+
+    /**
+     * Replaces the keys that are transferred, wrapped with the master key.
+     * The keys are used from the next association on.
+     */
+    private AxdrData transferKeys(final AxdrData keyData) throws DataAccessException {
+        try {
+            for (final AxdrData key : keyData.getElements()) {
+                final byte[] unwrapped = DlmsCipher.unwrapKey(this.masterKey, key.get(1).getBytes());
+                final int keyId = (int) key.get(0).asLong();
+                if (keyId == KEY_ID_ENCRYPTION) {
+                    this.encryptionKey = unwrapped;
+                } else if (keyId == KEY_ID_AUTHENTICATION) {
+                    this.authenticationKey = unwrapped;
+                } else {
+                    throw new DataAccessException(DataAccessException.OTHER_REASON);
+                }
+            }
+            return null;
+        } catch (final GeneralSecurityException | IndexOutOfBoundsException | NullPointerException e) {
+            throw new DataAccessException(DataAccessException.OTHER_REASON);
+        }
+    }
+
+    private ProfileGeneric electricityProfile(final String logicalName, final long capturePeriod, final int depth,
+            final boolean withTariffs) {
+        final ProfileGeneric profile = new ProfileGeneric(logicalName, capturePeriod, depth, this::now)
+                .column(8, "0.0.1.0.0.255", 2, ClockObject::dateTime)
+                .column(1, withTariffs ? "0.0.96.10.2.255" : "0.0.96.10.1.255", 2, time -> AxdrData.unsigned(0));
+        this.addEnergyColumns(profile, withTariffs);
+        if (withTariffs) {
+            this.addGasColumns(profile);
+        }
+        return profile;
+    }
+
+    private ProfileGeneric monthlyProfile() {
+        final ProfileGeneric profile = new ProfileGeneric("0.0.98.1.0.255", 0, 13, this::now)
+                .column(8, "0.0.1.0.0.255", 2, ClockObject::dateTime);
+        this.addEnergyColumns(profile, true);
+        this.addGasColumns(profile);
+        return profile;
+    }
+
+    private void addEnergyColumns(final ProfileGeneric profile, final boolean withTariffs) {
+        for (int direction = 1; direction <= 2; direction++) {
+            final int d = direction;
+            if (withTariffs) {
+                profile.column(3, "1.0." + direction + ".8.1.255", 2,
+                        time -> AxdrData.doubleLongUnsigned(this.energy(time, d, 1)));
+                profile.column(3, "1.0." + direction + ".8.2.255", 2,
+                        time -> AxdrData.doubleLongUnsigned(this.energy(time, d, 2)));
+            } else {
+                profile.column(3, "1.0." + direction + ".8.0.255", 2,
+                        time -> AxdrData.doubleLongUnsigned(this.energy(time, d, 0)));
+            }
+        }
+    }
+
+    private void addGasColumns(final ProfileGeneric profile) {
+        for (int channel = 1; channel <= MBUS_CHANNELS; channel++) {
+            final int c = channel;
+            profile.column(4, "0." + channel + ".24.2.1.255", 2,
+                    time -> AxdrData.doubleLongUnsigned(this.gasVolume(time, c)));
+            profile.column(4, "0." + channel + ".24.2.1.255", 5, ClockObject::dateTime);
+        }
+    }
+
+    private void addMbusChannel(final int channel) {
+        final long identificationNumber = channel == 1 ? this.serialNumber % 100000000 : 0;
+        this.add(new MbusClient(channel, identificationNumber, 0x12C3));
+        this.data("0." + channel + ".96.1.0.255", selection -> AxdrData.octetString(
+                String.format("G%016d", identificationNumber).getBytes(StandardCharsets.US_ASCII)));
+
+        final CosemObject gasValue = new CosemObject(4, 0, "0." + channel + ".24.2.1.255");
+        gasValue.readable(2, selection -> AxdrData.doubleLongUnsigned(this.gasVolume(this.lastHour(), channel)));
+        gasValue.readable(3, selection -> AxdrData.structure(AxdrData.integer(-3), AxdrData.enumerate(14)));
+        gasValue.readable(4, selection -> AxdrData.unsigned(0));
+        gasValue.readable(5, selection -> ClockObject.dateTime(this.lastHour()));
+        this.add(gasValue);
+
+        this.add(new ProfileGeneric("0." + channel + ".24.3.0.255", 3600, 240, this::now)
+                .column(8, "0.0.1.0.0.255", 2, ClockObject::dateTime)
+                .column(1, "0.0.96.10.3.255", 2, time -> AxdrData.unsigned(0))
+                .column(4, "0." + channel + ".24.2.1.255", 2,
+                        time -> AxdrData.doubleLongUnsigned(this.gasVolume(time, channel)))
+                .column(4, "0." + channel + ".24.2.1.255", 5, ClockObject::dateTime));
+    }
+
+    /**
+     * M-Bus devices send their values hourly.
+     */
+    private long lastHour() {
+        final long now = this.now();
+        return now - now % 3600000;
+    }
+
+    private CosemObject pushSetup(final String logicalName, final String pushedObject) {
+        final AxdrData[] destination = { AxdrData.structure(AxdrData.enumerate(0),
+                AxdrData.octetString("localhost:9598".getBytes(StandardCharsets.US_ASCII)), AxdrData.enumerate(0)) };
+        final AxdrData[] window = { AxdrData.array(new ArrayList<>()) };
+        final CosemObject pushSetup = new CosemObject(40, 0, logicalName);
+        pushSetup.readable(2, selection -> AxdrData.array(Arrays.asList(AxdrData.structure(AxdrData.longUnsigned(1),
+                AxdrData.octetString(CosemObject.obisBytes(pushedObject)), AxdrData.integer(2),
+                AxdrData.longUnsigned(0)))));
+        pushSetup.writable(3, selection -> destination[0], value -> destination[0] = value);
+        pushSetup.writable(4, selection -> window[0], value -> window[0] = value);
+        pushSetup.readable(5, selection -> AxdrData.longUnsigned(0));
+        pushSetup.readable(6, selection -> AxdrData.unsigned(3));
+        pushSetup.readable(7, selection -> AxdrData.longUnsigned(30));
+        return pushSetup;
+    }
+}